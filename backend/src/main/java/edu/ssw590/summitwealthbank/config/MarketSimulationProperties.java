@@ -0,0 +1,58 @@
+package edu.ssw590.summitwealthbank.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings of the market price simulation (app.simulation.*). Sectors are keyed by their name in
+ * lower case with dashes, e.g. app.simulation.sectors.consumer-cyclical.volatility; a sector
+ * without an entry uses app.simulation.defaults.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.simulation")
+@Data
+public class MarketSimulationProperties {
+
+    @Data
+    public static class Sector {
+        /** Expected annual return, e.g. 0.08 for 8% a year. */
+        private double drift = 0.06;
+        /** Annual volatility, e.g. 0.25 for 25% a year. */
+        private double volatility = 0.25;
+        /** Milliseconds between two ticks of a stock. */
+        private long tickMs = 1000;
+    }
+
+    private boolean enabled = false;
+
+    /** Simulated time per real time; 3600 moves prices by an hour of market every second. */
+    private double timeScale = 1;
+
+    private long flushMs = 1000;
+
+    /** Ticks held per symbol until flushed; the oldest are lost when a flush falls behind. */
+    private int bufferCapacity = 4096;
+
+    /** Stored ticks older than this are deleted; 0 keeps them. */
+    private long tickRetentionHours = 24;
+
+    /** Fixed seed for a repeatable run; random when unset. */
+    private Long seed;
+
+    private Sector defaults = new Sector();
+
+    private Map<String, Sector> sectors = new HashMap<>();
+
+    public Sector forSector(String sector) {
+        if (sector == null) {
+            return defaults;
+        }
+        String key = sector.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-");
+        return sectors.getOrDefault(key, defaults);
+    }
+}
@@ -0,0 +1,49 @@
+package edu.ssw590.summitwealthbank.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections for read-only transactions to the replica while ReplicaLagMonitor reports it
+ * as current, and everything else to the primary. Spring Data's implicit read-only transactions
+ * around a single repository call stay on the primary, so read-modify-write code that is not
+ * inside a service transaction never loads a stale row. Must sit behind a LazyConnectionDataSourceProxy:
+ * the read-only flag is only set after the transaction manager has asked for a connection, so
+ * the routing decision has to wait until the first statement.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    /*
+     * Spring Data's implicit transactions are recognised by name only. They come from the class-level
+     * @Transactional(readOnly = true) on SimpleJpaRepository, and TransactionAspectSupport names a
+     * transaction after the target class and method, e.g.
+     * org.springframework.data.jpa.repository.support.SimpleJpaRepository.findAll, for derived and
+     * @Query methods too. A repository call inside a service transaction joins it and keeps the
+     * service's name. ReadReplicaRoutingIntegrationTest fails if Spring Data stops naming them this way.
+     */
+    private static final String REPOSITORY_TRANSACTION_PREFIX = "org.springframework.data.";
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReadReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || !lagMonitor.isReplicaUsable()) {
+            return Route.PRIMARY;
+        }
+
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (name != null && name.startsWith(REPOSITORY_TRANSACTION_PREFIX)) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+}
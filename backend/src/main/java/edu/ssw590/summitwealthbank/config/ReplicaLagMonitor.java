@@ -0,0 +1,57 @@
+package edu.ssw590.summitwealthbank.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Polls the replica's replication lag. Reads fall back to the primary until the first successful
+ * check, whenever the lag exceeds the threshold, and while the replica cannot be reached.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+
+    private volatile boolean usable;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, double maxLagSeconds, MeterRegistry meterRegistry) {
+        this.replica = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+        meterRegistry.gauge("bank.datasource.replica.lag.seconds", this, monitor -> monitor.lagSeconds);
+        meterRegistry.gauge("bank.datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0);
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:5000}")
+    public void check() {
+        boolean nowUsable;
+        try {
+            Double lag = replica.queryForObject(lagQuery, Double.class);
+            lagSeconds = lag == null ? 0 : lag;
+            nowUsable = lagSeconds <= maxLagSeconds;
+        } catch (RuntimeException e) {
+            lagSeconds = Double.NaN;
+            nowUsable = false;
+            if (usable) {
+                log.warn("Replica lag check failed: {}", e.getMessage());
+            }
+        }
+
+        if (nowUsable != usable) {
+            log.info("Read replica {} (lag {} s, threshold {} s)",
+                    nowUsable ? "in use" : "bypassed, reads go to the primary", lagSeconds, maxLagSeconds);
+        }
+        usable = nowUsable;
+    }
+}
@@ -4,12 +4,19 @@ import edu.ssw590.summitwealthbank.dto.AccountOpenRequest;
 import edu.ssw590.summitwealthbank.dto.AddMoneyRequest;
 import edu.ssw590.summitwealthbank.model.Account;
 import edu.ssw590.summitwealthbank.service.AccountService;
+import edu.ssw590.summitwealthbank.service.OptimisticRetryExecutor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/accounts")
@@ -18,6 +25,7 @@ import java.util.List;
 public class AccountController {
 
     private final AccountService accountService;
+    private final OptimisticRetryExecutor retryExecutor;
 
     @GetMapping
     public List<Account> getMyAccounts(Authentication authentication) {
@@ -42,14 +50,30 @@ public class AccountController {
         return accountService.getAccountsByEmail(email);
     }
 
+    @GetMapping("/{accountId}/balance")
+    public ResponseEntity<?> getBalanceAsOf(@PathVariable Long accountId,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf,
+                                            Authentication authentication) {
+        try {
+            String email = authentication.getName();
+            BigDecimal balance = accountService.getBalanceAsOf(accountId, asOf, email);
+            return ResponseEntity.ok(Map.of("accountId", accountId, "asOf", asOf, "balance", balance));
+        } catch (IllegalArgumentException | SecurityException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PostMapping("/deposit")
     public ResponseEntity<?> addMoney(@RequestBody AddMoneyRequest request, Authentication authentication) {
         try {
             String email = authentication.getName();
-            Account account = accountService.addMoney(request.getAccountId(), request.getAmount(), email);
+            Account account = retryExecutor.execute("deposit",
+                    () -> accountService.addMoney(request.getAccountId(), request.getAmount(), email));
             return ResponseEntity.ok(account);
         } catch (IllegalArgumentException | SecurityException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("The account was updated concurrently. Please try again.");
         }
     }
 }
\ No newline at end of file
@@ -3,19 +3,26 @@ package edu.ssw590.summitwealthbank.controller;
 import edu.ssw590.summitwealthbank.dto.AdminActionRequest;
 import edu.ssw590.summitwealthbank.dto.AdminStockCreateRequest;
 import edu.ssw590.summitwealthbank.dto.AdminStockUpdatePriceRequest;
+import edu.ssw590.summitwealthbank.dto.StatementRunStatus;
 import edu.ssw590.summitwealthbank.dto.StockTransactionResponse;
 import edu.ssw590.summitwealthbank.dto.TransactionResponse;
 import edu.ssw590.summitwealthbank.model.Stock;
 import edu.ssw590.summitwealthbank.model.User;
 import edu.ssw590.summitwealthbank.service.AdminService;
 import edu.ssw590.summitwealthbank.service.AdminStockService;
+import edu.ssw590.summitwealthbank.service.OptimisticRetryExecutor;
+import edu.ssw590.summitwealthbank.service.StatementService;
 import edu.ssw590.summitwealthbank.service.StockService;
 import edu.ssw590.summitwealthbank.service.TransferService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @RestController
@@ -28,6 +35,8 @@ public class AdminController {
     private final AdminStockService adminStockService;
     private final TransferService transferService;
     private final StockService stockService;
+    private final StatementService statementService;
+    private final OptimisticRetryExecutor retryExecutor;
 
     @PostMapping("/freeze")
     public void freeze(@RequestBody AdminActionRequest request) {
@@ -67,6 +76,50 @@ public class AdminController {
         return stockService.getAllStockTransactions(limit);
     }
 
+    @GetMapping("/transactions/history")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getTransactionHistory(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(transferService.getAllTransactionsPage(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/stock-transactions/history")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getStockTransactionHistory(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(stockService.getAllStockTransactionsPage(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/statements/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> runStatements(@RequestParam(required = false) String period) {
+        try {
+            YearMonth statementPeriod = period != null ? YearMonth.parse(period) : YearMonth.now().minusMonths(1);
+            StatementRunStatus status = statementService.start(statementPeriod);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Period must be in the format yyyy-MM");
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/statements/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getStatementRunStatus() {
+        return statementService.getLastRun()
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("No statement run has been started"));
+    }
+
     // Stock Management Endpoints
 
     @PostMapping("/stocks/create")
@@ -84,10 +137,14 @@ public class AdminController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> updateStockPrice(@RequestBody AdminStockUpdatePriceRequest request) {
         try {
-            Stock stock = adminStockService.updateStockPrice(request.getSymbol(), request.getNewPrice());
+            // Settled orders and the market simulation also write the price
+            Stock stock = retryExecutor.execute("stock-price-update",
+                    () -> adminStockService.updateStockPrice(request.getSymbol(), request.getNewPrice()));
             return ResponseEntity.ok(stock);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("The price was changed concurrently. Please try again.");
         }
     }
 
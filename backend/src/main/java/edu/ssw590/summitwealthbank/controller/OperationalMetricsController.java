@@ -3,6 +3,7 @@ package edu.ssw590.summitwealthbank.controller;
 import edu.ssw590.summitwealthbank.repository.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -26,6 +27,7 @@ public class OperationalMetricsController {
      * Get operational metrics for dashboard
      */
     @GetMapping("/operational")
+    @Transactional(readOnly = true)
     public ResponseEntity<Map<String, Object>> getOperationalMetrics() {
         Map<String, Object> metrics = new HashMap<>();
 
@@ -1,15 +1,31 @@
 package edu.ssw590.summitwealthbank.controller;
 
 import edu.ssw590.summitwealthbank.dto.*;
+import edu.ssw590.summitwealthbank.model.ConditionalOrder;
 import edu.ssw590.summitwealthbank.model.Stock;
+import edu.ssw590.summitwealthbank.model.StockOrder;
 import edu.ssw590.summitwealthbank.model.StockTransaction;
+import edu.ssw590.summitwealthbank.service.ConditionalOrderService;
+import edu.ssw590.summitwealthbank.service.IdempotencyService;
+import edu.ssw590.summitwealthbank.service.MatchingEngine;
+import edu.ssw590.summitwealthbank.service.OptimisticRetryExecutor;
+import edu.ssw590.summitwealthbank.service.PriceCandleService;
+import edu.ssw590.summitwealthbank.service.PriceStreamService;
+import edu.ssw590.summitwealthbank.service.StockOrderService;
 import edu.ssw590.summitwealthbank.service.StockService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/stocks")
@@ -18,12 +34,42 @@ import java.util.List;
 public class StockController {
 
     private final StockService stockService;
+    private final StockOrderService stockOrderService;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final IdempotencyService idempotencyService;
+    private final MatchingEngine matchingEngine;
+    private final ConditionalOrderService conditionalOrderService;
+    private final PriceStreamService priceStreamService;
+    private final PriceCandleService priceCandleService;
 
     @GetMapping("/available")
     public List<Stock> getAvailableStocks() {
         return stockService.getAvailableStocks();
     }
 
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamPrices() {
+        try {
+            return ResponseEntity.ok(priceStreamService.subscribe());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/{symbol}/candles")
+    public ResponseEntity<?> getCandles(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1m") String interval,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(priceCandleService.getCandles(symbol, interval, from, to, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/portfolio")
     public List<StockPortfolioResponse> getMyPortfolio(Authentication authentication) {
         String email = authentication.getName();
@@ -33,36 +79,150 @@ public class StockController {
     @PostMapping("/buy")
     public ResponseEntity<?> buyStock(
             @RequestBody StockBuyRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
+        String email = authentication.getName();
+        return idempotencyService.execute(idempotencyKey, email, "stock-buy", request, () -> doBuyStock(request, email));
+    }
+
+    private ResponseEntity<?> doBuyStock(StockBuyRequest request, String email) {
         try {
-            String email = authentication.getName();
-            StockTransaction transaction = stockService.buyStock(
+            StockTransaction transaction = retryExecutor.execute("stock-buy", () -> stockService.buyStock(
                     request.getAccountId(),
                     request.getStockSymbol(),
                     request.getQuantity(),
                     email
-            );
+            ));
             return ResponseEntity.ok(transaction);
         } catch (IllegalArgumentException | IllegalStateException | SecurityException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("The stock was traded concurrently. Please try again.");
         }
     }
 
     @PostMapping("/sell")
     public ResponseEntity<?> sellStock(
             @RequestBody StockSellRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
+        String email = authentication.getName();
+        return idempotencyService.execute(idempotencyKey, email, "stock-sell", request, () -> doSellStock(request, email));
+    }
+
+    private ResponseEntity<?> doSellStock(StockSellRequest request, String email) {
         try {
-            String email = authentication.getName();
-            StockTransaction transaction = stockService.sellStock(
+            StockTransaction transaction = retryExecutor.execute("stock-sell", () -> stockService.sellStock(
                     request.getAccountId(),
                     request.getStockSymbol(),
                     request.getQuantity(),
                     email
-            );
+            ));
             return ResponseEntity.ok(transaction);
         } catch (IllegalArgumentException | IllegalStateException | SecurityException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("The stock was traded concurrently. Please try again.");
+        }
+    }
+
+    @PostMapping("/basket")
+    public ResponseEntity<?> executeBasket(
+            @RequestBody StockBasketRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+        String email = authentication.getName();
+        return idempotencyService.execute(idempotencyKey, email, "stock-basket", request, () -> doExecuteBasket(request, email));
+    }
+
+    private ResponseEntity<?> doExecuteBasket(StockBasketRequest request, String email) {
+        try {
+            StockBasketResponse response = retryExecutor.execute("stock-basket",
+                    () -> stockService.executeBasket(request, email));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException | IllegalStateException | SecurityException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("The account or a position was traded concurrently. Please try again.");
+        }
+    }
+
+    @PostMapping("/orders")
+    public ResponseEntity<?> placeOrder(
+            @RequestBody StockOrderRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+        String email = authentication.getName();
+        return idempotencyService.execute(idempotencyKey, email, "stock-order", request, () -> doPlaceOrder(request, email));
+    }
+
+    private ResponseEntity<?> doPlaceOrder(StockOrderRequest request, String email) {
+        try {
+            StockOrder order = matchingEngine.placeOrder(request, email);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(order);
+        } catch (IllegalArgumentException | IllegalStateException | SecurityException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("The position was traded concurrently. Please try again.");
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/orders/{orderId}")
+    public ResponseEntity<?> cancelOrder(@PathVariable Long orderId, Authentication authentication) {
+        try {
+            matchingEngine.cancelOrder(orderId, authentication.getName());
+            return ResponseEntity.accepted().build();
+        } catch (IllegalArgumentException | IllegalStateException | SecurityException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/orders")
+    public List<StockOrder> getMyOrders(Authentication authentication) {
+        return stockOrderService.getUserOrders(authentication.getName());
+    }
+
+    @GetMapping("/orders/book/{symbol}")
+    public ResponseEntity<?> getOrderBook(@PathVariable String symbol, @RequestParam(defaultValue = "10") int levels) {
+        try {
+            return ResponseEntity.ok(matchingEngine.getOrderBook(symbol, levels));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/conditional-orders")
+    public ResponseEntity<?> createConditionalOrder(
+            @RequestBody ConditionalOrderRequest request,
+            Authentication authentication) {
+        try {
+            ConditionalOrder order = conditionalOrderService.create(request, authentication.getName());
+            return ResponseEntity.ok(order);
+        } catch (IllegalArgumentException | IllegalStateException | SecurityException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/conditional-orders")
+    public List<ConditionalOrder> getMyConditionalOrders(Authentication authentication) {
+        return conditionalOrderService.getByEmail(authentication.getName());
+    }
+
+    @DeleteMapping("/conditional-orders/{id}")
+    public ResponseEntity<?> cancelConditionalOrder(@PathVariable Long id, Authentication authentication) {
+        try {
+            ConditionalOrder order = conditionalOrderService.cancel(id, authentication.getName());
+            return ResponseEntity.ok(order);
+        } catch (IllegalArgumentException | IllegalStateException | SecurityException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("The order is executing right now. Please try again.");
         }
     }
 
@@ -74,6 +234,20 @@ public class StockController {
         return stockService.getUserTransactionHistory(email, limit);
     }
 
+    @GetMapping("/transactions/history")
+    public ResponseEntity<?> getMyTransactionHistory(
+            Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            String email = authentication.getName();
+            CursorPage<StockTransactionResponse> page = stockService.getUserTransactionHistoryPage(email, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/transactions/{reference}")
     public ResponseEntity<?> getTransactionByReference(
             @PathVariable String reference,
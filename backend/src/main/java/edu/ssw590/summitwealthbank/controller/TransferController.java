@@ -1,18 +1,36 @@
 package edu.ssw590.summitwealthbank.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ssw590.summitwealthbank.dto.BatchTransferItemResult;
+import edu.ssw590.summitwealthbank.dto.BatchTransferRequest;
+import edu.ssw590.summitwealthbank.dto.BatchTransferResponse;
+import edu.ssw590.summitwealthbank.dto.CursorPage;
+import edu.ssw590.summitwealthbank.dto.ScheduledTransferRequest;
 import edu.ssw590.summitwealthbank.dto.TransactionResponse;
 import edu.ssw590.summitwealthbank.dto.TransferRequest;
+import edu.ssw590.summitwealthbank.model.ScheduledTransfer;
 import edu.ssw590.summitwealthbank.model.Transaction;
+import edu.ssw590.summitwealthbank.service.ExportService;
+import edu.ssw590.summitwealthbank.service.IdempotencyService;
+import edu.ssw590.summitwealthbank.service.OptimisticRetryExecutor;
+import edu.ssw590.summitwealthbank.service.ScheduledTransferService;
+import edu.ssw590.summitwealthbank.service.TransferPipeline;
 import edu.ssw590.summitwealthbank.service.TransferService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequiredArgsConstructor
@@ -20,12 +38,25 @@ import java.util.Map;
 public class TransferController {
 
     private final TransferService transferService;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final IdempotencyService idempotencyService;
+    private final TransferPipeline transferPipeline;
+    private final ScheduledTransferService scheduledTransferService;
+    private final ExportService exportService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/api/transfer")
-    public ResponseEntity<?> transfer(@RequestBody TransferRequest request, Authentication authentication) {
+    public ResponseEntity<?> transfer(
+            @RequestBody TransferRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+        String email = authentication.getName();
+        return idempotencyService.execute(idempotencyKey, email, "transfer", request, () -> doTransfer(request, email));
+    }
+
+    private ResponseEntity<?> doTransfer(TransferRequest request, String email) {
         try {
-            String email = authentication.getName();
-            Transaction transaction = transferService.transfer(request, email);
+            Transaction transaction = retryExecutor.execute("transfer", () -> transferService.transfer(request, email));
             return ResponseEntity.ok(transaction);
         } catch (IllegalArgumentException e) {
             Map<String, String> errorResponse = new HashMap<>();
@@ -39,6 +70,10 @@ public class TransferController {
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("message", e.getMessage());
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+        } catch (OptimisticLockingFailureException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", "The account was updated concurrently. Please try again.");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
         } catch (Exception e) {
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("message", "An unexpected error occurred. Please try again.");
@@ -46,6 +81,122 @@ public class TransferController {
         }
     }
 
+    @PostMapping("/api/transfer/batch")
+    public ResponseEntity<?> transferBatch(
+            @RequestBody BatchTransferRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+        String email = authentication.getName();
+        return idempotencyService.execute(idempotencyKey, email, "transfer-batch", request, () -> doTransferBatch(request, email));
+    }
+
+    private ResponseEntity<?> doTransferBatch(BatchTransferRequest request, String email) {
+        try {
+            BatchTransferResponse response = retryExecutor.execute("transfer-batch",
+                    () -> transferService.transferBatch(request.getTransfers(), email));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (OptimisticLockingFailureException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", "One or more accounts were updated concurrently. Please try again.");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+        } catch (Exception e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", "An unexpected error occurred. Please try again.");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @PostMapping("/api/transfer/async")
+    public ResponseEntity<?> transferAsync(
+            @RequestBody TransferRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+        String email = authentication.getName();
+        return idempotencyService.execute(idempotencyKey, email, "transfer-async", request, () -> doTransferAsync(request, email));
+    }
+
+    private ResponseEntity<?> doTransferAsync(TransferRequest request, String email) {
+        try {
+            TransferPipeline.Submission submission = transferPipeline.submit(request, email);
+            Map<String, String> response = new HashMap<>();
+            response.put("transactionReference", submission.transactionReference());
+            response.put("status", "PENDING");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (SecurityException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+        } catch (RejectedExecutionException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/api/transfer/async/{reference}")
+    public ResponseEntity<?> getAsyncTransferStatus(@PathVariable String reference, Authentication authentication) {
+        try {
+            BatchTransferItemResult result = transferPipeline.getStatus(reference, authentication.getName());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        }
+    }
+
+    @PostMapping("/api/transfer/scheduled")
+    public ResponseEntity<?> createScheduledTransfer(
+            @RequestBody ScheduledTransferRequest request,
+            Authentication authentication) {
+        try {
+            ScheduledTransfer schedule = scheduledTransferService.create(request, authentication.getName());
+            return ResponseEntity.ok(schedule);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (SecurityException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/api/transfer/scheduled")
+    public List<ScheduledTransfer> getScheduledTransfers(Authentication authentication) {
+        return scheduledTransferService.getByEmail(authentication.getName());
+    }
+
+    @DeleteMapping("/api/transfer/scheduled/{id}")
+    public ResponseEntity<?> cancelScheduledTransfer(@PathVariable Long id, Authentication authentication) {
+        try {
+            ScheduledTransfer schedule = scheduledTransferService.cancel(id, authentication.getName());
+            return ResponseEntity.ok(schedule);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        } catch (SecurityException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e instanceof IllegalStateException ? e.getMessage()
+                    : "The scheduled transfer is running right now. Please try again.");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+        }
+    }
+
     @GetMapping("/api/transfer/{accountId}")
     public List<Transaction> getTransactions(@PathVariable Long accountId) {
         return transferService.getTransactions(accountId);
@@ -59,6 +210,73 @@ public class TransferController {
         return transferService.getRecentTransactionsByEmail(email, limit);
     }
 
+    @GetMapping("/api/transactions/history")
+    public ResponseEntity<?> getTransactionHistory(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
+        try {
+            String email = authentication.getName();
+            CursorPage<TransactionResponse> page = transferService.getTransactionHistoryByEmail(email, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
+    // Typed as StreamingResponseBody so Spring streams it; errors are written as the usual JSON message body
+    @GetMapping("/api/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "transfers") String type,
+            @RequestParam(required = false) Long accountId,
+            Authentication authentication) {
+        try {
+            ExportService.Format exportFormat = ExportService.parseFormat(format);
+            ExportService.Type exportType = ExportService.parseType(type);
+            List<Long> accountIds = exportService.resolveAccountIds(authentication.getName(), accountId);
+
+            boolean csv = exportFormat == ExportService.Format.CSV;
+            String filename = exportType.name().toLowerCase() + "-" + LocalDate.now() + (csv ? ".csv" : ".ndjson");
+            StreamingResponseBody body = out -> exportService.export(accountIds, exportType, exportFormat, out);
+
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                    .contentType(csv ? MediaType.parseMediaType("text/csv") : MediaType.parseMediaType("application/x-ndjson"))
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            return exportError(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (SecurityException e) {
+            return exportError(HttpStatus.FORBIDDEN, e.getMessage());
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportError(HttpStatus status, String message) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("message", message);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, errorResponse));
+    }
+
+    @GetMapping("/api/transactions/search/text")
+    public ResponseEntity<?> searchTransactionText(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
+        try {
+            String email = authentication.getName();
+            List<TransactionResponse> transactions = transferService.searchByDescription(q, email, limit);
+            return ResponseEntity.ok(transactions);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
     @GetMapping("/api/transactions/search")
     public ResponseEntity<?> searchTransaction(
             @RequestParam String reference,
@@ -4,13 +4,18 @@ import edu.ssw590.summitwealthbank.dto.RiskScoreRequest;
 import edu.ssw590.summitwealthbank.dto.TotalWealthResponse;
 import edu.ssw590.summitwealthbank.dto.WealthActionRequest;
 import edu.ssw590.summitwealthbank.model.WealthPortfolio;
+import edu.ssw590.summitwealthbank.service.OptimisticRetryExecutor;
 import edu.ssw590.summitwealthbank.service.WealthService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/wealth")
@@ -19,6 +24,7 @@ import java.util.List;
 public class WealthController {
 
     private final WealthService wealthService;
+    private final OptimisticRetryExecutor retryExecutor;
 
     @GetMapping
     public List<WealthPortfolio> getPortfolios(Authentication authentication) {
@@ -33,12 +39,12 @@ public class WealthController {
 
     @PostMapping("/buy")
     public WealthPortfolio buy(@RequestBody WealthActionRequest request) {
-        return wealthService.buy(request);
+        return retryExecutor.execute("wealth-buy", () -> wealthService.buy(request));
     }
 
     @PostMapping("/sell")
     public WealthPortfolio sell(@RequestBody WealthActionRequest request) {
-        return wealthService.sell(request);
+        return retryExecutor.execute("wealth-sell", () -> wealthService.sell(request));
     }
 
     @GetMapping("/value/{accountId}")
@@ -49,7 +55,7 @@ public class WealthController {
     @PostMapping("/invest")
     public WealthPortfolio invest(@RequestBody WealthActionRequest request, Authentication authentication) {
         String email = authentication.getName();
-        return wealthService.buy(request);
+        return retryExecutor.execute("wealth-buy", () -> wealthService.buy(request));
     }
 
     @GetMapping("/total")
@@ -57,4 +63,11 @@ public class WealthController {
         String email = authentication.getName();
         return wealthService.getTotalWealth(email);
     }
-}
\ No newline at end of file
+
+    // buy, sell and invest give up after app.concurrency.max-attempts conflicts; answer 409 like the other controllers
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleConcurrentUpdate(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("message", "The portfolio or account was updated concurrently. Please try again."));
+    }
+}
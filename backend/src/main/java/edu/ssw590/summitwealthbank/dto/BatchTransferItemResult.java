@@ -0,0 +1,18 @@
+package edu.ssw590.summitwealthbank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferItemResult {
+    private int index;
+    private String status;
+    private String transactionReference;
+    private Long transactionId;
+    private String message;
+}
@@ -0,0 +1,10 @@
+package edu.ssw590.summitwealthbank.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchTransferRequest {
+    private List<TransferRequest> transfers;
+}
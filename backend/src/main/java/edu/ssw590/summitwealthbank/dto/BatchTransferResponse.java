@@ -0,0 +1,19 @@
+package edu.ssw590.summitwealthbank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferResponse {
+    private int submitted;
+    private int succeeded;
+    private int failed;
+    private List<BatchTransferItemResult> results;
+}
@@ -0,0 +1,15 @@
+package edu.ssw590.summitwealthbank.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class ConditionalOrderRequest {
+    private Long accountId;
+    private String stockSymbol;
+    private String side;          // BUY or SELL
+    private String triggerType;   // STOP or LIMIT
+    private BigDecimal triggerPrice;
+    private Long quantity;
+}
@@ -0,0 +1,27 @@
+package edu.ssw590.summitwealthbank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBookResponse {
+    private String stockSymbol;
+    private List<Level> bids;
+    private List<Level> asks;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Level {
+        private BigDecimal price;
+        private Long quantity;
+    }
+}
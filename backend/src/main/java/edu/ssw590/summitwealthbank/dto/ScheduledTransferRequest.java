@@ -0,0 +1,16 @@
+package edu.ssw590.summitwealthbank.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class ScheduledTransferRequest {
+    private Long fromAccountId;
+    private Long toAccountId;
+    private BigDecimal amount;
+    private String description;
+    private LocalDateTime startAt;
+    private String frequency;
+}
@@ -0,0 +1,22 @@
+package edu.ssw590.summitwealthbank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementRunStatus {
+    private String period;
+    // RUNNING, COMPLETED or FAILED
+    private String status;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private StatementRunSummary summary;
+    private String message;
+}
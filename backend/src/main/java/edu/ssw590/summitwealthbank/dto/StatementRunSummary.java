@@ -0,0 +1,21 @@
+package edu.ssw590.summitwealthbank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementRunSummary {
+    private String period;
+    private String outputDirectory;
+    private int chunksProcessed;
+    private int chunksSkipped;
+    private long statements;
+    private long rows;
+    private long elapsedMs;
+    private double rowsPerSecond;
+}
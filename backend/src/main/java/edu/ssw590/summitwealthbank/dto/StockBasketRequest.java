@@ -0,0 +1,18 @@
+package edu.ssw590.summitwealthbank.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class StockBasketRequest {
+    private Long accountId;
+    private String side;          // BUY or SELL, for every item
+    private List<Item> items;
+
+    @Data
+    public static class Item {
+        private String stockSymbol;
+        private Long quantity;
+    }
+}
@@ -0,0 +1,21 @@
+package edu.ssw590.summitwealthbank.dto;
+
+import edu.ssw590.summitwealthbank.model.StockTransaction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBasketResponse {
+    private Long accountId;
+    private String side;
+    private BigDecimal totalAmount;
+    private List<StockTransaction> transactions;
+}
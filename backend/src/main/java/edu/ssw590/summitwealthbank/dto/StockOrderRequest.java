@@ -0,0 +1,15 @@
+package edu.ssw590.summitwealthbank.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class StockOrderRequest {
+    private Long accountId;
+    private String stockSymbol;
+    private String side;        // BUY or SELL
+    private String orderType;   // MARKET or LIMIT
+    private BigDecimal limitPrice;
+    private Long quantity;
+}
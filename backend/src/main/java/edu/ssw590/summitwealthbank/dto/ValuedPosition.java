@@ -0,0 +1,20 @@
+package edu.ssw590.summitwealthbank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// A position joined with the current quote of its stock
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ValuedPosition {
+    private Long accountId;
+    private String stockSymbol;
+    private String companyName;
+    private Long totalShares;
+    private BigDecimal averageCostBasis;
+    private BigDecimal currentPrice;
+}
@@ -0,0 +1,15 @@
+package edu.ssw590.summitwealthbank.event;
+
+import java.math.BigDecimal;
+
+/**
+ * Published inside the transaction that changes Stock.currentPrice. Listeners that must only see
+ * committed prices use @TransactionalEventListener(phase = AFTER_COMMIT). recordedAsTick is set
+ * when the publisher already gave the price to PriceCandleService as a tick.
+ */
+public record StockPriceChangedEvent(String symbol, BigDecimal price, boolean recordedAsTick) {
+
+    public StockPriceChangedEvent(String symbol, BigDecimal price) {
+        this(symbol, price, false);
+    }
+}
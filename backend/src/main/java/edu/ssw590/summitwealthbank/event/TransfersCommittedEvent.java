@@ -0,0 +1,12 @@
+package edu.ssw590.summitwealthbank.event;
+
+import edu.ssw590.summitwealthbank.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Published by TransferService inside the settling transaction. Listeners that must only see
+ * committed transfers use @TransactionalEventListener(phase = AFTER_COMMIT).
+ */
+public record TransfersCommittedEvent(List<Transaction> transactions) {
+}
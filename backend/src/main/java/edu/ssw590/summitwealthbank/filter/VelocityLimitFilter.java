@@ -0,0 +1,220 @@
+package edu.ssw590.summitwealthbank.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ssw590.summitwealthbank.service.VelocityLimitService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies VelocityLimitService to money-moving requests. Runs after JwtAuthenticationFilter so
+ * limits are keyed by the authenticated email; anonymous requests pass through and are rejected
+ * by authorization as before. The JSON body is read here to get the amount, so the request is
+ * re-wrapped with the buffered body for the controller; bodies over app.velocity.max-body-bytes
+ * are rejected with 413 rather than buffered.
+ */
+@Component
+@RequiredArgsConstructor
+public class VelocityLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> TRANSFER_PATHS = Set.of("/api/transfer", "/api/transfer/batch", "/api/transfer/async");
+    private static final Set<String> TRADE_PATHS = Set.of("/api/stocks/buy", "/api/stocks/sell", "/api/stocks/orders");
+    private static final String BASKET_PATH = "/api/stocks/basket";
+
+    private final VelocityLimitService velocityLimitService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.velocity.max-body-bytes:1048576}")
+    private int maxBodyBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!velocityLimitService.isEnabled() || !"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String path = path(request);
+        return !TRANSFER_PATHS.contains(path) && !TRADE_PATHS.contains(path) && !BASKET_PATH.equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (request.getContentLengthLong() > maxBodyBytes) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body is too large.");
+            return;
+        }
+        // Chunked bodies have no length up front, so read at most one byte past the limit
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body is too large.");
+            return;
+        }
+
+        JsonNode json = parse(body);
+        String email = authentication.getName();
+
+        long retryAfterSeconds;
+        if (BASKET_PATH.equals(path(request))) {
+            retryAfterSeconds = velocityLimitService.checkBasket(email, basketQuantities(json));
+        } else if (TRADE_PATHS.contains(path(request))) {
+            retryAfterSeconds = velocityLimitService.checkTrade(email,
+                    json.path("stockSymbol").asText(null), json.path("quantity").asLong(0));
+        } else {
+            retryAfterSeconds = velocityLimitService.checkTransfer(email, transferVolume(json));
+        }
+
+        if (retryAfterSeconds > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            reject(response, HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many requests. Please try again in " + retryAfterSeconds + " seconds.");
+            return;
+        }
+
+        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("message", message));
+    }
+
+    private String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    // Single transfers carry an amount, batches a list of transfers
+    private BigDecimal transferVolume(JsonNode json) {
+        if (json.has("transfers")) {
+            BigDecimal total = BigDecimal.ZERO;
+            for (JsonNode transfer : json.path("transfers")) {
+                total = total.add(amount(transfer));
+            }
+            return total;
+        }
+        return amount(json);
+    }
+
+    private Map<String, Long> basketQuantities(JsonNode json) {
+        Map<String, Long> quantities = new HashMap<>();
+        for (JsonNode item : json.path("items")) {
+            String symbol = item.path("stockSymbol").asText("").trim().toUpperCase();
+            long quantity = item.path("quantity").asLong(0);
+            if (!symbol.isEmpty() && quantity > 0) {
+                quantities.merge(symbol, quantity, Long::sum);
+            }
+        }
+        return quantities;
+    }
+
+    private BigDecimal amount(JsonNode json) {
+        JsonNode amount = json.path("amount");
+        return amount.isNumber() ? amount.decimalValue() : BigDecimal.ZERO;
+    }
+
+    // Malformed bodies count with zero volume; the controller reports the actual error
+    private JsonNode parse(byte[] body) {
+        try {
+            return body.length == 0 ? objectMapper.missingNode() : objectMapper.readTree(body);
+        } catch (IOException e) {
+            return objectMapper.missingNode();
+        }
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The body is already in memory, so a non-blocking reader gets all of it at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package edu.ssw590.summitwealthbank.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -26,6 +27,10 @@ public class Account {
 
     private BigDecimal balance;
 
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
     private boolean frozen;
 
     @Column(unique = true)
@@ -0,0 +1,46 @@
+package edu.ssw590.summitwealthbank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Balance of a customer account after every ledger posting counted by snapshot runs up to run,
+ * taken as of asOf. Historic balances start from the nearest snapshot instead of replaying the
+ * whole journal. lastPostingId is the highest posting id the run counted, for reference only.
+ */
+@Entity
+@Table(name = "account_balance_snapshot",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"account_id", "snapshot_run"}),
+       indexes = @Index(columnList = "account_id, as_of"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountBalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+
+    @Column(nullable = false)
+    private Long lastPostingId;
+
+    // Null only on snapshots written before runs existed; those are dropped and rebuilt
+    @Column(name = "snapshot_run")
+    private Long run;
+
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+}
@@ -0,0 +1,96 @@
+package edu.ssw590.summitwealthbank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "conditional_order", indexes = {
+        @Index(columnList = "status, id"),
+        @Index(columnList = "user_email")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConditionalOrder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    @Column(name = "stock_symbol", nullable = false)
+    private String stockSymbol;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StockOrder.Side side;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TriggerType triggerType;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal triggerPrice;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime triggeredAt;
+
+    // Quote that fired the trigger; the trade itself executes at the quote when its batch runs
+    @Column(precision = 10, scale = 2)
+    private BigDecimal triggeredAtPrice;
+
+    private String transactionReference;
+
+    private String resultMessage;
+
+    @Version
+    private Long version;
+
+    /**
+     * STOP fires when the price moves through the trigger against the holder (buy at or above,
+     * sell at or below: a stop-loss). LIMIT fires when it moves in their favour (buy at or below,
+     * sell at or above).
+     */
+    public enum TriggerType {
+        STOP,
+        LIMIT
+    }
+
+    public enum Status {
+        ACTIVE,
+        EXECUTED,
+        FAILED,
+        CANCELLED
+    }
+
+    public boolean firesAtOrBelow() {
+        return (side == StockOrder.Side.BUY) == (triggerType == TriggerType.LIMIT);
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
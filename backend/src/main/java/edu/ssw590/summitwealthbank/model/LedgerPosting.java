@@ -0,0 +1,85 @@
+package edu.ssw590.summitwealthbank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One leg of a double-entry journal. Rows are append-only; every journal writes postings whose
+ * debits and credits sum to the same amount. Customer legs carry the account id, the other side
+ * of deposits and investments is booked against a system ledger account with no account id.
+ * The only column written later is snapshotRun, set once by the snapshot run that counted the row.
+ */
+@Entity
+@Table(name = "ledger_posting",
+       indexes = {
+               @Index(columnList = "account_id, id"),
+               @Index(columnList = "account_id, snapshot_run"),
+               @Index(columnList = "account_id, posted_at"),
+               @Index(columnList = "snapshot_run, posted_at"),
+               @Index(columnList = "posted_at")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerPosting {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String journalReference;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JournalType journalType;
+
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private LedgerAccount ledgerAccount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Direction direction;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "posted_at", nullable = false)
+    private LocalDateTime postedAt;
+
+    // Null until a balance snapshot includes this posting
+    @Column(name = "snapshot_run")
+    private Long snapshotRun;
+
+    public enum JournalType {
+        OPENING,
+        DEPOSIT,
+        TRANSFER,
+        STOCK_BUY,
+        STOCK_SELL,
+        WEALTH_BUY,
+        WEALTH_SELL
+    }
+
+    public enum LedgerAccount {
+        CUSTOMER,
+        EXTERNAL_FUNDING,
+        BROKERAGE_CLEARING,
+        WEALTH_CLEARING
+    }
+
+    public enum Direction {
+        DEBIT,
+        CREDIT
+    }
+}
@@ -0,0 +1,58 @@
+package edu.ssw590.summitwealthbank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A closed OHLC candle of one stock. Keyed by (symbol, period, start_time) without a surrogate id,
+ * so the primary key is the only index. Written in batches by PriceCandleService.
+ */
+@Entity
+@Table(name = "price_candle")
+@IdClass(PriceCandle.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceCandle {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String symbol;
+        private String period;
+        private LocalDateTime startTime;
+    }
+
+    @Id
+    private String symbol;
+
+    /** Interval code: 1m, 5m, 1h or 1d. */
+    @Id
+    @Column(length = 2)
+    private String period;
+
+    @Id
+    @Column(name = "start_time")
+    private LocalDateTime startTime;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal openPrice;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal highPrice;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal lowPrice;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal closePrice;
+}
@@ -0,0 +1,37 @@
+package edu.ssw590.summitwealthbank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One simulated price of a stock. Written in batches by MarketSimulationService and removed after
+ * app.simulation.tick-retention-hours.
+ */
+@Entity
+@Table(name = "price_tick",
+       indexes = @Index(columnList = "symbol, tick_time"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceTick {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal price;
+
+    @Column(name = "tick_time", nullable = false)
+    private LocalDateTime tickTime;
+}
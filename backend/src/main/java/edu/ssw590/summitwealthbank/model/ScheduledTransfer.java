@@ -0,0 +1,91 @@
+package edu.ssw590.summitwealthbank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "scheduled_transfer", indexes = {
+        @Index(columnList = "status, next_run_at"),
+        @Index(columnList = "user_email")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduledTransfer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+
+    @Column(nullable = false)
+    private Long fromAccountId;
+
+    @Column(nullable = false)
+    private Long toAccountId;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Column(nullable = false)
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Frequency frequency;
+
+    // First run; recurring runs are computed from it so monthly dates do not drift after a short month
+    @Column(nullable = false)
+    private LocalDateTime startAt;
+
+    @Column(name = "next_run_at")
+    private LocalDateTime nextRunAt;
+
+    private int runCount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    private LocalDateTime lastRunAt;
+
+    private String lastRunStatus;
+
+    private String lastRunMessage;
+
+    private String lastTransactionReference;
+
+    private LocalDateTime createdAt;
+
+    @Version
+    private Long version;
+
+    public enum Frequency {
+        ONCE,
+        DAILY,
+        WEEKLY,
+        MONTHLY
+    }
+
+    public enum Status {
+        ACTIVE,
+        COMPLETED,
+        CANCELLED
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package edu.ssw590.summitwealthbank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A matched fill or release that kept failing to settle on its own while the database was
+ * reachable. MatchingEngine parks it here so the rest of the shard's events can settle; the
+ * orders and accounts it touches need to be repaired by hand.
+ */
+@Entity
+@Table(name = "settlement_dead_letter")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SettlementDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 500)
+    private String event;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -5,12 +5,15 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "stock")
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -36,6 +39,10 @@ public class Stock {
     @Column(nullable = false)
     private Long availableShares;
 
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
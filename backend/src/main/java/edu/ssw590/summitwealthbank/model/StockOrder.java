@@ -0,0 +1,109 @@
+package edu.ssw590.summitwealthbank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stock_order", indexes = {
+        @Index(columnList = "status, id"),
+        @Index(columnList = "account_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockOrder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false)
+    private String orderReference;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "stock_symbol", nullable = false)
+    private String stockSymbol;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Side side;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderType orderType;
+
+    // For market orders, the protective bound derived from the quote at placement
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal limitPrice;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    @Column(nullable = false)
+    private Long filledQuantity;
+
+    // Buys: cash held per share (limit price, or the protective price of a market order).
+    // Sells: average cost basis of the held shares, used for profit/loss and to restore them.
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal reservedPricePerShare;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum Side {
+        BUY,
+        SELL
+    }
+
+    public enum OrderType {
+        MARKET,
+        LIMIT
+    }
+
+    public enum Status {
+        OPEN,
+        PARTIALLY_FILLED,
+        FILLED,
+        CANCELLED,
+        REJECTED
+    }
+
+    public boolean isBuy() {
+        return side == Side.BUY;
+    }
+
+    public long getRemainingQuantity() {
+        return quantity - filledQuantity;
+    }
+
+    public boolean isActive() {
+        return status == Status.OPEN || status == Status.PARTIALLY_FILLED;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -34,6 +35,10 @@ public class StockPosition {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal averageCostBasis;
 
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -10,7 +10,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "stock_transaction")
+@Table(name = "stock_transaction",
+       indexes = {
+               @Index(columnList = "account_id, timestamp, id"),
+               @Index(columnList = "timestamp, id")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,7 +25,8 @@ public class StockTransaction {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    // Unique, but enforced by PartitionMaintenanceService: partitioned tables cannot have this constraint
+    @Column(nullable = false)
     private String transactionReference;
 
     @Column(name = "account_id", nullable = false)
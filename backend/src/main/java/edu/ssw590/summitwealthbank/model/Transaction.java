@@ -6,6 +6,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(columnList = "from_account_id, timestamp, id"),
+        @Index(columnList = "to_account_id, timestamp, id"),
+        @Index(columnList = "timestamp, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,7 +21,8 @@ public class Transaction {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    // Unique, but enforced by PartitionMaintenanceService: partitioned tables cannot have this constraint
+    @Column(nullable = false)
     private String transactionReference;
 
     private Long fromAccountId;
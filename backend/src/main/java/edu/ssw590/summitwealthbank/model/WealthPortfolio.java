@@ -2,6 +2,7 @@ package edu.ssw590.summitwealthbank.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 
@@ -23,4 +24,8 @@ public class WealthPortfolio {
 
     private BigDecimal stockUnits;
     private BigDecimal bondUnits;
+
+    @Version
+    @ColumnDefault("0")
+    private Long version;
 }
\ No newline at end of file
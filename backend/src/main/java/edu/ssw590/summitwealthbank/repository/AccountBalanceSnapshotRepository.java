@@ -0,0 +1,36 @@
+package edu.ssw590.summitwealthbank.repository;
+
+import edu.ssw590.summitwealthbank.model.AccountBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface AccountBalanceSnapshotRepository extends JpaRepository<AccountBalanceSnapshot, Long> {
+
+    // Snapshots without a run predate run stamping and are ignored until the next run rebuilds them
+    Optional<AccountBalanceSnapshot> findFirstByAccountIdAndRunIsNotNullAndAsOfLessThanEqualOrderByAsOfDescIdDesc(Long accountId, LocalDateTime asOf);
+
+    @Query("SELECT s FROM AccountBalanceSnapshot s WHERE s.accountId IN :accountIds AND s.id = "
+            + "(SELECT MAX(s2.id) FROM AccountBalanceSnapshot s2 WHERE s2.accountId = s.accountId)")
+    List<AccountBalanceSnapshot> findLatestByAccountIds(@Param("accountIds") Collection<Long> accountIds);
+
+    @Query("SELECT COALESCE(MAX(s.run), 0) FROM AccountBalanceSnapshot s")
+    Long findLatestRun();
+
+    @Query("SELECT COALESCE(MAX(s.run), 0) FROM AccountBalanceSnapshot s WHERE s.asOf <= :asOf")
+    Long findLatestRunAsOf(@Param("asOf") LocalDateTime asOf);
+
+    // Latest snapshot of each account in the id range written by run or an earlier run
+    @Query("SELECT s FROM AccountBalanceSnapshot s WHERE s.accountId BETWEEN :fromId AND :toId AND s.run = "
+            + "(SELECT MAX(s2.run) FROM AccountBalanceSnapshot s2 WHERE s2.accountId = s.accountId AND s2.run <= :run)")
+    List<AccountBalanceSnapshot> findLatestInRangeUpToRun(@Param("fromId") Long fromId,
+                                                          @Param("toId") Long toId,
+                                                          @Param("run") Long run);
+
+    boolean existsByRunIsNull();
+}
@@ -1,10 +1,44 @@
 package edu.ssw590.summitwealthbank.repository;
 
 import edu.ssw590.summitwealthbank.model.Account;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
     List<Account> findByUserId(Long userId);
-}
\ No newline at end of file
+
+    // Ids only, so an ownership check does not put the accounts into the persistence context before they are locked
+    @Query("SELECT a.id FROM Account a WHERE a.user.email = :email")
+    List<Long> findIdsByUserEmail(@Param("email") String email);
+
+    // Rows are locked in id order so two writers touching the same accounts always queue the same way
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "5000"))
+    @Query("SELECT a FROM Account a WHERE a.id IN :ids ORDER BY a.id ASC")
+    List<Account> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Returns [id, accountNumber] pairs; avoids loading whole accounts (and their users) for display
+    @Query("SELECT a.id, a.accountNumber FROM Account a WHERE a.id IN :ids")
+    List<Object[]> findAccountNumbersByIds(@Param("ids") Collection<Long> ids);
+
+    // Returns [id, userId] pairs
+    @Query("SELECT a.id, a.user.id FROM Account a WHERE a.id IN :ids")
+    List<Object[]> findUserIdsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT COALESCE(MIN(a.id), 0) FROM Account a")
+    Long findMinId();
+
+    @Query("SELECT COALESCE(MAX(a.id), 0) FROM Account a")
+    Long findMaxId();
+
+    @Query("SELECT a FROM Account a JOIN FETCH a.user WHERE a.id BETWEEN :fromId AND :toId ORDER BY a.id ASC")
+    List<Account> findWithUserByIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
@@ -0,0 +1,12 @@
+package edu.ssw590.summitwealthbank.repository;
+
+import edu.ssw590.summitwealthbank.model.ConditionalOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ConditionalOrderRepository extends JpaRepository<ConditionalOrder, Long> {
+    List<ConditionalOrder> findByUserEmailOrderByIdDesc(String userEmail);
+
+    List<ConditionalOrder> findByStatusOrderByIdAsc(ConditionalOrder.Status status);
+}
@@ -0,0 +1,28 @@
+package edu.ssw590.summitwealthbank.repository;
+
+import edu.ssw590.summitwealthbank.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+    Optional<IdempotencyRecord> findByUserEmailAndIdempotencyKey(String userEmail, String idempotencyKey);
+
+    // Joins the caller's transaction, so the reservation is marked applied only if that transaction commits
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.status = :applied WHERE r.id = :id AND r.status = :inProgress")
+    int markApplied(@Param("id") Long id,
+                    @Param("inProgress") IdempotencyRecord.Status inProgress,
+                    @Param("applied") IdempotencyRecord.Status applied);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :cutoff")
+    int deleteExpired(@Param("cutoff") LocalDateTime cutoff);
+}
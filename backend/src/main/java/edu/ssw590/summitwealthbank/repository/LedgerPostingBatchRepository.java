@@ -0,0 +1,43 @@
+package edu.ssw590.summitwealthbank.repository;
+
+import edu.ssw590.summitwealthbank.model.LedgerPosting;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * JDBC batch insert for ledger postings; like TransactionBatchRepository this sidesteps the
+ * IDENTITY-key restriction on Hibernate insert batching. Every journal writes at least two rows.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LedgerPostingBatchRepository {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO ledger_posting (journal_reference, journal_type, account_id, ledger_account, direction, amount, posted_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<LedgerPosting> postings) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, postings, CHUNK_SIZE, (ps, posting) -> {
+            ps.setString(1, posting.getJournalReference());
+            ps.setString(2, posting.getJournalType().name());
+            if (posting.getAccountId() != null) {
+                ps.setLong(3, posting.getAccountId());
+            } else {
+                ps.setNull(3, Types.BIGINT);
+            }
+            ps.setString(4, posting.getLedgerAccount().name());
+            ps.setString(5, posting.getDirection().name());
+            ps.setBigDecimal(6, posting.getAmount());
+            ps.setTimestamp(7, Timestamp.valueOf(posting.getPostedAt()));
+        });
+    }
+}
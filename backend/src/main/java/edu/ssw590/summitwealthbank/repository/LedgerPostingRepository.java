@@ -0,0 +1,60 @@
+package edu.ssw590.summitwealthbank.repository;
+
+import edu.ssw590.summitwealthbank.model.LedgerPosting;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface LedgerPostingRepository extends JpaRepository<LedgerPosting, Long> {
+
+    // Postings up to asOf that no snapshot run up to afterRun has counted
+    @Query("SELECT COALESCE(SUM(CASE WHEN p.direction = edu.ssw590.summitwealthbank.model.LedgerPosting.Direction.CREDIT "
+            + "THEN p.amount ELSE -p.amount END), 0) FROM LedgerPosting p "
+            + "WHERE p.accountId = :accountId AND (p.snapshotRun IS NULL OR p.snapshotRun > :afterRun) "
+            + "AND p.postedAt <= :asOf")
+    BigDecimal sumForAccountSince(@Param("accountId") Long accountId,
+                                  @Param("afterRun") Long afterRun,
+                                  @Param("asOf") LocalDateTime asOf);
+
+    // Returns [accountId, net change] per account in the id range, over postings up to asOf that no run up to afterRun counted
+    @Query("SELECT p.accountId, SUM(CASE WHEN p.direction = edu.ssw590.summitwealthbank.model.LedgerPosting.Direction.CREDIT "
+            + "THEN p.amount ELSE -p.amount END) FROM LedgerPosting p "
+            + "WHERE p.accountId BETWEEN :fromId AND :toId AND (p.snapshotRun IS NULL OR p.snapshotRun > :afterRun) "
+            + "AND p.postedAt <= :asOf GROUP BY p.accountId")
+    List<Object[]> sumByAccountRangeSince(@Param("fromId") Long fromId,
+                                          @Param("toId") Long toId,
+                                          @Param("afterRun") Long afterRun,
+                                          @Param("asOf") LocalDateTime asOf);
+
+    // Returns [accountId, net change] per account in the id range, over postings in (after, upTo]
+    @Query("SELECT p.accountId, SUM(CASE WHEN p.direction = edu.ssw590.summitwealthbank.model.LedgerPosting.Direction.CREDIT "
+            + "THEN p.amount ELSE -p.amount END) FROM LedgerPosting p "
+            + "WHERE p.accountId BETWEEN :fromId AND :toId AND p.postedAt > :after AND p.postedAt <= :upTo "
+            + "GROUP BY p.accountId")
+    List<Object[]> sumByAccountRangeBetween(@Param("fromId") Long fromId,
+                                            @Param("toId") Long toId,
+                                            @Param("after") LocalDateTime after,
+                                            @Param("upTo") LocalDateTime upTo);
+
+    // Claims every committed posting up to cutoff that no run has counted yet, however late it committed
+    @Modifying
+    @Query("UPDATE LedgerPosting p SET p.snapshotRun = :run WHERE p.snapshotRun IS NULL AND p.postedAt <= :cutoff")
+    int markSnapshotRun(@Param("run") Long run, @Param("cutoff") LocalDateTime cutoff);
+
+    // Returns [accountId, net change] for every customer account with postings claimed by run
+    @Query("SELECT p.accountId, SUM(CASE WHEN p.direction = edu.ssw590.summitwealthbank.model.LedgerPosting.Direction.CREDIT "
+            + "THEN p.amount ELSE -p.amount END) FROM LedgerPosting p "
+            + "WHERE p.accountId IS NOT NULL AND p.snapshotRun = :run GROUP BY p.accountId")
+    List<Object[]> sumByAccountInRun(@Param("run") Long run);
+
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM LedgerPosting p WHERE p.snapshotRun = :run")
+    Long findMaxIdInRun(@Param("run") Long run);
+
+    @Query("SELECT DISTINCT p.accountId FROM LedgerPosting p WHERE p.accountId IS NOT NULL")
+    List<Long> findPostedAccountIds();
+}
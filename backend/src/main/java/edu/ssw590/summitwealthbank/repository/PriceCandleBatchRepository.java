@@ -0,0 +1,39 @@
+package edu.ssw590.summitwealthbank.repository;
+
+import edu.ssw590.summitwealthbank.model.PriceCandle;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Plain JDBC batch insert for PriceCandle rows. A candle that is already stored, e.g. written by
+ * another instance, is left as it is.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PriceCandleBatchRepository {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO price_candle (symbol, period, start_time, open_price, high_price, low_price, close_price) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Inserts the candles in chunks of CHUNK_SIZE statements per round trip. */
+    public void insertAll(List<PriceCandle> candles) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, candles, CHUNK_SIZE, (ps, candle) -> {
+            ps.setString(1, candle.getSymbol());
+            ps.setString(2, candle.getPeriod());
+            ps.setTimestamp(3, Timestamp.valueOf(candle.getStartTime()));
+            ps.setBigDecimal(4, candle.getOpenPrice());
+            ps.setBigDecimal(5, candle.getHighPrice());
+            ps.setBigDecimal(6, candle.getLowPrice());
+            ps.setBigDecimal(7, candle.getClosePrice());
+        });
+    }
+}
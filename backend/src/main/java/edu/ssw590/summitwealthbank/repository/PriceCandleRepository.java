@@ -0,0 +1,21 @@
+package edu.ssw590.summitwealthbank.repository;
+
+import edu.ssw590.summitwealthbank.model.PriceCandle;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PriceCandleRepository extends JpaRepository<PriceCandle, PriceCandle.Key> {
+
+    @Query("SELECT c FROM PriceCandle c WHERE c.symbol = :symbol AND c.period = :period " +
+           "AND c.startTime >= :from AND c.startTime < :to ORDER BY c.startTime")
+    List<PriceCandle> findRange(@Param("symbol") String symbol,
+                                @Param("period") String period,
+                                @Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,38 @@
+package edu.ssw590.summitwealthbank.repository;
+
+import edu.ssw590.summitwealthbank.model.PriceTick;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Plain JDBC batch insert for PriceTick rows, for the same reason as
+ * TransactionBatchRepository: IDENTITY ids stop Hibernate from batching inserts.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PriceTickBatchRepository {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final String INSERT_SQL = "INSERT INTO price_tick (symbol, price, tick_time) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Inserts the ticks in chunks of CHUNK_SIZE statements per round trip. */
+    public void insertAll(List<PriceTick> ticks) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, ticks, CHUNK_SIZE, (ps, tick) -> {
+            ps.setString(1, tick.getSymbol());
+            ps.setBigDecimal(2, tick.getPrice());
+            ps.setTimestamp(3, Timestamp.valueOf(tick.getTickTime()));
+        });
+    }
+
+    public int deleteOlderThan(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM price_tick WHERE tick_time < ?", Timestamp.valueOf(cutoff));
+    }
+}
@@ -0,0 +1,30 @@
+package edu.ssw590.summitwealthbank.repository;
+
+import edu.ssw590.summitwealthbank.model.QueuedTransfer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface QueuedTransferRepository extends JpaRepository<QueuedTransfer, Long> {
+    Optional<QueuedTransfer> findByTransactionReference(String transactionReference);
+
+    @Query("SELECT COALESCE(MAX(q.id), 0) FROM QueuedTransfer q")
+    long findMaxId();
+
+    // Transfers left PENDING by an earlier run, oldest first, up to the id seen at startup
+    @Query("SELECT q FROM QueuedTransfer q WHERE q.status = edu.ssw590.summitwealthbank.model.QueuedTransfer.Status.PENDING "
+            + "AND q.id > :afterId AND q.id <= :maxId ORDER BY q.id ASC")
+    List<QueuedTransfer> findPendingBetween(@Param("afterId") long afterId, @Param("maxId") long maxId, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM QueuedTransfer q WHERE q.settledAt < :cutoff")
+    int deleteSettledBefore(@Param("cutoff") LocalDateTime cutoff);
+}
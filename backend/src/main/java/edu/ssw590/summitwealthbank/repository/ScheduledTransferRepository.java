@@ -0,0 +1,18 @@
+package edu.ssw590.summitwealthbank.repository;
+
+import edu.ssw590.summitwealthbank.model.ScheduledTransfer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ScheduledTransferRepository extends JpaRepository<ScheduledTransfer, Long> {
+    List<ScheduledTransfer> findByUserEmailOrderByNextRunAtAsc(String userEmail);
+
+    // Everything active that comes due before the end of the window, overdue runs included
+    @Query("SELECT s FROM ScheduledTransfer s WHERE s.status = edu.ssw590.summitwealthbank.model.ScheduledTransfer.Status.ACTIVE "
+            + "AND s.nextRunAt < :windowEnd ORDER BY s.nextRunAt ASC")
+    List<ScheduledTransfer> findActiveDueBefore(@Param("windowEnd") LocalDateTime windowEnd);
+}
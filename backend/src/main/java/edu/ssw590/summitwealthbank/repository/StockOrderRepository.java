@@ -0,0 +1,22 @@
+package edu.ssw590.summitwealthbank.repository;
+
+import edu.ssw590.summitwealthbank.model.StockOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StockOrderRepository extends JpaRepository<StockOrder, Long> {
+
+    // Oldest first, so replaying them into the books restores time priority
+    @Query("SELECT o FROM StockOrder o WHERE o.status IN ("
+            + "edu.ssw590.summitwealthbank.model.StockOrder.Status.OPEN, "
+            + "edu.ssw590.summitwealthbank.model.StockOrder.Status.PARTIALLY_FILLED) ORDER BY o.id ASC")
+    List<StockOrder> findActiveOrderByIdAsc();
+
+    @Query("SELECT o FROM StockOrder o WHERE o.accountId IN :accountIds ORDER BY o.id DESC")
+    List<StockOrder> findByAccountIds(@Param("accountIds") List<Long> accountIds);
+}
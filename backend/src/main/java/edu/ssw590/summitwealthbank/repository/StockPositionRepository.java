@@ -1,11 +1,13 @@
 package edu.ssw590.summitwealthbank.repository;
 
+import edu.ssw590.summitwealthbank.dto.ValuedPosition;
 import edu.ssw590.summitwealthbank.model.StockPosition;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,8 +18,17 @@ public interface StockPositionRepository extends JpaRepository<StockPosition, Lo
 
     List<StockPosition> findByAccountId(Long accountId);
 
+    List<StockPosition> findByAccountIdAndStockSymbolIn(Long accountId, Collection<String> stockSymbols);
+
     @Query("SELECT sp FROM StockPosition sp WHERE sp.accountId IN :accountIds")
     List<StockPosition> findByAccountIds(@Param("accountIds") List<Long> accountIds);
 
+    // Positions with the current price and company name of their stock, in one query
+    @Query("SELECT new edu.ssw590.summitwealthbank.dto.ValuedPosition("
+            + "sp.accountId, sp.stockSymbol, s.companyName, sp.totalShares, sp.averageCostBasis, s.currentPrice) "
+            + "FROM StockPosition sp JOIN Stock s ON s.symbol = sp.stockSymbol "
+            + "WHERE sp.accountId IN :accountIds ORDER BY sp.stockSymbol, sp.accountId")
+    List<ValuedPosition> findValuedByAccountIds(@Param("accountIds") List<Long> accountIds);
+
     void deleteByAccountIdAndStockSymbolAndTotalShares(Long accountId, String stockSymbol, Long totalShares);
 }
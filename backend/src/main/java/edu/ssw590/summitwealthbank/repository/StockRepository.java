@@ -2,7 +2,9 @@ package edu.ssw590.summitwealthbank.repository;
 
 import edu.ssw590.summitwealthbank.model.Stock;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -19,4 +21,26 @@ public interface StockRepository extends JpaRepository<Stock, Long> {
 
     @Query("SELECT s FROM Stock s WHERE s.availableShares > 0 ORDER BY s.symbol ASC")
     List<Stock> findAvailableStocks();
+
+    // Conditional decrement: 0 rows updated means fewer than quantity shares were left. Bulk
+    // updates skip @Version, so trades on one symbol never conflict with each other or with price
+    // changes (Stock is @DynamicUpdate, so a price save does not write availableShares back).
+    @Modifying
+    @Query("UPDATE Stock s SET s.availableShares = s.availableShares - :quantity "
+            + "WHERE s.symbol = :symbol AND s.availableShares >= :quantity")
+    int takeAvailableShares(@Param("symbol") String symbol, @Param("quantity") long quantity);
+
+    @Modifying
+    @Query("UPDATE Stock s SET s.availableShares = s.availableShares + :quantity WHERE s.symbol = :symbol")
+    int returnAvailableShares(@Param("symbol") String symbol, @Param("quantity") long quantity);
+
+    // The house holds whatever is not in a position or reserved by an open sell order
+    @Modifying
+    @Query("UPDATE Stock s SET s.availableShares = s.totalShares"
+            + " - COALESCE((SELECT SUM(p.totalShares) FROM StockPosition p WHERE p.stockSymbol = s.symbol), 0)"
+            + " - COALESCE((SELECT SUM(o.quantity - o.filledQuantity) FROM StockOrder o WHERE o.stockSymbol = s.symbol"
+            + " AND o.side = edu.ssw590.summitwealthbank.model.StockOrder.Side.SELL AND o.status IN ("
+            + "edu.ssw590.summitwealthbank.model.StockOrder.Status.OPEN, "
+            + "edu.ssw590.summitwealthbank.model.StockOrder.Status.PARTIALLY_FILLED)), 0)")
+    int recomputeAvailableShares();
 }
@@ -0,0 +1,87 @@
+package edu.ssw590.summitwealthbank.repository;
+
+import edu.ssw590.summitwealthbank.model.StockTransaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC batch insert for StockTransaction rows, for the same reason as
+ * TransactionBatchRepository: IDENTITY ids stop Hibernate from batching inserts.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockTransactionBatchRepository {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO stock_transaction (transaction_reference, account_id, stock_symbol, type, quantity, "
+                    + "price_per_share, total_amount, profit_loss, timestamp, notes) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the rows in chunks of CHUNK_SIZE statements per round trip and copies the generated
+     * ids back onto the given objects.
+     */
+    public List<StockTransaction> insertAll(List<StockTransaction> transactions) {
+        for (int start = 0; start < transactions.size(); start += CHUNK_SIZE) {
+            List<StockTransaction> chunk = transactions.subList(start, Math.min(start + CHUNK_SIZE, transactions.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+
+            jdbcTemplate.batchUpdate(
+                    connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            StockTransaction tx = chunk.get(i);
+                            ps.setString(1, tx.getTransactionReference());
+                            ps.setLong(2, tx.getAccountId());
+                            ps.setString(3, tx.getStockSymbol());
+                            ps.setString(4, tx.getType().name());
+                            ps.setLong(5, tx.getQuantity());
+                            ps.setBigDecimal(6, tx.getPricePerShare());
+                            ps.setBigDecimal(7, tx.getTotalAmount());
+                            if (tx.getProfitLoss() != null) {
+                                ps.setBigDecimal(8, tx.getProfitLoss());
+                            } else {
+                                ps.setNull(8, Types.NUMERIC);
+                            }
+                            ps.setTimestamp(9, Timestamp.valueOf(tx.getTimestamp()));
+                            ps.setString(10, tx.getNotes());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    },
+                    keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < keys.size() && i < chunk.size(); i++) {
+                Object id = keys.get(i).get("id");
+                if (id == null) {
+                    id = keys.get(i).get("ID");
+                }
+                if (id instanceof Number number) {
+                    chunk.get(i).setId(number.longValue());
+                }
+            }
+        }
+
+        return transactions;
+    }
+}
@@ -1,14 +1,19 @@
 package edu.ssw590.summitwealthbank.repository;
 
 import edu.ssw590.summitwealthbank.model.StockTransaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface StockTransactionRepository extends JpaRepository<StockTransaction, Long> {
@@ -19,14 +24,60 @@ public interface StockTransactionRepository extends JpaRepository<StockTransacti
 
     Optional<StockTransaction> findByTransactionReference(String transactionReference);
 
-    @Query("SELECT st FROM StockTransaction st WHERE st.accountId IN :accountIds ORDER BY st.timestamp DESC")
+    @Query("SELECT st FROM StockTransaction st WHERE st.accountId IN :accountIds ORDER BY st.timestamp DESC, st.id DESC")
     List<StockTransaction> findRecentByAccountIds(
         @Param("accountIds") List<Long> accountIds,
         Pageable pageable
     );
 
-    @Query("SELECT st FROM StockTransaction st ORDER BY st.timestamp DESC")
+    // Keyset page: rows strictly after (timestamp, id) in newest-first order
+    @Query("SELECT st FROM StockTransaction st WHERE st.accountId IN :accountIds "
+            + "AND (st.timestamp, st.id) < (:timestamp, :id) ORDER BY st.timestamp DESC, st.id DESC")
+    List<StockTransaction> findRecentByAccountIdsBefore(
+        @Param("accountIds") List<Long> accountIds,
+        @Param("timestamp") LocalDateTime timestamp,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
+    @Query("SELECT st FROM StockTransaction st ORDER BY st.timestamp DESC, st.id DESC")
     List<StockTransaction> findAllRecent(Pageable pageable);
 
+    @Query("SELECT st FROM StockTransaction st WHERE (st.timestamp, st.id) < (:timestamp, :id) ORDER BY st.timestamp DESC, st.id DESC")
+    List<StockTransaction> findAllRecentBefore(
+        @Param("timestamp") LocalDateTime timestamp,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
     List<StockTransaction> findByStockSymbolOrderByTimestampDesc(String stockSymbol);
+
+    // Server-side cursor for exports; must be consumed inside a transaction and closed
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT st FROM StockTransaction st WHERE st.accountId IN :accountIds ORDER BY st.timestamp ASC, st.id ASC")
+    Stream<StockTransaction> streamByAccountIds(@Param("accountIds") List<Long> accountIds);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT st FROM StockTransaction st WHERE st.accountId BETWEEN :fromId AND :toId "
+            + "AND st.timestamp >= :start AND st.timestamp < :end ORDER BY st.timestamp ASC, st.id ASC")
+    Stream<StockTransaction> streamByAccountRangeAndPeriod(
+        @Param("fromId") Long fromId,
+        @Param("toId") Long toId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+
+    // One month of rows for archiving; on a partitioned table this reads a single partition
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT st FROM StockTransaction st WHERE st.timestamp >= :start AND st.timestamp < :end ORDER BY st.id ASC")
+    Stream<StockTransaction> streamByPeriod(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 }
@@ -0,0 +1,77 @@
+package edu.ssw590.summitwealthbank.repository;
+
+import edu.ssw590.summitwealthbank.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC batch insert for Transaction rows. Transaction ids use IDENTITY generation, which
+ * stops Hibernate from batching inserts, so bulk paths write through here instead.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionBatchRepository {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO transaction (transaction_reference, from_account_id, to_account_id, amount, description, timestamp) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the rows in chunks of CHUNK_SIZE statements per round trip and copies the generated
+     * ids back onto the given objects.
+     */
+    public List<Transaction> insertAll(List<Transaction> transactions) {
+        for (int start = 0; start < transactions.size(); start += CHUNK_SIZE) {
+            List<Transaction> chunk = transactions.subList(start, Math.min(start + CHUNK_SIZE, transactions.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+
+            jdbcTemplate.batchUpdate(
+                    connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Transaction tx = chunk.get(i);
+                            ps.setString(1, tx.getTransactionReference());
+                            ps.setLong(2, tx.getFromAccountId());
+                            ps.setLong(3, tx.getToAccountId());
+                            ps.setBigDecimal(4, tx.getAmount());
+                            ps.setString(5, tx.getDescription());
+                            ps.setTimestamp(6, Timestamp.valueOf(tx.getTimestamp()));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    },
+                    keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < keys.size() && i < chunk.size(); i++) {
+                Object id = keys.get(i).get("id");
+                if (id == null) {
+                    id = keys.get(i).get("ID");
+                }
+                if (id instanceof Number number) {
+                    chunk.get(i).setId(number.longValue());
+                }
+            }
+        }
+
+        return transactions;
+    }
+}
@@ -1,22 +1,88 @@
 package edu.ssw590.summitwealthbank.repository;
 
 import edu.ssw590.summitwealthbank.model.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     List<Transaction> findByFromAccountIdOrToAccountId(Long fromAccountId, Long toAccountId);
 
-    @Query("SELECT t FROM Transaction t WHERE t.fromAccountId IN :accountIds OR t.toAccountId IN :accountIds ORDER BY t.timestamp DESC")
-    List<Transaction> findRecentByAccountIds(@Param("accountIds") List<Long> accountIds, Pageable pageable);
+    // Newest rows touching any of the accounts. The sending and receiving sides are separate branches,
+    // each reading its own (account, timestamp, id) index and stopping after :limit rows; UNION also
+    // folds transfers between two of the accounts, which both branches return, into one row
+    @Query(value = "SELECT u.* FROM ("
+            + "(SELECT t.* FROM transaction t WHERE t.from_account_id IN (:accountIds) "
+            + "ORDER BY t.timestamp DESC, t.id DESC LIMIT :limit) "
+            + "UNION "
+            + "(SELECT t.* FROM transaction t WHERE t.to_account_id IN (:accountIds) "
+            + "ORDER BY t.timestamp DESC, t.id DESC LIMIT :limit)"
+            + ") u ORDER BY u.timestamp DESC, u.id DESC LIMIT :limit", nativeQuery = true)
+    List<Transaction> findRecentByAccountIds(@Param("accountIds") List<Long> accountIds, @Param("limit") int limit);
 
-    @Query("SELECT t FROM Transaction t ORDER BY t.timestamp DESC")
+    // Keyset page: rows strictly after (timestamp, id) in newest-first order, one row-value seek per side
+    @Query(value = "SELECT u.* FROM ("
+            + "(SELECT t.* FROM transaction t WHERE t.from_account_id IN (:accountIds) "
+            + "AND (t.timestamp, t.id) < (:timestamp, :id) ORDER BY t.timestamp DESC, t.id DESC LIMIT :limit) "
+            + "UNION "
+            + "(SELECT t.* FROM transaction t WHERE t.to_account_id IN (:accountIds) "
+            + "AND (t.timestamp, t.id) < (:timestamp, :id) ORDER BY t.timestamp DESC, t.id DESC LIMIT :limit)"
+            + ") u ORDER BY u.timestamp DESC, u.id DESC LIMIT :limit", nativeQuery = true)
+    List<Transaction> findRecentByAccountIdsBefore(@Param("accountIds") List<Long> accountIds,
+                                                   @Param("timestamp") LocalDateTime timestamp,
+                                                   @Param("id") Long id,
+                                                   @Param("limit") int limit);
+
+    @Query("SELECT t FROM Transaction t ORDER BY t.timestamp DESC, t.id DESC")
     List<Transaction> findAllRecent(Pageable pageable);
 
+    @Query("SELECT t FROM Transaction t WHERE (t.timestamp, t.id) < (:timestamp, :id) ORDER BY t.timestamp DESC, t.id DESC")
+    List<Transaction> findAllRecentBefore(@Param("timestamp") LocalDateTime timestamp,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+
     Optional<Transaction> findByTransactionReference(String transactionReference);
-}
\ No newline at end of file
+
+    // Server-side cursor for exports; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.fromAccountId IN :accountIds OR t.toAccountId IN :accountIds ORDER BY t.timestamp ASC, t.id ASC")
+    Stream<Transaction> streamByAccountIds(@Param("accountIds") List<Long> accountIds);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t ORDER BY t.id ASC")
+    Stream<Transaction> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE ((t.fromAccountId BETWEEN :fromId AND :toId) OR (t.toAccountId BETWEEN :fromId AND :toId)) "
+            + "AND t.timestamp >= :start AND t.timestamp < :end ORDER BY t.timestamp ASC, t.id ASC")
+    Stream<Transaction> streamByAccountRangeAndPeriod(@Param("fromId") Long fromId,
+                                                      @Param("toId") Long toId,
+                                                      @Param("start") LocalDateTime start,
+                                                      @Param("end") LocalDateTime end);
+
+    // One month of rows for archiving; on a partitioned table this reads a single partition
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.timestamp >= :start AND t.timestamp < :end ORDER BY t.id ASC")
+    Stream<Transaction> streamByPeriod(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,94 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.model.Account;
+import edu.ssw590.summitwealthbank.repository.AccountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class AccountLockService {
+
+    private final AccountRepository accountRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.concurrency.mode:pessimistic}")
+    private String concurrencyMode;
+
+    /**
+     * Takes row locks on the given accounts in ascending id order and returns them keyed by id.
+     * Because every caller acquires locks in the same order, an A->B transfer and a B->A transfer
+     * queue behind each other instead of deadlocking. Time spent waiting is recorded as
+     * bank.account.lock.wait so contention on hot accounts shows up in /actuator/metrics.
+     *
+     * In optimistic mode the rows are read without a lock; the @Version column on Account
+     * rejects the commit if another writer got there first and OptimisticRetryExecutor replays it.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Account> lockAccounts(Collection<Long> accountIds) {
+        Map<Long, Account> accountsById = lockExistingAccounts(accountIds);
+
+        for (Long id : accountIds) {
+            if (!accountsById.containsKey(id)) {
+                throw new IllegalArgumentException("Account not found: " + id);
+            }
+        }
+
+        return accountsById;
+    }
+
+    /**
+     * Same as lockAccounts, but ids that do not exist are simply absent from the result, so batch
+     * callers can fail the affected items instead of the whole batch.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Account> lockExistingAccounts(Collection<Long> accountIds) {
+        List<Long> orderedIds = accountIds.stream()
+                .distinct()
+                .sorted()
+                .toList();
+
+        if (isOptimistic()) {
+            return toMap(accountRepository.findAllById(orderedIds));
+        }
+
+        List<Account> locked;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            locked = accountRepository.findAllByIdForUpdate(orderedIds);
+        } catch (PessimisticLockingFailureException e) {
+            meterRegistry.counter("bank.account.lock.timeouts").increment();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("bank.account.lock.wait")
+                    .description("Time spent waiting for account row locks")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+
+        return toMap(locked);
+    }
+
+    public boolean isOptimistic() {
+        return "optimistic".equalsIgnoreCase(concurrencyMode);
+    }
+
+    private Map<Long, Account> toMap(List<Account> accounts) {
+        Map<Long, Account> accountsById = new LinkedHashMap<>();
+        for (Account account : accounts) {
+            accountsById.put(account.getId(), account);
+        }
+        return accountsById;
+    }
+}
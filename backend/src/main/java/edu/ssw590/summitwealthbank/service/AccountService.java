@@ -10,7 +10,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -18,7 +24,9 @@ public class AccountService {
 
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
+    private final LedgerService ledgerService;
 
+    @Transactional
     public Account openAccount(AccountOpenRequest request) {
         User user = userRepository.findByEmail(request.getEmail())  // CHANGED from getUsername
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + request.getEmail()));
@@ -30,7 +38,9 @@ public class AccountService {
                 .frozen(false)
                 .build();
 
-        return accountRepository.save(account);
+        Account saved = accountRepository.save(account);
+        ledgerService.recordOpeningBalance(saved.getId(), saved.getBalance());
+        return saved;
     }
 
     public List<Account> getUserAccounts(Long userId) {
@@ -42,16 +52,58 @@ public class AccountService {
                 .orElseThrow(() -> new IllegalArgumentException("Account not found: " + id));
     }
 
+    /**
+     * Resolves account numbers for many accounts in one query. Ids that do not exist are absent
+     * from the map.
+     */
+    public Map<Long, String> getAccountNumbers(Collection<Long> ids) {
+        Map<Long, String> accountNumbers = new HashMap<>();
+        if (ids.isEmpty()) {
+            return accountNumbers;
+        }
+        for (Object[] row : accountRepository.findAccountNumbersByIds(ids)) {
+            accountNumbers.put((Long) row[0], (String) row[1]);
+        }
+        return accountNumbers;
+    }
+
+    /**
+     * Resolves the owning user of many accounts in one query. Ids that do not exist are absent
+     * from the map.
+     */
+    public Map<Long, Long> getAccountOwners(Collection<Long> ids) {
+        Map<Long, Long> owners = new HashMap<>();
+        if (ids.isEmpty()) {
+            return owners;
+        }
+        for (Object[] row : accountRepository.findUserIdsByIds(ids)) {
+            owners.put((Long) row[0], (Long) row[1]);
+        }
+        return owners;
+    }
+
     public void saveAccount(Account account) {
         accountRepository.save(account);
     }
 
+    public void saveAccounts(Collection<Account> accounts) {
+        accountRepository.saveAll(accounts);
+    }
+
     public List<Account> getAccountsByEmail(String email) {  // CHANGED method name
         User user = userRepository.findByEmail(email)        // CHANGED from findByUsername
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + email));
         return accountRepository.findByUserId(user.getId());
     }
 
+    /**
+     * Ids of the user's accounts. Use this for ownership checks ahead of AccountLockService: a
+     * lock taken on an account that is already loaded in the transaction keeps the stale balance.
+     */
+    public Set<Long> getAccountIdsByEmail(String email) {
+        return new HashSet<>(accountRepository.findIdsByUserEmail(email));
+    }
+
     @Transactional
     public Account addMoney(Long accountId, BigDecimal amount, String userEmail) {
         // Validate amount
@@ -80,10 +132,20 @@ public class AccountService {
 
         // Add money
         account.setBalance(account.getBalance().add(amount));
+        ledgerService.recordDeposit(accountId, amount);
 
         return accountRepository.save(account);
     }
 
+    public BigDecimal getBalanceAsOf(Long accountId, LocalDateTime asOf, String userEmail) {
+        if (!getAccountIdsByEmail(userEmail).contains(accountId)) {
+            throw new SecurityException("You don't have permission to access this account");
+        }
+
+        return ledgerService.balanceAsOf(accountId, asOf);
+    }
+
+    @Transactional(readOnly = true)
     public List<Account> getAllAccounts() {
         return accountRepository.findAll();
     }
@@ -6,6 +6,7 @@ import edu.ssw590.summitwealthbank.model.User;
 import edu.ssw590.summitwealthbank.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -28,10 +29,12 @@ public class AdminService {
         accountService.saveAccount(account);
     }
 
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public List<Account> getAllAccounts() {
         return accountService.getAllAccounts();
     }
@@ -1,9 +1,11 @@
 package edu.ssw590.summitwealthbank.service;
 
 import edu.ssw590.summitwealthbank.dto.AdminStockCreateRequest;
+import edu.ssw590.summitwealthbank.event.StockPriceChangedEvent;
 import edu.ssw590.summitwealthbank.model.Stock;
 import edu.ssw590.summitwealthbank.repository.StockRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,6 +17,9 @@ import java.util.List;
 public class AdminStockService {
 
     private final StockRepository stockRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShareInventoryService shareInventoryService;
+    private final StockQuoteCache stockQuoteCache;
 
     @Transactional
     public Stock createStock(AdminStockCreateRequest request) {
@@ -33,7 +38,9 @@ public class AdminStockService {
                 .description(request.getDescription())
                 .build();
 
-        return stockRepository.save(stock);
+        Stock saved = stockRepository.save(stock);
+        stockQuoteCache.put(saved);
+        return saved;
     }
 
     @Transactional
@@ -42,7 +49,10 @@ public class AdminStockService {
                 .orElseThrow(() -> new IllegalArgumentException("Stock not found: " + symbol));
 
         stock.setCurrentPrice(newPrice);
-        return stockRepository.save(stock);
+        Stock saved = stockRepository.save(stock);
+        stockQuoteCache.put(saved);
+        eventPublisher.publishEvent(new StockPriceChangedEvent(saved.getSymbol(), saved.getCurrentPrice()));
+        return saved;
     }
 
     public List<Stock> getAllStocks() {
@@ -51,6 +61,7 @@ public class AdminStockService {
 
     @Transactional
     public void deleteStock(String symbol) {
+        shareInventoryService.release(symbol);
         Stock stock = stockRepository.findBySymbol(symbol)
                 .orElseThrow(() -> new IllegalArgumentException("Stock not found: " + symbol));
 
@@ -60,5 +71,6 @@ public class AdminStockService {
         }
 
         stockRepository.delete(stock);
+        stockQuoteCache.evict(symbol);
     }
 }
@@ -0,0 +1,238 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.dto.BatchTransferItemResult;
+import edu.ssw590.summitwealthbank.dto.ConditionalOrderRequest;
+import edu.ssw590.summitwealthbank.event.StockPriceChangedEvent;
+import edu.ssw590.summitwealthbank.model.ConditionalOrder;
+import edu.ssw590.summitwealthbank.model.StockOrder;
+import edu.ssw590.summitwealthbank.repository.ConditionalOrderRepository;
+import edu.ssw590.summitwealthbank.util.PriceTriggerIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stop and limit orders that wait for a price. Active orders are held in a PriceTriggerIndex, so
+ * a price change only visits the orders whose threshold it crossed. Fired orders are executed in
+ * batches of app.conditional-orders.batch-size through StockService.executeTriggeredOrders, one
+ * transaction per batch, on a single executor thread so price updates never wait for trades.
+ *
+ * The index is rebuilt from the conditional_order table at startup and checked against the
+ * current quotes, so thresholds crossed while the application was down fire on startup.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConditionalOrderService {
+
+    private final ConditionalOrderRepository conditionalOrderRepository;
+    private final StockQuoteCache stockQuoteCache;
+    private final StockService stockService;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.conditional-orders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.conditional-orders.batch-size:200}")
+    private int batchSize;
+
+    private final PriceTriggerIndex index = new PriceTriggerIndex();
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "conditional-order-executor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gauge("bank.stock.conditional.waiting", index, PriceTriggerIndex::size);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveOrders() {
+        if (!enabled) {
+            return;
+        }
+
+        List<ConditionalOrder> active = conditionalOrderRepository.findByStatusOrderByIdAsc(ConditionalOrder.Status.ACTIVE);
+        active.forEach(this::arm);
+        log.info("Loaded {} active conditional orders", active.size());
+
+        for (StockQuoteCache.Quote quote : stockQuoteCache.all()) {
+            evaluate(quote.symbol(), quote.currentPrice());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPriceChanged(StockPriceChangedEvent event) {
+        if (enabled) {
+            evaluate(event.symbol(), event.price());
+        }
+    }
+
+    public ConditionalOrder create(ConditionalOrderRequest request, String email) {
+        StockOrder.Side side = parseEnum(StockOrder.Side.class, request.getSide(), "side");
+        ConditionalOrder.TriggerType triggerType = parseEnum(ConditionalOrder.TriggerType.class,
+                request.getTriggerType(), "trigger type");
+
+        if (request.getQuantity() == null || request.getQuantity() <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+        }
+        if (request.getTriggerPrice() == null || request.getTriggerPrice().signum() <= 0) {
+            throw new IllegalArgumentException("Trigger price must be greater than zero");
+        }
+
+        stockService.validateAccountOwnership(request.getAccountId(), email);
+        StockQuoteCache.Quote stock = stockQuoteCache.find(request.getStockSymbol())
+                .orElseThrow(() -> new IllegalArgumentException("Stock not found: " + request.getStockSymbol()));
+
+        ConditionalOrder order = conditionalOrderRepository.save(ConditionalOrder.builder()
+                .userEmail(email)
+                .accountId(request.getAccountId())
+                .stockSymbol(stock.symbol())
+                .side(side)
+                .triggerType(triggerType)
+                .triggerPrice(request.getTriggerPrice().setScale(2, RoundingMode.HALF_UP))
+                .quantity(request.getQuantity())
+                .status(ConditionalOrder.Status.ACTIVE)
+                .build());
+
+        // A threshold the quote has already reached fires right away
+        arm(order);
+        evaluate(stock.symbol(), stock.currentPrice());
+        return order;
+    }
+
+    public List<ConditionalOrder> getByEmail(String email) {
+        return conditionalOrderRepository.findByUserEmailOrderByIdDesc(email);
+    }
+
+    public ConditionalOrder cancel(Long id, String email) {
+        ConditionalOrder order = conditionalOrderRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Conditional order not found"));
+
+        if (!order.getUserEmail().equals(email)) {
+            throw new SecurityException("You don't have permission to cancel this order");
+        }
+        if (order.getStatus() != ConditionalOrder.Status.ACTIVE) {
+            throw new IllegalStateException("Order is already " + order.getStatus().name().toLowerCase());
+        }
+
+        // If it fired in the meantime, the batch skips it because it is no longer active
+        index.remove(order.getId());
+        order.setStatus(ConditionalOrder.Status.CANCELLED);
+        return conditionalOrderRepository.save(order);
+    }
+
+    private void arm(ConditionalOrder order) {
+        index.add(order.getId(), order.getStockSymbol(), order.firesAtOrBelow(), toCents(order.getTriggerPrice()));
+    }
+
+    private void evaluate(String symbol, BigDecimal price) {
+        List<Long> fired = index.fire(symbol, toCents(price));
+        if (fired.isEmpty()) {
+            return;
+        }
+
+        meterRegistry.counter("bank.stock.conditional.fired").increment(fired.size());
+        executor.execute(() -> executeFired(fired, price));
+    }
+
+    private void executeFired(List<Long> fired, BigDecimal price) {
+        for (int start = 0; start < fired.size(); start += batchSize) {
+            List<Long> batch = fired.subList(start, Math.min(start + batchSize, fired.size()));
+            try {
+                retryExecutor.execute("conditional-order", () -> executeBatch(batch, price));
+            } catch (RuntimeException e) {
+                // Put them back so the next price change tries again
+                log.error("Conditional order batch of {} failed", batch.size(), e);
+                conditionalOrderRepository.findAllById(batch).stream()
+                        .filter(order -> order.getStatus() == ConditionalOrder.Status.ACTIVE)
+                        .forEach(this::arm);
+            }
+        }
+    }
+
+    /**
+     * Executes the orders of the batch that are still active and records each outcome in the same
+     * transaction. The @Version on ConditionalOrder makes a concurrent cancel roll the batch back
+     * instead of trading a cancelled order.
+     */
+    private List<ConditionalOrder> executeBatch(List<Long> ids, BigDecimal price) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        return template.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            Map<Long, ConditionalOrder> byId = new HashMap<>();
+            for (ConditionalOrder order : conditionalOrderRepository.findAllById(ids)) {
+                byId.put(order.getId(), order);
+            }
+
+            // Keep the firing order: nearest threshold first, oldest first within a price
+            List<ConditionalOrder> active = new ArrayList<>();
+            for (Long id : ids) {
+                ConditionalOrder order = byId.get(id);
+                if (order != null && order.getStatus() == ConditionalOrder.Status.ACTIVE) {
+                    active.add(order);
+                }
+            }
+
+            List<BatchTransferItemResult> results = stockService.executeTriggeredOrders(active);
+            for (int i = 0; i < results.size(); i++) {
+                BatchTransferItemResult result = results.get(i);
+                ConditionalOrder order = active.get(i);
+                boolean succeeded = "SUCCEEDED".equals(result.getStatus());
+
+                order.setStatus(succeeded ? ConditionalOrder.Status.EXECUTED : ConditionalOrder.Status.FAILED);
+                order.setTriggeredAt(now);
+                order.setTriggeredAtPrice(price);
+                order.setTransactionReference(result.getTransactionReference());
+                order.setResultMessage(result.getMessage());
+                meterRegistry.counter("bank.stock.conditional.runs", "status", result.getStatus()).increment();
+            }
+
+            return conditionalOrderRepository.saveAll(active);
+        });
+    }
+
+    private long toCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    private <E extends Enum<E>> E parseEnum(Class<E> type, String value, String field) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package edu.ssw590.summitwealthbank.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ssw590.summitwealthbank.model.Account;
+import edu.ssw590.summitwealthbank.model.StockTransaction;
+import edu.ssw590.summitwealthbank.model.Transaction;
+import edu.ssw590.summitwealthbank.repository.StockTransactionRepository;
+import edu.ssw590.summitwealthbank.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streams complete transfer or stock trade history as CSV or NDJSON. Rows come from a server-side
+ * cursor inside a read-only transaction and are detached and written one at a time, so memory use
+ * does not grow with the size of the history. Months moved to TransactionArchive are older than
+ * anything still in the database and are streamed first; only the archive files of the exported
+ * accounts are read.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    public enum Type {
+        TRANSFERS,
+        STOCKS
+    }
+
+    private static final String TRANSFER_HEADER = "id,transactionReference,timestamp,fromAccountId,toAccountId,amount,description";
+    private static final String STOCK_HEADER = "id,transactionReference,timestamp,accountId,stockSymbol,type,quantity,pricePerShare,totalAmount,profitLoss";
+
+    private final AccountService accountService;
+    private final TransactionRepository transactionRepository;
+    private final StockTransactionRepository stockTransactionRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionArchive transactionArchive;
+
+    public static Format parseFormat(String format) {
+        try {
+            return Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + format + ". Use csv or ndjson");
+        }
+    }
+
+    public static Type parseType(String type) {
+        try {
+            return Type.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export type: " + type + ". Use transfers or stocks");
+        }
+    }
+
+    /**
+     * Returns the accounts to export: the given account if the user owns it, otherwise all of the
+     * user's accounts. Called before streaming starts so errors can still become a 4xx response.
+     */
+    public List<Long> resolveAccountIds(String email, Long accountId) {
+        List<Long> accountIds = accountService.getAccountsByEmail(email).stream()
+                .map(Account::getId)
+                .collect(Collectors.toList());
+
+        if (accountId == null) {
+            return accountIds;
+        }
+
+        if (!accountIds.contains(accountId)) {
+            throw new SecurityException("You don't have permission to access this account");
+        }
+
+        return List.of(accountId);
+    }
+
+    public void export(List<Long> accountIds, Type type, Format format, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        long rows = template.execute(status -> {
+            if (accountIds.isEmpty()) {
+                writeHeader(writer, type, format);
+                return 0L;
+            }
+
+            if (type == Type.TRANSFERS) {
+                try (Stream<Transaction> stream = Stream.concat(
+                        transactionArchive.read(TransactionArchive.TRANSFERS, accountIds),
+                        transactionRepository.streamByAccountIds(accountIds))) {
+                    return writeRows(writer, format, TRANSFER_HEADER, stream.iterator(), this::toCsv);
+                }
+            }
+
+            try (Stream<StockTransaction> stream = Stream.concat(
+                    transactionArchive.read(TransactionArchive.STOCK_TRADES, accountIds),
+                    stockTransactionRepository.streamByAccountIds(accountIds))) {
+                return writeRows(writer, format, STOCK_HEADER, stream.iterator(), this::toCsv);
+            }
+        });
+
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.debug("Exported {} {} rows as {}", rows, type, format);
+    }
+
+    private <T> long writeRows(Writer writer, Format format, String header, Iterator<T> rows,
+                               Function<T, String> csvLine) {
+        long count = 0;
+        try {
+            if (format == Format.CSV) {
+                writer.write(header);
+                writer.write('\n');
+            }
+
+            while (rows.hasNext()) {
+                T row = rows.next();
+                writer.write(format == Format.CSV ? csvLine.apply(row) : objectMapper.writeValueAsString(row));
+                writer.write('\n');
+
+                // Keep the persistence context empty so it does not grow with the export
+                if (entityManager.contains(row)) {
+                    entityManager.detach(row);
+                }
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+
+    private void writeHeader(Writer writer, Type type, Format format) {
+        if (format != Format.CSV) {
+            return;
+        }
+        try {
+            writer.write(type == Type.TRANSFERS ? TRANSFER_HEADER : STOCK_HEADER);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String toCsv(Transaction tx) {
+        return String.join(",",
+                String.valueOf(tx.getId()),
+                csv(tx.getTransactionReference()),
+                csv(tx.getTimestamp()),
+                csv(tx.getFromAccountId()),
+                csv(tx.getToAccountId()),
+                csv(tx.getAmount()),
+                csv(tx.getDescription()));
+    }
+
+    private String toCsv(StockTransaction tx) {
+        return String.join(",",
+                String.valueOf(tx.getId()),
+                csv(tx.getTransactionReference()),
+                csv(tx.getTimestamp()),
+                csv(tx.getAccountId()),
+                csv(tx.getStockSymbol()),
+                csv(tx.getType()),
+                csv(tx.getQuantity()),
+                csv(tx.getPricePerShare()),
+                csv(tx.getTotalAmount()),
+                csv(tx.getProfitLoss()));
+    }
+
+    // RFC 4180 quoting: only fields with separators, quotes or line breaks are quoted
+    private String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,260 @@
+package edu.ssw590.summitwealthbank.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ssw590.summitwealthbank.model.IdempotencyRecord;
+import edu.ssw590.summitwealthbank.repository.IdempotencyRecordRepository;
+import edu.ssw590.summitwealthbank.util.TtlCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService implements TransactionExecutionListener {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.idempotency.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${app.idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${app.idempotency.in-progress-timeout-seconds:300}")
+    private long inProgressTimeoutSeconds;
+
+    private TtlCache<String, IdempotencyRecord> completed;
+
+    // Reservation of the idempotent action running on this thread
+    private final ThreadLocal<Reservation> running = new ThreadLocal<>();
+
+    private static final class Reservation {
+        final Long id;
+        volatile boolean applied;
+
+        Reservation(Long id) {
+            this.id = id;
+        }
+    }
+
+    @PostConstruct
+    void initCache() {
+        completed = new TtlCache<>(cacheSize, ttlMinutes * 60_000L);
+    }
+
+    /**
+     * Runs a money-moving request at most once per (user, Idempotency-Key). A replay of a finished
+     * request is answered from the in-memory cache (or the idempotency_key table after a restart or
+     * eviction) without invoking the action again. A request without the header runs as before.
+     * Reusing a key for another operation or a different request body is refused with 422, and an
+     * expired key counts as unused even before purgeExpiredKeys removes it.
+     *
+     * Only final outcomes are stored: 5xx responses, 409 conflicts and 429 rejections release the
+     * key so the client can retry with it, unless the action already committed changes.
+     *
+     * The reservation is marked APPLIED in the same transaction as the action's changes (see
+     * afterBegin), so a key left behind by a crash is never ambiguous. Once it is older than
+     * app.idempotency.in-progress-timeout-seconds, a key that never got that far is released and
+     * the request runs again, while an applied one is answered as processed without running it.
+     */
+    public ResponseEntity<?> execute(String idempotencyKey, String email, String operation, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return error(HttpStatus.BAD_REQUEST, HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String requestHash = hash(request);
+        String cacheKey = email + "\n" + idempotencyKey;
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord cached = completed.get(cacheKey);
+        if (cached != null && cached.getExpiresAt().isAfter(now)) {
+            return replay(cached, operation, requestHash);
+        }
+
+        IdempotencyRecord existing = idempotencyRecordRepository
+                .findByUserEmailAndIdempotencyKey(email, idempotencyKey)
+                .orElse(null);
+        if (existing != null) {
+            if (!existing.getExpiresAt().isAfter(now)) {
+                // Expired but not purged yet
+                idempotencyRecordRepository.delete(existing);
+            } else if (existing.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                completed.put(cacheKey, existing);
+                return replay(existing, operation, requestHash);
+            } else if (existing.getCreatedAt().isAfter(now.minusSeconds(inProgressTimeoutSeconds))) {
+                return error(HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed");
+            } else if (existing.getStatus() == IdempotencyRecord.Status.APPLIED) {
+                // Committed, but the instance stopped before it stored the response
+                return replayApplied(existing, operation, requestHash);
+            } else {
+                // Abandoned before anything was committed, so running it again is safe
+                log.warn("Releasing idempotency key of {} abandoned since {}", operation, existing.getCreatedAt());
+                idempotencyRecordRepository.delete(existing);
+            }
+        }
+
+        IdempotencyRecord reservation;
+        try {
+            reservation = idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.builder()
+                    .idempotencyKey(idempotencyKey)
+                    .userEmail(email)
+                    .operation(operation)
+                    .requestHash(requestHash)
+                    .status(IdempotencyRecord.Status.IN_PROGRESS)
+                    .expiresAt(now.plusMinutes(ttlMinutes))
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Another request with the same key won the race to reserve it
+            return error(HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed");
+        }
+
+        Reservation pending = new Reservation(reservation.getId());
+        ResponseEntity<?> response;
+        running.set(pending);
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            if (!pending.applied) {
+                idempotencyRecordRepository.delete(reservation);
+            }
+            throw e;
+        } finally {
+            running.remove();
+        }
+
+        int status = response.getStatusCode().value();
+        if (!pending.applied && (status >= 500 || status == HttpStatus.CONFLICT.value()
+                || status == HttpStatus.TOO_MANY_REQUESTS.value())) {
+            idempotencyRecordRepository.delete(reservation);
+            return response;
+        }
+
+        Object body = response.getBody();
+        reservation.setStatus(IdempotencyRecord.Status.COMPLETED);
+        reservation.setResponseStatus(status);
+        if (body instanceof String text) {
+            reservation.setResponseContentType(MediaType.TEXT_PLAIN_VALUE);
+            reservation.setResponseBody(text);
+        } else {
+            reservation.setResponseContentType(MediaType.APPLICATION_JSON_VALUE);
+            reservation.setResponseBody(toJson(body));
+        }
+
+        idempotencyRecordRepository.save(reservation);
+        completed.put(cacheKey, reservation);
+        return response;
+    }
+
+    /**
+     * Hooks every read-write transaction started while an idempotent action runs on this thread:
+     * just before it commits, the reservation is marked APPLIED in the same transaction. A rolled
+     * back attempt (for example one replayed by OptimisticRetryExecutor) leaves it IN_PROGRESS.
+     */
+    @Override
+    public void afterBegin(TransactionExecution transaction, @Nullable Throwable beginFailure) {
+        Reservation pending = running.get();
+        if (pending == null || beginFailure != null || transaction.isReadOnly()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                idempotencyRecordRepository.markApplied(pending.id,
+                        IdempotencyRecord.Status.IN_PROGRESS, IdempotencyRecord.Status.APPLIED);
+            }
+
+            @Override
+            public void afterCommit() {
+                pending.applied = true;
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval-ms:3600000}")
+    public void purgeExpiredKeys() {
+        int removed = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (removed > 0) {
+            log.info("Purged {} expired idempotency keys", removed);
+        }
+    }
+
+    private ResponseEntity<?> replay(IdempotencyRecord record, String operation, String requestHash) {
+        if (!matches(record, operation, requestHash)) {
+            return error(HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " was already used for a different request");
+        }
+
+        return ResponseEntity.status(record.getResponseStatus())
+                .contentType(MediaType.parseMediaType(record.getResponseContentType()))
+                .header("Idempotent-Replayed", "true")
+                .body(record.getResponseBody());
+    }
+
+    private ResponseEntity<?> replayApplied(IdempotencyRecord record, String operation, String requestHash) {
+        if (!matches(record, operation, requestHash)) {
+            return error(HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " was already used for a different request");
+        }
+
+        return ResponseEntity.ok()
+                .header("Idempotent-Replayed", "true")
+                .body(Map.of("message", "This request was already processed, but its response is no longer available"));
+    }
+
+    // Keys stored before request hashes were recorded only compare the operation
+    private boolean matches(IdempotencyRecord record, String operation, String requestHash) {
+        return record.getOperation().equals(operation)
+                && (record.getRequestHash() == null || record.getRequestHash().equals(requestHash));
+    }
+
+    String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash request for idempotency check", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store response for idempotent replay", e);
+        }
+    }
+
+    private ResponseEntity<?> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(Map.of("message", message));
+    }
+}
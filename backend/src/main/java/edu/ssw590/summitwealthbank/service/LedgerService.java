@@ -0,0 +1,323 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.model.Account;
+import edu.ssw590.summitwealthbank.model.AccountBalanceSnapshot;
+import edu.ssw590.summitwealthbank.model.LedgerPosting;
+import edu.ssw590.summitwealthbank.model.LedgerPosting.Direction;
+import edu.ssw590.summitwealthbank.model.LedgerPosting.JournalType;
+import edu.ssw590.summitwealthbank.model.LedgerPosting.LedgerAccount;
+import edu.ssw590.summitwealthbank.model.StockTransaction;
+import edu.ssw590.summitwealthbank.model.Transaction;
+import edu.ssw590.summitwealthbank.repository.AccountBalanceSnapshotRepository;
+import edu.ssw590.summitwealthbank.repository.AccountRepository;
+import edu.ssw590.summitwealthbank.repository.LedgerPostingBatchRepository;
+import edu.ssw590.summitwealthbank.repository.LedgerPostingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Append-only double-entry journal behind every balance change. Each journal debits one side and
+ * credits the other for the same amount, so the postings of a customer account replay to its
+ * balance. Balances at a point in time start from the nearest snapshot and add the postings it
+ * did not count.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerService {
+
+    private final LedgerPostingRepository ledgerPostingRepository;
+    private final LedgerPostingBatchRepository ledgerPostingBatchRepository;
+    private final AccountBalanceSnapshotRepository snapshotRepository;
+    private final AccountRepository accountRepository;
+
+    // Postings newer than this are left for the next run, so a snapshot stays behind live activity
+    @Value("${app.ledger.snapshot-lag-seconds:60}")
+    private long snapshotLagSeconds;
+
+    @Transactional
+    public void recordTransfer(String reference, Long fromAccountId, Long toAccountId, BigDecimal amount) {
+        List<LedgerPosting> postings = new ArrayList<>(2);
+        addTransfer(postings, reference, fromAccountId, toAccountId, amount, LocalDateTime.now());
+        post(postings);
+    }
+
+    @Transactional
+    public void recordTransfers(List<Transaction> transactions) {
+        List<LedgerPosting> postings = new ArrayList<>(transactions.size() * 2);
+        for (Transaction tx : transactions) {
+            addTransfer(postings, tx.getTransactionReference(), tx.getFromAccountId(), tx.getToAccountId(),
+                    tx.getAmount(), tx.getTimestamp());
+        }
+        post(postings);
+    }
+
+    @Transactional
+    public void recordDeposit(Long accountId, BigDecimal amount) {
+        List<LedgerPosting> postings = new ArrayList<>(2);
+        addJournal(postings, null, JournalType.DEPOSIT,
+                systemLeg(LedgerAccount.EXTERNAL_FUNDING, Direction.DEBIT),
+                customerLeg(accountId, Direction.CREDIT),
+                amount, LocalDateTime.now());
+        post(postings);
+    }
+
+    @Transactional
+    public void recordOpeningBalance(Long accountId, BigDecimal amount) {
+        if (amount == null || amount.signum() == 0) {
+            return;
+        }
+        List<LedgerPosting> postings = new ArrayList<>(2);
+        addOpening(postings, accountId, amount, LocalDateTime.now());
+        post(postings);
+    }
+
+    /**
+     * Books a stock trade against the brokerage clearing account: buys move cash out of the
+     * customer account, sells move proceeds in.
+     */
+    @Transactional
+    public void recordStockTrade(String reference, Long accountId, BigDecimal amount, boolean buy) {
+        recordClearing(buy ? JournalType.STOCK_BUY : JournalType.STOCK_SELL, LedgerAccount.BROKERAGE_CLEARING,
+                reference, accountId, amount, buy);
+    }
+
+    /** Books several stock trades with their postings inserted in one batch. */
+    @Transactional
+    public void recordStockTrades(List<StockTransaction> trades) {
+        List<LedgerPosting> postings = new ArrayList<>(trades.size() * 2);
+        for (StockTransaction trade : trades) {
+            boolean buy = trade.getType() == StockTransaction.TransactionType.BUY;
+            addClearing(postings, buy ? JournalType.STOCK_BUY : JournalType.STOCK_SELL, LedgerAccount.BROKERAGE_CLEARING,
+                    trade.getTransactionReference(), trade.getAccountId(), trade.getTotalAmount(), buy, trade.getTimestamp());
+        }
+        post(postings);
+    }
+
+    @Transactional
+    public void recordWealthTrade(Long accountId, BigDecimal amount, boolean buy) {
+        recordClearing(buy ? JournalType.WEALTH_BUY : JournalType.WEALTH_SELL, LedgerAccount.WEALTH_CLEARING,
+                null, accountId, amount, buy);
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal balanceAsOf(Long accountId, LocalDateTime asOf) {
+        AccountBalanceSnapshot snapshot = snapshotRepository
+                .findFirstByAccountIdAndRunIsNotNullAndAsOfLessThanEqualOrderByAsOfDescIdDesc(accountId, asOf)
+                .orElse(null);
+
+        BigDecimal base = snapshot != null ? snapshot.getBalance() : BigDecimal.ZERO;
+        Long afterRun = snapshot != null ? snapshot.getRun() : 0L;
+
+        return base.add(ledgerPostingRepository.sumForAccountSince(accountId, afterRun, asOf));
+    }
+
+    /**
+     * Balances as of asOf for every account with an id in [fromId, toId] that has postings, with a
+     * fixed number of queries however many accounts the range holds. A run snapshots every account
+     * it claimed postings for, so each account's latest snapshot up to the newest run taken by asOf
+     * leaves only postings no run up to that one counted to add. Accounts without postings are absent.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> balancesAsOf(Long fromId, Long toId, LocalDateTime asOf) {
+        Long run = snapshotRepository.findLatestRunAsOf(asOf);
+
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        if (run > 0) {
+            for (AccountBalanceSnapshot snapshot : snapshotRepository.findLatestInRangeUpToRun(fromId, toId, run)) {
+                balances.put(snapshot.getAccountId(), snapshot.getBalance());
+            }
+        }
+        for (Object[] row : ledgerPostingRepository.sumByAccountRangeSince(fromId, toId, run, asOf)) {
+            balances.merge((Long) row[0], (BigDecimal) row[1], BigDecimal::add);
+        }
+        return balances;
+    }
+
+    /** Net change of every account with an id in [fromId, toId] over postings in (after, upTo]. */
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> netChangesBetween(Long fromId, Long toId, LocalDateTime after, LocalDateTime upTo) {
+        Map<Long, BigDecimal> changes = new HashMap<>();
+        for (Object[] row : ledgerPostingRepository.sumByAccountRangeBetween(fromId, toId, after, upTo)) {
+            changes.put((Long) row[0], (BigDecimal) row[1]);
+        }
+        return changes;
+    }
+
+    /**
+     * Rolls every account with new postings forward from its latest snapshot. Each run claims the
+     * committed postings up to the cutoff that no earlier run counted, by stamping its run number
+     * on them, so the cost follows activity rather than history. A posting whose transaction
+     * commits after a run has passed its posted_at is claimed by the next run instead of being
+     * skipped, which an id watermark could not do: ids are handed out before commit.
+     *
+     * Runs on several instances at once cannot both write a snapshot of one account for the same
+     * run number; the unique key on (account_id, snapshot_run) rolls the loser back.
+     */
+    @Scheduled(fixedDelayString = "${app.ledger.snapshot-interval-ms:3600000}")
+    @Transactional
+    public void snapshotBalances() {
+        if (snapshotRepository.existsByRunIsNull()) {
+            // Written with the old id watermark, which could miss late postings; rebuild from the journal
+            snapshotRepository.deleteAllInBatch();
+            log.info("Dropped balance snapshots without a run; the next run rebuilds them");
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(snapshotLagSeconds);
+        Long run = snapshotRepository.findLatestRun() + 1;
+        if (ledgerPostingRepository.markSnapshotRun(run, cutoff) == 0) {
+            return;
+        }
+
+        Map<Long, BigDecimal> deltas = new HashMap<>();
+        for (Object[] row : ledgerPostingRepository.sumByAccountInRun(run)) {
+            deltas.put((Long) row[0], (BigDecimal) row[1]);
+        }
+
+        if (deltas.isEmpty()) {
+            // Only system legs were claimed; the next run reuses the number and adds nothing for them
+            return;
+        }
+
+        Map<Long, BigDecimal> previous = new HashMap<>();
+        for (AccountBalanceSnapshot snapshot : snapshotRepository.findLatestByAccountIds(deltas.keySet())) {
+            previous.put(snapshot.getAccountId(), snapshot.getBalance());
+        }
+
+        Long lastPostingId = ledgerPostingRepository.findMaxIdInRun(run);
+        List<AccountBalanceSnapshot> snapshots = new ArrayList<>(deltas.size());
+        for (Map.Entry<Long, BigDecimal> entry : deltas.entrySet()) {
+            snapshots.add(AccountBalanceSnapshot.builder()
+                    .accountId(entry.getKey())
+                    .balance(previous.getOrDefault(entry.getKey(), BigDecimal.ZERO).add(entry.getValue()))
+                    .lastPostingId(lastPostingId)
+                    .run(run)
+                    .asOf(cutoff)
+                    .build());
+        }
+
+        snapshotRepository.saveAll(snapshots);
+        log.info("Wrote {} balance snapshots in run {}", snapshots.size(), run);
+    }
+
+    /**
+     * Accounts that existed before the ledger get an OPENING journal for their current balance so
+     * that replaying postings matches the stored balance from here on.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillOpeningBalances() {
+        Set<Long> posted = new HashSet<>(ledgerPostingRepository.findPostedAccountIds());
+        List<LedgerPosting> postings = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Account account : accountRepository.findAll()) {
+            if (!posted.contains(account.getId()) && account.getBalance().signum() != 0) {
+                addOpening(postings, account.getId(), account.getBalance(), now);
+            }
+        }
+
+        if (!postings.isEmpty()) {
+            post(postings);
+            log.info("Backfilled opening ledger balances for {} accounts", postings.size() / 2);
+        }
+    }
+
+    private void post(List<LedgerPosting> postings) {
+        BigDecimal debits = BigDecimal.ZERO;
+        BigDecimal credits = BigDecimal.ZERO;
+        for (LedgerPosting posting : postings) {
+            if (posting.getDirection() == Direction.DEBIT) {
+                debits = debits.add(posting.getAmount());
+            } else {
+                credits = credits.add(posting.getAmount());
+            }
+        }
+
+        if (debits.compareTo(credits) != 0) {
+            throw new IllegalStateException("Unbalanced journal: debits " + debits + " != credits " + credits);
+        }
+
+        ledgerPostingBatchRepository.insertAll(postings);
+    }
+
+    private void recordClearing(JournalType type, LedgerAccount clearing, String reference, Long accountId,
+                                BigDecimal amount, boolean outflow) {
+        List<LedgerPosting> postings = new ArrayList<>(2);
+        addClearing(postings, type, clearing, reference, accountId, amount, outflow, LocalDateTime.now());
+        post(postings);
+    }
+
+    private void addClearing(List<LedgerPosting> postings, JournalType type, LedgerAccount clearing, String reference,
+                             Long accountId, BigDecimal amount, boolean outflow, LocalDateTime postedAt) {
+        if (outflow) {
+            addJournal(postings, reference, type,
+                    customerLeg(accountId, Direction.DEBIT),
+                    systemLeg(clearing, Direction.CREDIT),
+                    amount, postedAt);
+        } else {
+            addJournal(postings, reference, type,
+                    systemLeg(clearing, Direction.DEBIT),
+                    customerLeg(accountId, Direction.CREDIT),
+                    amount, postedAt);
+        }
+    }
+
+    private void addTransfer(List<LedgerPosting> postings, String reference, Long fromAccountId, Long toAccountId,
+                             BigDecimal amount, LocalDateTime postedAt) {
+        addJournal(postings, reference, JournalType.TRANSFER,
+                customerLeg(fromAccountId, Direction.DEBIT),
+                customerLeg(toAccountId, Direction.CREDIT),
+                amount, postedAt);
+    }
+
+    private void addOpening(List<LedgerPosting> postings, Long accountId, BigDecimal amount, LocalDateTime postedAt) {
+        // A negative opening balance is booked the other way round so amounts stay positive
+        boolean positive = amount.signum() > 0;
+        addJournal(postings, null, JournalType.OPENING,
+                systemLeg(LedgerAccount.EXTERNAL_FUNDING, positive ? Direction.DEBIT : Direction.CREDIT),
+                customerLeg(accountId, positive ? Direction.CREDIT : Direction.DEBIT),
+                amount.abs(), postedAt);
+    }
+
+    private void addJournal(List<LedgerPosting> postings, String reference, JournalType type,
+                            LedgerPosting debit, LedgerPosting credit, BigDecimal amount, LocalDateTime postedAt) {
+        for (LedgerPosting leg : List.of(debit, credit)) {
+            leg.setJournalReference(reference);
+            leg.setJournalType(type);
+            leg.setAmount(amount);
+            leg.setPostedAt(postedAt);
+            postings.add(leg);
+        }
+    }
+
+    private LedgerPosting customerLeg(Long accountId, Direction direction) {
+        return LedgerPosting.builder()
+                .accountId(accountId)
+                .ledgerAccount(LedgerAccount.CUSTOMER)
+                .direction(direction)
+                .build();
+    }
+
+    private LedgerPosting systemLeg(LedgerAccount ledgerAccount, Direction direction) {
+        return LedgerPosting.builder()
+                .ledgerAccount(ledgerAccount)
+                .direction(direction)
+                .build();
+    }
+}
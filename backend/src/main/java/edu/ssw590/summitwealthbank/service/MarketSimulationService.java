@@ -0,0 +1,261 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.config.MarketSimulationProperties;
+import edu.ssw590.summitwealthbank.event.StockPriceChangedEvent;
+import edu.ssw590.summitwealthbank.model.PriceTick;
+import edu.ssw590.summitwealthbank.model.Stock;
+import edu.ssw590.summitwealthbank.repository.PriceTickBatchRepository;
+import edu.ssw590.summitwealthbank.repository.StockRepository;
+import edu.ssw590.summitwealthbank.util.PriceTickBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves the price of every stock along a geometric Brownian motion, for load testing trading and
+ * valuation against live prices. Off unless app.simulation.enabled is set.
+ *
+ * Each stock ticks at the rate of its sector with that sector's drift and volatility (see
+ * MarketSimulationProperties). Ticks are recorded in a PriceTickBuffer per symbol, and every
+ * app.simulation.flush-ms one transaction inserts them into price_tick and sets the latest price
+ * on each stock that moved, which updates the quote cache and publishes StockPriceChangedEvent
+ * like an admin price update. All ticks, not only the latest, go to PriceCandleService, so the
+ * events are marked as already recorded there. Ticking and flushing share one thread, so the
+ * simulated state is never touched concurrently.
+ *
+ * A stock whose price was changed by someone else since the last flush (an admin update)
+ * continues its path from that price instead of being overwritten.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MarketSimulationService {
+
+    private static final double MILLIS_PER_YEAR = 365.25 * 24 * 60 * 60 * 1000;
+
+    private static final class SimulatedStock {
+        final String symbol;
+        final MarketSimulationProperties.Sector sector;
+        final PriceTickBuffer ticks;
+        double price;
+        long storedCents;
+        long lastTickAt;
+
+        SimulatedStock(Stock stock, MarketSimulationProperties.Sector sector, int bufferCapacity, long now) {
+            this.symbol = stock.getSymbol();
+            this.sector = sector;
+            this.ticks = new PriceTickBuffer(bufferCapacity);
+            this.storedCents = toCents(stock.getCurrentPrice());
+            this.price = storedCents / 100.0;
+            this.lastTickAt = now;
+        }
+    }
+
+    private final MarketSimulationProperties properties;
+    private final StockRepository stockRepository;
+    private final PriceTickBatchRepository priceTickBatchRepository;
+    private final StockQuoteCache stockQuoteCache;
+    private final PriceCandleService priceCandleService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    // Only used on the simulator thread
+    private final Map<String, SimulatedStock> stocks = new HashMap<>();
+    private SplittableRandom random;
+    private long lastPurgeAt;
+
+    private ScheduledExecutorService simulator;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        random = properties.getSeed() == null ? new SplittableRandom() : new SplittableRandom(properties.getSeed());
+        simulator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "price-simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Poll at the fastest tick rate; each stock steps only once its own interval has passed
+        long pollMs = properties.getDefaults().getTickMs();
+        for (MarketSimulationProperties.Sector sector : properties.getSectors().values()) {
+            pollMs = Math.min(pollMs, sector.getTickMs());
+        }
+        simulator.execute(() -> track(stockRepository.findAll(), System.currentTimeMillis()));
+        simulator.scheduleAtFixedRate(guarded(this::tick), pollMs, Math.max(1, pollMs), TimeUnit.MILLISECONDS);
+        simulator.scheduleWithFixedDelay(guarded(this::flush), properties.getFlushMs(), properties.getFlushMs(),
+                TimeUnit.MILLISECONDS);
+        log.info("Market simulation started: polling every {} ms, flushing every {} ms, time scale {}",
+                pollMs, properties.getFlushMs(), properties.getTimeScale());
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (simulator != null) {
+            simulator.shutdown();
+            simulator.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * One GBM step: price * exp((drift - volatility^2 / 2) * dt + volatility * sqrt(dt) * z), with
+     * dt in years and z a standard normal draw.
+     */
+    static double step(double price, double drift, double volatility, double dtYears, double z) {
+        return price * Math.exp((drift - volatility * volatility / 2) * dtYears + volatility * Math.sqrt(dtYears) * z);
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        for (SimulatedStock stock : stocks.values()) {
+            long elapsed = now - stock.lastTickAt;
+            if (elapsed < stock.sector.getTickMs()) {
+                continue;
+            }
+
+            double dtYears = elapsed * properties.getTimeScale() / MILLIS_PER_YEAR;
+            stock.price = step(stock.price, stock.sector.getDrift(), stock.sector.getVolatility(), dtYears, random.nextGaussian());
+            stock.lastTickAt = now;
+            if (!stock.ticks.add(now, Math.max(1, Math.round(stock.price * 100)))) {
+                meterRegistry.counter("bank.simulation.ticks.dropped").increment();
+            }
+        }
+    }
+
+    private void flush() {
+        List<PriceTick> batch = new ArrayList<>();
+        Map<String, Integer> flushed = new HashMap<>();
+        Map<String, Long> latest = new HashMap<>();
+        for (SimulatedStock stock : stocks.values()) {
+            int pending = stock.ticks.pending();
+            if (pending == 0) {
+                continue;
+            }
+            for (int i = 0; i < pending; i++) {
+                batch.add(PriceTick.builder()
+                        .symbol(stock.symbol)
+                        .price(BigDecimal.valueOf(stock.ticks.centsAt(i), 2))
+                        .tickTime(toDateTime(stock.ticks.timeAt(i)))
+                        .build());
+            }
+            flushed.put(stock.symbol, pending);
+            latest.put(stock.symbol, stock.ticks.centsAt(pending - 1));
+        }
+        if (batch.isEmpty()) {
+            track(stockRepository.findAll(), System.currentTimeMillis());
+            return;
+        }
+
+        List<Stock> current = retryExecutor.execute("price-simulation", () -> store(batch, latest));
+        for (Map.Entry<String, Integer> entry : flushed.entrySet()) {
+            stocks.get(entry.getKey()).ticks.discard(entry.getValue());
+        }
+        meterRegistry.counter("bank.simulation.ticks").increment(batch.size());
+
+        track(current, System.currentTimeMillis());
+        purgeOldTicks();
+    }
+
+    /**
+     * Stores the ticks and moves each stock to its latest simulated price, unless its price no
+     * longer is the one the simulation last stored. Returns every stock as of this transaction.
+     */
+    private List<Stock> store(List<PriceTick> batch, Map<String, Long> latest) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        return template.execute(status -> {
+            priceTickBatchRepository.insertAll(batch);
+            // Every tick goes into the candles, not only the latest price of each stock
+            priceCandleService.recordTicks(batch);
+
+            List<Stock> all = stockRepository.findAll();
+            for (Stock stock : all) {
+                SimulatedStock simulated = stocks.get(stock.getSymbol());
+                Long cents = latest.get(stock.getSymbol());
+                if (simulated == null || cents == null || cents == simulated.storedCents
+                        || toCents(stock.getCurrentPrice()) != simulated.storedCents) {
+                    continue;
+                }
+                stock.setCurrentPrice(BigDecimal.valueOf(cents, 2));
+                stockQuoteCache.put(stock);
+                eventPublisher.publishEvent(new StockPriceChangedEvent(stock.getSymbol(), stock.getCurrentPrice(), true));
+            }
+            return all;
+        });
+    }
+
+    /** Follows stocks added, deleted or repriced outside the simulation. */
+    private void track(List<Stock> current, long now) {
+        Set<String> present = new HashSet<>();
+        for (Stock stock : current) {
+            present.add(stock.getSymbol());
+            SimulatedStock simulated = stocks.get(stock.getSymbol());
+            long cents = toCents(stock.getCurrentPrice());
+            if (simulated == null) {
+                stocks.put(stock.getSymbol(), new SimulatedStock(stock,
+                        properties.forSector(stock.getSector()), properties.getBufferCapacity(), now));
+            } else if (cents != simulated.storedCents && cents != Math.round(simulated.price * 100)) {
+                simulated.storedCents = cents;
+                simulated.price = cents / 100.0;
+            } else {
+                simulated.storedCents = cents;
+            }
+        }
+        stocks.keySet().retainAll(present);
+    }
+
+    private void purgeOldTicks() {
+        long now = System.currentTimeMillis();
+        if (properties.getTickRetentionHours() <= 0 || now - lastPurgeAt < TimeUnit.HOURS.toMillis(1)) {
+            return;
+        }
+        lastPurgeAt = now;
+        int deleted = priceTickBatchRepository.deleteOlderThan(LocalDateTime.now().minusHours(properties.getTickRetentionHours()));
+        log.debug("Deleted {} price ticks", deleted);
+    }
+
+    private Runnable guarded(Runnable task) {
+        // An exception would cancel the periodic task for good
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Market simulation step failed", e);
+            }
+        };
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price.movePointRight(2).longValue();
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
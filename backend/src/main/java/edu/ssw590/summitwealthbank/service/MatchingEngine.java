@@ -0,0 +1,441 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.dto.OrderBookResponse;
+import edu.ssw590.summitwealthbank.dto.StockOrderRequest;
+import edu.ssw590.summitwealthbank.model.StockOrder;
+import edu.ssw590.summitwealthbank.service.StockOrderService.Fill;
+import edu.ssw590.summitwealthbank.service.StockOrderService.Release;
+import edu.ssw590.summitwealthbank.service.StockOrderService.SettlementEvent;
+import edu.ssw590.summitwealthbank.util.OrderBook;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory limit order books with price-time priority. Symbols are spread over
+ * app.trading.shards shards; each shard has one matching thread that owns its books outright, so
+ * matching needs no locks. Fills and releases are handed to the shard's settlement thread, which
+ * books them through StockOrderService in batches of up to app.trading.settle-batch-size, one
+ * transaction per batch. Two orders of the same user never match: the resting one is cancelled.
+ *
+ * A failed settlement batch is retried. After app.trading.settle-max-attempts failures it is
+ * split in halves, each settled the same way, until the failing event is on its own; that event
+ * is written to settlement_dead_letter and counted in bank.trading.settle.dead.letters. While the
+ * database is down even that write fails, so the event is retried until it commits; the matching
+ * thread then blocks, the inbound queue fills and new orders are rejected.
+ *
+ * A match is only held in memory until its batch commits. Books are rebuilt from the active
+ * orders at startup, so matches that were not settled when the process stopped are discarded:
+ * their orders are still active in the database and may match again, against a different
+ * counterparty or at a different price.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MatchingEngine {
+
+    private final StockOrderService orderService;
+    private final StockQuoteCache stockQuoteCache;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.trading.order-book.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.trading.shards:4}")
+    private int shardCount;
+
+    @Value("${app.trading.queue-capacity:65536}")
+    private int queueCapacity;
+
+    @Value("${app.trading.settle-batch-size:500}")
+    private int settleBatchSize;
+
+    @Value("${app.trading.settle-max-attempts:5}")
+    private int settleMaxAttempts;
+
+    @Value("${app.trading.settle-retry-max-backoff-ms:5000}")
+    private long settleRetryMaxBackoffMs;
+
+    private Shard[] shards;
+    private volatile boolean running;
+
+    // Set once the books are restored, so a new order cannot also be replayed from the database
+    private volatile boolean accepting;
+
+    private sealed interface Command permits Place, Cancel, Snapshot {
+        String symbol();
+    }
+
+    private record Place(String symbol, long orderId, long owner, boolean buy, long limitCents, long quantity,
+                         boolean rest) implements Command {
+    }
+
+    private record Cancel(String symbol, long orderId) implements Command {
+    }
+
+    private record Snapshot(String symbol, int levels, CompletableFuture<OrderBookResponse> result) implements Command {
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+            meterRegistry.gauge("bank.trading.queue.depth", Tags.of("shard", String.valueOf(i)), shards[i].inbound, BlockingQueue::size);
+        }
+        running = true;
+        for (Shard shard : shards) {
+            shard.start();
+        }
+        log.info("Matching engine started ({} shards, queue capacity {})", shardCount, queueCapacity);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreBooks() {
+        if (!running) {
+            return;
+        }
+
+        List<StockOrder> active = orderService.getActiveOrders();
+        Map<Long, Long> owners = orderService.getAccountOwners(active.stream()
+                .map(StockOrder::getAccountId)
+                .collect(Collectors.toSet()));
+        for (StockOrder order : active) {
+            enqueue(toPlace(order, order.getRemainingQuantity(), owners), true);
+        }
+        if (!active.isEmpty()) {
+            log.info("Restored {} active orders into the order books", active.size());
+        }
+        accepting = true;
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (shards == null) {
+            return;
+        }
+
+        // Matching threads finish their queues first, then the settlement threads drain what they produced
+        accepting = false;
+        running = false;
+        for (Shard shard : shards) {
+            shard.matcher.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        for (Shard shard : shards) {
+            shard.settling = false;
+            shard.settler.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    /**
+     * Reserves funds or shares for the order and queues it for matching. The order is returned
+     * as OPEN; fills are settled asynchronously and show up in the order and trade history.
+     *
+     * @throws RejectedExecutionException if the order book is disabled or the shard is overloaded
+     */
+    public StockOrder placeOrder(StockOrderRequest request, String email) {
+        if (!accepting) {
+            throw new RejectedExecutionException("Order book trading is not enabled");
+        }
+
+        StockOrder order = retryExecutor.execute("stock-order", () -> orderService.placeOrder(request, email));
+        try {
+            Map<Long, Long> owners = orderService.getAccountOwners(List.of(order.getAccountId()));
+            enqueue(toPlace(order, order.getQuantity(), owners), false);
+        } catch (RejectedExecutionException e) {
+            retryExecutor.execute("stock-order-release", () -> {
+                orderService.settle(List.of(new Release(order.getId(), order.getQuantity(), true)));
+                return null;
+            });
+            order.setStatus(StockOrder.Status.REJECTED);
+            throw e;
+        }
+        meterRegistry.counter("bank.trading.orders", "side", order.getSide().name(),
+                "type", order.getOrderType().name()).increment();
+        return order;
+    }
+
+    /**
+     * Queues removal of the order's unfilled quantity from the book. Anything that matches before
+     * the cancel reaches the book still trades.
+     */
+    public void cancelOrder(Long orderId, String email) {
+        if (!accepting) {
+            throw new RejectedExecutionException("Order book trading is not enabled");
+        }
+
+        StockOrder order = orderService.getActiveOrder(orderId, email);
+        enqueue(new Cancel(order.getStockSymbol(), order.getId()), false);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the symbol is not a listed stock
+     */
+    public OrderBookResponse getOrderBook(String symbol, int levels) {
+        if (!accepting) {
+            throw new RejectedExecutionException("Order book trading is not enabled");
+        }
+        String listed = stockQuoteCache.find(symbol.toUpperCase())
+                .map(StockQuoteCache.Quote::symbol)
+                .orElseThrow(() -> new IllegalArgumentException("Stock not found: " + symbol));
+
+        CompletableFuture<OrderBookResponse> result = new CompletableFuture<>();
+        enqueue(new Snapshot(listed, Math.max(1, Math.min(levels, 100)), result), false);
+        try {
+            return result.get(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while reading the order book");
+        } catch (ExecutionException | TimeoutException e) {
+            throw new RejectedExecutionException("Order book is busy. Please try again shortly.");
+        }
+    }
+
+    private Place toPlace(StockOrder order, long quantity, Map<Long, Long> owners) {
+        long limitCents = order.getLimitPrice().movePointRight(2).longValueExact();
+        boolean rest = order.getOrderType() == StockOrder.OrderType.LIMIT;
+        Long owner = owners.get(order.getAccountId());
+        if (owner == null) {
+            throw new IllegalStateException("Account not found: " + order.getAccountId());
+        }
+        return new Place(order.getStockSymbol(), order.getId(), owner, order.isBuy(), limitCents, quantity, rest);
+    }
+
+    private void enqueue(Command command, boolean wait) {
+        Shard shard = shards[Math.floorMod(command.symbol().hashCode(), shards.length)];
+        if (wait) {
+            try {
+                shard.inbound.put(command);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while queueing order");
+            }
+        }
+        if (!shard.inbound.offer(command)) {
+            meterRegistry.counter("bank.trading.rejected").increment();
+            throw new RejectedExecutionException("Order queue is full. Please try again shortly.");
+        }
+    }
+
+    private final class Shard implements OrderBook.FillListener {
+        private final BlockingQueue<Command> inbound = new ArrayBlockingQueue<>(queueCapacity);
+        private final BlockingQueue<SettlementEvent> outbound = new ArrayBlockingQueue<>(queueCapacity);
+        private final Map<String, OrderBook> books = new HashMap<>();
+        private final Thread matcher;
+        private final Thread settler;
+        private final Counter fills = meterRegistry.counter("bank.trading.fills");
+        private final Counter selfTrades = meterRegistry.counter("bank.trading.self.trades.prevented");
+        private volatile boolean settling = true;
+        private String currentSymbol;
+
+        private Shard(int index) {
+            matcher = new Thread(this::matchLoop, "order-matcher-" + index);
+            matcher.setDaemon(true);
+            settler = new Thread(this::settleLoop, "order-settler-" + index);
+            settler.setDaemon(true);
+        }
+
+        private void start() {
+            matcher.start();
+            settler.start();
+        }
+
+        private void matchLoop() {
+            List<Command> batch = new ArrayList<>(1024);
+
+            while (running || !inbound.isEmpty()) {
+                try {
+                    Command first = inbound.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    inbound.drainTo(batch, 1023);
+
+                    for (Command command : batch) {
+                        process(command);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (RuntimeException e) {
+                    log.error("Order matcher failed", e);
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        // Only an order creates a book, so cancels and snapshots for unknown symbols leave nothing behind
+        private void process(Command command) throws InterruptedException {
+            currentSymbol = command.symbol();
+
+            if (command instanceof Place place) {
+                OrderBook book = books.computeIfAbsent(place.symbol(), symbol -> new OrderBook(1024));
+                long left = book.submit(place.orderId(), place.owner(), place.buy(), place.limitCents(),
+                        place.quantity(), place.rest(), this);
+                if (left > 0 && !place.rest()) {
+                    outbound.put(new Release(place.orderId(), left, false));
+                }
+            } else if (command instanceof Cancel cancel) {
+                OrderBook book = books.get(cancel.symbol());
+                long left = book == null ? 0 : book.cancel(cancel.orderId());
+                if (left > 0) {
+                    outbound.put(new Release(cancel.orderId(), left, false));
+                }
+            } else if (command instanceof Snapshot snapshot) {
+                snapshot.result().complete(snapshot(books.get(snapshot.symbol()), snapshot));
+            }
+        }
+
+        @Override
+        public void onFill(long takerOrderId, long makerOrderId, long price, long quantity) {
+            fills.increment();
+            handOff(new Fill(currentSymbol, takerOrderId, makerOrderId, price, quantity));
+        }
+
+        @Override
+        public void onSelfTradeCancel(long takerOrderId, long makerOrderId, long quantity) {
+            selfTrades.increment();
+            handOff(new Release(makerOrderId, quantity, false));
+        }
+
+        private void handOff(SettlementEvent event) {
+            try {
+                outbound.put(event);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while handing off a settlement event", e);
+            }
+        }
+
+        private OrderBookResponse snapshot(OrderBook book, Snapshot snapshot) {
+            if (book == null) {
+                return OrderBookResponse.builder()
+                        .stockSymbol(snapshot.symbol())
+                        .bids(new ArrayList<>())
+                        .asks(new ArrayList<>())
+                        .build();
+            }
+            return OrderBookResponse.builder()
+                    .stockSymbol(snapshot.symbol())
+                    .bids(levels(book, true, snapshot.levels()))
+                    .asks(levels(book, false, snapshot.levels()))
+                    .build();
+        }
+
+        private List<OrderBookResponse.Level> levels(OrderBook book, boolean buy, int count) {
+            long[] prices = new long[count];
+            long[] quantities = new long[count];
+            int filled = book.depth(buy, prices, quantities);
+
+            List<OrderBookResponse.Level> levels = new ArrayList<>(filled);
+            for (int i = 0; i < filled; i++) {
+                levels.add(new OrderBookResponse.Level(BigDecimal.valueOf(prices[i], 2), quantities[i]));
+            }
+            return levels;
+        }
+
+        private void settleLoop() {
+            List<SettlementEvent> batch = new ArrayList<>(settleBatchSize);
+
+            while (settling || !outbound.isEmpty()) {
+                try {
+                    SettlementEvent first = outbound.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    outbound.drainTo(batch, settleBatchSize - 1);
+
+                    settleUntilCommitted(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        private void settleUntilCommitted(List<SettlementEvent> batch) throws InterruptedException {
+            meterRegistry.summary("bank.trading.settle.batch.size").record(batch.size());
+            settleOrSplit(batch);
+        }
+
+        // Halves are settled in order, so events still reach the database in book order
+        private void settleOrSplit(List<SettlementEvent> events) throws InterruptedException {
+            long backoff = 50;
+
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    retryExecutor.execute("order-settlement", () -> {
+                        orderService.settle(events);
+                        return null;
+                    });
+                    return;
+                } catch (RuntimeException e) {
+                    meterRegistry.counter("bank.trading.settle.failures").increment();
+                    if (attempt >= settleMaxAttempts) {
+                        if (events.size() > 1) {
+                            int half = events.size() / 2;
+                            log.warn("Settling {} order book events failed {} times; splitting the batch",
+                                    events.size(), attempt);
+                            settleOrSplit(events.subList(0, half));
+                            settleOrSplit(events.subList(half, events.size()));
+                            return;
+                        }
+                        if (deadLetter(events.get(0), e)) {
+                            return;
+                        }
+                    }
+                    log.error("Settling {} order book events failed; retrying in {} ms", events.size(), backoff, e);
+                    Thread.sleep(backoff);
+                    backoff = Math.min(backoff * 2, settleRetryMaxBackoffMs);
+                }
+            }
+        }
+
+        // Fails while the database is unreachable, in which case the event is not given up on
+        private boolean deadLetter(SettlementEvent event, RuntimeException error) {
+            try {
+                orderService.recordDeadLetter(event, error);
+            } catch (RuntimeException e) {
+                log.error("Could not dead-letter {}", event, e);
+                return false;
+            }
+            meterRegistry.counter("bank.trading.settle.dead.letters").increment();
+            log.error("Dead-lettered order book event {} after {} failed attempts; its orders and accounts need "
+                    + "manual repair", event, settleMaxAttempts, error);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package edu.ssw590.summitwealthbank.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OptimisticRetryExecutor {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.concurrency.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.concurrency.base-backoff-ms:5}")
+    private long baseBackoffMs;
+
+    @Value("${app.concurrency.max-backoff-ms:200}")
+    private long maxBackoffMs;
+
+    /**
+     * Runs a balance-mutating service call, replaying it when the commit fails on a @Version
+     * conflict. Each attempt has to start its own transaction, so this is called from the
+     * controllers around the transactional service method rather than from inside it.
+     * Conflicts are counted per operation as bank.concurrency.conflicts.
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Retrying inside the caller's transaction would only replay a rollback-only transaction
+            return action.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                meterRegistry.counter("bank.concurrency.conflicts", "operation", operation).increment();
+
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("bank.concurrency.retries.exhausted", "operation", operation).increment();
+                    log.warn("{} gave up after {} optimistic lock conflicts", operation, attempt);
+                    throw e;
+                }
+
+                sleep(backoffMillis(attempt));
+            }
+        }
+    }
+
+    // Full jitter: a random delay up to an exponentially growing cap, so colliding writers spread out
+    long backoffMillis(int attempt) {
+        long cap = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying after a concurrent update", e);
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.repository.StockTransactionRepository;
+import edu.ssw590.summitwealthbank.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Monthly range partitioning of the transaction and stock_transaction tables on PostgreSQL
+ * (a no-op on other databases).
+ *
+ * On the first run each table Hibernate created as a plain table is converted in one transaction:
+ * renamed aside, recreated PARTITION BY RANGE (timestamp) with a monthly partition for every
+ * month that has rows plus a default partition, refilled and dropped. The conversion holds an
+ * exclusive lock on the table while it copies.
+ *
+ * Partitioned tables cannot enforce uniqueness without the partition key, so the primary key
+ * becomes (id, timestamp) and transaction_reference is kept unique by a plain
+ * {table}_reference_registry table that an insert trigger fills; references of archived months
+ * stay in it. Plain tables, on PostgreSQL or any other database, get a unique index on
+ * transaction_reference instead. The entities do not declare the column unique, since Hibernate
+ * cannot add that constraint to a partitioned table.
+ *
+ * Afterwards the daily run keeps app.partitioning.months-ahead partitions ready, moving a new
+ * month's rows out of the default partition first, and archives partitions older than
+ * app.partitioning.archive-after-months to TransactionArchive, then detaches and drops them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PartitionMaintenanceService {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("_p(\\d{4})(\\d{2})$");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionRepository transactionRepository;
+    private final StockTransactionRepository stockTransactionRepository;
+    private final TransactionArchive transactionArchive;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.partitioning.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${app.partitioning.archive-after-months:24}")
+    private int archiveAfterMonths;
+
+    private record PartitionedTable<T>(TransactionArchive.Table<T> archive,
+                                       BiFunction<LocalDateTime, LocalDateTime, Stream<T>> rowsByPeriod) {
+        String name() {
+            return archive.name();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${app.partitioning.cron:0 30 1 * * *}")
+    public void maintain() {
+        boolean postgres = isPostgres();
+        List<PartitionedTable<?>> tables = List.of(
+                new PartitionedTable<>(TransactionArchive.TRANSFERS, transactionRepository::streamByPeriod),
+                new PartitionedTable<>(TransactionArchive.STOCK_TRADES, stockTransactionRepository::streamByPeriod));
+
+        for (PartitionedTable<?> table : tables) {
+            try {
+                if (enabled && postgres) {
+                    convertIfNeeded(table.name());
+                    createUpcomingPartitions(table.name());
+                    if (archiveAfterMonths > 0) {
+                        archiveOldPartitions(table);
+                    }
+                }
+                ensureUniqueReferences(table.name(), postgres);
+            } catch (RuntimeException e) {
+                log.error("Partition maintenance for {} failed", table.name(), e);
+            }
+        }
+    }
+
+    /**
+     * First month still kept in the partitioned tables, or empty when old months are not archived
+     * (archiving off, or not PostgreSQL), in which case every row stays in the tables.
+     */
+    public Optional<YearMonth> archiveCutoff() {
+        if (!enabled || archiveAfterMonths <= 0 || !isPostgres()) {
+            return Optional.empty();
+        }
+        return Optional.of(YearMonth.now().minusMonths(archiveAfterMonths));
+    }
+
+    private void convertIfNeeded(String table) {
+        Boolean plainTable = jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL AND NOT EXISTS "
+                        + "(SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?))",
+                Boolean.class, table, table);
+        if (!Boolean.TRUE.equals(plainTable)) {
+            return;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.executeWithoutResult(status -> {
+            String legacy = table + "_unpartitioned";
+            // The renamed table keeps its own constraint, index and identity sequence names
+            String sequence = table + "_part_id_seq";
+
+            // Hibernate's non-unique indexes, recreated under the same names once the old table is gone
+            List<String> indexes = jdbcTemplate.queryForList(
+                    "SELECT indexdef FROM pg_indexes WHERE schemaname = current_schema() AND tablename = ? "
+                            + "AND indexdef NOT LIKE 'CREATE UNIQUE%'", String.class, table);
+
+            jdbcTemplate.execute("LOCK TABLE " + table + " IN ACCESS EXCLUSIVE MODE");
+            jdbcTemplate.execute("ALTER TABLE " + table + " RENAME TO " + legacy);
+            jdbcTemplate.execute("CREATE TABLE " + table + " (LIKE " + legacy + " INCLUDING DEFAULTS) "
+                    + "PARTITION BY RANGE (\"timestamp\")");
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence + " OWNED BY " + table + ".id");
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id SET DEFAULT nextval('" + sequence + "')");
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD CONSTRAINT " + table + "_part_pkey PRIMARY KEY (id, \"timestamp\")");
+            jdbcTemplate.execute("CREATE INDEX " + table + "_reference_idx ON " + table + " (transaction_reference)");
+            jdbcTemplate.execute("CREATE TABLE " + table + "_default PARTITION OF " + table + " DEFAULT");
+
+            LocalDateTime oldest = jdbcTemplate.queryForObject(
+                    "SELECT min(\"timestamp\") FROM " + legacy, LocalDateTime.class);
+            YearMonth first = oldest == null ? YearMonth.now() : YearMonth.from(oldest);
+            for (YearMonth month = first; !month.isAfter(YearMonth.now().plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+                createPartition(table, month);
+            }
+
+            installReferenceRegistry(table);
+            int rows = jdbcTemplate.update("INSERT INTO " + table + " SELECT * FROM " + legacy);
+            jdbcTemplate.execute("SELECT setval('" + sequence + "', (SELECT COALESCE(max(id), 0) + 1 FROM " + table + "), false)");
+            jdbcTemplate.execute("DROP TABLE " + legacy);
+            indexes.forEach(jdbcTemplate::execute);
+
+            log.info("Converted {} to monthly partitions: {} rows from {} in {} ms",
+                    table, rows, first, System.currentTimeMillis() - startedAt);
+        });
+    }
+
+    private void ensureUniqueReferences(String table, boolean postgres) {
+        if (postgres && isPartitioned(table)) {
+            if (!hasReferenceRegistry(table)) {
+                // Tables partitioned before the registry existed: backfill under the trigger's lock
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    installReferenceRegistry(table);
+                    int references = jdbcTemplate.update("INSERT INTO " + table + "_reference_registry "
+                            + "SELECT transaction_reference FROM " + table + " ON CONFLICT DO NOTHING");
+                    log.info("Registered {} existing references of {}", references, table);
+                });
+            }
+        } else if (!hasUniqueReferenceIndex(table)) {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX " + table + "_reference_uk ON " + table + " (transaction_reference)");
+            log.info("Created unique index on {}.transaction_reference", table);
+        }
+    }
+
+    // Creating the trigger locks out inserts until the surrounding transaction commits
+    private void installReferenceRegistry(String table) {
+        String registry = table + "_reference_registry";
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + registry + " (transaction_reference varchar(255) PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE OR REPLACE FUNCTION " + registry + "_insert() RETURNS trigger LANGUAGE plpgsql AS $$ "
+                + "BEGIN INSERT INTO " + registry + " (transaction_reference) VALUES (NEW.transaction_reference); "
+                + "RETURN NEW; END $$");
+        jdbcTemplate.execute("CREATE TRIGGER " + registry + " AFTER INSERT ON " + table
+                + " FOR EACH ROW EXECUTE FUNCTION " + registry + "_insert()");
+    }
+
+    private boolean isPartitioned(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?))",
+                Boolean.class, table));
+    }
+
+    private boolean hasReferenceRegistry(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_trigger WHERE tgrelid = to_regclass(?) AND tgname = ?)",
+                Boolean.class, table, table + "_reference_registry"));
+    }
+
+    // Any unique index on transaction_reference alone counts, including Hibernate's from older mappings
+    private boolean hasUniqueReferenceIndex(String table) {
+        Boolean found = jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase() : table;
+            Map<String, List<String>> columns = new HashMap<>();
+            try (ResultSet indexes = metaData.getIndexInfo(null, null, name, true, false)) {
+                while (indexes.next()) {
+                    String index = indexes.getString("INDEX_NAME");
+                    String column = indexes.getString("COLUMN_NAME");
+                    if (index != null && column != null) {
+                        columns.computeIfAbsent(index, k -> new ArrayList<>()).add(column.toLowerCase());
+                    }
+                }
+            }
+            return columns.values().stream().anyMatch(List.of("transaction_reference")::equals);
+        });
+        return Boolean.TRUE.equals(found);
+    }
+
+    private void createUpcomingPartitions(String table) {
+        YearMonth now = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(table, now.plusMonths(i));
+        }
+    }
+
+    /**
+     * Rows of a month that has no partition yet land in the default partition, and PostgreSQL will
+     * not create the month's partition while they are there. They are moved into it with the
+     * default partition detached, which locks the table until the transaction commits; the insert
+     * trigger registers their references again.
+     */
+    private void createPartition(String table, YearMonth month) {
+        String partition = partitionName(table, month);
+        String defaultPartition = table + "_default";
+        String bounds = " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+
+        if (!hasDefaultRows(table, defaultPartition, from, to)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + table + bounds);
+            return;
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            String inMonth = " WHERE \"timestamp\" >= ? AND \"timestamp\" < ?";
+            jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + defaultPartition);
+            jdbcTemplate.execute("CREATE TABLE " + partition + " PARTITION OF " + table + bounds);
+            if (hasReferenceRegistry(table)) {
+                jdbcTemplate.update("DELETE FROM " + table + "_reference_registry WHERE transaction_reference IN "
+                        + "(SELECT transaction_reference FROM " + defaultPartition + inMonth + ")", from, to);
+            }
+            int rows = jdbcTemplate.update("INSERT INTO " + table + " SELECT * FROM " + defaultPartition + inMonth, from, to);
+            jdbcTemplate.update("DELETE FROM " + defaultPartition + inMonth, from, to);
+            jdbcTemplate.execute("ALTER TABLE " + table + " ATTACH PARTITION " + defaultPartition + " DEFAULT");
+            log.warn("Moved {} rows of {} from {} into {}", rows, month, defaultPartition, partition);
+        });
+    }
+
+    private boolean hasDefaultRows(String table, String defaultPartition, LocalDateTime from, LocalDateTime to) {
+        Boolean attached = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_inherits WHERE inhrelid = to_regclass(?) AND inhparent = to_regclass(?))",
+                Boolean.class, defaultPartition, table);
+        return Boolean.TRUE.equals(attached) && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + defaultPartition + " WHERE \"timestamp\" >= ? AND \"timestamp\" < ?)",
+                Boolean.class, from, to));
+    }
+
+    /**
+     * The archive file is complete and in place before the partition is dropped, so a failure at
+     * any point leaves the rows in at least one of the two places. A rerun rewrites the file.
+     */
+    private <T> void archiveOldPartitions(PartitionedTable<T> table) {
+        YearMonth cutoff = YearMonth.now().minusMonths(archiveAfterMonths);
+
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "WHERE i.inhparent = to_regclass(?) ORDER BY c.relname", String.class, table.name());
+
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.find()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.isBefore(cutoff)) {
+                continue;
+            }
+
+            long startedAt = System.currentTimeMillis();
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            long rows = readOnly.execute(status -> {
+                try (Stream<T> stream = table.rowsByPeriod().apply(month.atDay(1).atStartOfDay(),
+                        month.plusMonths(1).atDay(1).atStartOfDay())) {
+                    Iterator<T> iterator = stream.iterator();
+                    return transactionArchive.write(table.archive(), month, new Iterator<T>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public T next() {
+                            T row = iterator.next();
+                            entityManager.detach(row);
+                            return row;
+                        }
+                    });
+                }
+            });
+
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                jdbcTemplate.execute("ALTER TABLE " + table.name() + " DETACH PARTITION " + partition);
+                jdbcTemplate.execute("DROP TABLE " + partition);
+            });
+
+            log.info("Archived {} ({} rows) in {} ms", partition, rows, System.currentTimeMillis() - startedAt);
+        }
+    }
+
+    private String partitionName(String table, YearMonth month) {
+        return String.format("%s_p%04d%02d", table, month.getYear(), month.getMonthValue());
+    }
+
+    private boolean isPostgres() {
+        Boolean postgres = jdbcTemplate.execute((Connection connection) ->
+                "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        return Boolean.TRUE.equals(postgres);
+    }
+}
@@ -0,0 +1,74 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.dto.StockPortfolioResponse;
+import edu.ssw590.summitwealthbank.dto.ValuedPosition;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Market value and profit/loss of a set of positions, per position and in total. Prices and cost
+ * bases have two decimals, so everything is summed in whole cents in a single pass and converted
+ * to BigDecimal once per figure; only the percentage needs a BigDecimal division.
+ */
+@Getter
+public final class PortfolioValuation {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final List<StockPortfolioResponse> positions;
+    private final BigDecimal marketValue;
+    private final BigDecimal costBasis;
+    private final BigDecimal profitLoss;
+
+    private PortfolioValuation(List<StockPortfolioResponse> positions, long marketValueCents, long costBasisCents) {
+        this.positions = positions;
+        this.marketValue = BigDecimal.valueOf(marketValueCents, 2);
+        this.costBasis = BigDecimal.valueOf(costBasisCents, 2);
+        this.profitLoss = BigDecimal.valueOf(marketValueCents - costBasisCents, 2);
+    }
+
+    public static PortfolioValuation of(List<ValuedPosition> rows) {
+        List<StockPortfolioResponse> positions = new ArrayList<>(rows.size());
+        long totalMarketCents = 0;
+        long totalCostCents = 0;
+
+        for (ValuedPosition row : rows) {
+            long shares = row.getTotalShares();
+            long marketCents = Math.multiplyExact(cents(row.getCurrentPrice()), shares);
+            long costCents = Math.multiplyExact(cents(row.getAverageCostBasis()), shares);
+            long profitLossCents = marketCents - costCents;
+
+            positions.add(StockPortfolioResponse.builder()
+                    .stockSymbol(row.getStockSymbol())
+                    .companyName(row.getCompanyName())
+                    .totalShares(shares)
+                    .averageCostBasis(row.getAverageCostBasis())
+                    .currentPrice(row.getCurrentPrice())
+                    .marketValue(BigDecimal.valueOf(marketCents, 2))
+                    .profitLoss(BigDecimal.valueOf(profitLossCents, 2))
+                    .profitLossPercent(percent(profitLossCents, costCents))
+                    .build());
+
+            totalMarketCents = Math.addExact(totalMarketCents, marketCents);
+            totalCostCents = Math.addExact(totalCostCents, costCents);
+        }
+
+        return new PortfolioValuation(positions, totalMarketCents, totalCostCents);
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal percent(long profitLossCents, long costCents) {
+        if (costCents <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(profitLossCents).divide(BigDecimal.valueOf(costCents), 4, RoundingMode.HALF_UP)
+                .multiply(HUNDRED);
+    }
+}
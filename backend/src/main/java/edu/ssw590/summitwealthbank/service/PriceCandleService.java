@@ -0,0 +1,226 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.dto.CandleResponse;
+import edu.ssw590.summitwealthbank.event.StockPriceChangedEvent;
+import edu.ssw590.summitwealthbank.model.PriceCandle;
+import edu.ssw590.summitwealthbank.model.PriceTick;
+import edu.ssw590.summitwealthbank.repository.PriceCandleBatchRepository;
+import edu.ssw590.summitwealthbank.repository.PriceCandleRepository;
+import edu.ssw590.summitwealthbank.util.Candle;
+import edu.ssw590.summitwealthbank.util.CandleAggregator;
+import edu.ssw590.summitwealthbank.util.CandleInterval;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 1m/5m/1h/1d OHLC candles of every stock, built from committed price changes (admin updates and
+ * every simulated tick) by a CandleAggregator per symbol.
+ *
+ * Open candles and the last app.candles.keep-in-memory closed candles of each interval live in
+ * memory, so recent ranges are answered without a query. A candle is closed once its bucket has
+ * ended more than close-grace-ms ago, which leaves time for ticks that are committed late, and
+ * closed candles are written to price_candle every flush-ms. After a restart the open candles
+ * only cover the prices seen since, and each instance only sees its own price changes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PriceCandleService {
+
+    private final PriceCandleRepository priceCandleRepository;
+    private final PriceCandleBatchRepository priceCandleBatchRepository;
+    private final StockQuoteCache stockQuoteCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.candles.keep-in-memory:720}")
+    private int keepInMemory;
+
+    @Value("${app.candles.close-grace-ms:2000}")
+    private long closeGraceMs;
+
+    @Value("${app.candles.max-count:1000}")
+    private int maxCount;
+
+    private final Map<String, CandleAggregator> aggregators = new ConcurrentHashMap<>();
+    private final Queue<PriceCandle> unsaved = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    void init() {
+        meterRegistry.gauge("bank.candles.unsaved", unsaved, Queue::size);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPriceChanged(StockPriceChangedEvent event) {
+        if (event.recordedAsTick()) {
+            return;
+        }
+        record(event.symbol(), System.currentTimeMillis(), event.price());
+    }
+
+    /**
+     * Adds ticks stored by the current transaction once it commits. Price change events for these
+     * ticks are to be published with recordedAsTick, so they are not recorded a second time.
+     */
+    public void recordTicks(List<PriceTick> ticks) {
+        afterCommit(() -> {
+            for (PriceTick tick : ticks) {
+                record(tick.getSymbol(), tick.getTickTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                        tick.getPrice());
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.candles.close-check-ms:1000}")
+    public void closeEnded() {
+        long cutoff = System.currentTimeMillis() - closeGraceMs;
+        aggregators.forEach((symbol, aggregator) -> {
+            List<Candle> closed = new ArrayList<>();
+            aggregator.closeUpTo(cutoff, closed);
+            queue(symbol, closed);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.candles.flush-ms:5000}")
+    public void flush() {
+        List<PriceCandle> batch = new ArrayList<>();
+        PriceCandle candle;
+        while ((candle = unsaved.poll()) != null) {
+            batch.add(candle);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            priceCandleBatchRepository.insertAll(batch);
+            meterRegistry.counter("bank.candles.saved").increment(batch.size());
+        } catch (RuntimeException e) {
+            unsaved.addAll(batch);
+            log.warn("Could not save {} price candles, will retry", batch.size(), e);
+        }
+    }
+
+    /**
+     * Candles of symbol for the interval code starting in [from, to), oldest first and at most
+     * limit of them (the latest ones). to defaults to now and from to limit intervals before to.
+     * The part of the range still held in memory is not queried.
+     */
+    @Transactional(readOnly = true)
+    public List<CandleResponse> getCandles(String symbol, String intervalCode, LocalDateTime from, LocalDateTime to,
+                                           int limit) {
+        CandleInterval interval = CandleInterval.fromCode(intervalCode);
+        String stockSymbol = stockQuoteCache.find(symbol)
+                .orElseThrow(() -> new IllegalArgumentException("Stock not found: " + symbol))
+                .symbol();
+        int count = Math.max(1, Math.min(limit, maxCount));
+
+        long toMillis = to == null ? System.currentTimeMillis() + 1 : toEpochMillis(to);
+        long fromMillis = Math.max(from == null ? Long.MIN_VALUE : toEpochMillis(from),
+                interval.bucketStart(toMillis - 1) - (count - 1) * interval.millis());
+        if (fromMillis >= toMillis) {
+            return List.of();
+        }
+
+        CandleAggregator aggregator = aggregators.get(stockSymbol);
+        long heldFrom = aggregator == null ? Long.MAX_VALUE : aggregator.heldFrom(interval);
+
+        List<CandleResponse> candles = new ArrayList<>();
+        if (fromMillis < heldFrom) {
+            LocalDateTime storedTo = toDateTime(Math.min(toMillis, heldFrom));
+            for (PriceCandle stored : priceCandleRepository.findRange(stockSymbol, interval.code(),
+                    toDateTime(fromMillis), storedTo)) {
+                candles.add(new CandleResponse(stored.getStartTime(), stored.getOpenPrice(), stored.getHighPrice(),
+                        stored.getLowPrice(), stored.getClosePrice()));
+            }
+        }
+        if (aggregator != null && heldFrom < toMillis) {
+            for (Candle held : aggregator.candles(interval, Math.max(fromMillis, heldFrom), toMillis)) {
+                candles.add(toResponse(held));
+            }
+        }
+
+        return candles.size() > count ? new ArrayList<>(candles.subList(candles.size() - count, candles.size())) : candles;
+    }
+
+    private void record(String symbol, long time, BigDecimal price) {
+        CandleAggregator aggregator = aggregators.computeIfAbsent(symbol, s -> new CandleAggregator(keepInMemory));
+        List<Candle> closed = new ArrayList<>();
+        if (!aggregator.record(time, toCents(price), closed)) {
+            meterRegistry.counter("bank.candles.late").increment();
+        }
+        queue(symbol, closed);
+    }
+
+    private void queue(String symbol, List<Candle> closed) {
+        for (Candle candle : closed) {
+            unsaved.add(PriceCandle.builder()
+                    .symbol(symbol)
+                    .period(candle.interval().code())
+                    .startTime(toDateTime(candle.start()))
+                    .openPrice(BigDecimal.valueOf(candle.open(), 2))
+                    .highPrice(BigDecimal.valueOf(candle.high(), 2))
+                    .lowPrice(BigDecimal.valueOf(candle.low(), 2))
+                    .closePrice(BigDecimal.valueOf(candle.close(), 2))
+                    .build());
+        }
+    }
+
+    private CandleResponse toResponse(Candle candle) {
+        return new CandleResponse(toDateTime(candle.start()), BigDecimal.valueOf(candle.open(), 2),
+                BigDecimal.valueOf(candle.high(), 2), BigDecimal.valueOf(candle.low(), 2),
+                BigDecimal.valueOf(candle.close(), 2));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
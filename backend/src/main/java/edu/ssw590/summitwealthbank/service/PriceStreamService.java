@@ -0,0 +1,305 @@
+package edu.ssw590.summitwealthbank.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ssw590.summitwealthbank.dto.StockPriceUpdate;
+import edu.ssw590.summitwealthbank.event.StockPriceChangedEvent;
+import edu.ssw590.summitwealthbank.util.LatestPriceTable;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed stock price changes to Server-Sent Events subscribers (GET /api/stocks/stream).
+ *
+ * Nothing is queued per subscriber. Price changes go into one LatestPriceTable, and every
+ * app.stocks.stream.flush-ms each subscriber is sent the latest price of every symbol that changed
+ * since its last write, as one "prices" event. A subscriber has at most one write in flight: one
+ * that is still writing to a slow connection is skipped and catches up on a later flush with
+ * whatever is newest by then. Subscribers that are up to date share the same serialized payload,
+ * so a flush serializes once and not once per subscriber.
+ *
+ * Writes run on app.stocks.stream.send-threads threads; a connection is held by Tomcat, not by a
+ * thread, so the number of subscribers is bounded by app.stocks.stream.max-subscribers and
+ * server.tomcat.max-connections. Only changes committed on this instance are streamed.
+ *
+ * A write still blocked after app.stocks.stream.write-timeout-ms is given up on: the subscriber is
+ * dropped and its stream is closed once the write returns, which Tomcat bounds by
+ * server.tomcat.connection-timeout. Until then the pool gets a thread in its place, up to
+ * send-threads extra, so a few stalled clients cannot hold up everyone else's prices.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PriceStreamService {
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final AtomicBoolean writing = new AtomicBoolean();
+        final AtomicBoolean removed = new AtomicBoolean();
+        volatile long sentUpTo;
+        volatile long lastWriteAt = System.currentTimeMillis();
+        // Set while a send is in progress, 0 otherwise; dropped is guarded by the subscriber's lock
+        volatile long writeStartedAt;
+        boolean dropped;
+
+        Subscriber(SseEmitter emitter, long sentUpTo) {
+            this.emitter = emitter;
+            this.sentUpTo = sentUpTo;
+        }
+    }
+
+    private final StockQuoteCache stockQuoteCache;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.stocks.stream.max-subscribers:20000}")
+    private int maxSubscribers;
+
+    @Value("${app.stocks.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.stocks.stream.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${app.stocks.stream.send-threads:4}")
+    private int sendThreads;
+
+    @Value("${app.stocks.stream.write-timeout-ms:5000}")
+    private long writeTimeoutMs;
+
+    private final LatestPriceTable prices = new LatestPriceTable();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicInteger stalledWrites = new AtomicInteger();
+    private ThreadPoolExecutor senders;
+    private volatile boolean closing;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        senders = new ThreadPoolExecutor(sendThreads, sendThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "price-stream-sender-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        meterRegistry.gauge("bank.stock.stream.subscribers", subscriberCount);
+    }
+
+    /**
+     * Ends every stream before the web server shuts down, which would otherwise wait for them as
+     * active requests. Clients reconnect, to another instance if this one is going away.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void closeStreams() {
+        closing = true;
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        senders.shutdown();
+        senders.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPriceChanged(StockPriceChangedEvent event) {
+        prices.update(event.symbol(), event.price());
+    }
+
+    /**
+     * Opens a stream that starts with a "snapshot" event holding every current price.
+     *
+     * @throws RejectedExecutionException when this instance already serves max-subscribers streams
+     *                                    or is shutting down
+     */
+    public SseEmitter subscribe() {
+        if (closing) {
+            throw new RejectedExecutionException("Shutting down");
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            meterRegistry.counter("bank.stock.stream.rejected").increment();
+            throw new RejectedExecutionException("Too many price stream subscribers");
+        }
+
+        SseEmitter emitter = newEmitter();
+        long head = prices.head();
+        Subscriber subscriber = new Subscriber(emitter, head);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+
+        try {
+            emitter.send(SseEmitter.event().name("snapshot").data(snapshot(head), MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            remove(subscriber);
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        subscribers.add(subscriber);
+        if (closing) {
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${app.stocks.stream.flush-ms:500}")
+    public void flush() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        long head = prices.head();
+        long now = System.currentTimeMillis();
+        // Keyed by the sequence a subscriber has seen up to; almost everyone shares one entry
+        Map<Long, String> payloads = new HashMap<>();
+
+        for (Subscriber subscriber : subscribers) {
+            long startedAt = subscriber.writeStartedAt;
+            if (startedAt > 0 && now - startedAt > writeTimeoutMs) {
+                drop(subscriber);
+                continue;
+            }
+
+            long from = subscriber.sentUpTo;
+            boolean changed = from < head;
+            if (!changed && now - subscriber.lastWriteAt < heartbeatMs) {
+                continue;
+            }
+            if (!subscriber.writing.compareAndSet(false, true)) {
+                continue;
+            }
+
+            SseEmitter.SseEventBuilder event = changed
+                    ? SseEmitter.event().name("prices").data(payloads.computeIfAbsent(from, f -> changesSince(f, head)),
+                            MediaType.APPLICATION_JSON)
+                    : SseEmitter.event().comment("heartbeat");
+            try {
+                senders.execute(() -> write(subscriber, event, head));
+            } catch (RejectedExecutionException e) {
+                subscriber.writing.set(false);
+            }
+        }
+    }
+
+    private void write(Subscriber subscriber, SseEmitter.SseEventBuilder event, long head) {
+        boolean failed = false;
+        subscriber.writeStartedAt = System.currentTimeMillis();
+        try {
+            subscriber.emitter.send(event);
+            subscriber.sentUpTo = Math.max(subscriber.sentUpTo, head);
+            subscriber.lastWriteAt = System.currentTimeMillis();
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; completing runs the removal callback
+            log.debug("Closing price stream: {}", e.getMessage());
+            failed = true;
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            boolean dropped;
+            synchronized (subscriber) {
+                subscriber.writeStartedAt = 0;
+                subscriber.writing.set(false);
+                dropped = subscriber.dropped;
+            }
+            if (dropped) {
+                if (!failed) {
+                    subscriber.emitter.complete();
+                }
+                stalledWrites.decrementAndGet();
+                resizeSenders();
+            }
+        }
+    }
+
+    // Called from flush only; the stalled write closes the stream itself when it returns
+    private void drop(Subscriber subscriber) {
+        synchronized (subscriber) {
+            if (subscriber.dropped || subscriber.writeStartedAt == 0) {
+                return;
+            }
+            subscriber.dropped = true;
+        }
+        remove(subscriber);
+        meterRegistry.counter("bank.stock.stream.dropped").increment();
+        log.debug("Dropping price stream subscriber whose write is stuck for over {} ms", writeTimeoutMs);
+        stalledWrites.incrementAndGet();
+        resizeSenders();
+    }
+
+    // Overridden by tests to see what is written to each subscriber
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscriber.removed.compareAndSet(false, true)) {
+            subscribers.remove(subscriber);
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    // One extra thread per stalled write, at most send-threads extra
+    private synchronized void resizeSenders() {
+        int size = sendThreads + Math.min(stalledWrites.get(), sendThreads);
+        if (size > senders.getMaximumPoolSize()) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else if (size < senders.getMaximumPoolSize()) {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    private List<StockPriceUpdate> snapshot(long head) {
+        Map<String, BigDecimal> current = new TreeMap<>();
+        for (StockQuoteCache.Quote quote : stockQuoteCache.all()) {
+            current.put(quote.symbol(), quote.currentPrice());
+        }
+        // The cache may not have applied a change this stream already counts as sent
+        prices.since(0, head).forEach(current::replace);
+        return toUpdates(current);
+    }
+
+    private String changesSince(long from, long head) {
+        try {
+            return objectMapper.writeValueAsString(toUpdates(prices.since(from, head)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize price updates", e);
+        }
+    }
+
+    private List<StockPriceUpdate> toUpdates(Map<String, BigDecimal> bySymbol) {
+        List<StockPriceUpdate> updates = new ArrayList<>(bySymbol.size());
+        bySymbol.forEach((symbol, price) -> updates.add(new StockPriceUpdate(symbol, price)));
+        return updates;
+    }
+}
@@ -0,0 +1,297 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.dto.BatchTransferItemResult;
+import edu.ssw590.summitwealthbank.dto.ScheduledTransferRequest;
+import edu.ssw590.summitwealthbank.dto.TransferRequest;
+import edu.ssw590.summitwealthbank.model.ScheduledTransfer;
+import edu.ssw590.summitwealthbank.repository.ScheduledTransferRepository;
+import edu.ssw590.summitwealthbank.util.HierarchicalTimingWheel;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Future-dated and recurring transfers. Schedules live in the scheduled_transfer table; only the
+ * ones due within the next window (app.scheduled-transfers.window-minutes) are loaded into an
+ * in-memory timing wheel, so the database is read once per load interval rather than polled
+ * every second. Due schedules are settled in batches through TransferService.settleTransfers,
+ * in the same transaction that advances their next run.
+ *
+ * Runs missed while the application was down are overdue on the first load after startup and
+ * are caught up one occurrence per tick until the schedule is current again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduledTransferService {
+
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final TransferService transferService;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.scheduled-transfers.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.scheduled-transfers.window-minutes:60}")
+    private long windowMinutes;
+
+    @Value("${app.scheduled-transfers.batch-size:200}")
+    private int batchSize;
+
+    private HierarchicalTimingWheel<Long> wheel;
+    private final Set<Long> loaded = ConcurrentHashMap.newKeySet();
+    private volatile LocalDateTime loadedUntil;
+
+    @PostConstruct
+    void init() {
+        // One second ticks, 60 slots per level, three levels: a 60 hour horizon
+        wheel = new HierarchicalTimingWheel<>(1000, 60, 3, System.currentTimeMillis());
+
+        if (windowMinutes * 60_000 >= wheel.horizonMillis()) {
+            throw new IllegalStateException("app.scheduled-transfers.window-minutes must be below "
+                    + wheel.horizonMillis() / 60_000 + " minutes");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUpAfterStartup() {
+        if (enabled) {
+            loadWindow();
+        }
+    }
+
+    /**
+     * Loads every active schedule due before now + window into the wheel. The load interval has
+     * to be shorter than the window so consecutive windows overlap.
+     */
+    @Scheduled(fixedDelayString = "${app.scheduled-transfers.load-interval-ms:600000}",
+            initialDelayString = "${app.scheduled-transfers.load-interval-ms:600000}")
+    public void loadWindow() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime windowEnd = now.plusMinutes(windowMinutes);
+
+        int added = 0;
+        int overdue = 0;
+        for (ScheduledTransfer schedule : scheduledTransferRepository.findActiveDueBefore(windowEnd)) {
+            if (schedule(schedule)) {
+                added++;
+                if (!schedule.getNextRunAt().isAfter(now)) {
+                    overdue++;
+                }
+            }
+        }
+        loadedUntil = windowEnd;
+
+        if (added > 0) {
+            log.info("Loaded {} scheduled transfers due before {} ({} overdue)", added, windowEnd, overdue);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.scheduled-transfers.tick-ms:1000}")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+        for (int start = 0; start < due.size(); start += batchSize) {
+            List<Long> batch = due.subList(start, Math.min(start + batchSize, due.size()));
+            try {
+                List<ScheduledTransfer> schedules = retryExecutor.execute("scheduled-transfer", () -> executeBatch(batch));
+                loaded.removeAll(batch);
+                schedules.forEach(this::scheduleIfInWindow);
+            } catch (RuntimeException e) {
+                // Left out of the wheel until the next window load picks them up again
+                loaded.removeAll(batch);
+                log.error("Scheduled transfer batch of {} failed", batch.size(), e);
+            }
+        }
+    }
+
+    public ScheduledTransfer create(ScheduledTransferRequest request, String email) {
+        ScheduledTransfer.Frequency frequency = parseFrequency(request.getFrequency());
+
+        if (request.getStartAt() == null) {
+            throw new IllegalArgumentException("Start time is required");
+        }
+        if (request.getStartAt().isBefore(LocalDateTime.now().minusMinutes(1))) {
+            throw new IllegalArgumentException("Start time cannot be in the past");
+        }
+
+        TransferRequest transfer = new TransferRequest();
+        transfer.setFromAccountId(request.getFromAccountId());
+        transfer.setToAccountId(request.getToAccountId());
+        transfer.setAmount(request.getAmount());
+        transfer.setDescription(request.getDescription());
+        transferService.validateTransfer(transfer, email);
+
+        ScheduledTransfer schedule = scheduledTransferRepository.save(ScheduledTransfer.builder()
+                .userEmail(email)
+                .fromAccountId(request.getFromAccountId())
+                .toAccountId(request.getToAccountId())
+                .amount(request.getAmount())
+                .description(request.getDescription())
+                .frequency(frequency)
+                .startAt(request.getStartAt())
+                .nextRunAt(request.getStartAt())
+                .status(ScheduledTransfer.Status.ACTIVE)
+                .build());
+
+        scheduleIfInWindow(schedule);
+        return schedule;
+    }
+
+    public List<ScheduledTransfer> getByEmail(String email) {
+        return scheduledTransferRepository.findByUserEmailOrderByNextRunAtAsc(email);
+    }
+
+    public ScheduledTransfer cancel(Long id, String email) {
+        ScheduledTransfer schedule = scheduledTransferRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Scheduled transfer not found"));
+
+        if (!schedule.getUserEmail().equals(email)) {
+            throw new SecurityException("You don't have permission to cancel this scheduled transfer");
+        }
+        if (schedule.getStatus() != ScheduledTransfer.Status.ACTIVE) {
+            throw new IllegalStateException("Scheduled transfer is already " + schedule.getStatus().name().toLowerCase());
+        }
+
+        // A wheel entry left behind is skipped when it fires because the schedule is no longer active
+        schedule.setStatus(ScheduledTransfer.Status.CANCELLED);
+        schedule.setNextRunAt(null);
+        return scheduledTransferRepository.save(schedule);
+    }
+
+    /**
+     * Settles the schedules that are still active and due, and advances them, in one transaction.
+     * The @Version on ScheduledTransfer makes a concurrent cancel or a second instance running the
+     * same schedule roll the batch back instead of paying twice.
+     */
+    private List<ScheduledTransfer> executeBatch(List<Long> ids) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        return template.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<ScheduledTransfer> schedules = scheduledTransferRepository.findAllById(ids);
+
+            List<ScheduledTransfer> settling = new ArrayList<>();
+            List<TransferRequest> requests = new ArrayList<>();
+            List<String> references = new ArrayList<>();
+            List<ScheduledTransfer> changed = new ArrayList<>();
+
+            for (ScheduledTransfer schedule : schedules) {
+                if (schedule.getStatus() != ScheduledTransfer.Status.ACTIVE
+                        || schedule.getNextRunAt() == null || schedule.getNextRunAt().isAfter(now)) {
+                    continue;
+                }
+                changed.add(schedule);
+
+                TransferRequest request = new TransferRequest();
+                request.setFromAccountId(schedule.getFromAccountId());
+                request.setToAccountId(schedule.getToAccountId());
+                request.setAmount(schedule.getAmount());
+                request.setDescription(schedule.getDescription());
+
+                // Ownership is checked again at run time in case the account changed hands or was closed
+                try {
+                    transferService.validateTransfer(request, schedule.getUserEmail());
+                } catch (IllegalArgumentException | SecurityException e) {
+                    recordRun(schedule, now, "FAILED", e.getMessage(), null);
+                    continue;
+                }
+
+                settling.add(schedule);
+                requests.add(request);
+                references.add(transferService.generateTransactionReference());
+            }
+
+            List<BatchTransferItemResult> results = transferService.settleTransfers(requests, references);
+            for (int i = 0; i < results.size(); i++) {
+                BatchTransferItemResult result = results.get(i);
+                recordRun(settling.get(i), now, result.getStatus(), result.getMessage(), result.getTransactionReference());
+            }
+
+            scheduledTransferRepository.saveAll(changed);
+            return schedules;
+        });
+    }
+
+    private void recordRun(ScheduledTransfer schedule, LocalDateTime now, String runStatus, String message, String reference) {
+        meterRegistry.counter("bank.transfer.scheduled.runs", "status", runStatus).increment();
+
+        schedule.setLastRunAt(now);
+        schedule.setLastRunStatus(runStatus);
+        schedule.setLastRunMessage(message);
+        schedule.setLastTransactionReference(reference);
+        schedule.setRunCount(schedule.getRunCount() + 1);
+
+        if (schedule.getFrequency() == ScheduledTransfer.Frequency.ONCE) {
+            schedule.setStatus(ScheduledTransfer.Status.COMPLETED);
+            schedule.setNextRunAt(null);
+        } else {
+            schedule.setNextRunAt(occurrence(schedule, schedule.getRunCount()));
+        }
+    }
+
+    // The n-th run counted from startAt, so a schedule starting on the 31st stays on month ends
+    private LocalDateTime occurrence(ScheduledTransfer schedule, int n) {
+        return switch (schedule.getFrequency()) {
+            case DAILY -> schedule.getStartAt().plusDays(n);
+            case WEEKLY -> schedule.getStartAt().plusWeeks(n);
+            case MONTHLY -> schedule.getStartAt().plusMonths(n);
+            case ONCE -> null;
+        };
+    }
+
+    private void scheduleIfInWindow(ScheduledTransfer schedule) {
+        LocalDateTime until = loadedUntil;
+        if (enabled && until != null && schedule.getStatus() == ScheduledTransfer.Status.ACTIVE
+                && schedule.getNextRunAt() != null && schedule.getNextRunAt().isBefore(until)) {
+            schedule(schedule);
+        }
+    }
+
+    private boolean schedule(ScheduledTransfer schedule) {
+        if (!loaded.add(schedule.getId())) {
+            return false;
+        }
+
+        long dueMillis = schedule.getNextRunAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (!wheel.add(schedule.getId(), dueMillis)) {
+            loaded.remove(schedule.getId());
+            return false;
+        }
+        return true;
+    }
+
+    private ScheduledTransfer.Frequency parseFrequency(String frequency) {
+        if (frequency == null || frequency.isBlank()) {
+            return ScheduledTransfer.Frequency.ONCE;
+        }
+        try {
+            return ScheduledTransfer.Frequency.valueOf(frequency.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported frequency: " + frequency + ". Use once, daily, weekly or monthly");
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.repository.StockRepository;
+import edu.ssw590.summitwealthbank.util.StripedShareInventory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * The house inventory of each stock (Stock.availableShares) as seen by buy and sell trades.
+ *
+ * By default every trade updates the row with a conditional UPDATE, so trades on a hot symbol
+ * wait on the row lock but never fail on a stale read. With app.trading.share-reservation.enabled
+ * the trading threads instead work against a StripedShareInventory per symbol: shares are claimed
+ * from the row in blocks of block-size in short transactions of their own, and every
+ * reconcile-ms the held shares are handed back to the row, which then shows the real inventory
+ * again. Shares taken by a transaction that rolls back go back to memory, and shares returned by
+ * a sell only become available once the sell commits.
+ *
+ * While reservations are on, the row undercounts by what is held in memory. After a crash the
+ * held shares are recovered on startup by recomputing availableShares from the positions and open
+ * sell orders, which assumes a single application instance holds reservations.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ShareInventoryService {
+
+    private final StockRepository stockRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.trading.share-reservation.enabled:false}")
+    private boolean reservationEnabled;
+
+    @Value("${app.trading.share-reservation.block-size:100}")
+    private long blockSize;
+
+    @Value("${app.trading.share-reservation.stripes:8}")
+    private int stripes;
+
+    @Value("${app.trading.share-reservation.recover-on-startup:true}")
+    private boolean recoverOnStartup;
+
+    private final Map<String, StripedShareInventory> inventories = new ConcurrentHashMap<>();
+    private TransactionTemplate claimTemplate;
+    private volatile boolean ready;
+
+    @PostConstruct
+    void init() {
+        claimTemplate = new TransactionTemplate(transactionManager);
+        claimTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        meterRegistry.gauge("bank.stock.shares.held", inventories,
+                map -> map.values().stream().mapToLong(StripedShareInventory::held).sum());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!reservationEnabled) {
+            return;
+        }
+        if (recoverOnStartup) {
+            int updated = claimTemplate.execute(status -> stockRepository.recomputeAvailableShares());
+            log.info("Recomputed available shares for {} stocks", updated);
+        }
+        ready = true;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ready = false;
+        reconcile();
+    }
+
+    /**
+     * Takes quantity shares from the house inventory for a buy in the current transaction.
+     * Returns false when not enough shares are left.
+     */
+    public boolean take(String symbol, long quantity) {
+        if (!ready) {
+            return stockRepository.takeAvailableShares(symbol, quantity) == 1;
+        }
+
+        StripedShareInventory inventory = inventories.computeIfAbsent(symbol, s -> new StripedShareInventory(stripes));
+        if (!takeFromMemory(symbol, inventory, quantity)) {
+            return false;
+        }
+        afterCompletion(committed -> {
+            if (!committed) {
+                inventory.add(quantity);
+            }
+        });
+        return true;
+    }
+
+    /** Returns quantity shares sold back to the house in the current transaction. */
+    public void giveBack(String symbol, long quantity) {
+        if (!ready) {
+            stockRepository.returnAvailableShares(symbol, quantity);
+            return;
+        }
+
+        StripedShareInventory inventory = inventories.computeIfAbsent(symbol, s -> new StripedShareInventory(stripes));
+        afterCompletion(committed -> {
+            if (committed) {
+                inventory.add(quantity);
+            }
+        });
+    }
+
+    /** Hands the shares held for symbol back to its row, e.g. before the stock is deleted. */
+    public void release(String symbol) {
+        StripedShareInventory inventory = inventories.remove(symbol);
+        if (inventory != null) {
+            returnToRow(symbol, inventory);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.trading.share-reservation.reconcile-ms:5000}")
+    public void reconcile() {
+        inventories.forEach(this::returnToRow);
+    }
+
+    private boolean takeFromMemory(String symbol, StripedShareInventory inventory, long quantity) {
+        if (inventory.tryTake(quantity)) {
+            return true;
+        }
+
+        // Claim a block, keeping what this trade does not need for the next ones
+        long block = Math.max(quantity, blockSize);
+        if (claim(symbol, block)) {
+            inventory.add(block - quantity);
+            meterRegistry.counter("bank.stock.shares.claims").increment();
+            return true;
+        }
+        if (block > quantity && claim(symbol, quantity)) {
+            return true;
+        }
+
+        // The rest may be spread between the row and memory: pool it in the row and try once more
+        returnToRow(symbol, inventory);
+        return claim(symbol, quantity);
+    }
+
+    private boolean claim(String symbol, long quantity) {
+        Integer updated = claimTemplate.execute(status -> stockRepository.takeAvailableShares(symbol, quantity));
+        return updated != null && updated == 1;
+    }
+
+    private void returnToRow(String symbol, StripedShareInventory inventory) {
+        long held = inventory.drain();
+        if (held == 0) {
+            return;
+        }
+        try {
+            claimTemplate.executeWithoutResult(status -> stockRepository.returnAvailableShares(symbol, held));
+        } catch (RuntimeException e) {
+            inventory.add(held);
+            log.warn("Could not return {} held shares of {} to the stock row", held, symbol, e);
+        }
+    }
+
+    private void afterCompletion(Consumer<Boolean> callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+}
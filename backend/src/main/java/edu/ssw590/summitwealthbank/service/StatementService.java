@@ -0,0 +1,391 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.dto.StatementRunStatus;
+import edu.ssw590.summitwealthbank.dto.StatementRunSummary;
+import edu.ssw590.summitwealthbank.model.Account;
+import edu.ssw590.summitwealthbank.model.StockTransaction;
+import edu.ssw590.summitwealthbank.model.Transaction;
+import edu.ssw590.summitwealthbank.repository.AccountRepository;
+import edu.ssw590.summitwealthbank.repository.StockTransactionRepository;
+import edu.ssw590.summitwealthbank.repository.TransactionRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Monthly account statements. Accounts are split into id ranges ("chunks") that are processed in
+ * parallel; each chunk streams its transfers and stock trades for the period once and writes one
+ * CSV statement per account. Opening and closing balances come from the ledger, so deposits and
+ * other activity that has no transaction row still reconcile.
+ *
+ * Completed chunks are appended to a checkpoint file in the period's output directory; a rerun of
+ * the same period skips them, so an interrupted job resumes where it stopped.
+ *
+ * The admin endpoint starts a run in the background and reports on it through getLastRun, so a
+ * run over many accounts does not hold an HTTP request open.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StatementService {
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final StockTransactionRepository stockTransactionRepository;
+    private final LedgerService ledgerService;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.statements.output-dir:statements}")
+    private String outputDir;
+
+    @Value("${app.statements.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.statements.threads:4}")
+    private int threads;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService launcher = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "statement-run");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile StatementRunStatus lastRun;
+
+    private record ChunkResult(long statements, long rows) {
+    }
+
+    @Scheduled(cron = "${app.statements.cron:0 0 2 1 * *}")
+    public void generatePreviousMonth() {
+        generate(YearMonth.now().minusMonths(1));
+    }
+
+    public StatementRunSummary generate(YearMonth period) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A statement run is already in progress");
+        }
+
+        try {
+            return run(period);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Starts a run for the period on a background thread and returns its RUNNING status at once.
+     *
+     * @throws IllegalStateException if a run is already in progress
+     */
+    public StatementRunStatus start(YearMonth period) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A statement run is already in progress");
+        }
+
+        StatementRunStatus started = StatementRunStatus.builder()
+                .period(period.toString())
+                .status("RUNNING")
+                .startedAt(LocalDateTime.now())
+                .build();
+        lastRun = started;
+
+        try {
+            launcher.execute(() -> {
+                try {
+                    lastRun = finished(started, "COMPLETED", run(period), null);
+                } catch (RuntimeException e) {
+                    log.error("Statement run for {} failed", period, e);
+                    lastRun = finished(started, "FAILED", null, e.getMessage());
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            throw new IllegalStateException("Statement runs are shutting down", e);
+        }
+
+        return started;
+    }
+
+    /** Status of the run started last through start, if any. */
+    public Optional<StatementRunStatus> getLastRun() {
+        return Optional.ofNullable(lastRun);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        launcher.shutdownNow();
+    }
+
+    private static StatementRunStatus finished(StatementRunStatus started, String status,
+                                               StatementRunSummary summary, String message) {
+        return StatementRunStatus.builder()
+                .period(started.getPeriod())
+                .status(status)
+                .startedAt(started.getStartedAt())
+                .finishedAt(LocalDateTime.now())
+                .summary(summary)
+                .message(message)
+                .build();
+    }
+
+    private StatementRunSummary run(YearMonth period) {
+        long startedAt = System.currentTimeMillis();
+        Path directory = Paths.get(outputDir, period.toString());
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        Set<Long> completedChunks = readCheckpoint(directory, checkpoint);
+
+        long minId = accountRepository.findMinId();
+        long maxId = accountRepository.findMaxId();
+
+        List<Long> pendingChunks = new ArrayList<>();
+        int skipped = 0;
+        for (long chunkStart = minId; chunkStart > 0 && chunkStart <= maxId; chunkStart += chunkSize) {
+            if (completedChunks.contains(chunkStart)) {
+                skipped++;
+            } else {
+                pendingChunks.add(chunkStart);
+            }
+        }
+
+        AtomicInteger workerIds = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads),
+                task -> new Thread(task, "statement-worker-" + workerIds.incrementAndGet()));
+
+        long statements = 0;
+        long rows = 0;
+        int processed = 0;
+        try {
+            List<Future<ChunkResult>> futures = new ArrayList<>(pendingChunks.size());
+            for (Long chunkStart : pendingChunks) {
+                futures.add(executor.submit(() -> {
+                    ChunkResult result = processChunk(period, directory, chunkStart, chunkStart + chunkSize - 1);
+                    appendCheckpoint(checkpoint, chunkStart);
+                    return result;
+                }));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    ChunkResult result = futures.get(i).get();
+                    statements += result.statements();
+                    rows += result.rows();
+                    processed++;
+                } catch (ExecutionException e) {
+                    // The chunk is not checkpointed, so the next run of this period retries it
+                    log.error("Statement chunk starting at account {} failed", pendingChunks.get(i), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Statement run was interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long elapsedMs = Math.max(1, System.currentTimeMillis() - startedAt);
+        double rowsPerSecond = rows * 1000.0 / elapsedMs;
+        log.info("Statements for {}: {} statements, {} rows in {} ms ({} rows/s), {} chunks done, {} skipped from checkpoint",
+                period, statements, rows, elapsedMs, Math.round(rowsPerSecond), processed, skipped);
+
+        return StatementRunSummary.builder()
+                .period(period.toString())
+                .outputDirectory(directory.toAbsolutePath().toString())
+                .chunksProcessed(processed)
+                .chunksSkipped(skipped)
+                .statements(statements)
+                .rows(rows)
+                .elapsedMs(elapsedMs)
+                .rowsPerSecond(rowsPerSecond)
+                .build();
+    }
+
+    private ChunkResult processChunk(YearMonth period, Path directory, long fromId, long toId) {
+        LocalDateTime start = period.atDay(1).atStartOfDay();
+        LocalDateTime end = period.plusMonths(1).atDay(1).atStartOfDay();
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        return template.execute(status -> {
+            Map<Long, Statement> statements = new LinkedHashMap<>();
+            for (Account account : accountRepository.findWithUserByIdBetween(fromId, toId)) {
+                statements.put(account.getId(), new Statement(account));
+            }
+
+            if (statements.isEmpty()) {
+                return new ChunkResult(0, 0);
+            }
+
+            long rows = 0;
+            try (Stream<Transaction> transfers = transactionRepository.streamByAccountRangeAndPeriod(fromId, toId, start, end)) {
+                for (Transaction tx : (Iterable<Transaction>) transfers::iterator) {
+                    Statement from = statements.get(tx.getFromAccountId());
+                    Statement to = statements.get(tx.getToAccountId());
+                    if (from != null) {
+                        from.add(tx.getTimestamp(), tx.getTransactionReference(), "TRANSFER_OUT", tx.getDescription(), tx.getAmount().negate());
+                    }
+                    if (to != null) {
+                        to.add(tx.getTimestamp(), tx.getTransactionReference(), "TRANSFER_IN", tx.getDescription(), tx.getAmount());
+                    }
+                    entityManager.detach(tx);
+                    rows++;
+                }
+            }
+
+            try (Stream<StockTransaction> trades = stockTransactionRepository.streamByAccountRangeAndPeriod(fromId, toId, start, end)) {
+                for (StockTransaction trade : (Iterable<StockTransaction>) trades::iterator) {
+                    boolean buy = trade.getType() == StockTransaction.TransactionType.BUY;
+                    String description = trade.getQuantity() + " " + trade.getStockSymbol() + " @ " + trade.getPricePerShare();
+                    statements.get(trade.getAccountId()).add(trade.getTimestamp(), trade.getTransactionReference(),
+                            "STOCK_" + trade.getType(), description,
+                            buy ? trade.getTotalAmount().negate() : trade.getTotalAmount());
+                    entityManager.detach(trade);
+                    rows++;
+                }
+            }
+
+            // Grouped over the whole chunk rather than two balance lookups per account
+            Map<Long, BigDecimal> openings = ledgerService.balancesAsOf(fromId, toId, start.minusNanos(1));
+            Map<Long, BigDecimal> changes = ledgerService.netChangesBetween(fromId, toId, start.minusNanos(1), end.minusNanos(1));
+            for (Statement statement : statements.values()) {
+                Long accountId = statement.account.getId();
+                BigDecimal opening = openings.getOrDefault(accountId, BigDecimal.ZERO);
+                BigDecimal closing = opening.add(changes.getOrDefault(accountId, BigDecimal.ZERO));
+                write(directory, period, statement, opening, closing);
+            }
+
+            return new ChunkResult(statements.size(), rows);
+        });
+    }
+
+    private void write(Path directory, YearMonth period, Statement statement, BigDecimal opening, BigDecimal closing) {
+        Account account = statement.account;
+        BigDecimal other = closing.subtract(opening).subtract(statement.totalIn).add(statement.totalOut);
+
+        Path target = directory.resolve("statement-" + account.getId() + ".csv");
+        Path temp = directory.resolve("statement-" + account.getId() + ".csv.tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write("account_number," + account.getAccountNumber() + "\n");
+            writer.write("account_type," + account.getType() + "\n");
+            writer.write("owner," + csv(account.getUser().getFirstName() + " " + account.getUser().getLastName()) + "\n");
+            writer.write("period," + period + "\n");
+            writer.write("opening_balance," + opening + "\n");
+            writer.write("total_in," + statement.totalIn + "\n");
+            writer.write("total_out," + statement.totalOut + "\n");
+            // Deposits, wealth trades and anything else without a transaction row
+            writer.write("other_activity," + other + "\n");
+            writer.write("closing_balance," + closing + "\n");
+            writer.write("\n");
+            writer.write("timestamp,reference,type,description,amount\n");
+            for (String line : statement.lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Set<Long> readCheckpoint(Path directory, Path checkpoint) {
+        try {
+            Files.createDirectories(directory);
+            Set<Long> completed = new HashSet<>();
+            if (Files.exists(checkpoint)) {
+                for (String line : Files.readAllLines(checkpoint, StandardCharsets.UTF_8)) {
+                    if (!line.isBlank()) {
+                        completed.add(Long.parseLong(line.trim()));
+                    }
+                }
+            }
+            return completed;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized void appendCheckpoint(Path checkpoint, long chunkStart) {
+        try {
+            Files.writeString(checkpoint, chunkStart + "\n", StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    private static final class Statement {
+        private final Account account;
+        private final List<String> lines = new ArrayList<>();
+        private BigDecimal totalIn = BigDecimal.ZERO;
+        private BigDecimal totalOut = BigDecimal.ZERO;
+
+        private Statement(Account account) {
+            this.account = account;
+        }
+
+        private void add(LocalDateTime timestamp, String reference, String type, String description, BigDecimal amount) {
+            if (amount.signum() < 0) {
+                totalOut = totalOut.add(amount.negate());
+            } else {
+                totalIn = totalIn.add(amount);
+            }
+            lines.add(timestamp + "," + reference + "," + type + "," + csv(description) + "," + amount);
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.dto.StockOrderRequest;
+import edu.ssw590.summitwealthbank.model.Account;
+import edu.ssw590.summitwealthbank.model.SettlementDeadLetter;
+import edu.ssw590.summitwealthbank.model.StockOrder;
+import edu.ssw590.summitwealthbank.model.StockPosition;
+import edu.ssw590.summitwealthbank.model.StockTransaction;
+import edu.ssw590.summitwealthbank.repository.StockOrderRepository;
+import edu.ssw590.summitwealthbank.repository.SettlementDeadLetterRepository;
+import edu.ssw590.summitwealthbank.repository.StockPositionRepository;
+import edu.ssw590.summitwealthbank.repository.StockTransactionRepository;
+import edu.ssw590.summitwealthbank.util.ReferenceGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Database side of order book trading. Placing an order reserves what it could need up front:
+ * buys move limit price x quantity out of the account into brokerage clearing, sells take the
+ * shares out of the position. Fills and releases coming back from MatchingEngine settle against
+ * those reservations, so a matched trade can always be booked. Trades between customers do not
+ * move the stock's quote, so they cannot be used to push the price the house inventory trades at.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class StockOrderService {
+
+    private final StockOrderRepository orderRepository;
+    private final StockQuoteCache stockQuoteCache;
+    private final StockPositionRepository positionRepository;
+    private final StockTransactionRepository transactionRepository;
+    private final StockService stockService;
+    private final AccountService accountService;
+    private final AccountLockService accountLockService;
+    private final LedgerService ledgerService;
+    private final SettlementDeadLetterRepository deadLetterRepository;
+    private final ReferenceGenerator referenceGenerator;
+
+    // Market orders trade no further than this from the quote at placement
+    @Value("${app.trading.market-protection-percent:5}")
+    private BigDecimal marketProtectionPercent;
+
+    /**
+     * Outcome of matching, produced by MatchingEngine in book order.
+     */
+    public sealed interface SettlementEvent permits Fill, Release {
+    }
+
+    public record Fill(String stockSymbol, long takerOrderId, long makerOrderId, long priceCents, long quantity)
+            implements SettlementEvent {
+    }
+
+    // Quantity that will not trade: cancelled, unfilled market remainder, or never accepted by the engine
+    public record Release(long orderId, long quantity, boolean rejected) implements SettlementEvent {
+    }
+
+    public StockOrder placeOrder(StockOrderRequest request, String email) {
+        StockOrder.Side side = parseEnum(StockOrder.Side.class, request.getSide(), "side");
+        StockOrder.OrderType type = parseEnum(StockOrder.OrderType.class, request.getOrderType(), "order type");
+        if (request.getQuantity() == null || request.getQuantity() <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+        }
+
+        stockService.checkAccountOwnership(request.getAccountId(), email);
+        StockQuoteCache.Quote stock = stockQuoteCache.find(request.getStockSymbol())
+                .orElseThrow(() -> new IllegalArgumentException("Stock not found: " + request.getStockSymbol()));
+
+        BigDecimal limitPrice;
+        if (type == StockOrder.OrderType.LIMIT) {
+            limitPrice = toCents(request.getLimitPrice());
+        } else {
+            BigDecimal offset = stock.currentPrice().multiply(marketProtectionPercent).movePointLeft(2);
+            limitPrice = side == StockOrder.Side.BUY
+                    ? stock.currentPrice().add(offset).setScale(2, RoundingMode.CEILING)
+                    : stock.currentPrice().subtract(offset).setScale(2, RoundingMode.FLOOR).max(new BigDecimal("0.01"));
+        }
+
+        String reference = referenceGenerator.next("ORD");
+        long quantity = request.getQuantity();
+        BigDecimal reservedPricePerShare;
+
+        if (side == StockOrder.Side.BUY) {
+            Account account = accountLockService.lockAccounts(List.of(request.getAccountId())).get(request.getAccountId());
+            stockService.checkNotFrozen(account);
+            BigDecimal reserved = limitPrice.multiply(BigDecimal.valueOf(quantity));
+            if (account.getBalance().compareTo(reserved) < 0) {
+                throw new IllegalArgumentException("Insufficient funds in account");
+            }
+            account.setBalance(account.getBalance().subtract(reserved));
+            accountService.saveAccount(account);
+            ledgerService.recordStockTrade(reference, account.getId(), reserved, true);
+            reservedPricePerShare = limitPrice;
+        } else {
+            stockService.checkNotFrozen(accountService.getAccount(request.getAccountId()));
+            StockPosition position = positionRepository
+                    .findByAccountIdAndStockSymbol(request.getAccountId(), stock.symbol())
+                    .orElseThrow(() -> new IllegalArgumentException("No position found for " + stock.symbol()));
+            if (position.getTotalShares() < quantity) {
+                throw new IllegalArgumentException(
+                        String.format("Not enough shares. Owned: %d, Requested: %d",
+                                position.getTotalShares(), quantity));
+            }
+            reservedPricePerShare = position.getAverageCostBasis();
+            removeShares(position, quantity);
+        }
+
+        return orderRepository.save(StockOrder.builder()
+                .orderReference(reference)
+                .accountId(request.getAccountId())
+                .stockSymbol(stock.symbol())
+                .side(side)
+                .orderType(type)
+                .limitPrice(limitPrice)
+                .quantity(quantity)
+                .filledQuantity(0L)
+                .reservedPricePerShare(reservedPricePerShare)
+                .status(StockOrder.Status.OPEN)
+                .build());
+    }
+
+    @Transactional(readOnly = true)
+    public StockOrder getActiveOrder(Long orderId, String email) {
+        StockOrder order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+
+        boolean ownsOrder = accountService.getAccountsByEmail(email).stream()
+                .anyMatch(acc -> acc.getId().equals(order.getAccountId()));
+        if (!ownsOrder) {
+            throw new SecurityException("You do not have permission to cancel this order");
+        }
+        if (!order.isActive()) {
+            throw new IllegalStateException("Order is already " + order.getStatus());
+        }
+        return order;
+    }
+
+    @Transactional(readOnly = true)
+    public List<StockOrder> getUserOrders(String email) {
+        List<Long> accountIds = accountService.getAccountsByEmail(email).stream()
+                .map(Account::getId)
+                .collect(Collectors.toList());
+        if (accountIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return orderRepository.findByAccountIds(accountIds);
+    }
+
+    // Not read-only: the books are rebuilt from this, so it must not come from a lagging replica
+    @Transactional
+    public List<StockOrder> getActiveOrders() {
+        return orderRepository.findActiveOrderByIdAsc();
+    }
+
+    // Owning user of each account; the books never match two orders of the same user
+    public Map<Long, Long> getAccountOwners(Collection<Long> accountIds) {
+        return accountService.getAccountOwners(accountIds);
+    }
+
+    /**
+     * Books a run of matching results in one transaction: the trade rows for both sides, refunds
+     * of cash held above the trade price, seller proceeds, positions and order progress. Accounts
+     * are locked in id order as for transfers.
+     */
+    public void settle(List<SettlementEvent> events) {
+        Set<Long> orderIds = new HashSet<>();
+        for (SettlementEvent event : events) {
+            if (event instanceof Fill fill) {
+                orderIds.add(fill.takerOrderId());
+                orderIds.add(fill.makerOrderId());
+            } else if (event instanceof Release release) {
+                orderIds.add(release.orderId());
+            }
+        }
+
+        Map<Long, StockOrder> orders = new HashMap<>();
+        for (StockOrder order : orderRepository.findAllById(orderIds)) {
+            orders.put(order.getId(), order);
+        }
+        Map<Long, Account> accounts = accountLockService.lockAccounts(orders.values().stream()
+                .map(StockOrder::getAccountId)
+                .collect(Collectors.toSet()));
+
+        Map<String, StockPosition> positions = new HashMap<>();
+        List<StockTransaction> trades = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (SettlementEvent event : events) {
+            if (event instanceof Fill fill) {
+                StockOrder taker = order(orders, fill.takerOrderId());
+                StockOrder maker = order(orders, fill.makerOrderId());
+                StockOrder buy = taker.isBuy() ? taker : maker;
+                StockOrder sell = taker.isBuy() ? maker : taker;
+                BigDecimal price = BigDecimal.valueOf(fill.priceCents(), 2);
+                BigDecimal shares = BigDecimal.valueOf(fill.quantity());
+                BigDecimal amount = price.multiply(shares);
+
+                // Buyer: the cash is already in clearing; return what was held above the trade price
+                Account buyer = accounts.get(buy.getAccountId());
+                BigDecimal refund = buy.getReservedPricePerShare().subtract(price).multiply(shares);
+                if (refund.signum() > 0) {
+                    buyer.setBalance(buyer.getBalance().add(refund));
+                    ledgerService.recordStockTrade(buy.getOrderReference(), buyer.getId(), refund, false);
+                }
+                addShares(position(positions, buy.getAccountId(), fill.stockSymbol()), fill.quantity(), price);
+                trades.add(trade(buy, StockTransaction.TransactionType.BUY, fill.quantity(), price, amount, null, now));
+
+                // Seller: the shares left the position when the order was placed
+                Account seller = accounts.get(sell.getAccountId());
+                seller.setBalance(seller.getBalance().add(amount));
+                BigDecimal profitLoss = amount.subtract(sell.getReservedPricePerShare().multiply(shares));
+                StockTransaction sellTrade = trade(sell, StockTransaction.TransactionType.SELL, fill.quantity(),
+                        price, amount, profitLoss, now);
+                ledgerService.recordStockTrade(sellTrade.getTransactionReference(), seller.getId(), amount, false);
+                trades.add(sellTrade);
+
+                recordFill(buy, fill.quantity());
+                recordFill(sell, fill.quantity());
+            } else if (event instanceof Release release) {
+                StockOrder order = order(orders, release.orderId());
+                if (release.quantity() > 0) {
+                    if (order.isBuy()) {
+                        Account account = accounts.get(order.getAccountId());
+                        BigDecimal refund = order.getReservedPricePerShare().multiply(BigDecimal.valueOf(release.quantity()));
+                        account.setBalance(account.getBalance().add(refund));
+                        ledgerService.recordStockTrade(order.getOrderReference(), account.getId(), refund, false);
+                    } else {
+                        addShares(position(positions, order.getAccountId(), order.getStockSymbol()),
+                                release.quantity(), order.getReservedPricePerShare());
+                    }
+                }
+                order.setStatus(release.rejected() ? StockOrder.Status.REJECTED : StockOrder.Status.CANCELLED);
+            }
+        }
+
+        accountService.saveAccounts(accounts.values());
+        positionRepository.saveAll(positions.values());
+        orderRepository.saveAll(orders.values());
+        transactionRepository.saveAll(trades);
+    }
+
+    public void recordDeadLetter(SettlementEvent event, Exception error) {
+        String message = String.valueOf(error.getMessage());
+        deadLetterRepository.save(SettlementDeadLetter.builder()
+                .event(event.toString())
+                .error(message.length() > 1000 ? message.substring(0, 1000) : message)
+                .build());
+    }
+
+    // Helper methods
+
+    private StockOrder order(Map<Long, StockOrder> orders, long orderId) {
+        StockOrder order = orders.get(orderId);
+        if (order == null) {
+            throw new IllegalStateException("Order not found: " + orderId);
+        }
+        return order;
+    }
+
+    private StockPosition position(Map<String, StockPosition> positions, Long accountId, String symbol) {
+        return positions.computeIfAbsent(accountId + ":" + symbol, key -> positionRepository
+                .findByAccountIdAndStockSymbol(accountId, symbol)
+                .orElse(StockPosition.builder()
+                        .accountId(accountId)
+                        .stockSymbol(symbol)
+                        .totalShares(0L)
+                        .averageCostBasis(BigDecimal.ZERO)
+                        .build()));
+    }
+
+    private void addShares(StockPosition position, long quantity, BigDecimal pricePerShare) {
+        BigDecimal existingValue = position.getAverageCostBasis().multiply(BigDecimal.valueOf(position.getTotalShares()));
+        long newTotalShares = position.getTotalShares() + quantity;
+        position.setAverageCostBasis(existingValue.add(pricePerShare.multiply(BigDecimal.valueOf(quantity)))
+                .divide(BigDecimal.valueOf(newTotalShares), 2, RoundingMode.HALF_UP));
+        position.setTotalShares(newTotalShares);
+    }
+
+    private void removeShares(StockPosition position, long quantity) {
+        long remainingShares = position.getTotalShares() - quantity;
+        if (remainingShares == 0) {
+            positionRepository.delete(position);
+        } else {
+            position.setTotalShares(remainingShares);
+            positionRepository.save(position);
+        }
+    }
+
+    private void recordFill(StockOrder order, long quantity) {
+        order.setFilledQuantity(order.getFilledQuantity() + quantity);
+        order.setStatus(order.getRemainingQuantity() == 0 ? StockOrder.Status.FILLED : StockOrder.Status.PARTIALLY_FILLED);
+    }
+
+    private StockTransaction trade(StockOrder order, StockTransaction.TransactionType type, long quantity,
+                                   BigDecimal price, BigDecimal amount, BigDecimal profitLoss, LocalDateTime now) {
+        return StockTransaction.builder()
+                .transactionReference(referenceGenerator.next("STK"))
+                .accountId(order.getAccountId())
+                .stockSymbol(order.getStockSymbol())
+                .type(type)
+                .quantity(quantity)
+                .pricePerShare(price)
+                .totalAmount(amount)
+                .profitLoss(profitLoss)
+                .timestamp(now)
+                .notes("Order " + order.getOrderReference())
+                .build();
+    }
+
+    private BigDecimal toCents(BigDecimal price) {
+        if (price == null || price.signum() <= 0) {
+            throw new IllegalArgumentException("Limit price must be greater than zero");
+        }
+        try {
+            return price.setScale(2, RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Limit price must be in whole cents");
+        }
+    }
+
+    private <E extends Enum<E>> E parseEnum(Class<E> type, String value, String field) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+}
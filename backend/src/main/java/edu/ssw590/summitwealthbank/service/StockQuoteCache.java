@@ -0,0 +1,104 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.model.Stock;
+import edu.ssw590.summitwealthbank.repository.StockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory quotes for every stock, so trade and read paths do not query the stock table. Each
+ * entry is an immutable snapshot tagged with the row's @Version; a snapshot only replaces an
+ * older one, so writers finishing out of order cannot bring back a stale price.
+ *
+ * Writers call put/evict inside their transaction and the cache is updated after commit. The
+ * whole table is reloaded at startup and every app.stocks.quote-cache.refresh-ms to pick up
+ * changes made by other instances. availableShares is not cached; it changes with every trade.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockQuoteCache {
+
+    public record Quote(String symbol, String companyName, BigDecimal currentPrice, long totalShares,
+                        String sector, long version) {
+
+        static Quote of(Stock stock) {
+            return new Quote(stock.getSymbol(), stock.getCompanyName(), stock.getCurrentPrice(),
+                    stock.getTotalShares(), stock.getSector(), stock.getVersion() == null ? 0 : stock.getVersion());
+        }
+    }
+
+    private final StockRepository stockRepository;
+
+    private final Map<String, Quote> quotes = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.stocks.quote-cache.refresh-ms:60000}",
+            initialDelayString = "${app.stocks.quote-cache.refresh-ms:60000}")
+    public void refresh() {
+        Set<String> present = new HashSet<>();
+        for (Stock stock : stockRepository.findAll()) {
+            store(stock);
+            present.add(stock.getSymbol());
+        }
+        // Deleted elsewhere; a stock created since findAll is simply loaded again on its next lookup
+        quotes.keySet().retainAll(present);
+        log.debug("Refreshed {} stock quotes", present.size());
+    }
+
+    /** The quote for symbol, loaded from the table on a miss. */
+    public Optional<Quote> find(String symbol) {
+        Quote quote = quotes.get(symbol);
+        if (quote != null) {
+            return Optional.of(quote);
+        }
+        return stockRepository.findBySymbol(symbol).map(this::store);
+    }
+
+    public List<Quote> all() {
+        return new ArrayList<>(quotes.values());
+    }
+
+    /** Caches the stock as saved by the current transaction once it commits. */
+    public void put(Stock stock) {
+        afterCommit(() -> store(stock));
+    }
+
+    /** Drops the symbol once the current transaction commits. */
+    public void evict(String symbol) {
+        afterCommit(() -> quotes.remove(symbol));
+    }
+
+    private Quote store(Stock stock) {
+        return quotes.merge(stock.getSymbol(), Quote.of(stock),
+                (current, candidate) -> candidate.version() >= current.version() ? candidate : current);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
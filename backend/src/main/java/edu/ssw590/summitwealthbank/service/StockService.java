@@ -1,15 +1,25 @@
 package edu.ssw590.summitwealthbank.service;
 
+import edu.ssw590.summitwealthbank.dto.BatchTransferItemResult;
+import edu.ssw590.summitwealthbank.dto.CursorPage;
+import edu.ssw590.summitwealthbank.dto.StockBasketRequest;
+import edu.ssw590.summitwealthbank.dto.StockBasketResponse;
 import edu.ssw590.summitwealthbank.dto.StockPortfolioResponse;
 import edu.ssw590.summitwealthbank.dto.StockTransactionResponse;
 import edu.ssw590.summitwealthbank.model.Account;
+import edu.ssw590.summitwealthbank.model.ConditionalOrder;
 import edu.ssw590.summitwealthbank.model.Stock;
+import edu.ssw590.summitwealthbank.model.StockOrder;
 import edu.ssw590.summitwealthbank.model.StockPosition;
 import edu.ssw590.summitwealthbank.model.StockTransaction;
 import edu.ssw590.summitwealthbank.repository.StockPositionRepository;
 import edu.ssw590.summitwealthbank.repository.StockRepository;
+import edu.ssw590.summitwealthbank.repository.StockTransactionBatchRepository;
 import edu.ssw590.summitwealthbank.repository.StockTransactionRepository;
+import edu.ssw590.summitwealthbank.util.CursorCodec;
+import edu.ssw590.summitwealthbank.util.ReferenceGenerator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,9 +27,13 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,13 +45,24 @@ public class StockService {
     private final StockPositionRepository positionRepository;
     private final StockTransactionRepository transactionRepository;
     private final AccountService accountService;
+    private final LedgerService ledgerService;
+    private final ShareInventoryService shareInventoryService;
+    private final StockTransactionBatchRepository stockTransactionBatchRepository;
+    private final StockQuoteCache stockQuoteCache;
+    private final ReferenceGenerator referenceGenerator;
+
+    @Value("${app.pagination.max-page-size:200}")
+    private int maxPageSize;
+
+    @Value("${app.trading.basket.max-size:100}")
+    private int maxBasketSize;
 
     /**
      * BUY STOCK FLOW:
      * 1. Validate account ownership
-     * 2. Fetch stock and verify availability
+     * 2. Fetch stock
      * 3. Check account balance
-     * 4. Update stock availability (decrement)
+     * 4. Take the shares from the house inventory (fails if not enough are left)
      * 5. Update/create position with new average cost basis
      * 6. Deduct from account balance
      * 7. Create transaction record
@@ -46,30 +71,25 @@ public class StockService {
         // 1. Validate ownership
         Account account = validateAccountOwnership(accountId, userEmail);
 
-        // 2. Fetch stock
-        Stock stock = stockRepository.findBySymbol(stockSymbol)
+        // 2. Fetch quote
+        StockQuoteCache.Quote stock = stockQuoteCache.find(stockSymbol)
                 .orElseThrow(() -> new IllegalArgumentException("Stock not found: " + stockSymbol));
 
-        // 3. Validate availability
-        if (stock.getAvailableShares() < quantity) {
-            throw new IllegalArgumentException(
-                    String.format("Not enough shares available. Available: %d, Requested: %d",
-                            stock.getAvailableShares(), quantity));
-        }
+        // 3. Calculate total cost
+        BigDecimal totalCost = stock.currentPrice().multiply(BigDecimal.valueOf(quantity));
 
-        // 4. Calculate total cost
-        BigDecimal totalCost = stock.getCurrentPrice().multiply(BigDecimal.valueOf(quantity));
-
-        // 5. Validate balance
+        // 4. Validate balance
         if (account.getBalance().compareTo(totalCost) < 0) {
             throw new IllegalArgumentException("Insufficient funds in account");
         }
 
-        // 6. Update stock availability (CRITICAL: within transaction)
-        stock.setAvailableShares(stock.getAvailableShares() - quantity);
-        stockRepository.save(stock);
+        // 5. Take shares with a conditional update instead of read-modify-write on the stock row
+        if (!shareInventoryService.take(stockSymbol, quantity)) {
+            throw new IllegalArgumentException(
+                    String.format("Not enough shares available for %s. Requested: %d", stockSymbol, quantity));
+        }
 
-        // 7. Update or create position
+        // 6. Update or create position
         StockPosition position = positionRepository
                 .findByAccountIdAndStockSymbol(accountId, stockSymbol)
                 .orElse(StockPosition.builder()
@@ -79,24 +99,14 @@ public class StockService {
                         .averageCostBasis(BigDecimal.ZERO)
                         .build());
 
-        // Calculate new average cost basis
-        BigDecimal existingValue = position.getAverageCostBasis()
-                .multiply(BigDecimal.valueOf(position.getTotalShares()));
-        BigDecimal newValue = totalCost;
-        Long newTotalShares = position.getTotalShares() + quantity;
-
-        BigDecimal newAverageCost = existingValue.add(newValue)
-                .divide(BigDecimal.valueOf(newTotalShares), 2, RoundingMode.HALF_UP);
-
-        position.setTotalShares(newTotalShares);
-        position.setAverageCostBasis(newAverageCost);
+        addToPosition(position, quantity, totalCost);
         positionRepository.save(position);
 
-        // 8. Deduct from account
+        // 7. Deduct from account
         account.setBalance(account.getBalance().subtract(totalCost));
         accountService.saveAccount(account);
 
-        // 9. Create transaction record
+        // 8. Create transaction record
         String txnRef = generateStockTransactionReference();
         StockTransaction transaction = StockTransaction.builder()
                 .transactionReference(txnRef)
@@ -104,11 +114,12 @@ public class StockService {
                 .stockSymbol(stockSymbol)
                 .type(StockTransaction.TransactionType.BUY)
                 .quantity(quantity)
-                .pricePerShare(stock.getCurrentPrice())
+                .pricePerShare(stock.currentPrice())
                 .totalAmount(totalCost)
                 .timestamp(LocalDateTime.now())
                 .build();
 
+        ledgerService.recordStockTrade(txnRef, accountId, totalCost, true);
         return transactionRepository.save(transaction);
     }
 
@@ -139,17 +150,16 @@ public class StockService {
         }
 
         // 4. Fetch current stock price
-        Stock stock = stockRepository.findBySymbol(stockSymbol)
+        StockQuoteCache.Quote stock = stockQuoteCache.find(stockSymbol)
                 .orElseThrow(() -> new IllegalArgumentException("Stock not found: " + stockSymbol));
 
         // 5. Calculate proceeds and profit/loss
-        BigDecimal proceeds = stock.getCurrentPrice().multiply(BigDecimal.valueOf(quantity));
+        BigDecimal proceeds = stock.currentPrice().multiply(BigDecimal.valueOf(quantity));
         BigDecimal costBasis = position.getAverageCostBasis().multiply(BigDecimal.valueOf(quantity));
         BigDecimal profitLoss = proceeds.subtract(costBasis);
 
         // 6. Return shares to pool
-        stock.setAvailableShares(stock.getAvailableShares() + quantity);
-        stockRepository.save(stock);
+        shareInventoryService.giveBack(stockSymbol, quantity);
 
         // 7. Update position
         Long remainingShares = position.getTotalShares() - quantity;
@@ -172,29 +182,179 @@ public class StockService {
                 .stockSymbol(stockSymbol)
                 .type(StockTransaction.TransactionType.SELL)
                 .quantity(quantity)
-                .pricePerShare(stock.getCurrentPrice())
+                .pricePerShare(stock.currentPrice())
                 .totalAmount(proceeds)
                 .profitLoss(profitLoss)
                 .timestamp(LocalDateTime.now())
                 .build();
 
+        ledgerService.recordStockTrade(txnRef, accountId, proceeds, false);
         return transactionRepository.save(transaction);
     }
 
+    /**
+     * BASKET FLOW: buys or sells several symbols for one account, all or nothing.
+     * The account is validated once, the stocks and existing positions are loaded with one IN
+     * query each, a buy checks the total cost against the balance once, and the trade rows and
+     * their ledger postings are written in JDBC batches. Any failing item rolls back the basket.
+     */
+    public StockBasketResponse executeBasket(StockBasketRequest request, String userEmail) {
+        StockOrder.Side side = parseSide(request.getSide());
+        Map<String, Long> quantities = basketQuantities(request.getItems());
+
+        // 1. Validate ownership once
+        Account account = validateAccountOwnership(request.getAccountId(), userEmail);
+        Long accountId = account.getId();
+
+        // 2. Quotes come from the cache; positions are loaded with one IN query
+        Map<String, StockQuoteCache.Quote> stocks = new HashMap<>();
+        for (String symbol : quantities.keySet()) {
+            stockQuoteCache.find(symbol).ifPresent(quote -> stocks.put(symbol, quote));
+        }
+        Map<String, StockPosition> positions = new HashMap<>();
+        for (StockPosition position : positionRepository.findByAccountIdAndStockSymbolIn(accountId, quantities.keySet())) {
+            positions.put(position.getStockSymbol(), position);
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<String, Long> item : quantities.entrySet()) {
+            StockQuoteCache.Quote stock = stocks.get(item.getKey());
+            if (stock == null) {
+                throw new IllegalArgumentException("Stock not found: " + item.getKey());
+            }
+            if (side == StockOrder.Side.SELL) {
+                StockPosition position = positions.get(item.getKey());
+                long owned = position == null ? 0 : position.getTotalShares();
+                if (owned < item.getValue()) {
+                    throw new IllegalArgumentException(String.format("Not enough shares of %s. Owned: %d, Requested: %d",
+                            item.getKey(), owned, item.getValue()));
+                }
+            }
+            total = total.add(stock.currentPrice().multiply(BigDecimal.valueOf(item.getValue())));
+        }
+
+        // 3. One balance check for the whole basket
+        if (side == StockOrder.Side.BUY && account.getBalance().compareTo(total) < 0) {
+            throw new IllegalArgumentException("Insufficient funds in account for basket total of " + total);
+        }
+
+        // 4. Apply each item
+        List<StockPosition> changedPositions = new ArrayList<>();
+        List<StockPosition> closedPositions = new ArrayList<>();
+        List<StockTransaction> transactions = new ArrayList<>(quantities.size());
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Map.Entry<String, Long> item : quantities.entrySet()) {
+            String symbol = item.getKey();
+            long quantity = item.getValue();
+            StockQuoteCache.Quote stock = stocks.get(symbol);
+            BigDecimal amount = stock.currentPrice().multiply(BigDecimal.valueOf(quantity));
+            StockTransaction.StockTransactionBuilder transaction = StockTransaction.builder()
+                    .transactionReference(generateStockTransactionReference())
+                    .accountId(accountId)
+                    .stockSymbol(symbol)
+                    .quantity(quantity)
+                    .pricePerShare(stock.currentPrice())
+                    .totalAmount(amount)
+                    .timestamp(now);
+
+            if (side == StockOrder.Side.BUY) {
+                if (!shareInventoryService.take(symbol, quantity)) {
+                    throw new IllegalArgumentException(
+                            String.format("Not enough shares available for %s. Requested: %d", symbol, quantity));
+                }
+                StockPosition position = positions.computeIfAbsent(symbol, s -> StockPosition.builder()
+                        .accountId(accountId)
+                        .stockSymbol(s)
+                        .totalShares(0L)
+                        .averageCostBasis(BigDecimal.ZERO)
+                        .build());
+                addToPosition(position, quantity, amount);
+                changedPositions.add(position);
+                transactions.add(transaction.type(StockTransaction.TransactionType.BUY).build());
+            } else {
+                StockPosition position = positions.get(symbol);
+                BigDecimal costBasis = position.getAverageCostBasis().multiply(BigDecimal.valueOf(quantity));
+                shareInventoryService.giveBack(symbol, quantity);
+                position.setTotalShares(position.getTotalShares() - quantity);
+                (position.getTotalShares() == 0 ? closedPositions : changedPositions).add(position);
+                transactions.add(transaction.type(StockTransaction.TransactionType.SELL)
+                        .profitLoss(amount.subtract(costBasis))
+                        .build());
+            }
+        }
+
+        // 5. Write everything once
+        account.setBalance(side == StockOrder.Side.BUY ? account.getBalance().subtract(total) : account.getBalance().add(total));
+        accountService.saveAccount(account);
+        positionRepository.saveAll(changedPositions);
+        positionRepository.deleteAll(closedPositions);
+        stockTransactionBatchRepository.insertAll(transactions);
+        ledgerService.recordStockTrades(transactions);
+
+        return StockBasketResponse.builder()
+                .accountId(accountId)
+                .side(side.name())
+                .totalAmount(total)
+                .transactions(transactions)
+                .build();
+    }
+
+    /**
+     * Executes triggered conditional orders in one transaction, each through the regular buy or
+     * sell flow at the current quote. Both flows validate before they change anything, so an
+     * order that fails is reported as FAILED without affecting the rest of the batch.
+     *
+     * @return one result per order, in order
+     */
+    public List<BatchTransferItemResult> executeTriggeredOrders(List<ConditionalOrder> orders) {
+        List<BatchTransferItemResult> results = new ArrayList<>(orders.size());
+
+        for (int i = 0; i < orders.size(); i++) {
+            ConditionalOrder order = orders.get(i);
+            try {
+                StockTransaction transaction = order.getSide() == StockOrder.Side.BUY
+                        ? buyStock(order.getAccountId(), order.getStockSymbol(), order.getQuantity(), order.getUserEmail())
+                        : sellStock(order.getAccountId(), order.getStockSymbol(), order.getQuantity(), order.getUserEmail());
+                results.add(BatchTransferItemResult.builder()
+                        .index(i)
+                        .status("SUCCEEDED")
+                        .transactionReference(transaction.getTransactionReference())
+                        .transactionId(transaction.getId())
+                        .build());
+            } catch (IllegalArgumentException | IllegalStateException | SecurityException e) {
+                results.add(BatchTransferItemResult.builder()
+                        .index(i)
+                        .status("FAILED")
+                        .message(e.getMessage())
+                        .build());
+            }
+        }
+
+        return results;
+    }
+
     /**
      * Get all stock positions for a user across all their accounts
      */
+    @Transactional(readOnly = true)
     public List<StockPortfolioResponse> getUserPortfolio(String email) {
-        List<Account> accounts = accountService.getAccountsByEmail(email);
-        List<Long> accountIds = accounts.stream()
+        List<Long> accountIds = accountService.getAccountsByEmail(email).stream()
                 .map(Account::getId)
                 .collect(Collectors.toList());
 
-        List<StockPosition> positions = positionRepository.findByAccountIds(accountIds);
+        return valuePortfolio(accountIds).getPositions();
+    }
 
-        return positions.stream()
-                .map(this::toPortfolioResponse)
-                .collect(Collectors.toList());
+    /**
+     * Values the positions held in the given accounts with one query joining positions to stocks
+     */
+    @Transactional(readOnly = true)
+    public PortfolioValuation valuePortfolio(List<Long> accountIds) {
+        if (accountIds.isEmpty()) {
+            return PortfolioValuation.of(new ArrayList<>());
+        }
+        return PortfolioValuation.of(positionRepository.findValuedByAccountIds(accountIds));
     }
 
     /**
@@ -207,6 +367,7 @@ public class StockService {
     /**
      * Get stock transaction history for user
      */
+    @Transactional(readOnly = true)
     public List<StockTransactionResponse> getUserTransactionHistory(String email, int limit) {
         List<Account> accounts = accountService.getAccountsByEmail(email);
         List<Long> accountIds = accounts.stream()
@@ -214,16 +375,15 @@ public class StockService {
                 .collect(Collectors.toList());
 
         List<StockTransaction> transactions = transactionRepository
-                .findRecentByAccountIds(accountIds, PageRequest.of(0, limit));
+                .findRecentByAccountIds(accountIds, PageRequest.of(0, clampLimit(limit)));
 
-        return transactions.stream()
-                .map(this::toTransactionResponse)
-                .collect(Collectors.toList());
+        return toTransactionResponses(transactions);
     }
 
     /**
      * Get specific transaction by reference
      */
+    @Transactional(readOnly = true)
     public StockTransactionResponse getTransactionByReference(String transactionReference, String email) {
         StockTransaction transaction = transactionRepository
                 .findByTransactionReference(transactionReference)
@@ -244,81 +404,171 @@ public class StockService {
     /**
      * Admin method to get all stock transactions
      */
+    @Transactional(readOnly = true)
     public List<StockTransactionResponse> getAllStockTransactions(int limit) {
-        List<StockTransaction> transactions = transactionRepository.findAllRecent(PageRequest.of(0, limit));
-        return transactions.stream()
-                .map(this::toTransactionResponse)
+        List<StockTransaction> transactions = transactionRepository.findAllRecent(PageRequest.of(0, clampLimit(limit)));
+        return toTransactionResponses(transactions);
+    }
+
+    /**
+     * Get stock transaction history for user one keyset page at a time
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<StockTransactionResponse> getUserTransactionHistoryPage(String email, String cursor, int limit) {
+        List<Long> accountIds = accountService.getAccountsByEmail(email).stream()
+                .map(Account::getId)
                 .collect(Collectors.toList());
+
+        if (accountIds.isEmpty()) {
+            return CursorPage.<StockTransactionResponse>builder().items(new ArrayList<>()).build();
+        }
+
+        int pageSize = clampLimit(limit);
+        PageRequest rowsWithLookahead = PageRequest.of(0, pageSize + 1);
+        List<StockTransaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findRecentByAccountIds(accountIds, rowsWithLookahead);
+        } else {
+            CursorCodec.Position position = CursorCodec.decode(cursor);
+            rows = transactionRepository.findRecentByAccountIdsBefore(accountIds, position.timestamp(), position.id(), rowsWithLookahead);
+        }
+
+        return CursorPage.of(rows, pageSize, this::toTransactionResponses,
+                tx -> CursorCodec.encode(tx.getTimestamp(), tx.getId()));
+    }
+
+    /**
+     * Admin method to page through all stock transactions
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<StockTransactionResponse> getAllStockTransactionsPage(String cursor, int limit) {
+        int pageSize = clampLimit(limit);
+        PageRequest rowsWithLookahead = PageRequest.of(0, pageSize + 1);
+        List<StockTransaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findAllRecent(rowsWithLookahead);
+        } else {
+            CursorCodec.Position position = CursorCodec.decode(cursor);
+            rows = transactionRepository.findAllRecentBefore(position.timestamp(), position.id(), rowsWithLookahead);
+        }
+
+        return CursorPage.of(rows, pageSize, this::toTransactionResponses,
+                tx -> CursorCodec.encode(tx.getTimestamp(), tx.getId()));
     }
 
     // Helper methods
 
-    private Account validateAccountOwnership(Long accountId, String email) {
+    Account validateAccountOwnership(Long accountId, String email) {
+        checkAccountOwnership(accountId, email);
         Account account = accountService.getAccount(accountId);
-        List<Account> userAccounts = accountService.getAccountsByEmail(email);
-
-        boolean ownsAccount = userAccounts.stream()
-                .anyMatch(acc -> acc.getId().equals(accountId));
+        checkNotFrozen(account);
+        return account;
+    }
 
-        if (!ownsAccount) {
+    // By id only, so callers that lock the account afterwards do not lock an already loaded copy
+    void checkAccountOwnership(Long accountId, String email) {
+        if (!accountService.getAccountIdsByEmail(email).contains(accountId)) {
             throw new SecurityException("You do not have permission to trade from this account");
         }
+    }
 
+    void checkNotFrozen(Account account) {
         if (account.isFrozen()) {
             throw new IllegalStateException("Account is frozen. Please contact support.");
         }
-
-        return account;
     }
 
     private String generateStockTransactionReference() {
-        String datePart = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String uniquePart = UUID.randomUUID().toString().replace("-", "").substring(0, 6).toUpperCase();
-        return "STK-" + datePart + "-" + uniquePart;
+        return referenceGenerator.next("STK");
     }
 
-    private StockPortfolioResponse toPortfolioResponse(StockPosition position) {
-        Stock stock = stockRepository.findBySymbol(position.getStockSymbol())
-                .orElseThrow(() -> new IllegalStateException("Stock not found"));
-
-        BigDecimal marketValue = stock.getCurrentPrice()
-                .multiply(BigDecimal.valueOf(position.getTotalShares()));
-        BigDecimal costBasis = position.getAverageCostBasis()
+    // Adds bought shares and moves the average cost basis to include their cost
+    private void addToPosition(StockPosition position, long quantity, BigDecimal cost) {
+        BigDecimal existingValue = position.getAverageCostBasis()
                 .multiply(BigDecimal.valueOf(position.getTotalShares()));
-        BigDecimal profitLoss = marketValue.subtract(costBasis);
-        BigDecimal profitLossPercent = costBasis.compareTo(BigDecimal.ZERO) > 0
-                ? profitLoss.divide(costBasis, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100))
-                : BigDecimal.ZERO;
-
-        return StockPortfolioResponse.builder()
-                .stockSymbol(stock.getSymbol())
-                .companyName(stock.getCompanyName())
-                .totalShares(position.getTotalShares())
-                .averageCostBasis(position.getAverageCostBasis())
-                .currentPrice(stock.getCurrentPrice())
-                .marketValue(marketValue)
-                .profitLoss(profitLoss)
-                .profitLossPercent(profitLossPercent)
-                .build();
+        long newTotalShares = position.getTotalShares() + quantity;
+
+        BigDecimal newAverageCost = existingValue.add(cost)
+                .divide(BigDecimal.valueOf(newTotalShares), 2, RoundingMode.HALF_UP);
+
+        position.setTotalShares(newTotalShares);
+        position.setAverageCostBasis(newAverageCost);
+    }
+
+    private StockOrder.Side parseSide(String side) {
+        try {
+            return StockOrder.Side.valueOf(side.trim().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid side: " + side);
+        }
+    }
+
+    // Symbol -> quantity in request order; each symbol may appear once
+    private Map<String, Long> basketQuantities(List<StockBasketRequest.Item> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("At least one basket item is required");
+        }
+        if (items.size() > maxBasketSize) {
+            throw new IllegalArgumentException("A basket may contain at most " + maxBasketSize + " items");
+        }
+
+        Map<String, Long> quantities = new LinkedHashMap<>();
+        for (StockBasketRequest.Item item : items) {
+            if (item.getStockSymbol() == null || item.getStockSymbol().isBlank()) {
+                throw new IllegalArgumentException("Stock symbol is required");
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be greater than zero");
+            }
+            String symbol = item.getStockSymbol().trim().toUpperCase();
+            if (quantities.put(symbol, item.getQuantity()) != null) {
+                throw new IllegalArgumentException("Symbol appears more than once in the basket: " + symbol);
+            }
+        }
+        return quantities;
+    }
+
+    private int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    // Resolves account numbers for the whole page with one query; company names come from the quote cache
+    private List<StockTransactionResponse> toTransactionResponses(List<StockTransaction> transactions) {
+        if (transactions.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> accountIds = new HashSet<>();
+        Set<String> symbols = new HashSet<>();
+        for (StockTransaction transaction : transactions) {
+            accountIds.add(transaction.getAccountId());
+            symbols.add(transaction.getStockSymbol());
+        }
+
+        Map<Long, String> accountNumbers = accountService.getAccountNumbers(accountIds);
+        Map<String, String> companyNames = new HashMap<>();
+        for (String symbol : symbols) {
+            stockQuoteCache.find(symbol).ifPresent(quote -> companyNames.put(symbol, quote.companyName()));
+        }
+
+        return transactions.stream()
+                .map(transaction -> StockTransactionResponse.builder()
+                        .id(transaction.getId())
+                        .transactionReference(transaction.getTransactionReference())
+                        .stockSymbol(transaction.getStockSymbol())
+                        .companyName(companyNames.get(transaction.getStockSymbol()))
+                        .type(transaction.getType().name())
+                        .quantity(transaction.getQuantity())
+                        .pricePerShare(transaction.getPricePerShare())
+                        .totalAmount(transaction.getTotalAmount())
+                        .profitLoss(transaction.getProfitLoss())
+                        .timestamp(transaction.getTimestamp())
+                        .accountNumber(accountNumbers.get(transaction.getAccountId()))
+                        .build())
+                .collect(Collectors.toList());
     }
 
     private StockTransactionResponse toTransactionResponse(StockTransaction transaction) {
-        Account account = accountService.getAccount(transaction.getAccountId());
-        Stock stock = stockRepository.findBySymbol(transaction.getStockSymbol())
-                .orElseThrow(() -> new IllegalStateException("Stock not found"));
-
-        return StockTransactionResponse.builder()
-                .id(transaction.getId())
-                .transactionReference(transaction.getTransactionReference())
-                .stockSymbol(transaction.getStockSymbol())
-                .companyName(stock.getCompanyName())
-                .type(transaction.getType().name())
-                .quantity(transaction.getQuantity())
-                .pricePerShare(transaction.getPricePerShare())
-                .totalAmount(transaction.getTotalAmount())
-                .profitLoss(transaction.getProfitLoss())
-                .timestamp(transaction.getTimestamp())
-                .accountNumber(account.getAccountNumber())
-                .build();
+        return toTransactionResponses(List.of(transaction)).get(0);
     }
 }
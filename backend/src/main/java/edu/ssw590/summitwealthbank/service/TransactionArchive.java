@@ -0,0 +1,278 @@
+package edu.ssw590.summitwealthbank.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ssw590.summitwealthbank.model.StockTransaction;
+import edu.ssw590.summitwealthbank.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage for archived months of transfers and stock trades, as gzip-compressed NDJSON under
+ * app.archive.dir. Each month is a directory of up to BUCKETS files, and a row goes into the file
+ * of every account it belongs to (account id modulo BUCKETS), e.g.
+ * archive/transaction/2024-01/07.ndjson.gz. An export then opens only its accounts' buckets
+ * instead of every archived row. Each line is the entity as the NDJSON export writes it, so
+ * archived rows read back into the same entity classes.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionArchive {
+
+    /** Files per month. Changing it makes months already archived unreadable. */
+    static final int BUCKETS = 64;
+
+    private static final String SUFFIX = ".ndjson.gz";
+    private static final Pattern MONTH = Pattern.compile("\\d{4}-\\d{2}");
+
+    /** An archived table: its name, entity type, the accounts a row belongs to and the export order. */
+    public record Table<T>(String name, Class<T> type, Function<T, List<Long>> accounts, Comparator<T> order) {
+    }
+
+    public static final Table<Transaction> TRANSFERS = new Table<>("transaction", Transaction.class,
+            tx -> accounts(tx.getFromAccountId(), tx.getToAccountId()),
+            Comparator.comparing(Transaction::getTimestamp).thenComparing(Transaction::getId));
+
+    public static final Table<StockTransaction> STOCK_TRADES = new Table<>("stock_transaction", StockTransaction.class,
+            tx -> accounts(tx.getAccountId()),
+            Comparator.comparing(StockTransaction::getTimestamp).thenComparing(StockTransaction::getId));
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.archive.dir:archive}")
+    private String archiveDir;
+
+    /**
+     * Writes the month's rows to a temp directory and moves it into place, so a reader never sees
+     * a partial month and a failed run leaves any previous archive of the month untouched.
+     *
+     * @return the number of rows written
+     */
+    public <T> long write(Table<T> table, YearMonth month, Iterator<T> rows) {
+        Path target = directory(table, month);
+        Path temp = target.resolveSibling(month + ".tmp");
+
+        long count = 0;
+        try {
+            deleteRecursively(temp);
+            Files.createDirectories(temp);
+            Map<Integer, Writer> writers = new TreeMap<>();
+            try {
+                while (rows.hasNext()) {
+                    T row = rows.next();
+                    String line = objectMapper.writeValueAsString(row);
+                    for (int bucket : buckets(table.accounts().apply(row))) {
+                        Writer writer = writers.get(bucket);
+                        if (writer == null) {
+                            writer = open(temp.resolve(fileName(bucket)));
+                            writers.put(bucket, writer);
+                        }
+                        writer.write(line);
+                        writer.write('\n');
+                    }
+                    count++;
+                }
+            } finally {
+                closeAll(writers.values());
+            }
+            replace(temp, target);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+
+    /**
+     * Streams the archived rows of the given accounts, oldest month first and in the table's
+     * order within a month. A month's matching rows are read from their buckets and sorted in
+     * memory; the stream must be closed.
+     */
+    public <T> Stream<T> read(Table<T> table, Collection<Long> accountIds) {
+        Set<Long> accounts = new HashSet<>(accountIds);
+        Set<Integer> buckets = buckets(accountIds);
+        return months(table).stream()
+                .flatMap(month -> readMonth(table, month, accounts, buckets));
+    }
+
+    public List<YearMonth> months(Table<?> table) {
+        Path directory = Paths.get(archiveDir, table.name());
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> MONTH.matcher(name).matches())
+                    .map(YearMonth::parse)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> Stream<T> readMonth(Table<T> table, YearMonth month, Set<Long> accounts, Set<Integer> buckets) {
+        List<T> rows = new ArrayList<>();
+        for (int bucket : buckets) {
+            Path file = directory(table, month).resolve(fileName(bucket));
+            if (!Files.exists(file)) {
+                continue;
+            }
+            try (Stream<String> lines = lines(file)) {
+                lines.map(line -> parse(line, table.type()))
+                        .filter(row -> firstBucket(table.accounts().apply(row), accounts) == bucket)
+                        .forEach(rows::add);
+            }
+        }
+        rows.sort(table.order());
+        return rows.stream();
+    }
+
+    // Lowest bucket among the row's accounts that are being read, -1 if none. A transfer between two
+    // of them is in both their buckets and is kept only from this one.
+    private int firstBucket(List<Long> rowAccounts, Set<Long> accounts) {
+        int first = -1;
+        for (Long account : rowAccounts) {
+            if (accounts.contains(account)) {
+                int bucket = bucket(account);
+                if (first < 0 || bucket < first) {
+                    first = bucket;
+                }
+            }
+        }
+        return first;
+    }
+
+    // Rows without an account still have to be kept somewhere
+    private Set<Integer> buckets(Collection<Long> accounts) {
+        Set<Integer> buckets = new TreeSet<>();
+        for (Long account : accounts) {
+            buckets.add(bucket(account));
+        }
+        if (buckets.isEmpty()) {
+            buckets.add(0);
+        }
+        return buckets;
+    }
+
+    private int bucket(long accountId) {
+        return (int) Math.floorMod(accountId, (long) BUCKETS);
+    }
+
+    private static List<Long> accounts(Long... ids) {
+        List<Long> accounts = new ArrayList<>(ids.length);
+        for (Long id : ids) {
+            if (id != null) {
+                accounts.add(id);
+            }
+        }
+        return accounts;
+    }
+
+    private Path directory(Table<?> table, YearMonth month) {
+        return Paths.get(archiveDir, table.name(), month.toString());
+    }
+
+    private String fileName(int bucket) {
+        return String.format("%02d%s", bucket, SUFFIX);
+    }
+
+    private Writer open(Path file) {
+        try {
+            return new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(file), 64 * 1024), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeAll(Collection<Writer> writers) throws IOException {
+        IOException failure = null;
+        for (Writer writer : writers) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // A rerun for a month replaces the earlier archive; it is moved aside rather than deleted first
+    private void replace(Path temp, Path target) throws IOException {
+        Path previous = target.resolveSibling(target.getFileName() + ".old");
+        deleteRecursively(previous);
+        if (Files.exists(target)) {
+            Files.move(target, previous, StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        deleteRecursively(previous);
+    }
+
+    private void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path file : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private Stream<String> lines(Path file) {
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file), 64 * 1024), StandardCharsets.UTF_8));
+            return reader.lines().onClose(() -> {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T parse(String line, Class<T> type) {
+        try {
+            return objectMapper.readValue(line, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
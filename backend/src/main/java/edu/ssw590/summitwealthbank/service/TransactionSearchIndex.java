@@ -0,0 +1,204 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.event.TransfersCommittedEvent;
+import edu.ssw590.summitwealthbank.model.Transaction;
+import edu.ssw590.summitwealthbank.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over transfer descriptions. For every account, each lower-cased
+ * description token maps to the ids of the transactions on that account that contain it. Tokens
+ * are kept sorted, so a prefix query is a range scan over the token map rather than a
+ * LIKE '%x%' over the transaction table.
+ *
+ * Built from the table at startup and kept current from TransfersCommittedEvent after each
+ * commit. The index is per instance; every instance rebuilds its own on startup.
+ *
+ * Postings are bucketed by the month of the transfer, like the partitions of the table. Once
+ * PartitionMaintenanceService archives months past its horizon, every instance drops those
+ * buckets on the same daily schedule, so the index does not keep growing with rows that are no
+ * longer in the table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final PartitionMaintenanceService partitionMaintenanceService;
+
+    // accountId -> month -> token -> transaction ids, highest (newest) id first
+    private final Map<Long, ConcurrentSkipListMap<YearMonth, ConcurrentSkipListMap<String, ConcurrentSkipListSet<Long>>>> index =
+            new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        // Transfers committed while this runs are added by the listener too; adding twice is harmless
+        long indexed = template.execute(status -> {
+            long count = 0;
+            try (Stream<Transaction> transactions = transactionRepository.streamAll()) {
+                for (Transaction tx : (Iterable<Transaction>) transactions::iterator) {
+                    add(tx);
+                    entityManager.detach(tx);
+                    count++;
+                }
+            }
+            return count;
+        });
+
+        log.info("Indexed {} transaction descriptions for {} accounts in {} ms",
+                indexed, index.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTransfersCommitted(TransfersCommittedEvent event) {
+        event.transactions().forEach(this::add);
+    }
+
+    public void add(Transaction tx) {
+        Set<String> tokens = tokenize(tx.getDescription());
+        YearMonth month = tx.getTimestamp() != null ? YearMonth.from(tx.getTimestamp()) : YearMonth.now();
+        addPostings(tx.getFromAccountId(), month, tokens, tx.getId());
+        addPostings(tx.getToAccountId(), month, tokens, tx.getId());
+    }
+
+    @Scheduled(cron = "${app.partitioning.cron:0 30 1 * * *}")
+    public void evictArchivedMonths() {
+        partitionMaintenanceService.archiveCutoff().ifPresent(cutoff -> {
+            int evicted = evictBefore(cutoff);
+            if (evicted > 0) {
+                log.info("Evicted {} archived monthly search buckets before {}", evicted, cutoff);
+            }
+        });
+    }
+
+    /**
+     * Drops every month before cutoff from the index.
+     *
+     * @return the number of account months dropped
+     */
+    int evictBefore(YearMonth cutoff) {
+        int evicted = 0;
+        for (ConcurrentSkipListMap<YearMonth, ConcurrentSkipListMap<String, ConcurrentSkipListSet<Long>>> months : index.values()) {
+            NavigableMap<YearMonth, ConcurrentSkipListMap<String, ConcurrentSkipListSet<Long>>> archived = months.headMap(cutoff, false);
+            evicted += archived.size();
+            archived.clear();
+        }
+        return evicted;
+    }
+
+    /**
+     * Returns up to limit ids of transactions on the given accounts, newest first, whose
+     * description has a token starting with every term of the query.
+     */
+    public List<Long> search(Collection<Long> accountIds, String query, int limit) {
+        Set<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        NavigableSet<Long> matches = new TreeSet<>(Comparator.reverseOrder());
+        for (Long accountId : accountIds) {
+            ConcurrentSkipListMap<YearMonth, ConcurrentSkipListMap<String, ConcurrentSkipListSet<Long>>> months = index.get(accountId);
+            if (months != null) {
+                for (ConcurrentSkipListMap<String, ConcurrentSkipListSet<Long>> tokens : months.values()) {
+                    matches.addAll(matchAll(tokens, terms));
+                }
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(Math.min(limit, matches.size()));
+        for (Long id : matches) {
+            if (ids.size() >= limit) {
+                break;
+            }
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private Set<Long> matchAll(ConcurrentSkipListMap<String, ConcurrentSkipListSet<Long>> tokens, Set<String> terms) {
+        List<Set<Long>> perTerm = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            Set<Long> ids = new TreeSet<>(Comparator.reverseOrder());
+            for (ConcurrentSkipListSet<Long> postings : tokens.subMap(term, true, term + Character.MAX_VALUE, true).values()) {
+                ids.addAll(postings);
+            }
+            if (ids.isEmpty()) {
+                return Set.of();
+            }
+            perTerm.add(ids);
+        }
+
+        // Intersect starting from the most selective term
+        perTerm.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = perTerm.get(0);
+        for (int i = 1; i < perTerm.size() && !result.isEmpty(); i++) {
+            result.retainAll(perTerm.get(i));
+        }
+        return result;
+    }
+
+    private void addPostings(Long accountId, YearMonth month, Set<String> tokens, Long transactionId) {
+        if (accountId == null || transactionId == null) {
+            return;
+        }
+
+        ConcurrentSkipListMap<String, ConcurrentSkipListSet<Long>> accountIndex = index
+                .computeIfAbsent(accountId, id -> new ConcurrentSkipListMap<>())
+                .computeIfAbsent(month, m -> new ConcurrentSkipListMap<>());
+        for (String token : tokens) {
+            accountIndex.computeIfAbsent(token, t -> new ConcurrentSkipListSet<>(Comparator.reverseOrder()))
+                    .add(transactionId);
+        }
+    }
+
+    private static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase())) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
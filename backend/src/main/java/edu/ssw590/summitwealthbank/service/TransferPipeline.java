@@ -0,0 +1,386 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.dto.BatchTransferItemResult;
+import edu.ssw590.summitwealthbank.dto.TransferRequest;
+import edu.ssw590.summitwealthbank.model.QueuedTransfer;
+import edu.ssw590.summitwealthbank.repository.QueuedTransferRepository;
+import edu.ssw590.summitwealthbank.util.TtlCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Accept-then-settle mode for transfers. Requests are validated and given a reference up front,
+ * then queued; a single writer thread drains the queue in micro-batches and settles each batch
+ * with one TransferService.settleTransfers call, i.e. one database commit per batch instead of
+ * one per transfer. Disabled unless app.transfer.pipeline.enabled=true.
+ *
+ * Every accepted transfer is written to queued_transfer as PENDING before the 202 goes out, and
+ * the batch that settles it flips the row to SUCCEEDED or FAILED in the same commit. Rows still
+ * PENDING after a crash or an unfinished shutdown drain are settled by the writer on the next
+ * startup; the @Version on the row keeps two instances from settling the same transfer.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransferPipeline {
+
+    private final TransferService transferService;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final QueuedTransferRepository queuedTransferRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.transfer.pipeline.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.transfer.pipeline.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.transfer.pipeline.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.transfer.pipeline.linger-ms:5}")
+    private long lingerMs;
+
+    @Value("${app.transfer.pipeline.status-ttl-minutes:60}")
+    private long statusTtlMinutes;
+
+    @Value("${app.transfer.pipeline.status-cache-size:100000}")
+    private int statusCacheSize;
+
+    private BlockingQueue<PendingTransfer> queue;
+    private TtlCache<String, PendingTransfer> tracked;
+    private Thread writer;
+    private volatile boolean running;
+    private long recoverUpToId;
+
+    public record Submission(String transactionReference, CompletableFuture<BatchTransferItemResult> result) {
+    }
+
+    private record PendingTransfer(Long id, String reference, String email, TransferRequest request,
+                                   CompletableFuture<BatchTransferItemResult> result) {
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        tracked = new TtlCache<>(statusCacheSize, statusTtlMinutes * 60_000L);
+        meterRegistry.gauge("bank.transfer.pipeline.queue.depth", queue, BlockingQueue::size);
+
+        // Anything PENDING up to here was accepted by an earlier run; later rows are ours and queued
+        recoverUpToId = queuedTransferRepository.findMaxId();
+        running = true;
+        writer = new Thread(this::drainLoop, "transfer-pipeline-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Transfer pipeline started (batch size {}, linger {} ms, queue capacity {})",
+                batchSize, lingerMs, queueCapacity);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+
+        // The writer keeps draining until the queue is empty; whatever it cannot settle in time stays
+        // PENDING in queued_transfer and is settled on the next startup
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * Validates the transfer, records it as PENDING and queues it for settlement. The returned
+     * future completes with a SUCCEEDED or FAILED result once the batch containing it has committed.
+     *
+     * @throws RejectedExecutionException if the pipeline is disabled or the queue is full
+     */
+    public Submission submit(TransferRequest request, String email) {
+        if (!running) {
+            throw new RejectedExecutionException("Asynchronous transfers are not enabled");
+        }
+
+        transferService.validateTransfer(request, email);
+        if (queue.remainingCapacity() == 0) {
+            throw rejected();
+        }
+
+        String reference = transferService.generateTransactionReference();
+        QueuedTransfer row = queuedTransferRepository.save(QueuedTransfer.builder()
+                .transactionReference(reference)
+                .userEmail(email)
+                .fromAccountId(request.getFromAccountId())
+                .toAccountId(request.getToAccountId())
+                .amount(request.getAmount())
+                .description(request.getDescription())
+                .status(QueuedTransfer.Status.PENDING)
+                .build());
+        PendingTransfer pending = new PendingTransfer(row.getId(), reference, email, request, new CompletableFuture<>());
+
+        tracked.put(reference, pending);
+        if (!queue.offer(pending)) {
+            tracked.remove(reference);
+            queuedTransferRepository.deleteById(row.getId());
+            throw rejected();
+        }
+
+        return new Submission(reference, pending.result());
+    }
+
+    /**
+     * Returns the outcome of a queued transfer, or a PENDING result while it is still queued.
+     * Recent transfers are answered from memory, anything else (e.g. after a restart) from
+     * queued_transfer. Outcomes are kept for app.transfer.pipeline.status-ttl-minutes; after that
+     * the settled transfer is still available through the regular transaction search.
+     */
+    public BatchTransferItemResult getStatus(String reference, String email) {
+        PendingTransfer pending = tracked != null ? tracked.get(reference) : null;
+        if (pending == null) {
+            return queuedTransferRepository.findByTransactionReference(reference)
+                    .filter(row -> row.getUserEmail().equals(email))
+                    .map(this::toResult)
+                    .orElseThrow(() -> new IllegalArgumentException("Transfer not found with reference: " + reference));
+        }
+        if (!pending.email().equals(email)) {
+            throw new IllegalArgumentException("Transfer not found with reference: " + reference);
+        }
+
+        if (pending.result().isDone()) {
+            return pending.result().join();
+        }
+
+        return BatchTransferItemResult.builder()
+                .status("PENDING")
+                .transactionReference(reference)
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${app.transfer.pipeline.cleanup-interval-ms:3600000}")
+    public void purgeSettledTransfers() {
+        int removed = queuedTransferRepository.deleteSettledBefore(LocalDateTime.now().minusMinutes(statusTtlMinutes));
+        if (removed > 0) {
+            log.info("Purged {} settled queued transfers", removed);
+        }
+    }
+
+    private RejectedExecutionException rejected() {
+        meterRegistry.counter("bank.transfer.pipeline.rejected").increment();
+        return new RejectedExecutionException("Transfer queue is full. Please try again shortly.");
+    }
+
+    /**
+     * Settles, batch by batch, the transfers an earlier run accepted but never settled. Runs on the
+     * writer thread before it takes new work, so recovered transfers keep their place in line.
+     */
+    private void recover() {
+        long afterId = 0;
+        int recovered = 0;
+        try {
+            while (true) {
+                List<QueuedTransfer> rows = queuedTransferRepository.findPendingBetween(
+                        afterId, recoverUpToId, PageRequest.of(0, batchSize));
+                if (rows.isEmpty()) {
+                    break;
+                }
+
+                List<PendingTransfer> batch = new ArrayList<>(rows.size());
+                for (QueuedTransfer row : rows) {
+                    PendingTransfer pending = new PendingTransfer(row.getId(), row.getTransactionReference(),
+                            row.getUserEmail(), toRequest(row), new CompletableFuture<>());
+                    tracked.put(pending.reference(), pending);
+                    batch.add(pending);
+                }
+                settle(batch);
+
+                afterId = rows.get(rows.size() - 1).getId();
+                recovered += rows.size();
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not recover queued transfers; they stay PENDING until the next startup", e);
+        }
+
+        if (recovered > 0) {
+            log.info("Settled {} transfers left pending by an earlier run", recovered);
+        }
+    }
+
+    private void drainLoop() {
+        recover();
+        List<PendingTransfer> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingTransfer first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    // Take whatever is already queued, then wait out the rest of the linger window
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingTransfer next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                settle(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Transfer pipeline writer failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void settle(List<PendingTransfer> batch) {
+        meterRegistry.summary("bank.transfer.pipeline.batch.size").record(batch.size());
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        try {
+            List<BatchTransferItemResult> results = retryExecutor.execute("transfer-pipeline",
+                    () -> settleQueued(batch));
+
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            log.error("Transfer pipeline batch of {} transfers failed", batch.size(), e);
+            failAll(batch, "Transfer could not be settled. Please try again.");
+        } finally {
+            sample.stop(meterRegistry.timer("bank.transfer.pipeline.commit"));
+        }
+    }
+
+    /**
+     * Settles the rows of the batch that are still PENDING and records each outcome on its row, all
+     * in one transaction. Rows already settled elsewhere only report their stored outcome; if another
+     * instance settles one concurrently, the version check fails the commit and the retry skips it.
+     */
+    private List<BatchTransferItemResult> settleQueued(List<PendingTransfer> batch) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        return template.execute(status -> {
+            Map<Long, QueuedTransfer> rows = queuedTransferRepository.findAllById(
+                            batch.stream().map(PendingTransfer::id).collect(Collectors.toList())).stream()
+                    .collect(Collectors.toMap(QueuedTransfer::getId, Function.identity()));
+
+            List<QueuedTransfer> open = new ArrayList<>();
+            List<TransferRequest> requests = new ArrayList<>();
+            List<String> references = new ArrayList<>();
+            for (PendingTransfer pending : batch) {
+                QueuedTransfer row = rows.get(pending.id());
+                if (row != null && row.getStatus() == QueuedTransfer.Status.PENDING) {
+                    open.add(row);
+                    requests.add(pending.request());
+                    references.add(pending.reference());
+                }
+            }
+
+            List<BatchTransferItemResult> settled = transferService.settleTransfers(requests, references);
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < open.size(); i++) {
+                QueuedTransfer row = open.get(i);
+                row.setStatus(QueuedTransfer.Status.valueOf(settled.get(i).getStatus()));
+                row.setMessage(settled.get(i).getMessage());
+                row.setSettledAt(now);
+            }
+
+            List<BatchTransferItemResult> results = new ArrayList<>(batch.size());
+            for (PendingTransfer pending : batch) {
+                QueuedTransfer row = rows.get(pending.id());
+                results.add(row != null ? toResult(row) : BatchTransferItemResult.builder()
+                        .status("FAILED")
+                        .transactionReference(pending.reference())
+                        .message("Transfer was not found in the queue")
+                        .build());
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Records a failed batch as FAILED. If even that cannot be written the transfers are left
+     * PENDING, both in memory and in queued_transfer, and the next startup settles them.
+     */
+    private void failAll(List<PendingTransfer> batch, String message) {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                for (QueuedTransfer row : queuedTransferRepository.findAllById(
+                        batch.stream().map(PendingTransfer::id).collect(Collectors.toList()))) {
+                    if (row.getStatus() == QueuedTransfer.Status.PENDING) {
+                        row.setStatus(QueuedTransfer.Status.FAILED);
+                        row.setMessage(message);
+                        row.setSettledAt(now);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not record the failed batch; its transfers stay PENDING", e);
+            return;
+        }
+
+        for (PendingTransfer pending : batch) {
+            pending.result().complete(BatchTransferItemResult.builder()
+                    .status("FAILED")
+                    .transactionReference(pending.reference())
+                    .message(message)
+                    .build());
+        }
+    }
+
+    private BatchTransferItemResult toResult(QueuedTransfer row) {
+        return BatchTransferItemResult.builder()
+                .status(row.getStatus().name())
+                .transactionReference(row.getTransactionReference())
+                .message(row.getMessage())
+                .build();
+    }
+
+    private TransferRequest toRequest(QueuedTransfer row) {
+        TransferRequest request = new TransferRequest();
+        request.setFromAccountId(row.getFromAccountId());
+        request.setToAccountId(row.getToAccountId());
+        request.setAmount(row.getAmount());
+        request.setDescription(row.getDescription());
+        return request;
+    }
+}
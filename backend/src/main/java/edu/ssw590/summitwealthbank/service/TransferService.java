@@ -1,19 +1,35 @@
 package edu.ssw590.summitwealthbank.service;
 
+import edu.ssw590.summitwealthbank.dto.BatchTransferItemResult;
+import edu.ssw590.summitwealthbank.dto.BatchTransferResponse;
+import edu.ssw590.summitwealthbank.dto.CursorPage;
 import edu.ssw590.summitwealthbank.dto.TransactionResponse;
 import edu.ssw590.summitwealthbank.dto.TransferRequest;
+import edu.ssw590.summitwealthbank.event.TransfersCommittedEvent;
 import edu.ssw590.summitwealthbank.model.Account;
 import edu.ssw590.summitwealthbank.model.Transaction;
+import edu.ssw590.summitwealthbank.repository.TransactionBatchRepository;
 import edu.ssw590.summitwealthbank.repository.TransactionRepository;
+import edu.ssw590.summitwealthbank.util.CursorCodec;
+import edu.ssw590.summitwealthbank.util.ReferenceGenerator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,36 +38,28 @@ public class TransferService {
 
     private final AccountService accountService;
     private final TransactionRepository transactionRepository;
+    private final AccountLockService accountLockService;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final LedgerService ledgerService;
+    private final ReferenceGenerator referenceGenerator;
+    private final TransactionSearchIndex searchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public Transaction transfer(TransferRequest request, String email) {
-        // Validate request
-        if (request.getFromAccountId() == null || request.getToAccountId() == null) {
-            throw new IllegalArgumentException("Both source and destination accounts are required");
-        }
-
-        if (request.getAmount() == null || request.getAmount().signum() <= 0) {
-            throw new IllegalArgumentException("Transfer amount must be greater than zero");
-        }
+    @Value("${app.transfer.batch.max-size:10000}")
+    private int maxBatchSize;
 
-        if (request.getDescription() == null || request.getDescription().trim().isEmpty()) {
-            throw new IllegalArgumentException("Description is required and cannot be blank");
-        }
+    @Value("${app.pagination.max-page-size:200}")
+    private int maxPageSize;
 
-        if (request.getFromAccountId().equals(request.getToAccountId())) {
-            throw new IllegalArgumentException("Cannot transfer to the same account");
-        }
-
-        Account from = accountService.getAccount(request.getFromAccountId());
-        Account to = accountService.getAccount(request.getToAccountId());
-
-        // Verify ownership - user must own the source account
-        List<Account> userAccounts = accountService.getAccountsByEmail(email);
-        boolean ownsFromAccount = userAccounts.stream()
-                .anyMatch(acc -> acc.getId().equals(from.getId()));
+    @Transactional
+    public Transaction transfer(TransferRequest request, String email) {
+        validateTransfer(request, email);
 
-        if (!ownsFromAccount) {
-            throw new SecurityException("You do not have permission to transfer from this account");
-        }
+        // Lock both rows (always lowest id first) so balances are read and written atomically
+        Map<Long, Account> locked = accountLockService.lockAccounts(
+                List.of(request.getFromAccountId(), request.getToAccountId()));
+        Account from = locked.get(request.getFromAccountId());
+        Account to = locked.get(request.getToAccountId());
 
         if (from.isFrozen()) {
             throw new IllegalStateException("Source account is frozen. Please contact support.");
@@ -83,20 +91,212 @@ public class TransferService {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-        return transactionRepository.save(tx);
+        ledgerService.recordTransfer(transactionReference, from.getId(), to.getId(), request.getAmount());
+        Transaction saved = transactionRepository.save(tx);
+        eventPublisher.publishEvent(new TransfersCommittedEvent(List.of(saved)));
+        return saved;
+    }
+
+    /**
+     * Applies many transfers for one user in a single transaction. Ownership is checked once,
+     * every account involved is locked once, and items are applied in order against running
+     * balances. Items that fail validation are reported individually and do not affect the rest.
+     */
+    @Transactional
+    public BatchTransferResponse transferBatch(List<TransferRequest> requests, String email) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one transfer is required");
+        }
+
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxBatchSize + " transfers");
+        }
+
+        Set<Long> ownedAccountIds = accountService.getAccountIdsByEmail(email);
+
+        BatchTransferItemResult[] results = new BatchTransferItemResult[requests.size()];
+        List<TransferRequest> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequest request = requests.get(i);
+            try {
+                validateTransferRequest(request);
+                if (!ownedAccountIds.contains(request.getFromAccountId())) {
+                    throw new SecurityException("You do not have permission to transfer from this account");
+                }
+                accepted.add(request);
+                acceptedIndexes.add(i);
+            } catch (IllegalArgumentException | SecurityException e) {
+                results[i] = failedItem(i, e.getMessage());
+            }
+        }
+
+        List<String> references = accepted.stream()
+                .map(request -> generateTransactionReference())
+                .collect(Collectors.toList());
+
+        List<BatchTransferItemResult> settled = settleTransfers(accepted, references);
+        for (int i = 0; i < settled.size(); i++) {
+            int originalIndex = acceptedIndexes.get(i);
+            settled.get(i).setIndex(originalIndex);
+            results[originalIndex] = settled.get(i);
+        }
+
+        List<BatchTransferItemResult> resultList = Arrays.asList(results);
+        int succeeded = (int) resultList.stream()
+                .filter(result -> "SUCCEEDED".equals(result.getStatus()))
+                .count();
+
+        return BatchTransferResponse.builder()
+                .submitted(requests.size())
+                .succeeded(succeeded)
+                .failed(requests.size() - succeeded)
+                .results(resultList)
+                .build();
+    }
+
+    /**
+     * Settles already-validated transfers inside the caller's transaction. Request validation and
+     * ownership checks are the caller's job; this only checks existence, frozen status and funds.
+     * Each touched account is written once with its net change and the Transaction rows and their
+     * ledger postings go out in JDBC batches. Results come back in input order.
+     */
+    @Transactional
+    public List<BatchTransferItemResult> settleTransfers(List<TransferRequest> requests, List<String> references) {
+        if (requests.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> accountIds = new HashSet<>();
+        for (TransferRequest request : requests) {
+            accountIds.add(request.getFromAccountId());
+            accountIds.add(request.getToAccountId());
+        }
+
+        Map<Long, Account> accounts = accountLockService.lockExistingAccounts(accountIds);
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        Map<Long, Account> changed = new LinkedHashMap<>();
+
+        List<BatchTransferItemResult> results = new ArrayList<>(requests.size());
+        List<Transaction> transactions = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequest request = requests.get(i);
+            Account from = accounts.get(request.getFromAccountId());
+            Account to = accounts.get(request.getToAccountId());
+
+            String error = null;
+            if (from == null) {
+                error = "Account not found: " + request.getFromAccountId();
+            } else if (to == null) {
+                error = "Account not found: " + request.getToAccountId();
+            } else if (from.isFrozen()) {
+                error = "Source account is frozen. Please contact support.";
+            } else if (to.isFrozen()) {
+                error = "Destination account is frozen. Transfer cannot be completed.";
+            } else if (balances.getOrDefault(from.getId(), from.getBalance()).compareTo(request.getAmount()) < 0) {
+                error = "Insufficient funds in source account";
+            }
+
+            if (error != null) {
+                results.add(failedItem(i, error));
+                continue;
+            }
+
+            balances.put(from.getId(), balances.getOrDefault(from.getId(), from.getBalance()).subtract(request.getAmount()));
+            balances.put(to.getId(), balances.getOrDefault(to.getId(), to.getBalance()).add(request.getAmount()));
+            changed.put(from.getId(), from);
+            changed.put(to.getId(), to);
+
+            transactions.add(Transaction.builder()
+                    .transactionReference(references.get(i))
+                    .fromAccountId(from.getId())
+                    .toAccountId(to.getId())
+                    .amount(request.getAmount())
+                    .description(request.getDescription())
+                    .timestamp(now)
+                    .build());
+
+            results.add(BatchTransferItemResult.builder()
+                    .index(i)
+                    .status("SUCCEEDED")
+                    .transactionReference(references.get(i))
+                    .build());
+        }
+
+        for (Account account : changed.values()) {
+            account.setBalance(balances.get(account.getId()));
+        }
+        accountService.saveAccounts(changed.values());
+        transactionBatchRepository.insertAll(transactions);
+        ledgerService.recordTransfers(transactions);
+        eventPublisher.publishEvent(new TransfersCommittedEvent(transactions));
+
+        Map<String, Long> idsByReference = new HashMap<>();
+        for (Transaction tx : transactions) {
+            idsByReference.put(tx.getTransactionReference(), tx.getId());
+        }
+        for (BatchTransferItemResult result : results) {
+            if (result.getTransactionReference() != null) {
+                result.setTransactionId(idsByReference.get(result.getTransactionReference()));
+            }
+        }
+
+        return results;
     }
 
-    private String generateTransactionReference() {
-        // Format: TXN-YYYYMMDD-XXXXXX (e.g., TXN-20251202-A3F9B2)
-        String datePart = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String uniquePart = UUID.randomUUID().toString().replace("-", "").substring(0, 6).toUpperCase();
-        return "TXN-" + datePart + "-" + uniquePart;
+    /**
+     * Checks the request fields and that the user owns the source account. Balances and frozen
+     * status are only checked once the accounts are locked. Ownership is checked by id so that no
+     * account is loaded before the lock; a locked row that was already loaded keeps its old balance.
+     */
+    public void validateTransfer(TransferRequest request, String email) {
+        validateTransferRequest(request);
+
+        // Verify ownership - user must own the source account
+        if (!accountService.getAccountIdsByEmail(email).contains(request.getFromAccountId())) {
+            throw new SecurityException("You do not have permission to transfer from this account");
+        }
+    }
+
+    private void validateTransferRequest(TransferRequest request) {
+        if (request.getFromAccountId() == null || request.getToAccountId() == null) {
+            throw new IllegalArgumentException("Both source and destination accounts are required");
+        }
+
+        if (request.getAmount() == null || request.getAmount().signum() <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be greater than zero");
+        }
+
+        if (request.getDescription() == null || request.getDescription().trim().isEmpty()) {
+            throw new IllegalArgumentException("Description is required and cannot be blank");
+        }
+
+        if (request.getFromAccountId().equals(request.getToAccountId())) {
+            throw new IllegalArgumentException("Cannot transfer to the same account");
+        }
+    }
+
+    private BatchTransferItemResult failedItem(int index, String message) {
+        return BatchTransferItemResult.builder()
+                .index(index)
+                .status("FAILED")
+                .message(message)
+                .build();
+    }
+
+    public String generateTransactionReference() {
+        // Format: TXN-YYYYMMDD-<13 base36 chars> (e.g., TXN-20251202-0B4XK2M9Q1A7Z)
+        return referenceGenerator.next("TXN");
     }
 
     public List<Transaction> getTransactions(Long accountId) {
         return transactionRepository.findByFromAccountIdOrToAccountId(accountId, accountId);
     }
 
+    @Transactional(readOnly = true)
     public List<TransactionResponse> getRecentTransactionsByEmail(String email, int limit) {
         List<Account> accounts = accountService.getAccountsByEmail(email);
 
@@ -108,32 +308,17 @@ public class TransferService {
                 .map(Account::getId)
                 .collect(Collectors.toList());
 
-        List<Transaction> transactions = transactionRepository.findRecentByAccountIds(accountIds, PageRequest.of(0, limit));
+        List<Transaction> transactions = transactionRepository.findRecentByAccountIds(accountIds, clampLimit(limit));
 
         // Convert to TransactionResponse with account numbers
-        return transactions.stream()
-                .map(this::toTransactionResponse)
-                .collect(Collectors.toList());
+        return toTransactionResponses(transactions);
     }
 
     private TransactionResponse toTransactionResponse(Transaction transaction) {
-        // Fetch account details to get account numbers
-        Account fromAccount = accountService.getAccount(transaction.getFromAccountId());
-        Account toAccount = accountService.getAccount(transaction.getToAccountId());
-
-        return TransactionResponse.builder()
-                .id(transaction.getId())
-                .transactionReference(transaction.getTransactionReference())
-                .fromAccountId(transaction.getFromAccountId())
-                .fromAccountNumber(fromAccount.getAccountNumber())
-                .toAccountId(transaction.getToAccountId())
-                .toAccountNumber(toAccount.getAccountNumber())
-                .amount(transaction.getAmount())
-                .description(transaction.getDescription())
-                .timestamp(transaction.getTimestamp())
-                .build();
+        return toTransactionResponses(List.of(transaction)).get(0);
     }
 
+    @Transactional(readOnly = true)
     public TransactionResponse searchByReference(String transactionReference, String email) {
         Transaction transaction = transactionRepository.findByTransactionReference(transactionReference)
                 .orElseThrow(() -> new IllegalArgumentException("Transaction not found with reference: " + transactionReference));
@@ -154,11 +339,113 @@ public class TransferService {
         return toTransactionResponse(transaction);
     }
 
+    /**
+     * Searches the descriptions of the user's transfers. Every word of the query has to match the
+     * start of a word in the description, so "inv 443" finds "Invoice 443". Ids come from the
+     * in-memory index; only the matching page is read from the database.
+     */
+    @Transactional(readOnly = true)
+    public List<TransactionResponse> searchByDescription(String query, String email, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search text is required");
+        }
+
+        List<Long> accountIds = accountService.getAccountsByEmail(email).stream()
+                .map(Account::getId)
+                .collect(Collectors.toList());
+
+        List<Long> ids = searchIndex.search(accountIds, query, clampLimit(limit));
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Transaction> byId = transactionRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Transaction::getId, tx -> tx));
+
+        return toTransactionResponses(ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+    }
+
     // Admin method to get all transactions
+    @Transactional(readOnly = true)
     public List<TransactionResponse> getAllTransactions(int limit) {
-        List<Transaction> transactions = transactionRepository.findAllRecent(PageRequest.of(0, limit));
+        List<Transaction> transactions = transactionRepository.findAllRecent(PageRequest.of(0, clampLimit(limit)));
+        return toTransactionResponses(transactions);
+    }
+
+    /**
+     * Newest-first transaction history for the user's accounts, one keyset page at a time. Each
+     * page seeks directly past the (timestamp, id) of the previous page's last row, so deep pages
+     * cost the same as the first one.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionResponse> getTransactionHistoryByEmail(String email, String cursor, int limit) {
+        List<Long> accountIds = accountService.getAccountsByEmail(email).stream()
+                .map(Account::getId)
+                .collect(Collectors.toList());
+
+        if (accountIds.isEmpty()) {
+            return CursorPage.<TransactionResponse>builder().items(new ArrayList<>()).build();
+        }
+
+        int pageSize = clampLimit(limit);
+        int rowsWithLookahead = pageSize + 1;
+        List<Transaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findRecentByAccountIds(accountIds, rowsWithLookahead);
+        } else {
+            CursorCodec.Position position = CursorCodec.decode(cursor);
+            rows = transactionRepository.findRecentByAccountIdsBefore(accountIds, position.timestamp(), position.id(), rowsWithLookahead);
+        }
+
+        return CursorPage.of(rows, pageSize, this::toTransactionResponses,
+                tx -> CursorCodec.encode(tx.getTimestamp(), tx.getId()));
+    }
+
+    // Admin method to page through all transactions
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionResponse> getAllTransactionsPage(String cursor, int limit) {
+        int pageSize = clampLimit(limit);
+        PageRequest rowsWithLookahead = PageRequest.of(0, pageSize + 1);
+        List<Transaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findAllRecent(rowsWithLookahead);
+        } else {
+            CursorCodec.Position position = CursorCodec.decode(cursor);
+            rows = transactionRepository.findAllRecentBefore(position.timestamp(), position.id(), rowsWithLookahead);
+        }
+
+        return CursorPage.of(rows, pageSize, this::toTransactionResponses,
+                tx -> CursorCodec.encode(tx.getTimestamp(), tx.getId()));
+    }
+
+    // Resolves account numbers for the whole page with one query instead of two lookups per row
+    private List<TransactionResponse> toTransactionResponses(List<Transaction> transactions) {
+        Set<Long> accountIds = new HashSet<>();
+        for (Transaction transaction : transactions) {
+            accountIds.add(transaction.getFromAccountId());
+            accountIds.add(transaction.getToAccountId());
+        }
+        Map<Long, String> accountNumbers = accountService.getAccountNumbers(accountIds);
+
         return transactions.stream()
-                .map(this::toTransactionResponse)
+                .map(transaction -> TransactionResponse.builder()
+                        .id(transaction.getId())
+                        .transactionReference(transaction.getTransactionReference())
+                        .fromAccountId(transaction.getFromAccountId())
+                        .fromAccountNumber(accountNumbers.get(transaction.getFromAccountId()))
+                        .toAccountId(transaction.getToAccountId())
+                        .toAccountNumber(accountNumbers.get(transaction.getToAccountId()))
+                        .amount(transaction.getAmount())
+                        .description(transaction.getDescription())
+                        .timestamp(transaction.getTimestamp())
+                        .build())
                 .collect(Collectors.toList());
     }
+
+    private int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.util.SlidingWindowLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+
+/**
+ * Per-user velocity limits on money movement: requests per window and money moved per window,
+ * tracked separately for transfers and stock trades. Checked by VelocityLimitFilter before the
+ * request reaches a controller, so a rejected request never takes a database connection for the
+ * transfer itself.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VelocityLimitService {
+
+    private final StockQuoteCache stockQuoteCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.velocity.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.velocity.window-seconds:60}")
+    private long windowSeconds;
+
+    @Value("${app.velocity.transfer.max-requests:30}")
+    private long transferMaxRequests;
+
+    @Value("${app.velocity.transfer.max-volume:100000}")
+    private BigDecimal transferMaxVolume;
+
+    @Value("${app.velocity.trade.max-requests:60}")
+    private long tradeMaxRequests;
+
+    @Value("${app.velocity.trade.max-volume:500000}")
+    private BigDecimal tradeMaxVolume;
+
+    private SlidingWindowLimiter transferLimiter;
+    private SlidingWindowLimiter tradeLimiter;
+
+    @PostConstruct
+    void init() {
+        long windowMillis = windowSeconds * 1000;
+        transferLimiter = new SlidingWindowLimiter(windowMillis, transferMaxRequests, toCents(transferMaxVolume));
+        tradeLimiter = new SlidingWindowLimiter(windowMillis, tradeMaxRequests, toCents(tradeMaxVolume));
+        meterRegistry.gauge("bank.velocity.tracked.users", this, service -> service.transferLimiter.size() + service.tradeLimiter.size());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return 0 if the transfer is within the user's limits, otherwise the seconds to wait
+     */
+    public long checkTransfer(String email, BigDecimal amount) {
+        return check("transfer", transferLimiter, email, amount);
+    }
+
+    /**
+     * Trade volume is quantity times the current price; unknown symbols count as zero volume and
+     * are rejected by StockService as usual.
+     */
+    public long checkTrade(String email, String symbol, long quantity) {
+        BigDecimal volume = BigDecimal.ZERO;
+        if (symbol != null && quantity > 0) {
+            volume = stockQuoteCache.find(symbol.toUpperCase())
+                    .map(StockQuoteCache.Quote::currentPrice)
+                    .map(price -> price.multiply(BigDecimal.valueOf(quantity)))
+                    .orElse(BigDecimal.ZERO);
+        }
+        return check("trade", tradeLimiter, email, volume);
+    }
+
+    /** A basket counts as one trade request with the volume of all its items. */
+    public long checkBasket(String email, Map<String, Long> quantities) {
+        BigDecimal volume = BigDecimal.ZERO;
+        for (Map.Entry<String, Long> item : quantities.entrySet()) {
+            BigDecimal quantity = BigDecimal.valueOf(item.getValue());
+            volume = stockQuoteCache.find(item.getKey())
+                    .map(quote -> quote.currentPrice().multiply(quantity))
+                    .orElse(BigDecimal.ZERO)
+                    .add(volume);
+        }
+        return check("trade", tradeLimiter, email, volume);
+    }
+
+    @Scheduled(fixedDelayString = "${app.velocity.cleanup-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        int evicted = transferLimiter.evictIdle(now) + tradeLimiter.evictIdle(now);
+        if (evicted > 0) {
+            log.debug("Evicted {} idle velocity windows", evicted);
+        }
+    }
+
+    private long check(String operation, SlidingWindowLimiter limiter, String email, BigDecimal volume) {
+        long waitMillis = limiter.tryAcquire(email, toCents(volume), System.currentTimeMillis());
+        if (waitMillis == 0) {
+            return 0;
+        }
+
+        meterRegistry.counter("bank.velocity.rejected", "operation", operation).increment();
+        return Math.max(1, (waitMillis + 999) / 1000);
+    }
+
+    // Amounts too large for a long in cents saturate, which no limit admits
+    private long toCents(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            return 0;
+        }
+        BigDecimal cents = amount.setScale(2, RoundingMode.UP).movePointRight(2);
+        return cents.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) >= 0 ? Long.MAX_VALUE : cents.longValue();
+    }
+}
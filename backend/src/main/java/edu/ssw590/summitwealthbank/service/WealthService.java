@@ -1,7 +1,6 @@
 package edu.ssw590.summitwealthbank.service;
 
 import edu.ssw590.summitwealthbank.dto.RiskScoreRequest;
-import edu.ssw590.summitwealthbank.dto.StockPortfolioResponse;
 import edu.ssw590.summitwealthbank.dto.TotalWealthResponse;
 import edu.ssw590.summitwealthbank.dto.WealthActionRequest;
 import edu.ssw590.summitwealthbank.model.Account;
@@ -10,6 +9,7 @@ import edu.ssw590.summitwealthbank.repository.WealthPortfolioRepository;
 import edu.ssw590.summitwealthbank.util.ETFPriceSimulator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -24,6 +24,7 @@ public class WealthService {
     private final AccountService accountService;
     private final WealthPortfolioRepository wealthPortfolioRepository;
     private final StockService stockService;
+    private final LedgerService ledgerService;
 
     public WealthPortfolio setRiskScore(RiskScoreRequest req) {
         BigDecimal stock = BigDecimal.valueOf(req.getRiskScore() * 20); // 1→20%, 5→100%
@@ -43,6 +44,7 @@ public class WealthService {
         return wealthPortfolioRepository.save(portfolio);
     }
 
+    @Transactional
     public WealthPortfolio buy(WealthActionRequest req) {
         Account acc = accountService.getAccount(req.getAccountId());
 
@@ -64,10 +66,12 @@ public class WealthService {
 
         acc.setBalance(acc.getBalance().subtract(req.getAmount()));
         accountService.saveAccount(acc);
+        ledgerService.recordWealthTrade(acc.getId(), req.getAmount(), true);
 
         return wealthPortfolioRepository.save(p);
     }
 
+    @Transactional
     public WealthPortfolio sell(WealthActionRequest req) {
         Account acc = accountService.getAccount(req.getAccountId());
 
@@ -92,6 +96,7 @@ public class WealthService {
 
         acc.setBalance(acc.getBalance().add(req.getAmount()));
         accountService.saveAccount(acc);
+        ledgerService.recordWealthTrade(acc.getId(), req.getAmount(), false);
 
         return wealthPortfolioRepository.save(p);
     }
@@ -106,6 +111,7 @@ public class WealthService {
         return stockValue.add(bondValue).setScale(2, RoundingMode.HALF_UP);
     }
 
+    @Transactional(readOnly = true)
     public List<WealthPortfolio> getPortfoliosByEmail(String email) {
         List<Account> accounts = accountService.getAccountsByEmail(email);
 
@@ -123,6 +129,7 @@ public class WealthService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public TotalWealthResponse getTotalWealth(String email) {
         // Get all accounts
         List<Account> accounts = accountService.getAccountsByEmail(email);
@@ -138,11 +145,11 @@ public class WealthService {
                 .map(Account::getBalance)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        // Get stock portfolio value
-        List<StockPortfolioResponse> stockPortfolio = stockService.getUserPortfolio(email);
-        BigDecimal stockPortfolioValue = stockPortfolio.stream()
-                .map(StockPortfolioResponse::getMarketValue)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Get stock portfolio value for the accounts already loaded
+        List<Long> accountIds = accounts.stream()
+                .map(Account::getId)
+                .collect(Collectors.toList());
+        BigDecimal stockPortfolioValue = stockService.valuePortfolio(accountIds).getMarketValue();
 
         // Calculate total wealth
         BigDecimal totalWealth = checkingBalance
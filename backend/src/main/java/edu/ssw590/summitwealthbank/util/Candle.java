@@ -0,0 +1,99 @@
+package edu.ssw590.summitwealthbank.util;
+
+/**
+ * Open, high, low and close price in cents of one interval bucket. Prices may be added out of
+ * order: open and close follow the earliest and latest tick time, not the order of the calls.
+ */
+public final class Candle {
+
+    private final CandleInterval interval;
+    private final long start;
+    private long open;
+    private long high;
+    private long low;
+    private long close;
+    private long firstTime;
+    private long lastTime;
+
+    public Candle(CandleInterval interval, long start, long open, long high, long low, long close) {
+        this.interval = interval;
+        this.start = start;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.firstTime = start;
+        this.lastTime = start;
+    }
+
+    static Candle first(CandleInterval interval, long time, long cents) {
+        Candle candle = new Candle(interval, interval.bucketStart(time), cents, cents, cents, cents);
+        candle.firstTime = time;
+        candle.lastTime = time;
+        return candle;
+    }
+
+    void add(long time, long cents) {
+        high = Math.max(high, cents);
+        low = Math.min(low, cents);
+        if (time < firstTime) {
+            firstTime = time;
+            open = cents;
+        }
+        if (time >= lastTime) {
+            lastTime = time;
+            close = cents;
+        }
+    }
+
+    /** Adds a finer candle that starts after everything already in this one. */
+    void merge(Candle later) {
+        high = Math.max(high, later.high);
+        low = Math.min(low, later.low);
+        close = later.close;
+        lastTime = Math.max(lastTime, later.lastTime);
+    }
+
+    /** This candle's prices as the first part of a candle of a coarser interval. */
+    Candle rollUp(CandleInterval coarser) {
+        Candle candle = new Candle(coarser, coarser.bucketStart(start), open, high, low, close);
+        candle.firstTime = firstTime;
+        candle.lastTime = lastTime;
+        return candle;
+    }
+
+    Candle copy() {
+        Candle candle = new Candle(interval, start, open, high, low, close);
+        candle.firstTime = firstTime;
+        candle.lastTime = lastTime;
+        return candle;
+    }
+
+    public CandleInterval interval() {
+        return interval;
+    }
+
+    public long start() {
+        return start;
+    }
+
+    public long end() {
+        return start + interval.millis();
+    }
+
+    public long open() {
+        return open;
+    }
+
+    public long high() {
+        return high;
+    }
+
+    public long low() {
+        return low;
+    }
+
+    public long close() {
+        return close;
+    }
+}
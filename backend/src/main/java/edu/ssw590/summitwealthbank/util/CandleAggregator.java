@@ -0,0 +1,148 @@
+package edu.ssw590.summitwealthbank.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Builds the candles of one symbol incrementally. Prices only update the open one-minute candle;
+ * when a candle closes it is rolled up into the open candle of the next coarser interval, so a
+ * price costs the same however many intervals there are. The open candle of a coarse interval is
+ * completed on read with the open candles below it.
+ *
+ * The last keepClosed closed candles of every interval stay in memory for reads. A candle closes
+ * when a price for a later bucket arrives or when closeUpTo passes its end; prices for a bucket
+ * that has already closed are rejected.
+ */
+public final class CandleAggregator {
+
+    private static final CandleInterval[] INTERVALS = CandleInterval.values();
+
+    private final int keepClosed;
+    private final Candle[] open = new Candle[INTERVALS.length];
+    private final List<Deque<Candle>> recent = new ArrayList<>();
+    private long closedUpTo = Long.MIN_VALUE;
+
+    public CandleAggregator(int keepClosed) {
+        if (keepClosed <= 0) {
+            throw new IllegalArgumentException("Number of candles to keep must be positive");
+        }
+        this.keepClosed = keepClosed;
+        for (int i = 0; i < INTERVALS.length; i++) {
+            recent.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Adds a price at epoch time, appending the candles it closes to closed. Returns false when
+     * the price belongs to a bucket before the open one.
+     */
+    public synchronized boolean record(long time, long cents, List<Candle> closed) {
+        long bucket = INTERVALS[0].bucketStart(time);
+        Candle current = open[0];
+        if (bucket < closedUpTo || (current != null && bucket < current.start())) {
+            return false;
+        }
+
+        if (current != null && bucket > current.start()) {
+            close(0, closed);
+            current = null;
+        }
+        if (current == null) {
+            open[0] = Candle.first(INTERVALS[0], time, cents);
+        } else {
+            current.add(time, cents);
+        }
+        return true;
+    }
+
+    /** Closes every open candle that ends at or before cutoff, appending them to closed. */
+    public synchronized void closeUpTo(long cutoff, List<Candle> closed) {
+        for (int level = 0; level < INTERVALS.length; level++) {
+            if (open[level] != null && open[level].end() <= cutoff) {
+                close(level, closed);
+            }
+        }
+    }
+
+    /** Candles of interval starting in [from, to), oldest first, including the open one. */
+    public synchronized List<Candle> candles(CandleInterval interval, long from, long to) {
+        List<Candle> candles = new ArrayList<>();
+        for (Candle candle : recent.get(interval.ordinal())) {
+            if (candle.start() >= from && candle.start() < to) {
+                candles.add(candle.copy());
+            }
+        }
+        for (Candle current : openView(interval)) {
+            if (current.start() >= from && current.start() < to) {
+                candles.add(current);
+            }
+        }
+        return candles;
+    }
+
+    /** Start of the oldest candle of interval held in memory, or Long.MAX_VALUE when there is none. */
+    public synchronized long heldFrom(CandleInterval interval) {
+        Deque<Candle> closed = recent.get(interval.ordinal());
+        if (!closed.isEmpty()) {
+            return closed.peekFirst().start();
+        }
+        List<Candle> current = openView(interval);
+        return current.isEmpty() ? Long.MAX_VALUE : current.get(0).start();
+    }
+
+    private void close(int level, List<Candle> closed) {
+        Candle candle = open[level];
+        open[level] = null;
+        if (level == 0) {
+            closedUpTo = candle.end();
+        }
+
+        Deque<Candle> kept = recent.get(level);
+        kept.addLast(candle);
+        if (kept.size() > keepClosed) {
+            kept.removeFirst();
+        }
+        closed.add(candle.copy());
+
+        int coarser = level + 1;
+        if (coarser == INTERVALS.length) {
+            return;
+        }
+        long parentStart = INTERVALS[coarser].bucketStart(candle.start());
+        if (open[coarser] != null && open[coarser].start() < parentStart) {
+            close(coarser, closed);
+        }
+        if (open[coarser] == null) {
+            open[coarser] = candle.rollUp(INTERVALS[coarser]);
+        } else {
+            open[coarser].merge(candle);
+        }
+    }
+
+    /**
+     * The open candle of interval including what the finer open candles hold so far. Usually one
+     * candle; two when the coarse candle has ended but is not closed yet and a finer one has
+     * already started the next bucket.
+     */
+    private List<Candle> openView(CandleInterval interval) {
+        List<Candle> views = new ArrayList<>(2);
+        if (open[interval.ordinal()] != null) {
+            views.add(open[interval.ordinal()].copy());
+        }
+        for (int level = interval.ordinal() - 1; level >= 0; level--) {
+            Candle finer = open[level];
+            if (finer == null) {
+                continue;
+            }
+            Candle last = views.isEmpty() ? null : views.get(views.size() - 1);
+            if (last != null && interval.bucketStart(finer.start()) == last.start()) {
+                last.merge(finer);
+            } else {
+                views.add(finer.rollUp(interval));
+            }
+        }
+        return views;
+    }
+}
@@ -0,0 +1,43 @@
+package edu.ssw590.summitwealthbank.util;
+
+/**
+ * Candle lengths, finest first. Each interval is a whole number of the previous one, so a closed
+ * candle can be rolled up into the next coarser one. Buckets are aligned to the epoch, which puts
+ * day boundaries at midnight UTC.
+ */
+public enum CandleInterval {
+    ONE_MINUTE("1m", 60_000L),
+    FIVE_MINUTES("5m", 5 * 60_000L),
+    ONE_HOUR("1h", 60 * 60_000L),
+    ONE_DAY("1d", 24 * 60 * 60_000L);
+
+    private final String code;
+    private final long millis;
+
+    CandleInterval(String code, long millis) {
+        this.code = code;
+        this.millis = millis;
+    }
+
+    public String code() {
+        return code;
+    }
+
+    public long millis() {
+        return millis;
+    }
+
+    /** Start of the bucket of this interval containing epochMillis. */
+    public long bucketStart(long epochMillis) {
+        return Math.floorDiv(epochMillis, millis) * millis;
+    }
+
+    public static CandleInterval fromCode(String code) {
+        for (CandleInterval interval : values()) {
+            if (interval.code.equalsIgnoreCase(code == null ? "" : code.trim())) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("Invalid interval: " + code + ". Use 1m, 5m, 1h or 1d");
+    }
+}
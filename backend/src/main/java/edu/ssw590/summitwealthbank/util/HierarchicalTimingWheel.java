@@ -0,0 +1,111 @@
+package edu.ssw590.summitwealthbank.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel. Level 0 has wheelSize slots of tickMillis each, level 1 slots span a
+ * full turn of level 0, and so on. Adding a timer and advancing by one tick are O(1); timers on
+ * outer levels are cascaded to finer levels as their slot comes up.
+ *
+ * Timers further out than the horizon (tickMillis * wheelSize ^ levels) are rejected; callers only
+ * load what falls inside that window. Methods are synchronized so timers can be added from request
+ * threads while a single scheduler thread advances the wheel.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] ticksPerSlot;
+    private final List<List<Timer<T>>> slots;
+    private final List<T> overdue = new ArrayList<>();
+
+    private long currentTick;
+
+    private record Timer<T>(T item, long dueTick) {
+    }
+
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.ticksPerSlot = new long[levels];
+        this.slots = new ArrayList<>(levels * wheelSize);
+        this.currentTick = startMillis / tickMillis;
+
+        long span = 1;
+        for (int level = 0; level < levels; level++) {
+            ticksPerSlot[level] = span;
+            span *= wheelSize;
+        }
+        for (int i = 0; i < levels * wheelSize; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    public long horizonMillis() {
+        return ticksPerSlot[ticksPerSlot.length - 1] * wheelSize * tickMillis;
+    }
+
+    /**
+     * Schedules item to fire at dueMillis. Items already due fire on the next advance.
+     *
+     * @return false if dueMillis is beyond the wheel's horizon
+     */
+    public synchronized boolean add(T item, long dueMillis) {
+        return place(new Timer<>(item, Math.floorDiv(dueMillis, tickMillis)));
+    }
+
+    /**
+     * Moves the wheel forward to nowMillis and returns every item that came due on the way.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        List<T> due = new ArrayList<>(overdue);
+        overdue.clear();
+
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            // Cascade from the coarsest level whose slot boundary was just crossed
+            for (int level = ticksPerSlot.length - 1; level > 0; level--) {
+                if (currentTick % ticksPerSlot[level] == 0) {
+                    List<Timer<T>> bucket = slot(level, currentTick / ticksPerSlot[level]);
+                    List<Timer<T>> cascading = new ArrayList<>(bucket);
+                    bucket.clear();
+                    cascading.forEach(this::place);
+                }
+            }
+
+            List<Timer<T>> expiring = slot(0, currentTick);
+            for (Timer<T> timer : expiring) {
+                due.add(timer.item());
+            }
+            expiring.clear();
+
+            due.addAll(overdue);
+            overdue.clear();
+        }
+
+        return due;
+    }
+
+    private boolean place(Timer<T> timer) {
+        long ticksAway = timer.dueTick() - currentTick;
+        if (ticksAway <= 0) {
+            overdue.add(timer.item());
+            return true;
+        }
+
+        for (int level = 0; level < ticksPerSlot.length; level++) {
+            if (ticksAway < ticksPerSlot[level] * wheelSize) {
+                slot(level, timer.dueTick() / ticksPerSlot[level]).add(timer);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Timer<T>> slot(int level, long index) {
+        return slots.get(level * wheelSize + (int) Math.floorMod(index, (long) wheelSize));
+    }
+}
@@ -0,0 +1,45 @@
+package edu.ssw590.summitwealthbank.util;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The latest price of each symbol, tagged with a sequence number that grows with every update.
+ * A reader remembers the sequence it has seen up to and later asks for everything changed since,
+ * which gives it only the newest price of each symbol however many updates it missed.
+ */
+public final class LatestPriceTable {
+
+    private record Entry(BigDecimal price, long sequence) {
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private long sequence;
+
+    /** Records a new price and returns its sequence number. */
+    public synchronized long update(String symbol, BigDecimal price) {
+        entries.put(symbol, new Entry(price, ++sequence));
+        return sequence;
+    }
+
+    /** The sequence number of the most recent update, 0 before the first one. */
+    public synchronized long head() {
+        return sequence;
+    }
+
+    /**
+     * Prices updated after sequence from and up to head, ordered by symbol. A symbol updated again
+     * after head is left out; it is picked up by the next call.
+     */
+    public synchronized Map<String, BigDecimal> since(long from, long head) {
+        Map<String, BigDecimal> changed = new TreeMap<>();
+        entries.forEach((symbol, entry) -> {
+            if (entry.sequence() > from && entry.sequence() <= head) {
+                changed.put(symbol, entry.price());
+            }
+        });
+        return changed;
+    }
+}
@@ -0,0 +1,421 @@
+package edu.ssw590.summitwealthbank.util;
+
+import java.util.Arrays;
+
+/**
+ * Limit order book for one symbol with price-time priority. Prices are integer ticks (cents) and
+ * quantities whole shares, both plain longs.
+ *
+ * Orders live in parallel primitive arrays indexed by slot, chained into a FIFO list per price
+ * level; freed slots are reused, so a resting order costs no object allocation. Each side keeps
+ * its price levels in a sorted array with the best price at the end, so matching and adding at
+ * or near the touch does not shift the array. Order ids map to slots through an open-addressing
+ * long to int table for cancels.
+ *
+ * Every order carries an owner, and orders of the same owner never trade with each other: when a
+ * taker reaches a resting order of its own owner, the resting order is cancelled and matching
+ * carries on behind it.
+ *
+ * Not thread-safe: one book is owned by exactly one matching thread.
+ */
+public class OrderBook {
+
+    public static final long NO_PRICE = -1;
+
+    private static final int NONE = -1;
+
+    /**
+     * Receives every fill, in order, while submit runs. The maker price is the trade price.
+     */
+    public interface FillListener {
+        void onFill(long takerOrderId, long makerOrderId, long price, long quantity);
+
+        /**
+         * The resting order was cancelled with the given quantity instead of trading with a taker
+         * of the same owner.
+         */
+        default void onSelfTradeCancel(long takerOrderId, long makerOrderId, long quantity) {
+        }
+    }
+
+    private final Side bids = new Side(true);
+    private final Side asks = new Side(false);
+    private final SlotIndex index;
+
+    private long[] orderIds;
+    private long[] owners;
+    private long[] remaining;
+    private long[] prices;
+    private boolean[] buys;
+    private int[] next;
+    private int[] prev;
+    private int freeSlot = NONE;
+    private int usedSlots;
+    private int orderCount;
+
+    public OrderBook(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        orderIds = new long[capacity];
+        owners = new long[capacity];
+        remaining = new long[capacity];
+        prices = new long[capacity];
+        buys = new boolean[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        index = new SlotIndex(capacity * 2);
+    }
+
+    /**
+     * Matches the order against the opposite side for as long as it crosses, then rests whatever
+     * is left at limitPrice if rest is true. Market orders are submitted with rest false and a
+     * limit of Long.MAX_VALUE (buy) or 0 (sell), or a protective limit.
+     *
+     * @return the quantity left unfilled; it is resting in the book only if rest was true
+     */
+    public long submit(long orderId, long owner, boolean buy, long limitPrice, long quantity, boolean rest,
+                       FillListener listener) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (rest && index.get(orderId) != NONE) {
+            throw new IllegalArgumentException("Duplicate order id: " + orderId);
+        }
+
+        long left = match(orderId, owner, buy, limitPrice, quantity, listener);
+        if (left > 0 && rest) {
+            restOrder(orderId, owner, buy, limitPrice, left);
+        }
+        return left;
+    }
+
+    /**
+     * Removes a resting order.
+     *
+     * @return the quantity that was still resting, or 0 if the order is not in the book
+     */
+    public long cancel(long orderId) {
+        int slot = index.get(orderId);
+        if (slot == NONE) {
+            return 0;
+        }
+
+        long left = remaining[slot];
+        Side side = buys[slot] ? bids : asks;
+        int level = side.find(prices[slot]);
+        side.volume[level] -= left;
+        unlink(side, level, slot);
+        releaseSlot(slot);
+        return left;
+    }
+
+    public long bestBid() {
+        return bids.size == 0 ? NO_PRICE : bids.prices[bids.size - 1];
+    }
+
+    public long bestAsk() {
+        return asks.size == 0 ? NO_PRICE : asks.prices[asks.size - 1];
+    }
+
+    /**
+     * Copies up to prices.length levels of one side, best first, into the given arrays.
+     *
+     * @return the number of levels copied
+     */
+    public int depth(boolean buy, long[] levelPrices, long[] levelQuantities) {
+        Side side = buy ? bids : asks;
+        int count = Math.min(side.size, Math.min(levelPrices.length, levelQuantities.length));
+        for (int i = 0; i < count; i++) {
+            int level = side.size - 1 - i;
+            levelPrices[i] = side.prices[level];
+            levelQuantities[i] = side.volume[level];
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of resting orders
+     */
+    public int size() {
+        return orderCount;
+    }
+
+    private long match(long takerId, long owner, boolean buy, long limitPrice, long quantity, FillListener listener) {
+        Side opposite = buy ? asks : bids;
+        long left = quantity;
+
+        while (left > 0 && opposite.size > 0) {
+            int level = opposite.size - 1;
+            long price = opposite.prices[level];
+            if (buy ? price > limitPrice : price < limitPrice) {
+                break;
+            }
+
+            int slot = opposite.head[level];
+            while (left > 0 && slot != NONE) {
+                int following = next[slot];
+                if (owners[slot] == owner) {
+                    long cancelled = remaining[slot];
+                    opposite.volume[level] -= cancelled;
+                    listener.onSelfTradeCancel(takerId, orderIds[slot], cancelled);
+                    unlink(opposite, level, slot);
+                    releaseSlot(slot);
+                    slot = following;
+                    continue;
+                }
+
+                long traded = Math.min(left, remaining[slot]);
+                left -= traded;
+                remaining[slot] -= traded;
+                opposite.volume[level] -= traded;
+                listener.onFill(takerId, orderIds[slot], price, traded);
+
+                if (remaining[slot] == 0) {
+                    unlink(opposite, level, slot);
+                    releaseSlot(slot);
+                }
+                slot = following;
+            }
+        }
+        return left;
+    }
+
+    private void restOrder(long orderId, long owner, boolean buy, long price, long quantity) {
+        int slot = acquireSlot();
+        orderIds[slot] = orderId;
+        owners[slot] = owner;
+        remaining[slot] = quantity;
+        prices[slot] = price;
+        buys[slot] = buy;
+        next[slot] = NONE;
+        index.put(orderId, slot);
+        orderCount++;
+
+        Side side = buy ? bids : asks;
+        int level = side.findOrInsert(price);
+        int tail = side.tail[level];
+        prev[slot] = tail;
+        if (tail == NONE) {
+            side.head[level] = slot;
+        } else {
+            next[tail] = slot;
+        }
+        side.tail[level] = slot;
+        side.volume[level] += quantity;
+    }
+
+    private void unlink(Side side, int level, int slot) {
+        int before = prev[slot];
+        int after = next[slot];
+        if (before == NONE) {
+            side.head[level] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NONE) {
+            side.tail[level] = before;
+        } else {
+            prev[after] = before;
+        }
+
+        if (side.head[level] == NONE) {
+            side.remove(level);
+        }
+    }
+
+    private int acquireSlot() {
+        if (freeSlot != NONE) {
+            int slot = freeSlot;
+            freeSlot = next[slot];
+            return slot;
+        }
+        if (usedSlots == orderIds.length) {
+            int capacity = orderIds.length * 2;
+            orderIds = Arrays.copyOf(orderIds, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+            remaining = Arrays.copyOf(remaining, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            buys = Arrays.copyOf(buys, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+        }
+        return usedSlots++;
+    }
+
+    private void releaseSlot(int slot) {
+        index.remove(orderIds[slot]);
+        orderCount--;
+        next[slot] = freeSlot;
+        freeSlot = slot;
+    }
+
+    /**
+     * Price levels of one side sorted so the best price is last: ascending for bids, descending
+     * for asks.
+     */
+    private static final class Side {
+        private final boolean bid;
+        private long[] prices = new long[64];
+        private long[] volume = new long[64];
+        private int[] head = new int[64];
+        private int[] tail = new int[64];
+        private int size;
+
+        private Side(boolean bid) {
+            this.bid = bid;
+        }
+
+        private int find(long price) {
+            int position = search(price);
+            if (position < 0) {
+                throw new IllegalStateException("No price level at " + price);
+            }
+            return position;
+        }
+
+        private int findOrInsert(long price) {
+            int position = search(price);
+            if (position >= 0) {
+                return position;
+            }
+
+            int insertAt = -position - 1;
+            if (size == prices.length) {
+                int capacity = size * 2;
+                prices = Arrays.copyOf(prices, capacity);
+                volume = Arrays.copyOf(volume, capacity);
+                head = Arrays.copyOf(head, capacity);
+                tail = Arrays.copyOf(tail, capacity);
+            }
+            int moved = size - insertAt;
+            System.arraycopy(prices, insertAt, prices, insertAt + 1, moved);
+            System.arraycopy(volume, insertAt, volume, insertAt + 1, moved);
+            System.arraycopy(head, insertAt, head, insertAt + 1, moved);
+            System.arraycopy(tail, insertAt, tail, insertAt + 1, moved);
+            prices[insertAt] = price;
+            volume[insertAt] = 0;
+            head[insertAt] = NONE;
+            tail[insertAt] = NONE;
+            size++;
+            return insertAt;
+        }
+
+        private void remove(int level) {
+            int moved = size - level - 1;
+            System.arraycopy(prices, level + 1, prices, level, moved);
+            System.arraycopy(volume, level + 1, volume, level, moved);
+            System.arraycopy(head, level + 1, head, level, moved);
+            System.arraycopy(tail, level + 1, tail, level, moved);
+            size--;
+        }
+
+        // Binary search in the side's sort order; same contract as Arrays.binarySearch
+        private int search(long price) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long value = prices[mid];
+                boolean before = bid ? value < price : value > price;
+                if (value == price) {
+                    return mid;
+                } else if (before) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+
+    /**
+     * Open-addressing map from order id to slot with linear probing and backward-shift deletion.
+     */
+    private static final class SlotIndex {
+        private long[] keys;
+        private int[] values;
+        private boolean[] used;
+        private int size;
+
+        private SlotIndex(int capacity) {
+            int tableSize = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+            keys = new long[tableSize];
+            values = new int[tableSize];
+            used = new boolean[tableSize];
+        }
+
+        private int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; used[i]; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return NONE;
+        }
+
+        private void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (used[i]) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            used[i] = true;
+            size++;
+        }
+
+        private void remove(long key) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (used[i] && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (!used[i]) {
+                return;
+            }
+
+            // Pull later entries of the probe run back so lookups never stop at the gap
+            int gap = i;
+            for (int j = (gap + 1) & mask; used[j]; j = (j + 1) & mask) {
+                int home = hash(keys[j]) & mask;
+                boolean movable = gap <= j ? (home <= gap || home > j) : (home <= gap && home > j);
+                if (movable) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            used[gap] = false;
+            size--;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            boolean[] oldUsed = used;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
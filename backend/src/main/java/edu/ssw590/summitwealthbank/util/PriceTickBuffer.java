@@ -0,0 +1,63 @@
+package edu.ssw590.summitwealthbank.util;
+
+/**
+ * Fixed-size ring of (time, price in cents) ticks for one symbol, kept in two primitive arrays so
+ * recording a tick allocates nothing. Ticks stay pending until discard is called after they have
+ * been stored; when the ring is full the oldest pending tick is overwritten.
+ *
+ * Not thread-safe: recording and flushing must happen on the same thread.
+ */
+public final class PriceTickBuffer {
+
+    private final long[] times;
+    private final long[] cents;
+    private long written;
+    private long consumed;
+
+    public PriceTickBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.times = new long[capacity];
+        this.cents = new long[capacity];
+    }
+
+    /** Records a tick. Returns false when the ring was full and the oldest pending tick was lost. */
+    public boolean add(long timeMillis, long priceCents) {
+        int slot = (int) (written % times.length);
+        times[slot] = timeMillis;
+        cents[slot] = priceCents;
+        written++;
+        if (written - consumed > times.length) {
+            consumed = written - times.length;
+            return false;
+        }
+        return true;
+    }
+
+    public int pending() {
+        return (int) (written - consumed);
+    }
+
+    /** Time of the i-th pending tick, oldest first. */
+    public long timeAt(int i) {
+        return times[slot(i)];
+    }
+
+    /** Price of the i-th pending tick, oldest first. */
+    public long centsAt(int i) {
+        return cents[slot(i)];
+    }
+
+    /** Drops the count oldest pending ticks, e.g. once they have been stored. */
+    public void discard(int count) {
+        consumed += Math.min(count, pending());
+    }
+
+    private int slot(int i) {
+        if (i < 0 || i >= pending()) {
+            throw new IndexOutOfBoundsException("No pending tick " + i);
+        }
+        return (int) ((consumed + i) % times.length);
+    }
+}
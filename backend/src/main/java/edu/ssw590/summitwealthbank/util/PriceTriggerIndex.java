@@ -0,0 +1,101 @@
+package edu.ssw590.summitwealthbank.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Price thresholds per symbol, kept sorted so a price change finds exactly the entries it
+ * crosses. Each symbol has two maps from trigger price (in cents) to the ids waiting at that
+ * price in insertion order: one for entries that fire when the price falls to or below the
+ * trigger, one for entries that fire when it rises to or above it. A price update takes the
+ * matching head or tail of the map, O(log n + k) for k fired entries.
+ *
+ * Fired entries are removed, so each id fires at most once until it is added again.
+ */
+public class PriceTriggerIndex {
+
+    private final Map<String, SymbolTriggers> symbols = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Entry(String symbol, boolean firesAtOrBelow, long priceCents) {
+    }
+
+    private static final class SymbolTriggers {
+        private final TreeMap<Long, ArrayDeque<Long>> atOrBelow = new TreeMap<>();
+        private final TreeMap<Long, ArrayDeque<Long>> atOrAbove = new TreeMap<>();
+    }
+
+    public void add(long id, String symbol, boolean firesAtOrBelow, long priceCents) {
+        remove(id);
+
+        SymbolTriggers triggers = symbols.computeIfAbsent(symbol, s -> new SymbolTriggers());
+        synchronized (triggers) {
+            TreeMap<Long, ArrayDeque<Long>> side = firesAtOrBelow ? triggers.atOrBelow : triggers.atOrAbove;
+            side.computeIfAbsent(priceCents, p -> new ArrayDeque<>()).addLast(id);
+            entries.put(id, new Entry(symbol, firesAtOrBelow, priceCents));
+        }
+    }
+
+    /**
+     * @return true if the id was waiting and has been removed
+     */
+    public boolean remove(long id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return false;
+        }
+
+        SymbolTriggers triggers = symbols.get(entry.symbol());
+        synchronized (triggers) {
+            if (!entries.remove(id, entry)) {
+                return false;
+            }
+            TreeMap<Long, ArrayDeque<Long>> side = entry.firesAtOrBelow() ? triggers.atOrBelow : triggers.atOrAbove;
+            ArrayDeque<Long> ids = side.get(entry.priceCents());
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                side.remove(entry.priceCents());
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Removes and returns every id of the symbol whose threshold the new price has reached,
+     * nearest threshold first and oldest first within a price.
+     */
+    public List<Long> fire(String symbol, long priceCents) {
+        SymbolTriggers triggers = symbols.get(symbol);
+        List<Long> fired = new ArrayList<>();
+        if (triggers == null) {
+            return fired;
+        }
+
+        synchronized (triggers) {
+            drain(triggers.atOrBelow.tailMap(priceCents, true), fired);
+            drain(triggers.atOrAbove.headMap(priceCents, true).descendingMap(), fired);
+        }
+        return fired;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void drain(NavigableMap<Long, ArrayDeque<Long>> crossed, List<Long> fired) {
+        Iterator<ArrayDeque<Long>> levels = crossed.values().iterator();
+        while (levels.hasNext()) {
+            for (Long id : levels.next()) {
+                entries.remove(id);
+                fired.add(id);
+            }
+            levels.remove();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package edu.ssw590.summitwealthbank.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates transaction references such as TXN-20251202-0B4XK2M9Q1A7Z.
+ *
+ * The last part is a Snowflake-style id: 41 bits of milliseconds since 2024-01-01, a 10-bit node
+ * id (app.node-id, unique per instance) and a 12-bit sequence. Ids are strictly increasing per node
+ * and never repeat across nodes, so no database lookup is needed. When more than 4096 ids are
+ * requested within one millisecond, or the clock steps back, the generator keeps counting on from
+ * the last id instead of waiting for the clock.
+ */
+@Component
+public class ReferenceGenerator {
+
+    private static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // Fixed width keeps references of the same day sortable by creation order
+    private static final int ID_LENGTH = 13;
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Value("${app.node-id:0}")
+    private long nodeId;
+
+    // Packs (milliseconds since EPOCH_MILLIS << SEQUENCE_BITS) | sequence of the last issued id
+    private final AtomicLong lastState = new AtomicLong();
+
+    private volatile DayPrefix dayPrefix = new DayPrefix(Long.MIN_VALUE, Long.MIN_VALUE, "");
+
+    private record DayPrefix(long startMillis, long endMillis, String text) {
+    }
+
+    @PostConstruct
+    void validateNodeId() {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("app.node-id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+    }
+
+    /**
+     * Returns a reference of the form PREFIX-yyyyMMdd-ID, e.g. next("TXN").
+     */
+    public String next(String prefix) {
+        long now = System.currentTimeMillis();
+        long id = nextId(now);
+
+        char[] chars = new char[ID_LENGTH];
+        for (int i = ID_LENGTH - 1; i >= 0; i--) {
+            chars[i] = DIGITS[(int) (id % 36)];
+            id /= 36;
+        }
+
+        return new StringBuilder(prefix.length() + ID_LENGTH + 10)
+                .append(prefix)
+                .append('-')
+                .append(dayPrefix(now))
+                .append('-')
+                .append(chars)
+                .toString();
+    }
+
+    public long nextId() {
+        return nextId(System.currentTimeMillis());
+    }
+
+    private long nextId(long nowMillis) {
+        long floor = (nowMillis - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long state;
+        long next;
+        do {
+            state = lastState.get();
+            next = Math.max(floor, state + 1);
+        } while (!lastState.compareAndSet(state, next));
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+    }
+
+    private String dayPrefix(long nowMillis) {
+        DayPrefix current = dayPrefix;
+        if (nowMillis >= current.startMillis() && nowMillis < current.endMillis()) {
+            return current.text();
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate day = Instant.ofEpochMilli(nowMillis).atZone(zone).toLocalDate();
+        DayPrefix refreshed = new DayPrefix(
+                day.atStartOfDay(zone).toInstant().toEpochMilli(),
+                day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli(),
+                day.format(DAY_FORMAT));
+        dayPrefix = refreshed;
+        return refreshed.text();
+    }
+}
@@ -0,0 +1,118 @@
+package edu.ssw590.summitwealthbank.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-key sliding window limit on both the number of requests and their summed volume. Uses the
+ * sliding window counter approximation: the previous fixed window's totals are weighted by how
+ * much of it still overlaps the sliding window and added to the current window's totals.
+ *
+ * Each key's state is an immutable Window swapped with compareAndSet, so concurrent requests for
+ * the same key never block each other. Keys idle for two windows carry no weight any more and
+ * are dropped by evictIdle.
+ */
+public class SlidingWindowLimiter {
+
+    private final long windowMillis;
+    private final long maxRequests;
+    private final long maxVolume;
+    private final Map<String, AtomicReference<Window>> windows = new ConcurrentHashMap<>();
+
+    private record Window(long start, long previousCount, long previousVolume, long count, long volume) {
+    }
+
+    public SlidingWindowLimiter(long windowMillis, long maxRequests, long maxVolume) {
+        this.windowMillis = windowMillis;
+        this.maxRequests = maxRequests;
+        this.maxVolume = maxVolume;
+    }
+
+    /**
+     * Records one request of the given volume for key if it fits within both limits.
+     *
+     * @return 0 if the request was admitted, otherwise the milliseconds until it would fit
+     */
+    public long tryAcquire(String key, long volume, long nowMillis) {
+        AtomicReference<Window> state = windows.computeIfAbsent(key,
+                k -> new AtomicReference<>(new Window(alignedStart(nowMillis), 0, 0, 0, 0)));
+
+        while (true) {
+            Window current = state.get();
+            Window rolled = roll(current, nowMillis);
+
+            double previousWeight = 1.0 - (double) (nowMillis - rolled.start()) / windowMillis;
+            long retryAfter = Math.max(
+                    waitMillis(rolled, previousWeight, rolled.previousCount(), rolled.count(), 1, maxRequests, nowMillis),
+                    waitMillis(rolled, previousWeight, rolled.previousVolume(), rolled.volume(), volume, maxVolume, nowMillis));
+            if (retryAfter > 0) {
+                // Still store the rolled window so an idle key's old counts do not linger
+                if (rolled != current) {
+                    state.compareAndSet(current, rolled);
+                }
+                return retryAfter;
+            }
+
+            Window next = new Window(rolled.start(), rolled.previousCount(), rolled.previousVolume(),
+                    rolled.count() + 1, rolled.volume() + volume);
+            if (state.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Removes keys with no activity in the current or previous window.
+     *
+     * @return the number of keys removed
+     */
+    public int evictIdle(long nowMillis) {
+        long currentStart = alignedStart(nowMillis);
+        int before = windows.size();
+        windows.values().removeIf(state -> state.get().start() < currentStart - windowMillis);
+        return before - windows.size();
+    }
+
+    public int size() {
+        return windows.size();
+    }
+
+    private Window roll(Window window, long nowMillis) {
+        long start = alignedStart(nowMillis);
+        if (start == window.start()) {
+            return window;
+        }
+        if (start == window.start() + windowMillis) {
+            return new Window(start, window.count(), window.volume(), 0, 0);
+        }
+        return new Window(start, 0, 0, 0, 0);
+    }
+
+    // How long until previous * weight + current + cost fits under limit, 0 if it already does
+    private long waitMillis(Window window, double previousWeight, long previous, long current, long cost,
+                            long limit, long nowMillis) {
+        if (previous * previousWeight + current + cost <= limit) {
+            return 0;
+        }
+
+        long windowEnd = window.start() + windowMillis;
+        if (current + cost <= limit) {
+            // The previous window's share decays linearly to zero by the end of this window
+            double weightNeeded = (double) (limit - current - cost) / previous;
+            long fitsAt = window.start() + (long) Math.ceil((1.0 - weightNeeded) * windowMillis);
+            return Math.max(1, Math.min(fitsAt, windowEnd) - nowMillis);
+        }
+
+        // This window alone is over the limit; it becomes the previous window and has to decay too
+        if (cost > limit) {
+            return windowEnd + windowMillis - nowMillis;
+        }
+        double weightNeeded = (double) (limit - cost) / current;
+        return windowEnd + (long) Math.ceil((1.0 - weightNeeded) * windowMillis) - nowMillis;
+    }
+
+    private long alignedStart(long nowMillis) {
+        return nowMillis - Math.floorMod(nowMillis, windowMillis);
+    }
+}
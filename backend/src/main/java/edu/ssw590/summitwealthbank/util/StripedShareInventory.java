@@ -0,0 +1,109 @@
+package edu.ssw590.summitwealthbank.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Shares of one stock that have been claimed from its row and are held in memory, split across
+ * stripes so concurrent trading threads mostly update different counters. A thread works on the
+ * stripe picked by its id and only looks at the other stripes when its own runs short.
+ *
+ * Each stripe is padded to its own cache line so neighbouring stripes do not slow each other down.
+ */
+public final class StripedShareInventory {
+
+    // 16 longs = 128 bytes between stripes, enough for adjacent-line prefetching too
+    private static final int PAD = 16;
+
+    private final int stripes;
+    private final AtomicLongArray cells;
+
+    public StripedShareInventory(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        this.stripes = stripes;
+        this.cells = new AtomicLongArray(stripes * PAD);
+    }
+
+    /**
+     * Takes quantity shares, from a single stripe when one holds enough and otherwise gathered
+     * from several. Returns false, leaving the held total unchanged, when all stripes together
+     * hold less than quantity.
+     */
+    public boolean tryTake(long quantity) {
+        int home = home();
+        for (int i = 0; i < stripes; i++) {
+            if (takeExactly((home + i) % stripes, quantity)) {
+                return true;
+            }
+        }
+
+        long taken = 0;
+        for (int i = 0; i < stripes && taken < quantity; i++) {
+            taken += takeUpTo((home + i) % stripes, quantity - taken);
+        }
+        if (taken == quantity) {
+            return true;
+        }
+        if (taken > 0) {
+            cells.getAndAdd(home * PAD, taken);
+        }
+        return false;
+    }
+
+    /** Adds shares to the calling thread's stripe. */
+    public void add(long quantity) {
+        cells.getAndAdd(home() * PAD, quantity);
+    }
+
+    /** Empties every stripe and returns how many shares they held. */
+    public long drain() {
+        long drained = 0;
+        for (int i = 0; i < stripes; i++) {
+            drained += cells.getAndSet(i * PAD, 0);
+        }
+        return drained;
+    }
+
+    /** Shares currently held; only a snapshot while other threads are trading. */
+    public long held() {
+        long held = 0;
+        for (int i = 0; i < stripes; i++) {
+            held += cells.get(i * PAD);
+        }
+        return held;
+    }
+
+    private boolean takeExactly(int stripe, long quantity) {
+        int index = stripe * PAD;
+        long current = cells.get(index);
+        while (current >= quantity) {
+            long witness = cells.compareAndExchange(index, current, current - quantity);
+            if (witness == current) {
+                return true;
+            }
+            current = witness;
+        }
+        return false;
+    }
+
+    private long takeUpTo(int stripe, long quantity) {
+        int index = stripe * PAD;
+        long current = cells.get(index);
+        while (current > 0) {
+            long take = Math.min(current, quantity);
+            long witness = cells.compareAndExchange(index, current, current - take);
+            if (witness == current) {
+                return take;
+            }
+            current = witness;
+        }
+        return 0;
+    }
+
+    private int home() {
+        long id = Thread.currentThread().getId();
+        // Spread sequential thread ids (Fibonacci hashing)
+        return (int) (((id * 0x9E3779B97F4A7C15L) >>> 33) % stripes);
+    }
+}
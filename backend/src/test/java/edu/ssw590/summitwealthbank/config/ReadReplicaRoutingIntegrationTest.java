@@ -0,0 +1,154 @@
+package edu.ssw590.summitwealthbank.config;
+
+import edu.ssw590.summitwealthbank.model.User;
+import edu.ssw590.summitwealthbank.repository.UserRepository;
+import edu.ssw590.summitwealthbank.service.AdminService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the replica routing against two separate H2 databases with the same schema. Each holds a
+ * different user, so the rows a call returns show which pool served it. Hibernate only creates the
+ * schema on the primary; it is copied to the replica before each test, and the lag query fails
+ * until then so startup reads stay on the primary.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.url=jdbc:h2:mem:routing-replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.lag-query=" + ReadReplicaRoutingIntegrationTest.LAG_QUERY
+})
+@ActiveProfiles("h2")
+@DisplayName("Read Replica Routing Integration Tests")
+class ReadReplicaRoutingIntegrationTest {
+
+    static final String LAG_QUERY = "SELECT COUNT(*) * 0 FROM users";
+
+    private static final String PRIMARY_EMAIL = "primary@example.com";
+    private static final String REPLICA_EMAIL = "replica@example.com";
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate primary = new JdbcTemplate(primaryDataSource);
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        Integer tables = replica.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = 'USERS'", Integer.class);
+        if (tables == 0) {
+            primary.queryForList("SCRIPT NODATA", String.class).forEach(replica::execute);
+        }
+        replica.update("DELETE FROM users");
+        replica.update("INSERT INTO users (email, password, first_name, last_name, role, status) "
+                + "VALUES (?, 'secret', 'Rep', 'Lica', 'USER', 'ACTIVE')", REPLICA_EMAIL);
+
+        userRepository.deleteAll();
+        userRepository.save(User.builder()
+                .email(PRIMARY_EMAIL)
+                .password("secret")
+                .firstName("Pri")
+                .lastName("Mary")
+                .role("USER")
+                .build());
+        lagMonitor.check();
+    }
+
+    @Test
+    @DisplayName("Should serve read-only service methods from the replica")
+    void testReadOnlyServiceUsesReplica() {
+        // Act
+        List<User> users = adminService.getAllUsers();
+
+        // Assert
+        assertEquals(List.of(REPLICA_EMAIL), emails(users));
+    }
+
+    @Test
+    @DisplayName("Should serve repository calls outside a service transaction from the primary")
+    void testRepositoryCallUsesPrimary() {
+        // Act
+        List<User> all = userRepository.findAll();
+        boolean derived = userRepository.existsByEmail(PRIMARY_EMAIL);
+
+        // Assert
+        assertEquals(List.of(PRIMARY_EMAIL), emails(all));
+        assertTrue(derived);
+    }
+
+    @Test
+    @DisplayName("Should tell repository transactions from application ones only by the org.springframework.data. name")
+    void testRoutingByTransactionName() {
+        // Arrange: the name SimpleJpaRepository's class-level @Transactional(readOnly = true) gets
+        TransactionTemplate application = new TransactionTemplate(transactionManager);
+        application.setReadOnly(true);
+        TransactionTemplate repository = new TransactionTemplate(transactionManager);
+        repository.setReadOnly(true);
+        repository.setName("org.springframework.data.jpa.repository.support.SimpleJpaRepository.findAll");
+
+        // Act
+        List<User> applicationRead = application.execute(status -> userRepository.findAll());
+        List<User> repositoryRead = repository.execute(status -> userRepository.findAll());
+
+        // Assert
+        assertEquals(List.of(REPLICA_EMAIL), emails(applicationRead));
+        assertEquals(List.of(PRIMARY_EMAIL), emails(repositoryRead));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary while the replica is not usable")
+    void testFallbackWhenReplicaUnusable() {
+        // Arrange
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        // Act: a replica one minute behind
+        List<User> replicaRead = template.execute(status -> userRepository.findAll());
+        ReflectionTestUtils.setField(lagMonitor, "lagQuery", "VALUES(60)");
+        List<User> fallbackRead;
+        try {
+            lagMonitor.check();
+            fallbackRead = template.execute(status -> userRepository.findAll());
+        } finally {
+            ReflectionTestUtils.setField(lagMonitor, "lagQuery", LAG_QUERY);
+        }
+
+        // Assert
+        assertEquals(List.of(REPLICA_EMAIL), emails(replicaRead));
+        assertEquals(List.of(PRIMARY_EMAIL), emails(fallbackRead));
+    }
+
+    private List<String> emails(List<User> users) {
+        return users.stream().map(User::getEmail).toList();
+    }
+}
@@ -0,0 +1,72 @@
+package edu.ssw590.summitwealthbank.controller;
+
+import edu.ssw590.summitwealthbank.dto.WealthActionRequest;
+import edu.ssw590.summitwealthbank.service.OptimisticRetryExecutor;
+import edu.ssw590.summitwealthbank.service.WealthService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WealthController Unit Tests")
+class WealthControllerTest {
+
+    @Mock
+    private WealthService wealthService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        OptimisticRetryExecutor retryExecutor = new OptimisticRetryExecutor(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(retryExecutor, "maxAttempts", 2);
+        ReflectionTestUtils.setField(retryExecutor, "baseBackoffMs", 0L);
+        ReflectionTestUtils.setField(retryExecutor, "maxBackoffMs", 0L);
+        mockMvc = MockMvcBuilders.standaloneSetup(new WealthController(wealthService, retryExecutor)).build();
+    }
+
+    @Test
+    @DisplayName("Should answer 409 once buy retries are exhausted")
+    void testBuyConflictReturns409() throws Exception {
+        // Arrange
+        when(wealthService.buy(any(WealthActionRequest.class)))
+                .thenThrow(new OptimisticLockingFailureException("conflict"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/wealth/buy")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountId\":1,\"amount\":100}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message", containsString("concurrently")));
+        verify(wealthService, times(2)).buy(any(WealthActionRequest.class));
+    }
+
+    @Test
+    @DisplayName("Should answer 409 once sell retries are exhausted")
+    void testSellConflictReturns409() throws Exception {
+        // Arrange
+        when(wealthService.sell(any(WealthActionRequest.class)))
+                .thenThrow(new OptimisticLockingFailureException("conflict"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/wealth/sell")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountId\":1,\"amount\":100}"))
+                .andExpect(status().isConflict());
+    }
+}
@@ -0,0 +1,177 @@
+package edu.ssw590.summitwealthbank.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ssw590.summitwealthbank.service.VelocityLimitService;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("VelocityLimitFilter Unit Tests")
+class VelocityLimitFilterTest {
+
+    private static final String EMAIL = "velocity@example.com";
+
+    @Mock
+    private VelocityLimitService velocityLimitService;
+
+    private VelocityLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new VelocityLimitFilter(velocityLimitService, new ObjectMapper());
+        ReflectionTestUtils.setField(filter, "maxBodyBytes", 64);
+        lenient().when(velocityLimitService.isEnabled()).thenReturn(true);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(EMAIL, null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should pass the buffered body on to the controller")
+    void testBodyReplayed() throws Exception {
+        // Arrange
+        String body = "{\"amount\":25.00}";
+        when(velocityLimitService.checkTransfer(eq(EMAIL), any())).thenReturn(0L);
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(transfer(body), new MockHttpServletResponse(), chain);
+
+        // Assert
+        byte[] replayed = chain.getRequest().getInputStream().readAllBytes();
+        assertEquals(body, new String(replayed, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should deliver the buffered body to a non-blocking reader")
+    void testReadListener() throws Exception {
+        // Arrange
+        String body = "{\"amount\":10}";
+        when(velocityLimitService.checkTransfer(eq(EMAIL), any())).thenReturn(0L);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(transfer(body), new MockHttpServletResponse(), chain);
+        ServletInputStream in = chain.getRequest().getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        boolean[] finished = new boolean[1];
+
+        // Act
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] buffer = new byte[4];
+                while (in.isReady() && !in.isFinished()) {
+                    int n = in.read(buffer);
+                    if (n > 0) {
+                        read.write(buffer, 0, n);
+                    }
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                finished[0] = true;
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail(t);
+            }
+        });
+
+        // Assert
+        assertTrue(finished[0]);
+        assertEquals(body, read.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should reject bodies over the limit with 413 whether or not their length is declared")
+    void testBodyTooLarge() throws Exception {
+        // Arrange
+        String body = "{\"amount\":1,\"description\":\"" + "x".repeat(100) + "\"}";
+        MockHttpServletResponse declaredResponse = new MockHttpServletResponse();
+        MockHttpServletResponse chunkedResponse = new MockHttpServletResponse();
+        MockFilterChain declaredChain = new MockFilterChain();
+        MockFilterChain chunkedChain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(transfer(body), declaredResponse, declaredChain);
+        filter.doFilter(new UnknownLengthRequest(transfer(body)), chunkedResponse, chunkedChain);
+
+        // Assert
+        assertEquals(413, declaredResponse.getStatus());
+        assertEquals(413, chunkedResponse.getStatus());
+        assertNull(declaredChain.getRequest());
+        assertNull(chunkedChain.getRequest());
+        verify(velocityLimitService, never()).checkTransfer(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should answer 429 with Retry-After when the service rejects the request")
+    void testRejected() throws Exception {
+        // Arrange
+        when(velocityLimitService.checkTransfer(eq(EMAIL), any())).thenReturn(7L);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(transfer("{\"amount\":5}"), response, chain);
+
+        // Assert
+        assertEquals(429, response.getStatus());
+        assertEquals("7", response.getHeader("Retry-After"));
+        assertNull(chain.getRequest());
+    }
+
+    private MockHttpServletRequest transfer(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/transfer");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    // A request without a Content-Length, as with chunked transfer encoding
+    private static final class UnknownLengthRequest extends HttpServletRequestWrapper {
+        private UnknownLengthRequest(MockHttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+    }
+}
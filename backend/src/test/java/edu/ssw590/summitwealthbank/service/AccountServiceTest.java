@@ -32,6 +32,9 @@ class AccountServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private LedgerService ledgerService;
+
     @InjectMocks
     private AccountService accountService;
 
@@ -201,6 +204,7 @@ class AccountServiceTest {
         verify(accountRepository).save(argThat(account ->
             account.getBalance().compareTo(expectedBalance) == 0
         ));
+        verify(ledgerService).recordDeposit(1L, addAmount);
     }
 
     @Test
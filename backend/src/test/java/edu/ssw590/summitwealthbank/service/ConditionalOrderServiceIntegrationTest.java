@@ -0,0 +1,295 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.dto.BatchTransferItemResult;
+import edu.ssw590.summitwealthbank.dto.ConditionalOrderRequest;
+import edu.ssw590.summitwealthbank.event.StockPriceChangedEvent;
+import edu.ssw590.summitwealthbank.model.ConditionalOrder;
+import edu.ssw590.summitwealthbank.model.StockOrder;
+import edu.ssw590.summitwealthbank.repository.ConditionalOrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs ConditionalOrderService against H2 so the batch transaction and the @Version check on
+ * ConditionalOrder are real. Trades and quotes are mocked: StockService decides each order's
+ * outcome and AAPL is quoted at 105.00 unless a test says otherwise.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+@DisplayName("ConditionalOrderService Integration Tests")
+class ConditionalOrderServiceIntegrationTest {
+
+    private static final String EMAIL = "conditional@example.com";
+
+    @Autowired
+    private ConditionalOrderRepository conditionalOrderRepository;
+
+    @Autowired
+    private OptimisticRetryExecutor retryExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry sharedMeterRegistry;
+
+    private StockService stockService;
+    private StockQuoteCache stockQuoteCache;
+    private SimpleMeterRegistry meterRegistry;
+    private ConditionalOrderService service;
+
+    // Ids of the orders passed to each executeTriggeredOrders call
+    private final List<List<Long>> executed = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        conditionalOrderRepository.deleteAll();
+
+        stockService = mock(StockService.class);
+        stockQuoteCache = mock(StockQuoteCache.class);
+        when(stockQuoteCache.find("AAPL")).thenReturn(Optional.of(quote("105.00")));
+
+        meterRegistry = new SimpleMeterRegistry();
+        service = new ConditionalOrderService(conditionalOrderRepository, stockQuoteCache, stockService,
+                retryExecutor, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "batchSize", 200);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should fire a new order at once when the quote has already crossed its threshold")
+    void testCreateFiresWhenAlreadyCrossed() throws InterruptedException {
+        // Arrange
+        answerWith("SUCCEEDED");
+
+        // Act: a buy limit at 110.00 while the quote is 105.00
+        ConditionalOrder order = service.create(request("BUY", "LIMIT", "110.00"), EMAIL);
+
+        // Assert
+        ConditionalOrder stored = awaitStatus(order.getId(), ConditionalOrder.Status.EXECUTED);
+        assertEquals(0, new BigDecimal("105.00").compareTo(stored.getTriggeredAtPrice()));
+        assertEquals("REF-" + order.getId(), stored.getTransactionReference());
+        assertNotNull(stored.getTriggeredAt());
+        assertEquals(0.0, waiting());
+    }
+
+    @Test
+    @DisplayName("Should keep an order whose threshold has not been reached waiting")
+    void testCreateWaitsBelowThreshold() {
+        // Act: a buy limit at 100.00 while the quote is 105.00
+        ConditionalOrder order = service.create(request("BUY", "LIMIT", "100.00"), EMAIL);
+
+        // Assert
+        assertEquals(ConditionalOrder.Status.ACTIVE, find(order.getId()).getStatus());
+        assertEquals(1.0, waiting());
+        verify(stockService, never()).executeTriggeredOrders(anyList());
+    }
+
+    @Test
+    @DisplayName("Should record SUCCEEDED results as EXECUTED and FAILED results as FAILED")
+    void testBatchResultsMapToStatuses() throws InterruptedException {
+        // Arrange: both fire at or below 100.00
+        ConditionalOrder buy = service.create(request("BUY", "LIMIT", "100.00"), EMAIL);
+        ConditionalOrder sell = service.create(request("SELL", "STOP", "100.00"), EMAIL);
+        when(stockService.executeTriggeredOrders(anyList())).thenAnswer(invocation -> {
+            List<ConditionalOrder> orders = invocation.getArgument(0);
+            record(orders);
+            return List.of(
+                    BatchTransferItemResult.builder().index(0).status("SUCCEEDED").transactionReference("REF-1").build(),
+                    BatchTransferItemResult.builder().index(1).status("FAILED").message("Insufficient shares").build());
+        });
+
+        // Act
+        service.onPriceChanged(new StockPriceChangedEvent("AAPL", new BigDecimal("99.50")));
+
+        // Assert: one batch in firing order, each outcome recorded
+        ConditionalOrder executedOrder = awaitStatus(buy.getId(), ConditionalOrder.Status.EXECUTED);
+        ConditionalOrder failedOrder = awaitStatus(sell.getId(), ConditionalOrder.Status.FAILED);
+        assertEquals(List.of(List.of(buy.getId(), sell.getId())), executed);
+        assertEquals("REF-1", executedOrder.getTransactionReference());
+        assertEquals("Insufficient shares", failedOrder.getResultMessage());
+        assertNull(failedOrder.getTransactionReference());
+        assertEquals(0, new BigDecimal("99.50").compareTo(failedOrder.getTriggeredAtPrice()));
+        assertEquals(1.0, meterRegistry.counter("bank.stock.conditional.runs", "status", "SUCCEEDED").count());
+        assertEquals(1.0, meterRegistry.counter("bank.stock.conditional.runs", "status", "FAILED").count());
+    }
+
+    @Test
+    @DisplayName("Should roll back a batch when the order is cancelled under it and not execute it on retry")
+    void testCancelRacingBatch() throws InterruptedException {
+        // Arrange: the cancel commits from another thread while the batch transaction is open
+        ConditionalOrder order = service.create(request("BUY", "LIMIT", "100.00"), EMAIL);
+        double conflictsBefore = conflicts();
+        when(stockService.executeTriggeredOrders(anyList())).thenAnswer(invocation -> {
+            List<ConditionalOrder> orders = invocation.getArgument(0);
+            record(orders);
+            if (!orders.isEmpty()) {
+                CompletableFuture.runAsync(() -> service.cancel(order.getId(), EMAIL)).get(10, TimeUnit.SECONDS);
+            }
+            return results(orders, "SUCCEEDED");
+        });
+
+        // Act
+        service.onPriceChanged(new StockPriceChangedEvent("AAPL", new BigDecimal("99.00")));
+
+        // Assert: the retry no longer sees it as active
+        await(() -> executed.size() == 2);
+        assertEquals(List.of(List.of(order.getId()), List.of()), executed);
+        ConditionalOrder stored = find(order.getId());
+        assertEquals(ConditionalOrder.Status.CANCELLED, stored.getStatus());
+        assertNull(stored.getTransactionReference());
+        assertNull(stored.getTriggeredAt());
+        assertEquals(conflictsBefore + 1, conflicts());
+    }
+
+    @Test
+    @DisplayName("Should re-arm orders that are still active after a failed batch and fire them on the next price")
+    void testFailedBatchRearms() throws InterruptedException {
+        // Arrange: the first batch fails outright, the next succeeds
+        ConditionalOrder order = service.create(request("BUY", "LIMIT", "100.00"), EMAIL);
+        when(stockService.executeTriggeredOrders(anyList()))
+                .thenAnswer(invocation -> {
+                    record(invocation.getArgument(0));
+                    throw new IllegalStateException("Database unavailable");
+                })
+                .thenAnswer(invocation -> {
+                    List<ConditionalOrder> orders = invocation.getArgument(0);
+                    record(orders);
+                    return results(orders, "SUCCEEDED");
+                });
+
+        // Act
+        service.onPriceChanged(new StockPriceChangedEvent("AAPL", new BigDecimal("99.00")));
+        await(() -> executed.size() == 1 && waiting() == 1.0);
+        assertEquals(ConditionalOrder.Status.ACTIVE, find(order.getId()).getStatus());
+        service.onPriceChanged(new StockPriceChangedEvent("AAPL", new BigDecimal("98.00")));
+
+        // Assert
+        ConditionalOrder stored = awaitStatus(order.getId(), ConditionalOrder.Status.EXECUTED);
+        assertEquals(0, new BigDecimal("98.00").compareTo(stored.getTriggeredAtPrice()));
+        assertEquals(2.0, meterRegistry.counter("bank.stock.conditional.fired").count());
+        assertEquals(0.0, waiting());
+    }
+
+    @Test
+    @DisplayName("Should load active orders at startup and fire those the current quote has crossed")
+    void testLoadActiveOrders() throws InterruptedException {
+        // Arrange: rows left by a previous run, with the quote moved to 95.00 while it was down
+        ConditionalOrder crossed = conditionalOrderRepository.save(order("BUY", "LIMIT", "100.00", ConditionalOrder.Status.ACTIVE));
+        ConditionalOrder notCrossed = conditionalOrderRepository.save(order("BUY", "LIMIT", "90.00", ConditionalOrder.Status.ACTIVE));
+        conditionalOrderRepository.save(order("BUY", "LIMIT", "120.00", ConditionalOrder.Status.CANCELLED));
+        when(stockQuoteCache.all()).thenReturn(List.of(quote("95.00")));
+        answerWith("SUCCEEDED");
+
+        // Act
+        service.loadActiveOrders();
+
+        // Assert
+        awaitStatus(crossed.getId(), ConditionalOrder.Status.EXECUTED);
+        assertEquals(List.of(List.of(crossed.getId())), executed);
+        assertEquals(ConditionalOrder.Status.ACTIVE, find(notCrossed.getId()).getStatus());
+        assertEquals(1.0, waiting());
+    }
+
+    private void answerWith(String status) {
+        when(stockService.executeTriggeredOrders(anyList())).thenAnswer(invocation -> {
+            List<ConditionalOrder> orders = invocation.getArgument(0);
+            record(orders);
+            return results(orders, status);
+        });
+    }
+
+    private void record(List<ConditionalOrder> orders) {
+        executed.add(orders.stream().map(ConditionalOrder::getId).toList());
+    }
+
+    private List<BatchTransferItemResult> results(List<ConditionalOrder> orders, String status) {
+        return orders.stream()
+                .map(order -> BatchTransferItemResult.builder()
+                        .index(orders.indexOf(order))
+                        .status(status)
+                        .transactionReference("REF-" + order.getId())
+                        .build())
+                .toList();
+    }
+
+    private ConditionalOrder find(Long id) {
+        return conditionalOrderRepository.findById(id).orElseThrow();
+    }
+
+    private ConditionalOrder awaitStatus(Long id, ConditionalOrder.Status status) throws InterruptedException {
+        await(() -> find(id).getStatus() == status);
+        return find(id);
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean(), "condition not met, executed batches: " + executed);
+    }
+
+    private double waiting() {
+        return meterRegistry.get("bank.stock.conditional.waiting").gauge().value();
+    }
+
+    private double conflicts() {
+        return sharedMeterRegistry.counter("bank.concurrency.conflicts", "operation", "conditional-order").count();
+    }
+
+    private StockQuoteCache.Quote quote(String price) {
+        return new StockQuoteCache.Quote("AAPL", "Apple Inc.", new BigDecimal(price), 1_000, "Technology", 0);
+    }
+
+    private ConditionalOrderRequest request(String side, String triggerType, String triggerPrice) {
+        ConditionalOrderRequest request = new ConditionalOrderRequest();
+        request.setAccountId(1L);
+        request.setStockSymbol("AAPL");
+        request.setSide(side);
+        request.setTriggerType(triggerType);
+        request.setTriggerPrice(new BigDecimal(triggerPrice));
+        request.setQuantity(5L);
+        return request;
+    }
+
+    private ConditionalOrder order(String side, String triggerType, String triggerPrice, ConditionalOrder.Status status) {
+        return ConditionalOrder.builder()
+                .userEmail(EMAIL)
+                .accountId(1L)
+                .stockSymbol("AAPL")
+                .side(StockOrder.Side.valueOf(side))
+                .triggerType(ConditionalOrder.TriggerType.valueOf(triggerType))
+                .triggerPrice(new BigDecimal(triggerPrice))
+                .quantity(5L)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,197 @@
+package edu.ssw590.summitwealthbank.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ssw590.summitwealthbank.model.Account;
+import edu.ssw590.summitwealthbank.model.Transaction;
+import edu.ssw590.summitwealthbank.model.User;
+import edu.ssw590.summitwealthbank.repository.AccountRepository;
+import edu.ssw590.summitwealthbank.repository.StockTransactionRepository;
+import edu.ssw590.summitwealthbank.repository.TransactionRepository;
+import edu.ssw590.summitwealthbank.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exports two accounts whose January 2024 transfers have been moved to the archive and whose
+ * recent transfers are still in H2. Transfers between the two accounts sit in both their archive
+ * buckets and match the database query through either account, so each must still appear once.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+@DisplayName("ExportService Integration Tests")
+class ExportServiceIntegrationTest {
+
+    private static final YearMonth JANUARY = YearMonth.of(2024, 1);
+
+    @TempDir
+    Path archiveDir;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private StockTransactionRepository stockTransactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ExportService exportService;
+    private Account checking;
+    private Account savings;
+
+    // Exported transfers in the expected order
+    private final List<Transaction> expected = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        TransactionArchive archive = new TransactionArchive(objectMapper);
+        ReflectionTestUtils.setField(archive, "archiveDir", archiveDir.toString());
+        exportService = new ExportService(accountService, transactionRepository, stockTransactionRepository,
+                entityManager, transactionManager, objectMapper, archive);
+
+        User user = userRepository.save(user("export@example.com"));
+        User other = userRepository.save(user("other@example.com"));
+        checking = accountRepository.save(account(user, Account.AccountType.CHECKING));
+        savings = accountRepository.save(account(user, Account.AccountType.SAVINGS));
+        Account stranger = accountRepository.save(account(other, Account.AccountType.CHECKING));
+
+        // Archived as PartitionMaintenanceService does it: written out, then removed from the table
+        LocalDateTime january = JANUARY.atDay(5).atTime(9, 0);
+        List<Transaction> archived = transactionRepository.saveAll(List.of(
+                transfer(checking, savings, "100.00", "Rent, \"January\"", january),
+                transfer(savings, checking, "5.00", "Refund", january),
+                transfer(checking, stranger, "7.50", "Coffee", january.plusDays(15))));
+        archive.write(TransactionArchive.TRANSFERS, JANUARY, archived.iterator());
+        transactionRepository.deleteAll(archived);
+        expected.addAll(archived);
+
+        LocalDateTime recent = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        expected.addAll(transactionRepository.saveAll(List.of(
+                transfer(checking, savings, "20.00", "Savings", recent),
+                transfer(stranger, checking, "12.00", "Lunch", recent),
+                transfer(savings, checking, "3.00", "Interest", recent.plusHours(1)))));
+        transactionRepository.save(transfer(stranger, stranger, "1.00", "Not exported", recent));
+    }
+
+    @Test
+    @DisplayName("Should export archived then live transfers as CSV in (timestamp, id) order, once each, with quoting")
+    void testCsv() {
+        // Act
+        String csv = export(ExportService.Format.CSV);
+
+        // Assert
+        String[] lines = csv.split("\n");
+        assertEquals("id,transactionReference,timestamp,fromAccountId,toAccountId,amount,description", lines[0]);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i < lines.length; i++) {
+            ids.add(Long.valueOf(lines[i].substring(0, lines[i].indexOf(','))));
+        }
+        assertEquals(expected.stream().map(Transaction::getId).toList(), ids);
+
+        Transaction rent = expected.get(0);
+        assertEquals(rent.getId() + "," + rent.getTransactionReference() + ",2024-01-05T09:00," + checking.getId()
+                + "," + savings.getId() + ",100.00,\"Rent, \"\"January\"\"\"", lines[1]);
+    }
+
+    @Test
+    @DisplayName("Should export the same transfers as NDJSON in (timestamp, id) order, once each")
+    void testNdjson() throws Exception {
+        // Act
+        String ndjson = export(ExportService.Format.NDJSON);
+
+        // Assert
+        List<Long> ids = new ArrayList<>();
+        LocalDateTime previousTime = null;
+        long previousId = 0;
+        for (String line : ndjson.split("\n")) {
+            JsonNode row = objectMapper.readTree(line);
+            LocalDateTime timestamp = LocalDateTime.parse(row.get("timestamp").asText());
+            long id = row.get("id").asLong();
+            if (previousTime != null) {
+                assertTrue(timestamp.isAfter(previousTime) || (timestamp.equals(previousTime) && id > previousId),
+                        "out of order at " + line);
+            }
+            previousTime = timestamp;
+            previousId = id;
+            ids.add(id);
+        }
+        assertEquals(expected.stream().map(Transaction::getId).toList(), ids);
+        assertEquals("Rent, \"January\"", objectMapper.readTree(ndjson.split("\n")[0]).get("description").asText());
+    }
+
+    private String export(ExportService.Format format) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(exportService.resolveAccountIds("export@example.com", null),
+                ExportService.Type.TRANSFERS, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private Transaction transfer(Account from, Account to, String amount, String description, LocalDateTime timestamp) {
+        return Transaction.builder()
+                .transactionReference("TXN-" + description.hashCode() + "-" + timestamp.hashCode())
+                .fromAccountId(from.getId())
+                .toAccountId(to.getId())
+                .amount(new BigDecimal(amount))
+                .description(description)
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private User user(String email) {
+        return User.builder()
+                .email(email)
+                .password("secret")
+                .firstName("Ex")
+                .lastName("Port")
+                .role("USER")
+                .build();
+    }
+
+    private Account account(User user, Account.AccountType type) {
+        return Account.builder()
+                .user(user)
+                .type(type)
+                .balance(BigDecimal.ZERO)
+                .build();
+    }
+}
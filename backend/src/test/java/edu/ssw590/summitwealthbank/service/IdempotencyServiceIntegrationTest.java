@@ -0,0 +1,132 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.dto.TransferRequest;
+import edu.ssw590.summitwealthbank.model.Account;
+import edu.ssw590.summitwealthbank.model.IdempotencyRecord;
+import edu.ssw590.summitwealthbank.model.User;
+import edu.ssw590.summitwealthbank.repository.AccountRepository;
+import edu.ssw590.summitwealthbank.repository.IdempotencyRecordRepository;
+import edu.ssw590.summitwealthbank.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks against H2 that the reservation of an idempotent request is marked applied by the same
+ * transaction that moves the money, and only when that transaction commits.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+@DisplayName("IdempotencyService Integration Tests")
+class IdempotencyServiceIntegrationTest {
+
+    private static final String EMAIL = "idempotent@example.com";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    private Account from;
+    private Account to;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyRecordRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = userRepository.save(User.builder()
+                .email(EMAIL)
+                .password("secret")
+                .firstName("Idem")
+                .lastName("Potent")
+                .role("USER")
+                .build());
+        from = accountRepository.save(Account.builder()
+                .user(user)
+                .type(Account.AccountType.CHECKING)
+                .balance(new BigDecimal("500.00"))
+                .build());
+        to = accountRepository.save(Account.builder()
+                .user(user)
+                .type(Account.AccountType.SAVINGS)
+                .balance(BigDecimal.ZERO)
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should mark the key applied when the transfer commits, then store the response")
+    void testAppliedWithTransfer() {
+        // Arrange
+        TransferRequest request = request("100.00");
+        List<IdempotencyRecord.Status> seen = new ArrayList<>();
+
+        // Act
+        ResponseEntity<?> response = idempotencyService.execute("key-applied", EMAIL, "transfer", request, () -> {
+            seen.add(status("key-applied"));
+            transferService.transfer(request, EMAIL);
+            seen.add(status("key-applied"));
+            return ResponseEntity.ok("done");
+        });
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(IdempotencyRecord.Status.IN_PROGRESS, IdempotencyRecord.Status.APPLIED), seen);
+        assertEquals(IdempotencyRecord.Status.COMPLETED, status("key-applied"));
+    }
+
+    @Test
+    @DisplayName("Should leave the key unapplied when the transfer rolls back")
+    void testNotAppliedOnRollback() {
+        // Arrange
+        TransferRequest request = request("900.00");
+        List<IdempotencyRecord.Status> seen = new ArrayList<>();
+
+        // Act
+        ResponseEntity<?> response = idempotencyService.execute("key-rolled-back", EMAIL, "transfer", request, () -> {
+            assertThrows(IllegalArgumentException.class, () -> transferService.transfer(request, EMAIL));
+            seen.add(status("key-rolled-back"));
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("try again");
+        });
+
+        // Assert: nothing committed, so the 503 released the key
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals(List.of(IdempotencyRecord.Status.IN_PROGRESS), seen);
+        assertTrue(idempotencyRecordRepository.findByUserEmailAndIdempotencyKey(EMAIL, "key-rolled-back").isEmpty());
+    }
+
+    private IdempotencyRecord.Status status(String key) {
+        return idempotencyRecordRepository.findByUserEmailAndIdempotencyKey(EMAIL, key).orElseThrow().getStatus();
+    }
+
+    private TransferRequest request(String amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromAccountId(from.getId());
+        request.setToAccountId(to.getId());
+        request.setAmount(new BigDecimal(amount));
+        request.setDescription("Idempotency test");
+        return request;
+    }
+}
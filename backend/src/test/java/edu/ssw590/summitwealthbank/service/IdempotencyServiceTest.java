@@ -0,0 +1,338 @@
+package edu.ssw590.summitwealthbank.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ssw590.summitwealthbank.dto.TransferRequest;
+import edu.ssw590.summitwealthbank.model.IdempotencyRecord;
+import edu.ssw590.summitwealthbank.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IdempotencyService Unit Tests")
+class IdempotencyServiceTest {
+
+    private static final String EMAIL = "test@example.com";
+    private static final String KEY = "key-1";
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private IdempotencyService idempotencyService;
+
+    private TransferRequest request;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, new ObjectMapper());
+        ReflectionTestUtils.setField(idempotencyService, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(idempotencyService, "cacheSize", 100);
+        ReflectionTestUtils.setField(idempotencyService, "inProgressTimeoutSeconds", 300L);
+        idempotencyService.initCache();
+
+        request = transferRequest("100.00");
+        calls = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should run the action without a key and store nothing")
+    void testNoKey() {
+        // Act
+        ResponseEntity<?> response = idempotencyService.execute(null, EMAIL, "transfer", request, this::ok);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, calls.get());
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject keys longer than 255 characters")
+    void testKeyTooLong() {
+        // Act
+        ResponseEntity<?> response = idempotencyService.execute("k".repeat(256), EMAIL, "transfer", request, this::ok);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should store the outcome and replay it from memory without running the action again")
+    void testReplayFromCache() {
+        // Arrange
+        reserveSucceeds();
+
+        // Act
+        idempotencyService.execute(KEY, EMAIL, "transfer", request, this::ok);
+        ResponseEntity<?> replay = idempotencyService.execute(KEY, EMAIL, "transfer", transferRequest("100.00"), this::ok);
+
+        // Assert
+        assertEquals(1, calls.get());
+        assertEquals(HttpStatus.OK, replay.getStatusCode());
+        assertEquals("true", replay.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals("{\"transactionReference\":\"TXN-1\"}", replay.getBody());
+
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepository).save(saved.capture());
+        assertEquals(IdempotencyRecord.Status.COMPLETED, saved.getValue().getStatus());
+        assertEquals(64, saved.getValue().getRequestHash().length());
+        verify(idempotencyRecordRepository, times(1)).findByUserEmailAndIdempotencyKey(EMAIL, KEY);
+    }
+
+    @Test
+    @DisplayName("Should answer 422 when a key is reused with a different body")
+    void testDifferentBody() {
+        // Arrange
+        reserveSucceeds();
+        idempotencyService.execute(KEY, EMAIL, "transfer", request, this::ok);
+
+        // Act
+        ResponseEntity<?> response = idempotencyService.execute(KEY, EMAIL, "transfer", transferRequest("999.00"), this::ok);
+
+        // Assert
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should answer 422 when a stored key is reused for another operation")
+    void testDifferentOperation() {
+        // Arrange
+        IdempotencyRecord stored = completedRecord(hashOf(request));
+        when(idempotencyRecordRepository.findByUserEmailAndIdempotencyKey(EMAIL, KEY)).thenReturn(Optional.of(stored));
+
+        // Act
+        ResponseEntity<?> response = idempotencyService.execute(KEY, EMAIL, "transfer-batch", request, this::ok);
+
+        // Assert
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should treat an expired key as unused even before it is purged")
+    void testExpiredRecordRunsAgain() {
+        // Arrange
+        IdempotencyRecord expired = completedRecord(hashOf(request));
+        expired.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        when(idempotencyRecordRepository.findByUserEmailAndIdempotencyKey(EMAIL, KEY)).thenReturn(Optional.of(expired));
+        reserveSucceeds();
+
+        // Act
+        ResponseEntity<?> response = idempotencyService.execute(KEY, EMAIL, "transfer", request, this::ok);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals(1, calls.get());
+        verify(idempotencyRecordRepository).delete(expired);
+    }
+
+    @Test
+    @DisplayName("Should answer 409 while the same key is being processed")
+    void testInProgress() {
+        // Arrange
+        IdempotencyRecord running = record(IdempotencyRecord.Status.IN_PROGRESS, LocalDateTime.now().minusSeconds(5));
+        when(idempotencyRecordRepository.findByUserEmailAndIdempotencyKey(EMAIL, KEY)).thenReturn(Optional.of(running));
+
+        // Act
+        ResponseEntity<?> response = idempotencyService.execute(KEY, EMAIL, "transfer", request, this::ok);
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should release a stale reservation that never committed and run the request")
+    void testStaleReservationReleased() {
+        // Arrange
+        IdempotencyRecord abandoned = record(IdempotencyRecord.Status.IN_PROGRESS, LocalDateTime.now().minusMinutes(10));
+        when(idempotencyRecordRepository.findByUserEmailAndIdempotencyKey(EMAIL, KEY)).thenReturn(Optional.of(abandoned));
+        reserveSucceeds();
+
+        // Act
+        ResponseEntity<?> response = idempotencyService.execute(KEY, EMAIL, "transfer", request, this::ok);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, calls.get());
+        verify(idempotencyRecordRepository).delete(abandoned);
+    }
+
+    @Test
+    @DisplayName("Should not run a stale request again when its changes were committed")
+    void testStaleAppliedNotRunAgain() {
+        // Arrange
+        IdempotencyRecord applied = record(IdempotencyRecord.Status.APPLIED, LocalDateTime.now().minusMinutes(10));
+        when(idempotencyRecordRepository.findByUserEmailAndIdempotencyKey(EMAIL, KEY)).thenReturn(Optional.of(applied));
+
+        // Act
+        ResponseEntity<?> response = idempotencyService.execute(KEY, EMAIL, "transfer", request, this::ok);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("true", response.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals(0, calls.get());
+        verify(idempotencyRecordRepository, never()).delete(any());
+    }
+
+    @Test
+    @DisplayName("Should release the key after a 5xx response so the client can retry")
+    void testServerErrorReleasesKey() {
+        // Arrange
+        reserveSucceeds();
+
+        // Act
+        ResponseEntity<?> response = idempotencyService.execute(KEY, EMAIL, "transfer", request,
+                () -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("message", "boom")));
+
+        // Assert
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        verify(idempotencyRecordRepository).delete(any(IdempotencyRecord.class));
+        verify(idempotencyRecordRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should keep the key of a failed response once the action committed changes")
+    void testServerErrorAfterCommitKeepsKey() {
+        // Arrange
+        reserveSucceeds();
+
+        // Act: the action commits a read-write transaction, then fails
+        ResponseEntity<?> response = idempotencyService.execute(KEY, EMAIL, "transfer", request, () -> {
+            commitReadWriteTransaction();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("message", "boom"));
+        });
+
+        // Assert
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        verify(idempotencyRecordRepository).markApplied(7L,
+                IdempotencyRecord.Status.IN_PROGRESS, IdempotencyRecord.Status.APPLIED);
+        verify(idempotencyRecordRepository, never()).delete(any());
+        verify(idempotencyRecordRepository).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    @DisplayName("Should release the key when the action throws before committing anything")
+    void testExceptionReleasesKey() {
+        // Arrange
+        reserveSucceeds();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute(KEY, EMAIL, "transfer", request, () -> {
+            throw new IllegalStateException("boom");
+        }));
+        verify(idempotencyRecordRepository).delete(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    @DisplayName("Should not hook transactions started outside an idempotent action")
+    void testListenerIgnoresOtherTransactions() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionExecution transaction = mock(TransactionExecution.class);
+
+        // Act
+        idempotencyService.afterBegin(transaction, null);
+
+        // Assert
+        assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+    }
+
+    private ResponseEntity<?> ok() {
+        calls.incrementAndGet();
+        return ResponseEntity.ok(Map.of("transactionReference", "TXN-1"));
+    }
+
+    private void reserveSucceeds() {
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> {
+            IdempotencyRecord record = invocation.getArgument(0);
+            record.setId(7L);
+            record.setCreatedAt(LocalDateTime.now());
+            return record;
+        });
+    }
+
+    // What the transaction manager does around a read-write transaction that commits
+    private void commitReadWriteTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            TransactionExecution transaction = mock(TransactionExecution.class);
+            when(transaction.isReadOnly()).thenReturn(false);
+            idempotencyService.afterBegin(transaction, null);
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.beforeCommit(false);
+            }
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private IdempotencyRecord completedRecord(String requestHash) {
+        IdempotencyRecord record = record(IdempotencyRecord.Status.COMPLETED, LocalDateTime.now());
+        record.setRequestHash(requestHash);
+        record.setResponseStatus(200);
+        record.setResponseContentType("application/json");
+        record.setResponseBody("{\"transactionReference\":\"TXN-1\"}");
+        return record;
+    }
+
+    private IdempotencyRecord record(IdempotencyRecord.Status status, LocalDateTime createdAt) {
+        return IdempotencyRecord.builder()
+                .id(3L)
+                .idempotencyKey(KEY)
+                .userEmail(EMAIL)
+                .operation("transfer")
+                .status(status)
+                .createdAt(createdAt)
+                .expiresAt(createdAt.plusMinutes(60))
+                .build();
+    }
+
+    private String hashOf(TransferRequest transferRequest) {
+        return idempotencyService.hash(transferRequest);
+    }
+
+    private TransferRequest transferRequest(String amount) {
+        TransferRequest transferRequest = new TransferRequest();
+        transferRequest.setFromAccountId(1L);
+        transferRequest.setToAccountId(2L);
+        transferRequest.setAmount(new BigDecimal(amount));
+        transferRequest.setDescription("Rent");
+        return transferRequest;
+    }
+}
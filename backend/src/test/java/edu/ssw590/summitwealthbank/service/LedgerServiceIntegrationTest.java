@@ -0,0 +1,244 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.model.Account;
+import edu.ssw590.summitwealthbank.model.AccountBalanceSnapshot;
+import edu.ssw590.summitwealthbank.model.Transaction;
+import edu.ssw590.summitwealthbank.model.User;
+import edu.ssw590.summitwealthbank.repository.AccountBalanceSnapshotRepository;
+import edu.ssw590.summitwealthbank.repository.AccountRepository;
+import edu.ssw590.summitwealthbank.repository.LedgerPostingRepository;
+import edu.ssw590.summitwealthbank.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+@DisplayName("LedgerService Integration Tests")
+class LedgerServiceIntegrationTest {
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private LedgerPostingRepository ledgerPostingRepository;
+
+    @Autowired
+    private AccountBalanceSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Account first;
+    private Account second;
+
+    @BeforeEach
+    void setUp() {
+        snapshotRepository.deleteAllInBatch();
+        ledgerPostingRepository.deleteAllInBatch();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+        LedgerService target = AopTestUtils.getTargetObject(ledgerService);
+        ReflectionTestUtils.setField(target, "snapshotLagSeconds", 0L);
+
+        User user = userRepository.save(User.builder()
+                .email("ledger@example.com")
+                .password("secret")
+                .firstName("Led")
+                .lastName("Ger")
+                .role("USER")
+                .build());
+        first = accountRepository.save(Account.builder()
+                .user(user)
+                .type(Account.AccountType.CHECKING)
+                .balance(BigDecimal.ZERO)
+                .build());
+        second = accountRepository.save(Account.builder()
+                .user(user)
+                .type(Account.AccountType.SAVINGS)
+                .balance(BigDecimal.ZERO)
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should replay postings up to the requested time when there is no snapshot")
+    void testBalanceAsOfWithoutSnapshot() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        ledgerService.recordDeposit(first.getId(), new BigDecimal("500.00"));
+        ledgerService.recordTransfers(List.of(
+                transfer(first, second, "100.00", now.minusMinutes(1)),
+                transfer(first, second, "50.00", now.plusMinutes(10))));
+
+        // Act & Assert
+        assertAmount("400.00", ledgerService.balanceAsOf(first.getId(), now.plusMinutes(1)));
+        assertAmount("350.00", ledgerService.balanceAsOf(first.getId(), now.plusMinutes(11)));
+        assertAmount("100.00", ledgerService.balanceAsOf(second.getId(), now.plusMinutes(1)));
+    }
+
+    @Test
+    @DisplayName("Should roll snapshots forward and count each posting exactly once")
+    void testSnapshotRollForward() {
+        // Arrange
+        ledgerService.recordDeposit(first.getId(), new BigDecimal("500.00"));
+        ledgerService.recordTransfers(List.of(transfer(first, second, "100.00", LocalDateTime.now().minusSeconds(1))));
+
+        // Act
+        ledgerService.snapshotBalances();
+        ledgerService.recordTransfers(List.of(transfer(second, first, "30.00", LocalDateTime.now().minusSeconds(1))));
+        ledgerService.snapshotBalances();
+        ledgerService.snapshotBalances(); // nothing new
+
+        // Assert
+        List<AccountBalanceSnapshot> snapshots = snapshotRepository.findLatestByAccountIds(List.of(first.getId(), second.getId()));
+        assertEquals(2, snapshots.size());
+        for (AccountBalanceSnapshot snapshot : snapshots) {
+            assertEquals(2L, snapshot.getRun());
+            assertAmount(snapshot.getAccountId().equals(first.getId()) ? "430.00" : "70.00", snapshot.getBalance());
+        }
+        assertEquals(4, snapshotRepository.count());
+        assertAmount("430.00", ledgerService.balanceAsOf(first.getId(), LocalDateTime.now()));
+        assertAmount("70.00", ledgerService.balanceAsOf(second.getId(), LocalDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("Should count a posting whose transaction commits after a snapshot passed its time")
+    void testLateCommitIsNotSkipped() throws Exception {
+        // Arrange: a transfer posted ten minutes ago is still uncommitted when the snapshot runs
+        ledgerService.recordDeposit(first.getId(), new BigDecimal("500.00"));
+        CountDownLatch posted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> template.executeWithoutResult(status -> {
+            ledgerService.recordTransfers(List.of(transfer(first, second, "200.00", LocalDateTime.now().minusMinutes(10))));
+            posted.countDown();
+            await(commit);
+        }));
+        assertTrue(posted.await(10, TimeUnit.SECONDS));
+
+        // Act
+        ledgerService.snapshotBalances();
+        commit.countDown();
+        slow.get(10, TimeUnit.SECONDS);
+
+        // Assert: right before and after the next run
+        assertAmount("300.00", ledgerService.balanceAsOf(first.getId(), LocalDateTime.now()));
+        ledgerService.snapshotBalances();
+        assertAmount("300.00", ledgerService.balanceAsOf(first.getId(), LocalDateTime.now()));
+        assertAmount("200.00", ledgerService.balanceAsOf(second.getId(), LocalDateTime.now()));
+        assertAmount("300.00", snapshotRepository.findLatestByAccountIds(List.of(first.getId())).get(0).getBalance());
+    }
+
+    @Test
+    @DisplayName("Should rebuild snapshots written before runs existed")
+    void testLegacySnapshotsRebuilt() {
+        // Arrange
+        ledgerService.recordDeposit(first.getId(), new BigDecimal("500.00"));
+        snapshotRepository.save(AccountBalanceSnapshot.builder()
+                .accountId(first.getId())
+                .balance(new BigDecimal("999.00"))
+                .lastPostingId(0L)
+                .asOf(LocalDateTime.now().minusDays(1))
+                .build());
+
+        // Act
+        BigDecimal beforeRebuild = ledgerService.balanceAsOf(first.getId(), LocalDateTime.now());
+        ledgerService.snapshotBalances();
+
+        // Assert
+        assertAmount("500.00", beforeRebuild);
+        assertFalse(snapshotRepository.existsByRunIsNull());
+        assertAmount("500.00", ledgerService.balanceAsOf(first.getId(), LocalDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("Should give the same balances for an id range as balanceAsOf gives per account")
+    void testBalancesAsOfForRange() {
+        // Arrange: one run before the second transfer, one after, and a late posting in between
+        LocalDateTime now = LocalDateTime.now();
+        ledgerService.recordTransfers(List.of(transfer(first, second, "100.00", now.minusHours(3))));
+        ledgerService.snapshotBalances();
+        ledgerService.recordTransfers(List.of(transfer(second, first, "30.00", now.minusHours(1))));
+        ledgerService.recordTransfers(List.of(transfer(first, second, "5.00", now.minusHours(4))));
+        ledgerService.snapshotBalances();
+        ledgerService.recordTransfers(List.of(transfer(second, first, "1.00", now.minusMinutes(1))));
+
+        // Act & Assert
+        for (LocalDateTime asOf : List.of(now.minusHours(5), now.minusHours(2), now, LocalDateTime.now())) {
+            Map<Long, BigDecimal> balances = ledgerService.balancesAsOf(first.getId(), second.getId(), asOf);
+            for (Account account : List.of(first, second)) {
+                assertAmount(ledgerService.balanceAsOf(account.getId(), asOf).toPlainString(),
+                        balances.getOrDefault(account.getId(), BigDecimal.ZERO));
+            }
+        }
+        Map<Long, BigDecimal> changes = ledgerService.netChangesBetween(first.getId(), second.getId(),
+                now.minusHours(2), now);
+        assertAmount("31.00", changes.get(first.getId()));
+        assertAmount("-31.00", changes.get(second.getId()));
+    }
+
+    @Test
+    @DisplayName("Should backfill one opening journal for accounts without postings")
+    void testBackfillOpeningBalances() {
+        // Arrange
+        first.setBalance(new BigDecimal("250.00"));
+        accountRepository.save(first);
+        second.setBalance(new BigDecimal("-40.00"));
+        accountRepository.save(second);
+
+        // Act
+        ledgerService.backfillOpeningBalances();
+        ledgerService.backfillOpeningBalances();
+
+        // Assert
+        assertEquals(4, ledgerPostingRepository.count());
+        assertAmount("250.00", ledgerService.balanceAsOf(first.getId(), LocalDateTime.now()));
+        assertAmount("-40.00", ledgerService.balanceAsOf(second.getId(), LocalDateTime.now()));
+    }
+
+    private Transaction transfer(Account from, Account to, String amount, LocalDateTime at) {
+        return Transaction.builder()
+                .transactionReference("TXN-" + System.nanoTime())
+                .fromAccountId(from.getId())
+                .toAccountId(to.getId())
+                .amount(new BigDecimal(amount))
+                .timestamp(at)
+                .build();
+    }
+
+    private void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "expected " + expected + " but was " + actual);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
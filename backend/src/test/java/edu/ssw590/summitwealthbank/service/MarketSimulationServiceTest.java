@@ -0,0 +1,130 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.config.MarketSimulationProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the GBM step against its closed form and, with a fixed seed, that simulated yearly log
+ * returns have the mean (drift - volatility^2 / 2) and standard deviation (volatility) of the
+ * stock's sector.
+ */
+@DisplayName("MarketSimulationService Unit Tests")
+class MarketSimulationServiceTest {
+
+    private static final long SEED = 20240101L;
+
+    private MarketSimulationProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        // Bound the way application.properties is, so the sector keys are checked too
+        properties = new Binder(new MapConfigurationPropertySource(Map.of(
+                "app.simulation.defaults.drift", "0.06",
+                "app.simulation.defaults.volatility", "0.25",
+                "app.simulation.sectors.technology.drift", "0.10",
+                "app.simulation.sectors.technology.volatility", "0.35",
+                "app.simulation.sectors.consumer-defensive.drift", "0.05",
+                "app.simulation.sectors.consumer-defensive.volatility", "0.15")))
+                .bind("app.simulation", MarketSimulationProperties.class)
+                .get();
+    }
+
+    @Test
+    @DisplayName("Should follow the closed form of one GBM step")
+    void testStep() {
+        // Act & Assert
+        assertEquals(100 * Math.exp(0.05), MarketSimulationService.step(100, 0.05, 0, 1, 1.5), 1e-9);
+        assertEquals(100, MarketSimulationService.step(100, 0.05, 0.3, 0, 2.0), 1e-9);
+        assertEquals(50 * Math.exp((0.08 - 0.02) * 0.25 + 0.2 * 0.5 * -1.0),
+                MarketSimulationService.step(50, 0.08, 0.2, 0.25, -1.0), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should resolve sector names to their settings and fall back to the defaults")
+    void testForSector() {
+        // Act & Assert
+        assertEquals(0.10, properties.forSector("Technology").getDrift());
+        assertEquals(0.35, properties.forSector("Technology").getVolatility());
+        assertEquals(0.15, properties.forSector("Consumer Defensive").getVolatility());
+        assertEquals(0.05, properties.forSector(" consumer_defensive ").getDrift());
+        assertSame(properties.getDefaults(), properties.forSector("Crypto"));
+        assertSame(properties.getDefaults(), properties.forSector(null));
+    }
+
+    @Test
+    @DisplayName("Should give yearly log returns with the drift and volatility of the sector")
+    void testSeededReturnsMatchSector() {
+        for (String sector : new String[] {"Technology", "Consumer Defensive", "Crypto"}) {
+            // Arrange
+            MarketSimulationProperties.Sector settings = properties.forSector(sector);
+            SplittableRandom random = new SplittableRandom(SEED);
+            int paths = 10_000;
+            int steps = 52;
+            double[] logReturns = new double[paths];
+
+            // Act: a year of weekly steps per path
+            for (int path = 0; path < paths; path++) {
+                double price = 100;
+                for (int step = 0; step < steps; step++) {
+                    price = MarketSimulationService.step(price, settings.getDrift(), settings.getVolatility(),
+                            1.0 / steps, random.nextGaussian());
+                }
+                logReturns[path] = Math.log(price / 100);
+            }
+
+            // Assert: within about four standard errors
+            double volatility = settings.getVolatility();
+            double mean = mean(logReturns);
+            double deviation = standardDeviation(logReturns, mean);
+            assertEquals(settings.getDrift() - volatility * volatility / 2, mean,
+                    4 * volatility / Math.sqrt(paths), sector + " mean");
+            assertEquals(volatility, deviation, 4 * volatility / Math.sqrt(2.0 * paths), sector + " volatility");
+        }
+    }
+
+    @Test
+    @DisplayName("Should produce the same path for the same seed")
+    void testSeedIsRepeatable() {
+        // Arrange
+        MarketSimulationProperties.Sector settings = properties.forSector("Technology");
+        SplittableRandom first = new SplittableRandom(SEED);
+        SplittableRandom second = new SplittableRandom(SEED);
+        double a = 100;
+        double b = 100;
+
+        // Act
+        for (int i = 0; i < 1_000; i++) {
+            a = MarketSimulationService.step(a, settings.getDrift(), settings.getVolatility(), 1e-4, first.nextGaussian());
+            b = MarketSimulationService.step(b, settings.getDrift(), settings.getVolatility(), 1e-4, second.nextGaussian());
+        }
+
+        // Assert
+        assertEquals(a, b);
+        assertTrue(a > 0);
+    }
+
+    private double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private double standardDeviation(double[] values, double mean) {
+        double sum = 0;
+        for (double value : values) {
+            sum += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(sum / (values.length - 1));
+    }
+}
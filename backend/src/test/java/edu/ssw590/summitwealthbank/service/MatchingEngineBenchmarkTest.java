@@ -0,0 +1,186 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.dto.StockOrderRequest;
+import edu.ssw590.summitwealthbank.model.Account;
+import edu.ssw590.summitwealthbank.model.Stock;
+import edu.ssw590.summitwealthbank.model.StockPosition;
+import edu.ssw590.summitwealthbank.model.User;
+import edu.ssw590.summitwealthbank.repository.AccountRepository;
+import edu.ssw590.summitwealthbank.repository.StockPositionRepository;
+import edu.ssw590.summitwealthbank.repository.StockRepository;
+import edu.ssw590.summitwealthbank.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end throughput of order book trading on H2: orders go through MatchingEngine.placeOrder
+ * (reservation and order row in their own transaction), the shard's matching thread and the
+ * settlement thread, and the run ends once every order is FILLED in the database.
+ *
+ * This measures the engine with persistence, which is bounded by one database transaction per
+ * placed order; the 100k events per second target applies to the order book alone (see
+ * OrderBookTest). Tagged benchmark, so it only runs with -Dgroups=benchmark -Dtest.excluded-groups=
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+@Tag("benchmark")
+@DisplayName("MatchingEngine Benchmark")
+class MatchingEngineBenchmarkTest {
+
+    private static final String SYMBOL = "BENCH";
+    private static final String BUYER = "bench-buyer@example.com";
+    private static final String SELLER = "bench-seller@example.com";
+    private static final int THREADS = 4;
+    private static final int PAIRS_PER_THREAD = 500;
+
+    @Autowired
+    private MatchingEngine matchingEngine;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockPositionRepository positionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Account> buyerAccounts = new ArrayList<>();
+    private final List<Account> sellerAccounts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        if (stockRepository.findBySymbol(SYMBOL).isEmpty()) {
+            stockRepository.save(Stock.builder()
+                    .symbol(SYMBOL)
+                    .companyName("Benchmark Corp")
+                    .currentPrice(new BigDecimal("100.00"))
+                    .totalShares(1_000_000L)
+                    .availableShares(1_000_000L)
+                    .sector("Technology")
+                    .build());
+        }
+
+        User buyer = user(BUYER);
+        User seller = user(SELLER);
+        for (int i = 0; i < THREADS; i++) {
+            buyerAccounts.add(account(buyer, new BigDecimal("1000000.00")));
+            Account sellerAccount = account(seller, BigDecimal.ZERO);
+            sellerAccounts.add(sellerAccount);
+            positionRepository.save(StockPosition.builder()
+                    .accountId(sellerAccount.getId())
+                    .stockSymbol(SYMBOL)
+                    .totalShares((long) PAIRS_PER_THREAD)
+                    .averageCostBasis(new BigDecimal("90.00"))
+                    .build());
+        }
+    }
+
+    @Test
+    @DisplayName("Should place, match and settle every order end to end (engine with persistence, not the 100k/s book target)")
+    void testEngineThroughputWithPersistenceBelowBookTarget() throws Exception {
+        // Arrange
+        List<Long> accountIds = new ArrayList<>();
+        buyerAccounts.forEach(account -> accountIds.add(account.getId()));
+        sellerAccounts.forEach(account -> accountIds.add(account.getId()));
+        int orders = 2 * THREADS * PAIRS_PER_THREAD;
+        ExecutorService clients = Executors.newFixedThreadPool(THREADS);
+
+        // Act: each client alternates a one-share sell and a one-share buy at the same price
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> runs = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Long buyerAccount = buyerAccounts.get(t).getId();
+            Long sellerAccount = sellerAccounts.get(t).getId();
+            runs.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < PAIRS_PER_THREAD; i++) {
+                    matchingEngine.placeOrder(request(sellerAccount, "SELL"), SELLER);
+                    matchingEngine.placeOrder(request(buyerAccount, "BUY"), BUYER);
+                }
+            }, clients));
+        }
+        CompletableFuture.allOf(runs.toArray(new CompletableFuture[0])).get(5, TimeUnit.MINUTES);
+        clients.shutdown();
+        long filled = awaitFilled(accountIds, orders);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double perSecond = orders / seconds;
+        System.out.printf("Matching engine with settlement: %d orders in %.2f s, %.0f orders/s%n",
+                orders, seconds, perSecond);
+
+        // Assert
+        assertEquals(orders, filled);
+        Long bought = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(total_shares), 0) FROM stock_position WHERE stock_symbol = ? AND account_id IN ("
+                        + join(buyerAccounts) + ")", Long.class, SYMBOL);
+        assertEquals((long) THREADS * PAIRS_PER_THREAD, bought);
+        // A floor that catches a stalled pipeline; about 100 orders per second on H2, far below 100k
+        assertTrue(perSecond > 25, "orders per second: " + (long) perSecond);
+    }
+
+    private long awaitFilled(List<Long> accountIds, int expected) throws InterruptedException {
+        String sql = "SELECT COUNT(*) FROM stock_order WHERE status = 'FILLED' AND account_id IN ("
+                + accountIds.stream().map(String::valueOf).reduce((a, b) -> a + "," + b).orElseThrow() + ")";
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(5);
+        long filled = jdbcTemplate.queryForObject(sql, Long.class);
+        while (filled < expected && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            filled = jdbcTemplate.queryForObject(sql, Long.class);
+        }
+        return filled;
+    }
+
+    private String join(List<Account> accounts) {
+        return accounts.stream().map(account -> String.valueOf(account.getId())).reduce((a, b) -> a + "," + b).orElseThrow();
+    }
+
+    private User user(String email) {
+        return userRepository.findByEmail(email).orElseGet(() -> userRepository.save(User.builder()
+                .email(email)
+                .password("secret")
+                .firstName("Bench")
+                .lastName("Mark")
+                .role("USER")
+                .build()));
+    }
+
+    private Account account(User user, BigDecimal balance) {
+        return accountRepository.save(Account.builder()
+                .user(user)
+                .type(Account.AccountType.CHECKING)
+                .balance(balance)
+                .build());
+    }
+
+    private StockOrderRequest request(Long accountId, String side) {
+        StockOrderRequest request = new StockOrderRequest();
+        request.setAccountId(accountId);
+        request.setStockSymbol(SYMBOL);
+        request.setSide(side);
+        request.setOrderType("LIMIT");
+        request.setLimitPrice(new BigDecimal("100.00"));
+        request.setQuantity(1L);
+        return request;
+    }
+}
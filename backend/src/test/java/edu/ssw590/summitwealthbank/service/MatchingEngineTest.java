@@ -0,0 +1,205 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.dto.OrderBookResponse;
+import edu.ssw590.summitwealthbank.dto.StockOrderRequest;
+import edu.ssw590.summitwealthbank.model.StockOrder;
+import edu.ssw590.summitwealthbank.service.StockOrderService.Fill;
+import edu.ssw590.summitwealthbank.service.StockOrderService.Release;
+import edu.ssw590.summitwealthbank.service.StockOrderService.SettlementEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the engine with one shard against a mocked StockOrderService. Accounts 10 and 11 belong to
+ * user 1, account 20 to user 2.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MatchingEngine Unit Tests")
+class MatchingEngineTest {
+
+    private static final String EMAIL = "trader@example.com";
+    private static final Map<Long, Long> OWNERS = Map.of(10L, 1L, 11L, 1L, 20L, 2L);
+
+    @Mock
+    private StockOrderService orderService;
+
+    @Mock
+    private StockQuoteCache stockQuoteCache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MatchingEngine engine;
+    private final AtomicLong nextOrderId = new AtomicLong(1);
+    private final List<SettlementEvent> settled = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        engine = new MatchingEngine(orderService, stockQuoteCache, new OptimisticRetryExecutor(meterRegistry), meterRegistry);
+        ReflectionTestUtils.setField(engine, "enabled", true);
+        ReflectionTestUtils.setField(engine, "shardCount", 1);
+        ReflectionTestUtils.setField(engine, "queueCapacity", 64);
+        ReflectionTestUtils.setField(engine, "settleBatchSize", 100);
+        ReflectionTestUtils.setField(engine, "settleMaxAttempts", 2);
+        ReflectionTestUtils.setField(engine, "settleRetryMaxBackoffMs", 10L);
+
+        lenient().when(orderService.getAccountOwners(anyCollection())).thenAnswer(invocation -> {
+            Map<Long, Long> owners = new HashMap<>();
+            for (Long accountId : invocation.<Collection<Long>>getArgument(0)) {
+                owners.put(accountId, OWNERS.get(accountId));
+            }
+            return owners;
+        });
+        lenient().when(orderService.placeOrder(any(), eq(EMAIL))).thenAnswer(invocation -> {
+            StockOrderRequest request = invocation.getArgument(0);
+            return StockOrder.builder()
+                    .id(nextOrderId.getAndIncrement())
+                    .accountId(request.getAccountId())
+                    .stockSymbol(request.getStockSymbol())
+                    .side(StockOrder.Side.valueOf(request.getSide()))
+                    .orderType(StockOrder.OrderType.LIMIT)
+                    .limitPrice(request.getLimitPrice())
+                    .quantity(request.getQuantity())
+                    .filledQuantity(0L)
+                    .status(StockOrder.Status.OPEN)
+                    .build();
+        });
+
+        engine.start();
+        engine.restoreBooks();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        engine.stop();
+    }
+
+    @Test
+    @DisplayName("Should cancel a user's resting order instead of trading it against their own new order")
+    void testSelfTradeReleasesRestingOrder() throws InterruptedException {
+        // Arrange
+        recordSettlements();
+        when(stockQuoteCache.find("AAPL")).thenReturn(Optional.of(quote()));
+        StockOrder sell = engine.placeOrder(request(10L, "SELL", 5), EMAIL);
+
+        // Act: same user, different account
+        engine.placeOrder(request(11L, "BUY", 3), EMAIL);
+
+        // Assert
+        awaitSettled(1);
+        OrderBookResponse book = engine.getOrderBook("AAPL", 5);
+        assertEquals(List.of(new Release(sell.getId(), 5, false)), settled);
+        assertEquals(1.0, meterRegistry.counter("bank.trading.self.trades.prevented").count());
+        assertEquals(0.0, meterRegistry.counter("bank.trading.fills").count());
+        assertEquals(3L, book.getBids().get(0).getQuantity());
+        assertTrue(book.getAsks().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject order book requests for unlisted symbols and not create books for them")
+    void testOrderBookForUnknownSymbol() {
+        // Arrange
+        when(stockQuoteCache.find("AAPL")).thenReturn(Optional.of(quote()));
+
+        // Act
+        OrderBookResponse empty = engine.getOrderBook("aapl", 5);
+
+        // Assert
+        assertEquals("AAPL", empty.getStockSymbol());
+        assertTrue(empty.getBids().isEmpty());
+        assertTrue(empty.getAsks().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> engine.getOrderBook("NOPE", 5));
+    }
+
+    @Test
+    @DisplayName("Should split a failing batch and dead-letter only the event that keeps failing")
+    void testDeadLetter() throws InterruptedException {
+        // Arrange: the first settlement blocks until two more fills are waiting behind it
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            List<SettlementEvent> events = invocation.getArgument(0);
+            if (settled.isEmpty()) {
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            }
+            if (events.stream().anyMatch(event -> event instanceof Fill fill && fill.takerOrderId() == 3)) {
+                throw new IllegalStateException("Poison fill");
+            }
+            settled.addAll(events);
+            return null;
+        }).when(orderService).settle(anyList());
+
+        engine.placeOrder(request(10L, "SELL", 10), EMAIL);
+        engine.placeOrder(request(20L, "BUY", 1), EMAIL);
+        engine.placeOrder(request(20L, "BUY", 1), EMAIL);
+        engine.placeOrder(request(20L, "BUY", 1), EMAIL);
+        awaitFills(3);
+
+        // Act
+        release.countDown();
+
+        // Assert
+        awaitSettled(2);
+        verify(orderService, timeout(5_000)).recordDeadLetter(eq(new Fill("AAPL", 3, 1, 10_000, 1)), any());
+        assertEquals(List.of(new Fill("AAPL", 2, 1, 10_000, 1), new Fill("AAPL", 4, 1, 10_000, 1)), settled);
+        assertEquals(1.0, meterRegistry.counter("bank.trading.settle.dead.letters").count());
+    }
+
+    private void recordSettlements() {
+        doAnswer(invocation -> {
+            settled.addAll(invocation.<List<SettlementEvent>>getArgument(0));
+            return null;
+        }).when(orderService).settle(anyList());
+    }
+
+    private StockQuoteCache.Quote quote() {
+        return new StockQuoteCache.Quote("AAPL", "Apple Inc.", new BigDecimal("100.00"), 1_000, "Technology", 0);
+    }
+
+    private StockOrderRequest request(Long accountId, String side, long quantity) {
+        StockOrderRequest request = new StockOrderRequest();
+        request.setAccountId(accountId);
+        request.setStockSymbol("AAPL");
+        request.setSide(side);
+        request.setOrderType("LIMIT");
+        request.setLimitPrice(new BigDecimal("100.00"));
+        request.setQuantity(quantity);
+        return request;
+    }
+
+    private void awaitSettled(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (settled.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(settled.size() >= count, "settled events: " + settled);
+    }
+
+    private void awaitFills(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (meterRegistry.counter("bank.trading.fills").count() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, meterRegistry.counter("bank.trading.fills").count());
+    }
+}
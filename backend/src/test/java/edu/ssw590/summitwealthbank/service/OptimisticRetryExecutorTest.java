@@ -0,0 +1,153 @@
+package edu.ssw590.summitwealthbank.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OptimisticRetryExecutor Unit Tests")
+class OptimisticRetryExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OptimisticRetryExecutor retryExecutor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        retryExecutor = new OptimisticRetryExecutor(meterRegistry);
+        ReflectionTestUtils.setField(retryExecutor, "maxAttempts", 3);
+        ReflectionTestUtils.setField(retryExecutor, "baseBackoffMs", 1L);
+        ReflectionTestUtils.setField(retryExecutor, "maxBackoffMs", 4L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    @DisplayName("Should replay the action until it stops conflicting")
+    void testSucceedsAfterConflicts() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        String result = retryExecutor.execute("transfer", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("conflict");
+            }
+            return "done";
+        });
+
+        // Assert
+        assertEquals("done", result);
+        assertEquals(3, calls.get());
+        assertEquals(2.0, meterRegistry.counter("bank.concurrency.conflicts", "operation", "transfer").count());
+        assertEquals(0.0, meterRegistry.counter("bank.concurrency.retries.exhausted", "operation", "transfer").count());
+    }
+
+    @Test
+    @DisplayName("Should give up after max-attempts conflicts and rethrow the last one")
+    void testGivesUpAfterMaxAttempts() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+        OptimisticLockingFailureException conflict = new OptimisticLockingFailureException("conflict");
+
+        // Act
+        OptimisticLockingFailureException thrown = assertThrows(OptimisticLockingFailureException.class,
+                () -> retryExecutor.execute("transfer", () -> {
+                    calls.incrementAndGet();
+                    throw conflict;
+                }));
+
+        // Assert
+        assertSame(conflict, thrown);
+        assertEquals(3, calls.get());
+        assertEquals(3.0, meterRegistry.counter("bank.concurrency.conflicts", "operation", "transfer").count());
+        assertEquals(1.0, meterRegistry.counter("bank.concurrency.retries.exhausted", "operation", "transfer").count());
+    }
+
+    @Test
+    @DisplayName("Should not retry other exceptions")
+    void testOtherExceptionsNotRetried() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> retryExecutor.execute("transfer", () -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("Insufficient funds in source account");
+        }));
+        assertEquals(1, calls.get());
+        assertEquals(0.0, meterRegistry.counter("bank.concurrency.conflicts", "operation", "transfer").count());
+    }
+
+    @Test
+    @DisplayName("Should run once without retrying inside an active transaction")
+    void testNoRetryInsideTransaction() {
+        // Arrange
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class, () -> retryExecutor.execute("transfer", () -> {
+            calls.incrementAndGet();
+            throw new OptimisticLockingFailureException("conflict");
+        }));
+        assertEquals(1, calls.get());
+        assertEquals(0.0, meterRegistry.counter("bank.concurrency.conflicts", "operation", "transfer").count());
+    }
+
+    @Test
+    @DisplayName("Should draw backoff up to a cap that doubles per attempt and stops at max-backoff-ms")
+    void testBackoffBounds() {
+        // Arrange
+        ReflectionTestUtils.setField(retryExecutor, "baseBackoffMs", 5L);
+        ReflectionTestUtils.setField(retryExecutor, "maxBackoffMs", 200L);
+        long[] maxSeen = new long[8];
+
+        // Act
+        for (int i = 0; i < 5000; i++) {
+            for (int attempt = 1; attempt <= 8; attempt++) {
+                long delay = retryExecutor.backoffMillis(attempt);
+                assertTrue(delay >= 0);
+                maxSeen[attempt - 1] = Math.max(maxSeen[attempt - 1], delay);
+            }
+        }
+
+        // Assert: caps are 5, 10, 20, 40, 80, 160, 200, 200
+        long[] caps = {5, 10, 20, 40, 80, 160, 200, 200};
+        for (int i = 0; i < caps.length; i++) {
+            assertTrue(maxSeen[i] <= caps[i], "attempt " + (i + 1) + " exceeded its cap");
+            assertTrue(maxSeen[i] >= caps[i] / 2, "attempt " + (i + 1) + " never came near its cap");
+        }
+    }
+
+    @Test
+    @DisplayName("Should stop retrying when interrupted during backoff")
+    void testInterruptedDuringBackoff() {
+        // Arrange
+        ReflectionTestUtils.setField(retryExecutor, "baseBackoffMs", 50L);
+        ReflectionTestUtils.setField(retryExecutor, "maxBackoffMs", 50L);
+        // Enough attempts that some backoff is non-zero and the sleep notices the interrupt
+        ReflectionTestUtils.setField(retryExecutor, "maxAttempts", 100);
+        Thread.currentThread().interrupt();
+
+        // Act & Assert
+        try {
+            assertThrows(IllegalStateException.class, () -> retryExecutor.execute("transfer", () -> {
+                throw new OptimisticLockingFailureException("conflict");
+            }));
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
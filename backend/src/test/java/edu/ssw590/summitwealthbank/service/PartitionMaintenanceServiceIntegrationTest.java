@@ -0,0 +1,98 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.model.StockTransaction;
+import edu.ssw590.summitwealthbank.model.Transaction;
+import edu.ssw590.summitwealthbank.repository.StockTransactionRepository;
+import edu.ssw590.summitwealthbank.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * On H2 the tables stay unpartitioned, so maintenance only has to keep transaction references
+ * unique now that the entities no longer declare them unique.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+@DisplayName("PartitionMaintenanceService Integration Tests")
+class PartitionMaintenanceServiceIntegrationTest {
+
+    @Autowired
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private StockTransactionRepository stockTransactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        stockTransactionRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should reject a second transfer or trade with the same reference")
+    void testReferencesStayUnique() {
+        // Arrange
+        transactionRepository.saveAndFlush(transfer("TXN-DUPLICATE"));
+        stockTransactionRepository.saveAndFlush(trade("STK-DUPLICATE"));
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class,
+                () -> transactionRepository.saveAndFlush(transfer("TXN-DUPLICATE")));
+        assertThrows(DataIntegrityViolationException.class,
+                () -> stockTransactionRepository.saveAndFlush(trade("STK-DUPLICATE")));
+    }
+
+    @Test
+    @DisplayName("Should create the unique index once however often maintenance runs")
+    void testMaintenanceIsIdempotent() {
+        // Act
+        partitionMaintenanceService.maintain();
+        partitionMaintenanceService.maintain();
+
+        // Assert
+        Integer indexes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = 'TRANSACTION' "
+                        + "AND INDEX_NAME = 'TRANSACTION_REFERENCE_UK'", Integer.class);
+        assertEquals(1, indexes);
+        assertTrue(partitionMaintenanceService.archiveCutoff().isEmpty());
+    }
+
+    private Transaction transfer(String reference) {
+        return Transaction.builder()
+                .transactionReference(reference)
+                .fromAccountId(1L)
+                .toAccountId(2L)
+                .amount(BigDecimal.ONE)
+                .description(reference)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private StockTransaction trade(String reference) {
+        return StockTransaction.builder()
+                .transactionReference(reference)
+                .accountId(1L)
+                .stockSymbol("AAPL")
+                .type(StockTransaction.TransactionType.BUY)
+                .quantity(1L)
+                .pricePerShare(new BigDecimal("150.00"))
+                .build();
+    }
+}
@@ -0,0 +1,155 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.repository.StockTransactionRepository;
+import edu.ssw590.summitwealthbank.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Partitioning only runs on PostgreSQL, so these tests check the statements maintenance issues
+ * against a JdbcTemplate that records them and answers the catalog queries as a database would
+ * whose tables are already partitioned, with a default partition and reference registry.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PartitionMaintenanceService Unit Tests")
+class PartitionMaintenanceServiceTest {
+
+    private static final YearMonth NOW = YearMonth.now();
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private StockTransactionRepository stockTransactionRepository;
+
+    @Mock
+    private TransactionArchive transactionArchive;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RecordingJdbcTemplate jdbcTemplate;
+    private PartitionMaintenanceService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new RecordingJdbcTemplate();
+        service = new PartitionMaintenanceService(jdbcTemplate, transactionRepository, stockTransactionRepository,
+                transactionArchive, entityManager, transactionManager);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "monthsAhead", 1);
+        ReflectionTestUtils.setField(service, "archiveAfterMonths", 0);
+    }
+
+    @Test
+    @DisplayName("Should create upcoming partitions directly when the default partition holds none of their rows")
+    void testCreatePartitions() {
+        // Act
+        service.maintain();
+
+        // Assert
+        assertEquals(List.of(
+                create("transaction", NOW),
+                create("transaction", NOW.plusMonths(1)),
+                create("stock_transaction", NOW),
+                create("stock_transaction", NOW.plusMonths(1))), jdbcTemplate.statements);
+    }
+
+    @Test
+    @DisplayName("Should move a month's rows out of the default partition before creating its partition")
+    void testMoveRowsOutOfDefault() {
+        // Arrange: transfers of this month went to the default partition
+        jdbcTemplate.defaultRowsIn = NOW;
+
+        // Act
+        service.maintain();
+
+        // Assert
+        String inMonth = " WHERE \"timestamp\" >= ? AND \"timestamp\" < ?";
+        String monthArgs = " [" + NOW.atDay(1).atStartOfDay() + ", " + NOW.plusMonths(1).atDay(1).atStartOfDay() + "]";
+        assertEquals(List.of(
+                "ALTER TABLE transaction DETACH PARTITION transaction_default",
+                "CREATE TABLE " + partition("transaction", NOW) + " PARTITION OF transaction" + bounds(NOW),
+                "DELETE FROM transaction_reference_registry WHERE transaction_reference IN "
+                        + "(SELECT transaction_reference FROM transaction_default" + inMonth + ")" + monthArgs,
+                "INSERT INTO transaction SELECT * FROM transaction_default" + inMonth + monthArgs,
+                "DELETE FROM transaction_default" + inMonth + monthArgs,
+                "ALTER TABLE transaction ATTACH PARTITION transaction_default DEFAULT",
+                create("transaction", NOW.plusMonths(1)),
+                create("stock_transaction", NOW),
+                create("stock_transaction", NOW.plusMonths(1))), jdbcTemplate.statements);
+    }
+
+    private String create(String table, YearMonth month) {
+        return "CREATE TABLE IF NOT EXISTS " + partition(table, month) + " PARTITION OF " + table + bounds(month);
+    }
+
+    private String partition(String table, YearMonth month) {
+        return String.format("%s_p%04d%02d", table, month.getYear(), month.getMonthValue());
+    }
+
+    private String bounds(YearMonth month) {
+        return " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+        final List<String> statements = new ArrayList<>();
+        // Month whose transfers sit in transaction_default, if any
+        YearMonth defaultRowsIn;
+
+        @Override
+        public void execute(String sql) {
+            statements.add(sql);
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            statements.add(sql + " " + List.of(args));
+            return 1;
+        }
+
+        // Only isPostgres asks for a connection
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(ConnectionCallback<T> action) {
+            return (T) Boolean.TRUE;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+            if (sql.contains("IS NOT NULL AND NOT EXISTS")) {
+                // Already partitioned, so there is nothing to convert
+                return (T) Boolean.FALSE;
+            }
+            if (sql.startsWith("SELECT EXISTS (SELECT 1 FROM transaction_default ")) {
+                return (T) Boolean.valueOf(defaultRowsIn != null && defaultRowsIn.atDay(1).atStartOfDay().equals(args[0]));
+            }
+            if (sql.startsWith("SELECT EXISTS (SELECT 1 FROM stock_transaction_default ")) {
+                return (T) Boolean.FALSE;
+            }
+            if (sql.contains("pg_inherits") || sql.contains("pg_partitioned_table") || sql.contains("pg_trigger")) {
+                return (T) Boolean.TRUE;
+            }
+            throw new IllegalStateException("Unexpected query: " + sql);
+        }
+    }
+}
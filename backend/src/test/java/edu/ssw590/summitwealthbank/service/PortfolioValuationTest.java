@@ -0,0 +1,65 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.dto.StockPortfolioResponse;
+import edu.ssw590.summitwealthbank.dto.ValuedPosition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PortfolioValuation Unit Tests")
+class PortfolioValuationTest {
+
+    @Test
+    @DisplayName("Should value each position and total the portfolio in one pass")
+    void testValuation() {
+        // Arrange
+        List<ValuedPosition> rows = List.of(
+                new ValuedPosition(1L, "AAPL", "Apple Inc.", 10L, new BigDecimal("140.00"), new BigDecimal("150.00")),
+                new ValuedPosition(2L, "MSFT", "Microsoft", 3L, new BigDecimal("410.50"), new BigDecimal("400.25")));
+
+        // Act
+        PortfolioValuation valuation = PortfolioValuation.of(rows);
+
+        // Assert
+        StockPortfolioResponse apple = valuation.getPositions().get(0);
+        assertEquals(new BigDecimal("1500.00"), apple.getMarketValue());
+        assertEquals(new BigDecimal("100.00"), apple.getProfitLoss());
+        assertEquals(new BigDecimal("7.1400"), apple.getProfitLossPercent()); // 100 / 1400
+
+        StockPortfolioResponse microsoft = valuation.getPositions().get(1);
+        assertEquals(new BigDecimal("1200.75"), microsoft.getMarketValue());
+        assertEquals(new BigDecimal("-30.75"), microsoft.getProfitLoss());
+
+        assertEquals(new BigDecimal("2700.75"), valuation.getMarketValue());
+        assertEquals(new BigDecimal("2631.50"), valuation.getCostBasis());
+        assertEquals(new BigDecimal("69.25"), valuation.getProfitLoss());
+    }
+
+    @Test
+    @DisplayName("Should value an empty portfolio at zero")
+    void testEmpty() {
+        // Act
+        PortfolioValuation valuation = PortfolioValuation.of(List.of());
+
+        // Assert
+        assertTrue(valuation.getPositions().isEmpty());
+        assertEquals(0, valuation.getMarketValue().signum());
+        assertEquals(0, valuation.getProfitLoss().signum());
+    }
+
+    @Test
+    @DisplayName("Should report zero percent when the cost basis is zero")
+    void testZeroCostBasis() {
+        // Act
+        PortfolioValuation valuation = PortfolioValuation.of(List.of(
+                new ValuedPosition(1L, "AAPL", "Apple Inc.", 5L, BigDecimal.ZERO, new BigDecimal("150.00"))));
+
+        // Assert
+        assertEquals(BigDecimal.ZERO, valuation.getPositions().get(0).getProfitLossPercent());
+        assertEquals(new BigDecimal("750.00"), valuation.getProfitLoss());
+    }
+}
@@ -0,0 +1,84 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.dto.CandleResponse;
+import edu.ssw590.summitwealthbank.event.StockPriceChangedEvent;
+import edu.ssw590.summitwealthbank.model.PriceTick;
+import edu.ssw590.summitwealthbank.repository.PriceCandleBatchRepository;
+import edu.ssw590.summitwealthbank.repository.PriceCandleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PriceCandleService Unit Tests")
+class PriceCandleServiceTest {
+
+    @Mock
+    private PriceCandleRepository priceCandleRepository;
+
+    @Mock
+    private PriceCandleBatchRepository priceCandleBatchRepository;
+
+    @Mock
+    private StockQuoteCache stockQuoteCache;
+
+    private PriceCandleService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PriceCandleService(priceCandleRepository, priceCandleBatchRepository, stockQuoteCache,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "keepInMemory", 720);
+        ReflectionTestUtils.setField(service, "maxCount", 1000);
+        when(stockQuoteCache.find("AAPL")).thenReturn(Optional.of(
+                new StockQuoteCache.Quote("AAPL", "Apple Inc.", new BigDecimal("100.00"), 1_000, "Technology", 0)));
+    }
+
+    @Test
+    @DisplayName("Should not record a price again when its event says it was recorded as a tick")
+    void testTickEventNotRecordedTwice() {
+        // Arrange
+        service.recordTicks(List.of(PriceTick.builder()
+                .symbol("AAPL")
+                .price(new BigDecimal("100.00"))
+                .tickTime(LocalDateTime.now().minusSeconds(1))
+                .build()));
+
+        // Act: a different price, so recording it would show in the candle
+        service.onPriceChanged(new StockPriceChangedEvent("AAPL", new BigDecimal("150.00"), true));
+
+        // Assert
+        CandleResponse last = lastMinute();
+        assertEquals(0, new BigDecimal("100.00").compareTo(last.getClose()));
+        assertEquals(0, new BigDecimal("100.00").compareTo(last.getHigh()));
+    }
+
+    @Test
+    @DisplayName("Should record price changes that did not come from ticks")
+    void testOtherPriceChangesRecorded() {
+        // Act
+        service.onPriceChanged(new StockPriceChangedEvent("AAPL", new BigDecimal("102.00")));
+
+        // Assert
+        assertEquals(0, new BigDecimal("102.00").compareTo(lastMinute().getClose()));
+    }
+
+    private CandleResponse lastMinute() {
+        List<CandleResponse> candles = service.getCandles("AAPL", "1m", null, null, 10);
+        assertFalse(candles.isEmpty());
+        return candles.get(candles.size() - 1);
+    }
+}
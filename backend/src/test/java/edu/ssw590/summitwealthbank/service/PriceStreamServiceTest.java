@@ -0,0 +1,197 @@
+package edu.ssw590.summitwealthbank.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ssw590.summitwealthbank.controller.StockController;
+import edu.ssw590.summitwealthbank.event.StockPriceChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the service with one send thread, a 100 ms write timeout and room for two subscribers.
+ * Emitters are replaced by RecordingEmitter, which keeps each event as text and can hold a
+ * "prices" write open to play a client that stopped reading.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PriceStreamService Unit Tests")
+class PriceStreamServiceTest {
+
+    @Mock
+    private StockQuoteCache stockQuoteCache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PriceStreamService service;
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new PriceStreamService(stockQuoteCache, new ObjectMapper(), meterRegistry) {
+            @Override
+            SseEmitter newEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        ReflectionTestUtils.setField(service, "maxSubscribers", 2);
+        ReflectionTestUtils.setField(service, "timeoutMs", 60_000L);
+        ReflectionTestUtils.setField(service, "heartbeatMs", 60_000L);
+        ReflectionTestUtils.setField(service, "sendThreads", 1);
+        ReflectionTestUtils.setField(service, "writeTimeoutMs", 100L);
+        service.init();
+
+        lenient().when(stockQuoteCache.all()).thenReturn(List.of(
+                new StockQuoteCache.Quote("AAPL", "Apple Inc.", new BigDecimal("100.00"), 1_000, "Technology", 0),
+                new StockQuoteCache.Quote("MSFT", "Microsoft Corp.", new BigDecimal("200.00"), 1_000, "Technology", 0)));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should send a snapshot, then every change since as one prices event with the latest price per symbol")
+    void testSnapshotThenCoalescedPrices() throws InterruptedException {
+        // Arrange
+        service.subscribe();
+        RecordingEmitter emitter = emitters.get(0);
+
+        // Act: three changes between flushes
+        service.onPriceChanged(new StockPriceChangedEvent("AAPL", new BigDecimal("101.00")));
+        service.onPriceChanged(new StockPriceChangedEvent("AAPL", new BigDecimal("102.00")));
+        service.onPriceChanged(new StockPriceChangedEvent("MSFT", new BigDecimal("201.00")));
+        service.flush();
+        await(() -> emitter.events.size() == 2);
+        service.flush();
+        Thread.sleep(50);
+
+        // Assert: nothing new to send on the second flush
+        assertEquals(2, emitter.events.size());
+        String snapshot = emitter.events.get(0);
+        assertTrue(snapshot.startsWith("event:snapshot"), snapshot);
+        assertTrue(snapshot.contains("symbol=AAPL, price=100.00") && snapshot.contains("symbol=MSFT, price=200.00"),
+                snapshot);
+        String prices = emitter.events.get(1);
+        assertTrue(prices.startsWith("event:prices"), prices);
+        assertTrue(prices.contains("{\"symbol\":\"AAPL\",\"price\":102.00}"), prices);
+        assertTrue(prices.contains("{\"symbol\":\"MSFT\",\"price\":201.00}"), prices);
+        assertFalse(prices.contains("101.00"), prices);
+    }
+
+    @Test
+    @DisplayName("Should drop a subscriber whose write is stuck, keep others flowing and shrink the pool once it returns")
+    void testStalledSubscriberDropped() throws InterruptedException {
+        // Arrange: the first subscriber stops reading, the second keeps up
+        service.subscribe();
+        service.subscribe();
+        RecordingEmitter stalled = emitters.get(0);
+        RecordingEmitter healthy = emitters.get(1);
+        CountDownLatch release = new CountDownLatch(1);
+        stalled.block = release;
+        service.onPriceChanged(new StockPriceChangedEvent("AAPL", new BigDecimal("101.00")));
+        service.flush();
+        assertTrue(stalled.blocked.await(5, TimeUnit.SECONDS));
+
+        // Act: the next flush after the write timeout
+        Thread.sleep(150);
+        service.flush();
+
+        // Assert: counted, removed and given a thread in its place
+        assertEquals(1.0, meterRegistry.counter("bank.stock.stream.dropped").count());
+        assertEquals(1.0, meterRegistry.get("bank.stock.stream.subscribers").gauge().value());
+        assertEquals(2, senders().getMaximumPoolSize());
+        await(() -> healthy.events.size() == 2);
+        assertTrue(healthy.events.get(1).contains("101.00"));
+        assertFalse(stalled.completed);
+
+        // Act: the stuck write finally returns
+        release.countDown();
+
+        // Assert: its stream is closed and the extra thread is given back
+        await(() -> stalled.completed);
+        await(() -> senders().getMaximumPoolSize() == 1);
+        assertEquals(1, senders().getCorePoolSize());
+        assertFalse(healthy.completed);
+    }
+
+    @Test
+    @DisplayName("Should reject subscribers past max-subscribers, which the controller answers with 503")
+    void testMaxSubscribers() {
+        // Arrange
+        service.subscribe();
+        service.subscribe();
+        StockController controller = new StockController(null, null, null, null, null, null, service, null);
+
+        // Act & Assert
+        assertThrows(RejectedExecutionException.class, () -> service.subscribe());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, controller.streamPrices().getStatusCode());
+        assertEquals(2.0, meterRegistry.counter("bank.stock.stream.rejected").count());
+        assertEquals(2, emitters.size());
+    }
+
+    private ThreadPoolExecutor senders() {
+        return (ThreadPoolExecutor) ReflectionTestUtils.getField(service, "senders");
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch blocked = new CountDownLatch(1);
+        volatile CountDownLatch block;
+        volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            String event = builder.build().stream()
+                    .map(part -> part.getData().toString())
+                    .collect(Collectors.joining());
+            CountDownLatch latch = block;
+            if (latch != null && event.startsWith("event:prices")) {
+                blocked.countDown();
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            events.add(event);
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.model.Account;
+import edu.ssw590.summitwealthbank.model.ScheduledTransfer;
+import edu.ssw590.summitwealthbank.model.User;
+import edu.ssw590.summitwealthbank.repository.AccountRepository;
+import edu.ssw590.summitwealthbank.repository.ScheduledTransferRepository;
+import edu.ssw590.summitwealthbank.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs schedules against H2 with real transfers. Each test builds a fresh ScheduledTransferService,
+ * which is what a restart looks like to the schedules already in the table; the application's own
+ * instance is disabled so it does not pick them up too.
+ */
+@SpringBootTest(properties = "app.scheduled-transfers.enabled=false")
+@ActiveProfiles("h2")
+@DisplayName("ScheduledTransferService Integration Tests")
+class ScheduledTransferServiceIntegrationTest {
+
+    private static final String EMAIL = "scheduled@example.com";
+
+    @Autowired
+    private ScheduledTransferRepository scheduledTransferRepository;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private OptimisticRetryExecutor retryExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ScheduledTransferService service;
+    private Account from;
+    private Account to;
+
+    @BeforeEach
+    void setUp() {
+        scheduledTransferRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = userRepository.save(User.builder()
+                .email(EMAIL)
+                .password("secret")
+                .firstName("Sched")
+                .lastName("Uled")
+                .role("USER")
+                .build());
+        from = accountRepository.save(Account.builder()
+                .user(user)
+                .type(Account.AccountType.CHECKING)
+                .balance(new BigDecimal("500.00"))
+                .build());
+        to = accountRepository.save(Account.builder()
+                .user(user)
+                .type(Account.AccountType.SAVINGS)
+                .balance(BigDecimal.ZERO)
+                .build());
+
+        meterRegistry = new SimpleMeterRegistry();
+        service = new ScheduledTransferService(scheduledTransferRepository, transferService, retryExecutor,
+                transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "windowMinutes", 60L);
+        ReflectionTestUtils.setField(service, "batchSize", 200);
+        service.init();
+    }
+
+    @Test
+    @DisplayName("Should catch up runs missed while down, one occurrence per tick, until the schedule is current")
+    void testCatchUpAfterRestart() throws InterruptedException {
+        // Arrange: a daily schedule whose last three runs fell while the application was down
+        LocalDateTime startAt = now().minusDays(3).plusHours(2);
+        ScheduledTransfer schedule = scheduledTransferRepository.save(schedule(ScheduledTransfer.Frequency.DAILY, "25.00", startAt));
+
+        // Act
+        service.loadWindow();
+        tickUntil(() -> find(schedule.getId()).getRunCount() == 3);
+
+        // Assert: the next run is two hours out, past the window, so there is no fourth
+        ScheduledTransfer stored = find(schedule.getId());
+        assertEquals(startAt.plusDays(3), stored.getNextRunAt());
+        assertEquals(ScheduledTransfer.Status.ACTIVE, stored.getStatus());
+        assertEquals("SUCCEEDED", stored.getLastRunStatus());
+        assertNotNull(stored.getLastTransactionReference());
+        assertAmount("425.00", accountRepository.findById(from.getId()).orElseThrow().getBalance());
+        assertAmount("75.00", accountRepository.findById(to.getId()).orElseThrow().getBalance());
+        assertEquals(3.0, meterRegistry.counter("bank.transfer.scheduled.runs", "status", "SUCCEEDED").count());
+        assertTrue(loaded().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep a monthly schedule started on the 31st on the 31st after passing a short month")
+    void testMonthEndCountedFromStart() throws InterruptedException {
+        // Arrange: started on a past 31st, with a shorter month before the next future 31st
+        LocalDateTime target = now().withDayOfMonth(1).plusMonths(1).minusDays(1).withHour(9).withMinute(0).withSecond(0);
+        while (target.getDayOfMonth() != 31 || !target.isAfter(now().plusHours(2))) {
+            target = target.withDayOfMonth(1).plusMonths(2).minusDays(1);
+        }
+        int months = 2;
+        LocalDateTime startAt = target.minusMonths(months);
+        while (startAt.getDayOfMonth() != 31 || startAt.isAfter(now().minusHours(1))) {
+            startAt = target.minusMonths(++months);
+        }
+        ScheduledTransfer schedule = scheduledTransferRepository.save(schedule(ScheduledTransfer.Frequency.MONTHLY, "10.00", startAt));
+        int runs = months;
+
+        // Act
+        service.loadWindow();
+        tickUntil(() -> find(schedule.getId()).getRunCount() == runs);
+
+        // Assert: not pulled back to the 30th or 28th by the short month on the way
+        ScheduledTransfer stored = find(schedule.getId());
+        assertEquals(target, stored.getNextRunAt());
+        assertEquals(31, stored.getNextRunAt().getDayOfMonth());
+        assertAmount(new BigDecimal("500.00").subtract(new BigDecimal("10.00").multiply(BigDecimal.valueOf(runs))).toPlainString(),
+                accountRepository.findById(from.getId()).orElseThrow().getBalance());
+    }
+
+    @Test
+    @DisplayName("Should complete a one-off schedule after its run")
+    void testOnceCompletes() throws InterruptedException {
+        // Arrange
+        ScheduledTransfer schedule = scheduledTransferRepository.save(
+                schedule(ScheduledTransfer.Frequency.ONCE, "40.00", now().minusMinutes(1)));
+
+        // Act
+        service.loadWindow();
+        tickUntil(() -> find(schedule.getId()).getStatus() == ScheduledTransfer.Status.COMPLETED);
+
+        // Assert
+        ScheduledTransfer stored = find(schedule.getId());
+        assertNull(stored.getNextRunAt());
+        assertEquals(1, stored.getRunCount());
+        assertEquals("SUCCEEDED", stored.getLastRunStatus());
+        assertAmount("460.00", accountRepository.findById(from.getId()).orElseThrow().getBalance());
+        assertAmount("40.00", accountRepository.findById(to.getId()).orElseThrow().getBalance());
+    }
+
+    @Test
+    @DisplayName("Should skip a schedule cancelled after it was loaded when its wheel entry fires")
+    void testCancelledSkipped() throws InterruptedException {
+        // Arrange: loaded into the wheel, then cancelled
+        ScheduledTransfer schedule = scheduledTransferRepository.save(
+                schedule(ScheduledTransfer.Frequency.DAILY, "40.00", now().minusMinutes(1)));
+        service.loadWindow();
+        assertEquals(Set.of(schedule.getId()), loaded());
+        service.cancel(schedule.getId(), EMAIL);
+
+        // Act
+        tickUntil(() -> loaded().isEmpty());
+
+        // Assert
+        ScheduledTransfer stored = find(schedule.getId());
+        assertEquals(ScheduledTransfer.Status.CANCELLED, stored.getStatus());
+        assertNull(stored.getNextRunAt());
+        assertEquals(0, stored.getRunCount());
+        assertAmount("500.00", accountRepository.findById(from.getId()).orElseThrow().getBalance());
+        assertTrue(meterRegistry.find("bank.transfer.scheduled.runs").counters().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should record a failed run and still move the schedule to its next occurrence")
+    void testFailedRunAdvances() throws InterruptedException {
+        // Arrange: more than the source account holds
+        LocalDateTime startAt = now().minusMinutes(1);
+        ScheduledTransfer schedule = scheduledTransferRepository.save(schedule(ScheduledTransfer.Frequency.WEEKLY, "900.00", startAt));
+
+        // Act
+        service.loadWindow();
+        tickUntil(() -> find(schedule.getId()).getRunCount() == 1);
+
+        // Assert
+        ScheduledTransfer stored = find(schedule.getId());
+        assertEquals("FAILED", stored.getLastRunStatus());
+        assertEquals("Insufficient funds in source account", stored.getLastRunMessage());
+        assertNull(stored.getLastTransactionReference());
+        assertEquals(startAt.plusWeeks(1), stored.getNextRunAt());
+        assertEquals(ScheduledTransfer.Status.ACTIVE, stored.getStatus());
+        assertAmount("500.00", accountRepository.findById(from.getId()).orElseThrow().getBalance());
+        assertEquals(1.0, meterRegistry.counter("bank.transfer.scheduled.runs", "status", "FAILED").count());
+    }
+
+    private ScheduledTransfer schedule(ScheduledTransfer.Frequency frequency, String amount, LocalDateTime startAt) {
+        return ScheduledTransfer.builder()
+                .userEmail(EMAIL)
+                .fromAccountId(from.getId())
+                .toAccountId(to.getId())
+                .amount(new BigDecimal(amount))
+                .description("Scheduled " + frequency.name().toLowerCase())
+                .frequency(frequency)
+                .startAt(startAt)
+                .nextRunAt(startAt)
+                .status(ScheduledTransfer.Status.ACTIVE)
+                .build();
+    }
+
+    private void tickUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            service.tick();
+            Thread.sleep(100);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Long> loaded() {
+        return (Set<Long>) ReflectionTestUtils.getField(service, "loaded");
+    }
+
+    private ScheduledTransfer find(Long id) {
+        return scheduledTransferRepository.findById(id).orElseThrow();
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,215 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.dto.StatementRunStatus;
+import edu.ssw590.summitwealthbank.dto.StatementRunSummary;
+import edu.ssw590.summitwealthbank.model.Account;
+import edu.ssw590.summitwealthbank.model.Transaction;
+import edu.ssw590.summitwealthbank.model.User;
+import edu.ssw590.summitwealthbank.repository.AccountBalanceSnapshotRepository;
+import edu.ssw590.summitwealthbank.repository.AccountRepository;
+import edu.ssw590.summitwealthbank.repository.LedgerPostingRepository;
+import edu.ssw590.summitwealthbank.repository.TransactionRepository;
+import edu.ssw590.summitwealthbank.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Generates March 2026 statements on H2 for five accounts in chunks of two. A snapshot run taken
+ * as of 20 February and a February transfer recorded after it make the opening balances come from
+ * both a snapshot and postings the snapshot did not count.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+@DisplayName("StatementService Integration Tests")
+class StatementServiceIntegrationTest {
+
+    private static final YearMonth PERIOD = YearMonth.of(2026, 3);
+
+    @Autowired
+    private StatementService statementService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerPostingRepository ledgerPostingRepository;
+
+    @Autowired
+    private AccountBalanceSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @TempDir
+    Path outputDir;
+
+    private final List<Account> accounts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        snapshotRepository.deleteAllInBatch();
+        ledgerPostingRepository.deleteAllInBatch();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+        accounts.clear();
+
+        StatementService statements = AopTestUtils.getTargetObject(statementService);
+        ReflectionTestUtils.setField(statements, "outputDir", outputDir.toString());
+        ReflectionTestUtils.setField(statements, "chunkSize", 2);
+
+        User user = userRepository.save(User.builder()
+                .email("statements@example.com")
+                .password("secret")
+                .firstName("State")
+                .lastName("Ment")
+                .role("USER")
+                .build());
+        for (int i = 0; i < 5; i++) {
+            accounts.add(accountRepository.save(Account.builder()
+                    .user(user)
+                    .type(Account.AccountType.CHECKING)
+                    .balance(BigDecimal.ZERO)
+                    .build()));
+        }
+
+        transfer("TXN-FEB", 0, 1, "100.00", LocalDateTime.of(2026, 2, 15, 10, 0));
+        snapshotAsOf(LocalDateTime.of(2026, 2, 20, 0, 0));
+        transfer("TXN-FEB-LATE", 1, 2, "10.00", LocalDateTime.of(2026, 2, 18, 10, 0));
+        transfer("TXN-MAR-1", 1, 2, "40.00", LocalDateTime.of(2026, 3, 5, 10, 0));
+        transfer("TXN-MAR-2", 3, 0, "25.00", LocalDateTime.of(2026, 3, 20, 10, 0));
+        transfer("TXN-APR", 2, 4, "5.00", LocalDateTime.of(2026, 4, 2, 10, 0));
+    }
+
+    @Test
+    @DisplayName("Should write one statement per account across chunks with ledger opening and closing balances")
+    void testChunkedStatements() throws IOException {
+        // Act
+        StatementRunSummary summary = statementService.generate(PERIOD);
+
+        // Assert
+        assertEquals(3, summary.getChunksProcessed());
+        assertEquals(0, summary.getChunksSkipped());
+        assertEquals(5, summary.getStatements());
+        assertStatement(0, "-100.00", "-75.00");
+        assertStatement(1, "90.00", "50.00");
+        assertStatement(2, "10.00", "50.00");
+        assertStatement(3, "0", "-25.00");
+        assertStatement(4, "0", "0");
+        assertTrue(Files.readString(statementFile(1)).contains("TXN-MAR-1,TRANSFER_OUT"));
+        assertFalse(Files.readString(statementFile(2)).contains("TXN-APR"));
+    }
+
+    @Test
+    @DisplayName("Should skip checkpointed chunks and finish the rest on a rerun")
+    void testCheckpointRestart() throws IOException {
+        // Arrange: a run that stopped after its first chunk
+        Path directory = outputDir.resolve(PERIOD.toString());
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("checkpoint"), accounts.get(0).getId() + "\n", StandardCharsets.UTF_8);
+
+        // Act
+        StatementRunSummary resumed = statementService.generate(PERIOD);
+        StatementRunSummary repeated = statementService.generate(PERIOD);
+
+        // Assert
+        assertEquals(2, resumed.getChunksProcessed());
+        assertEquals(1, resumed.getChunksSkipped());
+        assertEquals(3, resumed.getStatements());
+        assertFalse(Files.exists(statementFile(0)));
+        assertFalse(Files.exists(statementFile(1)));
+        assertStatement(2, "10.00", "50.00");
+        assertStatement(4, "0", "0");
+        assertEquals(0, repeated.getChunksProcessed());
+        assertEquals(3, repeated.getChunksSkipped());
+    }
+
+    @Test
+    @DisplayName("Should run in the background when started and report the outcome")
+    void testStartInBackground() throws InterruptedException {
+        // Act
+        StatementRunStatus started = statementService.start(PERIOD);
+        StatementRunStatus finished = started;
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while ("RUNNING".equals(finished.getStatus()) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            finished = statementService.getLastRun().orElseThrow();
+        }
+
+        // Assert
+        assertEquals("RUNNING", started.getStatus());
+        assertEquals("COMPLETED", finished.getStatus());
+        assertEquals(PERIOD.toString(), finished.getPeriod());
+        assertEquals(5, finished.getSummary().getStatements());
+        assertNotNull(finished.getFinishedAt());
+    }
+
+    private void transfer(String reference, int from, int to, String amount, LocalDateTime at) {
+        Transaction transaction = transactionRepository.save(Transaction.builder()
+                .transactionReference(reference)
+                .fromAccountId(accounts.get(from).getId())
+                .toAccountId(accounts.get(to).getId())
+                .amount(new BigDecimal(amount))
+                .description(reference)
+                .timestamp(at)
+                .build());
+        ledgerService.recordTransfers(List.of(transaction));
+    }
+
+    private void snapshotAsOf(LocalDateTime cutoff) {
+        LedgerService ledger = AopTestUtils.getTargetObject(ledgerService);
+        ReflectionTestUtils.setField(ledger, "snapshotLagSeconds", Duration.between(cutoff, LocalDateTime.now()).getSeconds());
+        try {
+            ledgerService.snapshotBalances();
+        } finally {
+            ReflectionTestUtils.setField(ledger, "snapshotLagSeconds", 60L);
+        }
+    }
+
+    private Path statementFile(int account) {
+        return outputDir.resolve(PERIOD.toString()).resolve("statement-" + accounts.get(account).getId() + ".csv");
+    }
+
+    private void assertStatement(int account, String opening, String closing) throws IOException {
+        Map<String, String> header = new HashMap<>();
+        for (String line : Files.readAllLines(statementFile(account), StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                break;
+            }
+            String[] parts = line.split(",", 2);
+            header.put(parts[0], parts[1]);
+        }
+        assertEquals(0, new BigDecimal(opening).compareTo(new BigDecimal(header.get("opening_balance"))),
+                "opening balance of account " + account);
+        assertEquals(0, new BigDecimal(closing).compareTo(new BigDecimal(header.get("closing_balance"))),
+                "closing balance of account " + account);
+    }
+}
@@ -0,0 +1,92 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.model.Stock;
+import edu.ssw590.summitwealthbank.repository.StockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockQuoteCache Unit Tests")
+class StockQuoteCacheTest {
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @InjectMocks
+    private StockQuoteCache quoteCache;
+
+    private Stock apple;
+
+    @BeforeEach
+    void setUp() {
+        apple = stock("AAPL", "150.00", 3L);
+    }
+
+    @Test
+    @DisplayName("Should load a missing quote once and then serve it from memory")
+    void testReadThrough() {
+        // Arrange
+        when(stockRepository.findBySymbol("AAPL")).thenReturn(Optional.of(apple));
+
+        // Act
+        quoteCache.find("AAPL");
+        Optional<StockQuoteCache.Quote> quote = quoteCache.find("AAPL");
+
+        // Assert
+        assertEquals(new BigDecimal("150.00"), quote.orElseThrow().currentPrice());
+        verify(stockRepository, times(1)).findBySymbol("AAPL");
+    }
+
+    @Test
+    @DisplayName("Should keep the newer version when an older snapshot arrives late")
+    void testVersionWins() {
+        // Arrange
+        quoteCache.put(stock("AAPL", "160.00", 5L));
+
+        // Act
+        quoteCache.put(apple); // version 3
+
+        // Assert
+        assertEquals(new BigDecimal("160.00"), quoteCache.find("AAPL").orElseThrow().currentPrice());
+        verifyNoInteractions(stockRepository);
+    }
+
+    @Test
+    @DisplayName("Should drop quotes of stocks deleted from the table on refresh")
+    void testRefreshDropsDeleted() {
+        // Arrange
+        quoteCache.put(apple);
+        quoteCache.put(stock("MSFT", "400.00", 1L));
+        when(stockRepository.findAll()).thenReturn(List.of(apple));
+
+        // Act
+        quoteCache.refresh();
+        quoteCache.evict("AAPL");
+
+        // Assert
+        assertEquals(List.of(), quoteCache.all());
+    }
+
+    private Stock stock(String symbol, String price, long version) {
+        return Stock.builder()
+                .symbol(symbol)
+                .companyName(symbol + " Inc.")
+                .currentPrice(new BigDecimal(price))
+                .totalShares(1000L)
+                .availableShares(1000L)
+                .version(version)
+                .build();
+    }
+}
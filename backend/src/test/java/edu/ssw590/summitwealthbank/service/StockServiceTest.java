@@ -1,7 +1,10 @@
 package edu.ssw590.summitwealthbank.service;
 
+import edu.ssw590.summitwealthbank.dto.StockBasketRequest;
+import edu.ssw590.summitwealthbank.dto.StockBasketResponse;
 import edu.ssw590.summitwealthbank.dto.StockPortfolioResponse;
 import edu.ssw590.summitwealthbank.dto.StockTransactionResponse;
+import edu.ssw590.summitwealthbank.dto.ValuedPosition;
 import edu.ssw590.summitwealthbank.model.Account;
 import edu.ssw590.summitwealthbank.model.Stock;
 import edu.ssw590.summitwealthbank.model.StockPosition;
@@ -9,21 +12,28 @@ import edu.ssw590.summitwealthbank.model.StockTransaction;
 import edu.ssw590.summitwealthbank.model.User;
 import edu.ssw590.summitwealthbank.repository.StockPositionRepository;
 import edu.ssw590.summitwealthbank.repository.StockRepository;
+import edu.ssw590.summitwealthbank.repository.StockTransactionBatchRepository;
 import edu.ssw590.summitwealthbank.repository.StockTransactionRepository;
+import edu.ssw590.summitwealthbank.util.ReferenceGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -45,6 +55,21 @@ class StockServiceTest {
     @Mock
     private AccountService accountService;
 
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private ShareInventoryService shareInventoryService;
+
+    @Mock
+    private StockTransactionBatchRepository stockTransactionBatchRepository;
+
+    @Mock
+    private StockQuoteCache stockQuoteCache;
+
+    @Spy
+    private ReferenceGenerator referenceGenerator = new ReferenceGenerator();
+
     @InjectMocks
     private StockService stockService;
 
@@ -76,6 +101,7 @@ class StockServiceTest {
                 .symbol("AAPL")
                 .companyName("Apple Inc.")
                 .currentPrice(new BigDecimal("150.00"))
+                .totalShares(1000L)
                 .availableShares(1000L)
                 .build();
 
@@ -86,6 +112,9 @@ class StockServiceTest {
                 .totalShares(10L)
                 .averageCostBasis(new BigDecimal("140.00"))
                 .build();
+
+        ReflectionTestUtils.setField(stockService, "maxPageSize", 200);
+        ReflectionTestUtils.setField(stockService, "maxBasketSize", 100);
     }
 
     @Test
@@ -93,9 +122,10 @@ class StockServiceTest {
     void testBuyStockSuccess() {
         // Arrange
         when(accountService.getAccount(1L)).thenReturn(testAccount);
-        when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(testAccount));
-        when(stockRepository.findBySymbol("AAPL")).thenReturn(Optional.of(testStock));
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(testAccount.getId()));
+        when(stockQuoteCache.find("AAPL")).thenReturn(Optional.of(StockQuoteCache.Quote.of(testStock)));
         when(positionRepository.findByAccountIdAndStockSymbol(1L, "AAPL")).thenReturn(Optional.empty());
+        when(shareInventoryService.take("AAPL", 10L)).thenReturn(true);
 
         StockTransaction savedTransaction = StockTransaction.builder()
                 .id(1L)
@@ -116,9 +146,9 @@ class StockServiceTest {
 
         // Assert
         assertNotNull(result);
-        assertEquals(990L, testStock.getAvailableShares()); // 1000 - 10
         assertEquals(new BigDecimal("8500.00"), testAccount.getBalance()); // 10000 - 1500
-        verify(stockRepository, times(1)).save(testStock);
+        verify(shareInventoryService, times(1)).take("AAPL", 10L);
+        verify(stockRepository, never()).save(any());
         verify(positionRepository, times(1)).save(any(StockPosition.class));
         verify(accountService, times(1)).saveAccount(testAccount);
         verify(transactionRepository, times(1)).save(any(StockTransaction.class));
@@ -129,9 +159,10 @@ class StockServiceTest {
     void testBuyStockUpdateExistingPosition() {
         // Arrange
         when(accountService.getAccount(1L)).thenReturn(testAccount);
-        when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(testAccount));
-        when(stockRepository.findBySymbol("AAPL")).thenReturn(Optional.of(testStock));
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(testAccount.getId()));
+        when(stockQuoteCache.find("AAPL")).thenReturn(Optional.of(StockQuoteCache.Quote.of(testStock)));
         when(positionRepository.findByAccountIdAndStockSymbol(1L, "AAPL")).thenReturn(Optional.of(testPosition));
+        when(shareInventoryService.take("AAPL", 5L)).thenReturn(true);
         when(transactionRepository.save(any(StockTransaction.class))).thenReturn(mock(StockTransaction.class));
 
         // Act
@@ -149,8 +180,8 @@ class StockServiceTest {
         // Arrange
         testAccount.setBalance(new BigDecimal("100.00")); // Not enough
         when(accountService.getAccount(1L)).thenReturn(testAccount);
-        when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(testAccount));
-        when(stockRepository.findBySymbol("AAPL")).thenReturn(Optional.of(testStock));
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(testAccount.getId()));
+        when(stockQuoteCache.find("AAPL")).thenReturn(Optional.of(StockQuoteCache.Quote.of(testStock)));
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(
@@ -159,6 +190,7 @@ class StockServiceTest {
         );
 
         assertTrue(exception.getMessage().contains("Insufficient funds"));
+        verify(shareInventoryService, never()).take(anyString(), anyLong());
         verify(transactionRepository, never()).save(any());
     }
 
@@ -166,10 +198,10 @@ class StockServiceTest {
     @DisplayName("Should throw exception when stock not available")
     void testBuyStockNotAvailable() {
         // Arrange
-        testStock.setAvailableShares(5L); // Less than requested
         when(accountService.getAccount(1L)).thenReturn(testAccount);
-        when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(testAccount));
-        when(stockRepository.findBySymbol("AAPL")).thenReturn(Optional.of(testStock));
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(testAccount.getId()));
+        when(stockQuoteCache.find("AAPL")).thenReturn(Optional.of(StockQuoteCache.Quote.of(testStock)));
+        when(shareInventoryService.take("AAPL", 10L)).thenReturn(false); // Fewer than requested left
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(
@@ -178,6 +210,8 @@ class StockServiceTest {
         );
 
         assertTrue(exception.getMessage().contains("Not enough shares available"));
+        verify(positionRepository, never()).save(any());
+        verify(accountService, never()).saveAccount(any());
         verify(transactionRepository, never()).save(any());
     }
 
@@ -186,8 +220,8 @@ class StockServiceTest {
     void testBuyStockNotFound() {
         // Arrange
         when(accountService.getAccount(1L)).thenReturn(testAccount);
-        when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(testAccount));
-        when(stockRepository.findBySymbol("INVALID")).thenReturn(Optional.empty());
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(testAccount.getId()));
+        when(stockQuoteCache.find("INVALID")).thenReturn(Optional.empty());
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(
@@ -202,8 +236,7 @@ class StockServiceTest {
     @DisplayName("Should throw exception when user doesn't own account")
     void testBuyStockUnauthorized() {
         // Arrange
-        when(accountService.getAccount(1L)).thenReturn(testAccount);
-        when(accountService.getAccountsByEmail("other@example.com")).thenReturn(Arrays.asList());
+        when(accountService.getAccountIdsByEmail("other@example.com")).thenReturn(Set.of());
 
         // Act & Assert
         SecurityException exception = assertThrows(
@@ -220,7 +253,7 @@ class StockServiceTest {
         // Arrange
         testAccount.setFrozen(true);
         when(accountService.getAccount(1L)).thenReturn(testAccount);
-        when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(testAccount));
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(testAccount.getId()));
 
         // Act & Assert
         IllegalStateException exception = assertThrows(
@@ -236,9 +269,9 @@ class StockServiceTest {
     void testSellStockSuccess() {
         // Arrange
         when(accountService.getAccount(1L)).thenReturn(testAccount);
-        when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(testAccount));
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(testAccount.getId()));
         when(positionRepository.findByAccountIdAndStockSymbol(1L, "AAPL")).thenReturn(Optional.of(testPosition));
-        when(stockRepository.findBySymbol("AAPL")).thenReturn(Optional.of(testStock));
+        when(stockQuoteCache.find("AAPL")).thenReturn(Optional.of(StockQuoteCache.Quote.of(testStock)));
 
         StockTransaction savedTransaction = StockTransaction.builder()
                 .id(1L)
@@ -260,9 +293,9 @@ class StockServiceTest {
 
         // Assert
         assertNotNull(result);
-        assertEquals(1005L, testStock.getAvailableShares()); // 1000 + 5
         assertEquals(new BigDecimal("10750.00"), testAccount.getBalance()); // 10000 + 750
-        verify(stockRepository, times(1)).save(testStock);
+        verify(shareInventoryService, times(1)).giveBack("AAPL", 5L);
+        verify(stockRepository, never()).save(any());
         verify(positionRepository, times(1)).save(any(StockPosition.class));
         verify(accountService, times(1)).saveAccount(testAccount);
     }
@@ -272,9 +305,9 @@ class StockServiceTest {
     void testSellAllShares() {
         // Arrange
         when(accountService.getAccount(1L)).thenReturn(testAccount);
-        when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(testAccount));
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(testAccount.getId()));
         when(positionRepository.findByAccountIdAndStockSymbol(1L, "AAPL")).thenReturn(Optional.of(testPosition));
-        when(stockRepository.findBySymbol("AAPL")).thenReturn(Optional.of(testStock));
+        when(stockQuoteCache.find("AAPL")).thenReturn(Optional.of(StockQuoteCache.Quote.of(testStock)));
         when(transactionRepository.save(any(StockTransaction.class))).thenReturn(mock(StockTransaction.class));
 
         // Act
@@ -290,7 +323,7 @@ class StockServiceTest {
     void testSellStockNoPosition() {
         // Arrange
         when(accountService.getAccount(1L)).thenReturn(testAccount);
-        when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(testAccount));
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(testAccount.getId()));
         when(positionRepository.findByAccountIdAndStockSymbol(1L, "AAPL")).thenReturn(Optional.empty());
 
         // Act & Assert
@@ -307,7 +340,7 @@ class StockServiceTest {
     void testSellStockInsufficientShares() {
         // Arrange
         when(accountService.getAccount(1L)).thenReturn(testAccount);
-        when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(testAccount));
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(testAccount.getId()));
         when(positionRepository.findByAccountIdAndStockSymbol(1L, "AAPL")).thenReturn(Optional.of(testPosition));
 
         // Act & Assert
@@ -319,13 +352,93 @@ class StockServiceTest {
         assertTrue(exception.getMessage().contains("Not enough shares"));
     }
 
+    @Test
+    @DisplayName("Should buy a basket with one ownership check, one balance check and one batch insert")
+    void testBasketBuySuccess() {
+        // Arrange
+        Stock msft = Stock.builder().id(2L).symbol("MSFT").companyName("Microsoft")
+                .currentPrice(new BigDecimal("400.00")).totalShares(1000L).availableShares(1000L).build();
+        when(accountService.getAccount(1L)).thenReturn(testAccount);
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(testAccount.getId()));
+        when(stockQuoteCache.find("AAPL")).thenReturn(Optional.of(StockQuoteCache.Quote.of(testStock)));
+        when(stockQuoteCache.find("MSFT")).thenReturn(Optional.of(StockQuoteCache.Quote.of(msft)));
+        when(positionRepository.findByAccountIdAndStockSymbolIn(1L, Set.of("AAPL", "MSFT"))).thenReturn(List.of(testPosition));
+        when(shareInventoryService.take(anyString(), anyLong())).thenReturn(true);
+
+        // Act
+        StockBasketResponse response = stockService.executeBasket(basket("buy", "AAPL", 10L, "msft", 5L), "test@example.com");
+
+        // Assert
+        assertEquals(new BigDecimal("3500.00"), response.getTotalAmount()); // 1500 + 2000
+        assertEquals(new BigDecimal("6500.00"), testAccount.getBalance());
+        assertEquals(2, response.getTransactions().size());
+        assertEquals(20L, testPosition.getTotalShares()); // 10 existing + 10 new
+        verify(accountService, times(1)).getAccountIdsByEmail("test@example.com");
+        verify(accountService, times(1)).saveAccount(testAccount);
+        verifyNoInteractions(stockRepository);
+        verify(stockTransactionBatchRepository, times(1)).insertAll(argThat(rows -> rows.size() == 2));
+        verify(ledgerService, times(1)).recordStockTrades(anyList());
+    }
+
+    @Test
+    @DisplayName("Should reject a basket whose total cost exceeds the balance without trading any item")
+    void testBasketBuyInsufficientFunds() {
+        // Arrange
+        when(accountService.getAccount(1L)).thenReturn(testAccount);
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(testAccount.getId()));
+        when(stockQuoteCache.find("AAPL")).thenReturn(Optional.of(StockQuoteCache.Quote.of(testStock)));
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class,
+            () -> stockService.executeBasket(basket("BUY", "AAPL", 100L), "test@example.com") // 15000 > 10000
+        );
+
+        assertTrue(exception.getMessage().contains("Insufficient funds"));
+        verify(shareInventoryService, never()).take(anyString(), anyLong());
+        verify(stockTransactionBatchRepository, never()).insertAll(any());
+    }
+
+    @Test
+    @DisplayName("Should reject a sell basket with an item larger than the position")
+    void testBasketSellInsufficientShares() {
+        // Arrange
+        when(accountService.getAccount(1L)).thenReturn(testAccount);
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(testAccount.getId()));
+        when(stockQuoteCache.find("AAPL")).thenReturn(Optional.of(StockQuoteCache.Quote.of(testStock)));
+        when(positionRepository.findByAccountIdAndStockSymbolIn(1L, Set.of("AAPL"))).thenReturn(List.of(testPosition));
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class,
+            () -> stockService.executeBasket(basket("SELL", "AAPL", 20L), "test@example.com") // More than 10 owned
+        );
+
+        assertTrue(exception.getMessage().contains("Not enough shares of AAPL"));
+        verify(shareInventoryService, never()).giveBack(anyString(), anyLong());
+        verify(accountService, never()).saveAccount(any());
+    }
+
+    @Test
+    @DisplayName("Should reject a basket that lists a symbol twice")
+    void testBasketDuplicateSymbol() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class,
+            () -> stockService.executeBasket(basket("BUY", "AAPL", 1L, "aapl", 2L), "test@example.com")
+        );
+
+        assertTrue(exception.getMessage().contains("more than once"));
+        verifyNoInteractions(accountService);
+    }
+
     @Test
     @DisplayName("Should get user portfolio")
     void testGetUserPortfolio() {
         // Arrange
         when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(testAccount));
-        when(positionRepository.findByAccountIds(anyList())).thenReturn(Arrays.asList(testPosition));
-        when(stockRepository.findBySymbol("AAPL")).thenReturn(Optional.of(testStock));
+        when(positionRepository.findValuedByAccountIds(List.of(1L))).thenReturn(List.of(
+                new ValuedPosition(1L, "AAPL", "Apple Inc.", 10L, new BigDecimal("140.00"), new BigDecimal("150.00"))));
 
         // Act
         List<StockPortfolioResponse> result = stockService.getUserPortfolio("test@example.com");
@@ -337,6 +450,9 @@ class StockServiceTest {
         assertEquals("AAPL", response.getStockSymbol());
         assertEquals("Apple Inc.", response.getCompanyName());
         assertEquals(10L, response.getTotalShares());
+        assertEquals(new BigDecimal("1500.00"), response.getMarketValue());
+        assertEquals(new BigDecimal("100.00"), response.getProfitLoss());
+        verifyNoInteractions(stockRepository, stockQuoteCache);
     }
 
     @Test
@@ -374,8 +490,8 @@ class StockServiceTest {
         when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(testAccount));
         when(transactionRepository.findRecentByAccountIds(anyList(), any(PageRequest.class)))
                 .thenReturn(Arrays.asList(transaction));
-        when(accountService.getAccount(1L)).thenReturn(testAccount);
-        when(stockRepository.findBySymbol("AAPL")).thenReturn(Optional.of(testStock));
+        when(accountService.getAccountNumbers(Set.of(1L))).thenReturn(Map.of(1L, "1234567890"));
+        when(stockQuoteCache.find("AAPL")).thenReturn(Optional.of(StockQuoteCache.Quote.of(testStock)));
 
         // Act
         List<StockTransactionResponse> result = stockService.getUserTransactionHistory("test@example.com", 10);
@@ -384,6 +500,10 @@ class StockServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("STK-20251206-ABC123", result.get(0).getTransactionReference());
+        assertEquals("1234567890", result.get(0).getAccountNumber());
+        assertEquals("Apple Inc.", result.get(0).getCompanyName());
+        verify(accountService, never()).getAccount(anyLong());
+        verifyNoInteractions(stockRepository);
     }
 
     @Test
@@ -405,8 +525,8 @@ class StockServiceTest {
         when(transactionRepository.findByTransactionReference("STK-20251206-ABC123"))
                 .thenReturn(Optional.of(transaction));
         when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(testAccount));
-        when(accountService.getAccount(1L)).thenReturn(testAccount);
-        when(stockRepository.findBySymbol("AAPL")).thenReturn(Optional.of(testStock));
+        when(accountService.getAccountNumbers(Set.of(1L))).thenReturn(Map.of(1L, "1234567890"));
+        when(stockQuoteCache.find("AAPL")).thenReturn(Optional.of(StockQuoteCache.Quote.of(testStock)));
 
         // Act
         StockTransactionResponse result = stockService.getTransactionByReference("STK-20251206-ABC123", "test@example.com");
@@ -477,8 +597,8 @@ class StockServiceTest {
 
         when(transactionRepository.findAllRecent(any(PageRequest.class)))
                 .thenReturn(Arrays.asList(transaction));
-        when(accountService.getAccount(1L)).thenReturn(testAccount);
-        when(stockRepository.findBySymbol("AAPL")).thenReturn(Optional.of(testStock));
+        when(accountService.getAccountNumbers(Set.of(1L))).thenReturn(Map.of(1L, "1234567890"));
+        when(stockQuoteCache.find("AAPL")).thenReturn(Optional.of(StockQuoteCache.Quote.of(testStock)));
 
         // Act
         List<StockTransactionResponse> result = stockService.getAllStockTransactions(10);
@@ -487,4 +607,19 @@ class StockServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
     }
+
+    private StockBasketRequest basket(String side, Object... symbolsAndQuantities) {
+        List<StockBasketRequest.Item> items = new ArrayList<>();
+        for (int i = 0; i < symbolsAndQuantities.length; i += 2) {
+            StockBasketRequest.Item item = new StockBasketRequest.Item();
+            item.setStockSymbol((String) symbolsAndQuantities[i]);
+            item.setQuantity((Long) symbolsAndQuantities[i + 1]);
+            items.add(item);
+        }
+        StockBasketRequest request = new StockBasketRequest();
+        request.setAccountId(1L);
+        request.setSide(side);
+        request.setItems(items);
+        return request;
+    }
 }
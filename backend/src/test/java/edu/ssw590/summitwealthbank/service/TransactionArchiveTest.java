@@ -0,0 +1,172 @@
+package edu.ssw590.summitwealthbank.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import edu.ssw590.summitwealthbank.model.StockTransaction;
+import edu.ssw590.summitwealthbank.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TransactionArchive Unit Tests")
+class TransactionArchiveTest {
+
+    private static final YearMonth JANUARY = YearMonth.of(2024, 1);
+    private static final YearMonth FEBRUARY = YearMonth.of(2024, 2);
+
+    @TempDir
+    Path archiveDir;
+
+    private TransactionArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        archive = new TransactionArchive(objectMapper);
+        ReflectionTestUtils.setField(archive, "archiveDir", archiveDir.toString());
+    }
+
+    @Test
+    @DisplayName("Should read back the rows of the requested accounts in time order, month by month")
+    void testWriteAndRead() {
+        // Arrange
+        archive.write(TransactionArchive.TRANSFERS, FEBRUARY, List.of(
+                transfer(10, 1L, 2L, FEBRUARY.atDay(3).atTime(9, 0))).iterator());
+        archive.write(TransactionArchive.TRANSFERS, JANUARY, List.of(
+                transfer(3, 1L, 65L, JANUARY.atDay(20).atTime(9, 0)),
+                transfer(1, 2L, 3L, JANUARY.atDay(5).atTime(9, 0)),
+                transfer(2, 65L, 2L, JANUARY.atDay(5).atTime(9, 0))).iterator());
+
+        // Act
+        List<Long> ids;
+        try (Stream<Transaction> rows = archive.read(TransactionArchive.TRANSFERS, List.of(2L, 65L))) {
+            ids = rows.map(Transaction::getId).collect(Collectors.toList());
+        }
+
+        // Assert
+        assertEquals(List.of(JANUARY, FEBRUARY), archive.months(TransactionArchive.TRANSFERS));
+        assertEquals(List.of(1L, 2L, 3L, 10L), ids);
+    }
+
+    @Test
+    @DisplayName("Should return a transfer between two requested accounts in different buckets once")
+    void testNoDuplicatesAcrossBuckets() {
+        // Arrange: accounts 1 and 2 land in different files
+        archive.write(TransactionArchive.TRANSFERS, JANUARY, List.of(
+                transfer(1, 1L, 2L, JANUARY.atDay(1).atTime(9, 0))).iterator());
+
+        // Act
+        List<Transaction> both;
+        List<Transaction> receiver;
+        try (Stream<Transaction> rows = archive.read(TransactionArchive.TRANSFERS, List.of(1L, 2L))) {
+            both = rows.collect(Collectors.toList());
+        }
+        try (Stream<Transaction> rows = archive.read(TransactionArchive.TRANSFERS, List.of(2L))) {
+            receiver = rows.collect(Collectors.toList());
+        }
+
+        // Assert
+        assertEquals(1, both.size());
+        assertEquals(1, receiver.size());
+        assertEquals(0, new BigDecimal("10.00").compareTo(both.get(0).getAmount()));
+    }
+
+    @Test
+    @DisplayName("Should only open the buckets of the requested accounts")
+    void testReadsOnlyOwnBuckets() throws IOException {
+        // Arrange
+        archive.write(TransactionArchive.STOCK_TRADES, JANUARY, List.of(
+                trade(1, 5L, JANUARY.atDay(2).atTime(10, 0)),
+                trade(2, 6L, JANUARY.atDay(2).atTime(11, 0))).iterator());
+        Path month = archiveDir.resolve("stock_transaction").resolve(JANUARY.toString());
+        Files.write(month.resolve("06.ndjson.gz"), new byte[] {1, 2, 3});
+
+        // Act: a corrupt file in another account's bucket is never read
+        List<Long> ids;
+        try (Stream<StockTransaction> rows = archive.read(TransactionArchive.STOCK_TRADES, List.of(5L))) {
+            ids = rows.map(StockTransaction::getId).collect(Collectors.toList());
+        }
+
+        // Assert
+        assertEquals(List.of(1L), ids);
+        try (Stream<Path> files = Files.list(month)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should replace a month written again and leave no temp files")
+    void testRewriteReplaces() throws IOException {
+        // Arrange
+        archive.write(TransactionArchive.TRANSFERS, JANUARY, List.of(
+                transfer(1, 1L, 2L, JANUARY.atDay(1).atTime(9, 0)),
+                transfer(2, 1L, 2L, JANUARY.atDay(2).atTime(9, 0))).iterator());
+
+        // Act
+        long written = archive.write(TransactionArchive.TRANSFERS, JANUARY, List.of(
+                transfer(2, 1L, 2L, JANUARY.atDay(2).atTime(9, 0))).iterator());
+
+        // Assert
+        assertEquals(1, written);
+        try (Stream<Transaction> rows = archive.read(TransactionArchive.TRANSFERS, List.of(1L))) {
+            assertEquals(List.of(2L), rows.map(Transaction::getId).collect(Collectors.toList()));
+        }
+        try (Stream<Path> entries = Files.list(archiveDir.resolve("transaction"))) {
+            assertEquals(List.of(JANUARY.toString()),
+                    entries.map(path -> path.getFileName().toString()).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should return nothing when no month has been archived")
+    void testEmptyArchive() {
+        // Act & Assert
+        assertTrue(archive.months(TransactionArchive.TRANSFERS).isEmpty());
+        try (Stream<Transaction> rows = archive.read(TransactionArchive.TRANSFERS, List.of(1L))) {
+            assertEquals(0, rows.count());
+        }
+    }
+
+    private Transaction transfer(long id, Long from, Long to, LocalDateTime at) {
+        return Transaction.builder()
+                .id(id)
+                .transactionReference("TXN-" + id)
+                .fromAccountId(from)
+                .toAccountId(to)
+                .amount(new BigDecimal("10.00"))
+                .description("Archived " + id)
+                .timestamp(at)
+                .build();
+    }
+
+    private StockTransaction trade(long id, Long account, LocalDateTime at) {
+        return StockTransaction.builder()
+                .id(id)
+                .transactionReference("STK-" + id)
+                .accountId(account)
+                .stockSymbol("AAPL")
+                .type(StockTransaction.TransactionType.BUY)
+                .quantity(1L)
+                .pricePerShare(new BigDecimal("150.00"))
+                .totalAmount(new BigDecimal("150.00"))
+                .timestamp(at)
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.dto.CursorPage;
+import edu.ssw590.summitwealthbank.dto.TransactionResponse;
+import edu.ssw590.summitwealthbank.model.Account;
+import edu.ssw590.summitwealthbank.model.Transaction;
+import edu.ssw590.summitwealthbank.model.User;
+import edu.ssw590.summitwealthbank.repository.AccountRepository;
+import edu.ssw590.summitwealthbank.repository.TransactionRepository;
+import edu.ssw590.summitwealthbank.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pages through transaction history on H2 to check the keyset queries: one row per transfer even
+ * when both sides belong to the user, and no row lost or repeated at timestamp ties.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+@DisplayName("Transaction History Integration Tests")
+class TransactionHistoryIntegrationTest {
+
+    private static final String EMAIL = "history@example.com";
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<String> expected = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+        expected.clear();
+
+        User user = userRepository.save(user(EMAIL));
+        User other = userRepository.save(user("other-history@example.com"));
+        Account checking = accountRepository.save(account(user, Account.AccountType.CHECKING));
+        Account savings = accountRepository.save(account(user, Account.AccountType.SAVINGS));
+        Account foreign = accountRepository.save(account(other, Account.AccountType.CHECKING));
+
+        // Four rows share each timestamp, three of them the user's, so pages have to split ties on id
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 12, 0);
+        for (int i = 0; i < 4; i++) {
+            LocalDateTime at = base.plusMinutes(i);
+            save("OWN-" + i, checking, savings, at, true);
+            save("OUT-" + i, checking, foreign, at, true);
+            save("IN-" + i, foreign, savings, at, true);
+            save("FOREIGN-" + i, foreign, foreign, at, false);
+        }
+    }
+
+    @Test
+    @DisplayName("Should return every transfer of the user once, newest first, across pages")
+    void testPagesCoverHistoryOnce() {
+        // Act
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<TransactionResponse> page = transferService.getTransactionHistoryByEmail(EMAIL, cursor, 5);
+            page.getItems().forEach(item -> seen.add(item.getTransactionReference()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null && pages < 10);
+
+        // Assert
+        assertEquals(3, pages);
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    @DisplayName("Should seek past the cursor row on the admin history")
+    void testAllRecentBefore() {
+        // Arrange
+        List<Transaction> all = transactionRepository.findAllRecent(PageRequest.of(0, 100));
+        Transaction cursor = all.get(5);
+
+        // Act
+        List<Transaction> rest = transactionRepository.findAllRecentBefore(cursor.getTimestamp(), cursor.getId(), PageRequest.of(0, 100));
+
+        // Assert
+        assertEquals(all.subList(6, all.size()), rest);
+    }
+
+    private void save(String reference, Account from, Account to, LocalDateTime at, boolean visible) {
+        transactionRepository.save(Transaction.builder()
+                .transactionReference(reference)
+                .fromAccountId(from.getId())
+                .toAccountId(to.getId())
+                .amount(BigDecimal.ONE)
+                .description(reference)
+                .timestamp(at)
+                .build());
+        if (visible) {
+            expected.add(0, reference);
+        }
+    }
+
+    private User user(String email) {
+        return User.builder()
+                .email(email)
+                .password("secret")
+                .firstName("His")
+                .lastName("Tory")
+                .role("USER")
+                .build();
+    }
+
+    private Account account(User user, Account.AccountType type) {
+        return Account.builder()
+                .user(user)
+                .type(type)
+                .balance(BigDecimal.ZERO)
+                .build();
+    }
+}
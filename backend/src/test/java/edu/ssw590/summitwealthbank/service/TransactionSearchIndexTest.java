@@ -0,0 +1,89 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TransactionSearchIndex Unit Tests")
+class TransactionSearchIndexTest {
+
+    private TransactionSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new TransactionSearchIndex(null, null, null, null);
+        searchIndex.add(transaction(1L, 10L, 20L, "Rent October"));
+        searchIndex.add(transaction(2L, 10L, 30L, "Invoice 443 - consulting"));
+        searchIndex.add(transaction(3L, 10L, 20L, "Rent November"));
+        searchIndex.add(transaction(4L, 40L, 50L, "Rent for someone else"));
+    }
+
+    @Test
+    @DisplayName("Should match word prefixes case-insensitively, newest first")
+    void testPrefixMatch() {
+        // Act
+        List<Long> ids = searchIndex.search(List.of(10L), "REN", 10);
+
+        // Assert
+        assertEquals(List.of(3L, 1L), ids);
+    }
+
+    @Test
+    @DisplayName("Should require every term to match")
+    void testAllTermsMatch() {
+        // Act & Assert
+        assertEquals(List.of(2L), searchIndex.search(List.of(10L), "inv 443", 10));
+        assertEquals(List.of(3L), searchIndex.search(List.of(10L), "rent nov", 10));
+        assertTrue(searchIndex.search(List.of(10L), "rent 443", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should index both sides of a transfer and nothing else")
+    void testAccountScoping() {
+        // Act & Assert
+        assertEquals(List.of(3L, 1L), searchIndex.search(List.of(20L), "rent", 10));
+        assertTrue(searchIndex.search(List.of(30L), "rent", 10).isEmpty());
+        assertEquals(List.of(4L, 3L), searchIndex.search(List.of(10L, 50L), "rent", 2));
+    }
+
+    @Test
+    @DisplayName("Should drop months before the archive cutoff and keep later ones")
+    void testEvictBefore() {
+        // Arrange
+        TransactionSearchIndex monthly = new TransactionSearchIndex(null, null, null, null);
+        monthly.add(transaction(1L, 10L, 20L, "Rent January", LocalDateTime.of(2024, 1, 1, 9, 0)));
+        monthly.add(transaction(2L, 10L, 20L, "Rent February", LocalDateTime.of(2024, 2, 1, 9, 0)));
+        monthly.add(transaction(3L, 10L, 30L, "Rent March", LocalDateTime.of(2024, 3, 1, 9, 0)));
+
+        // Act
+        int evicted = monthly.evictBefore(YearMonth.of(2024, 2));
+
+        // Assert: January is gone on both accounts, February and March stay
+        assertEquals(2, evicted);
+        assertEquals(List.of(3L, 2L), monthly.search(List.of(10L), "rent", 10));
+        assertEquals(List.of(2L), monthly.search(List.of(20L), "rent", 10));
+        assertTrue(monthly.search(List.of(10L), "january", 10).isEmpty());
+        assertEquals(0, monthly.evictBefore(YearMonth.of(2024, 2)));
+    }
+
+    private Transaction transaction(Long id, Long from, Long to, String description) {
+        return transaction(id, from, to, description, null);
+    }
+
+    private Transaction transaction(Long id, Long from, Long to, String description, LocalDateTime timestamp) {
+        return Transaction.builder()
+                .id(id)
+                .fromAccountId(from)
+                .toAccountId(to)
+                .description(description)
+                .timestamp(timestamp)
+                .build();
+    }
+}
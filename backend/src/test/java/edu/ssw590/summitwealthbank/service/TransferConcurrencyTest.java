@@ -0,0 +1,173 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.dto.BatchTransferResponse;
+import edu.ssw590.summitwealthbank.dto.TransferRequest;
+import edu.ssw590.summitwealthbank.model.Account;
+import edu.ssw590.summitwealthbank.model.User;
+import edu.ssw590.summitwealthbank.repository.AccountRepository;
+import edu.ssw590.summitwealthbank.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs transfers between the same two accounts from several threads against an in-memory H2
+ * database in pessimistic mode. Each transfer must see the balance left by the one before it,
+ * with no lost update and no version conflict.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+@DisplayName("Transfer Concurrency Tests")
+class TransferConcurrencyTest {
+
+    private static final int THREADS = 4;
+    private static final int TRANSFERS_PER_THREAD = 25;
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    private Account first;
+    private Account second;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = userRepository.save(User.builder()
+                .email("concurrent@example.com")
+                .password("secret")
+                .firstName("Con")
+                .lastName("Current")
+                .role("USER")
+                .build());
+        first = accountRepository.save(Account.builder()
+                .user(user)
+                .type(Account.AccountType.CHECKING)
+                .balance(new BigDecimal("5000.00"))
+                .build());
+        second = accountRepository.save(Account.builder()
+                .user(user)
+                .type(Account.AccountType.SAVINGS)
+                .balance(new BigDecimal("5000.00"))
+                .build());
+    }
+
+    @Test
+    @DisplayName("Concurrent transfers between two accounts neither lose updates nor conflict")
+    void testConcurrentTransfers() throws Exception {
+        // Arrange: half the threads move money one way, half the other way, plus a one-way thread
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Long from = t % 2 == 0 ? first.getId() : second.getId();
+            Long to = t % 2 == 0 ? second.getId() : first.getId();
+            tasks.add(() -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    transferService.transfer(request(from, to), "concurrent@example.com");
+                }
+                return null;
+            });
+        }
+        tasks.add(() -> {
+            for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                transferService.transfer(request(first.getId(), second.getId()), "concurrent@example.com");
+            }
+            return null;
+        });
+
+        // Act
+        runTogether(tasks);
+
+        // Assert
+        BigDecimal moved = AMOUNT.multiply(BigDecimal.valueOf(TRANSFERS_PER_THREAD));
+        assertEquals(0, new BigDecimal("5000.00").subtract(moved).compareTo(balance(first)));
+        assertEquals(0, new BigDecimal("5000.00").add(moved).compareTo(balance(second)));
+    }
+
+    @Test
+    @DisplayName("Concurrent batches and single transfers on the same accounts keep every update")
+    void testConcurrentBatchesAndTransfers() throws Exception {
+        // Arrange
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            boolean batch = t % 2 == 0;
+            tasks.add(() -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    if (batch) {
+                        BatchTransferResponse response = transferService.transferBatch(
+                                List.of(request(first.getId(), second.getId()), request(second.getId(), first.getId()),
+                                        request(first.getId(), second.getId())),
+                                "concurrent@example.com");
+                        assertEquals(3, response.getSucceeded());
+                    } else {
+                        transferService.transfer(request(second.getId(), first.getId()), "concurrent@example.com");
+                    }
+                }
+                return null;
+            });
+        }
+
+        // Act
+        runTogether(tasks);
+
+        // Assert: each batch nets one transfer to second, each single transfer one back to first
+        assertEquals(0, new BigDecimal("5000.00").compareTo(balance(first)));
+        assertEquals(0, new BigDecimal("5000.00").compareTo(balance(second)));
+    }
+
+    private void runTogether(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                // Rethrows a lost update turned version conflict, or a failed assertion
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private BigDecimal balance(Account account) {
+        return accountRepository.findById(account.getId()).orElseThrow().getBalance();
+    }
+
+    private TransferRequest request(Long from, Long to) {
+        TransferRequest request = new TransferRequest();
+        request.setFromAccountId(from);
+        request.setToAccountId(to);
+        request.setAmount(AMOUNT);
+        request.setDescription("Concurrency test");
+        return request;
+    }
+}
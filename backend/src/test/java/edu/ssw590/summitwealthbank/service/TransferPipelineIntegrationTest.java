@@ -0,0 +1,204 @@
+package edu.ssw590.summitwealthbank.service;
+
+import edu.ssw590.summitwealthbank.dto.BatchTransferItemResult;
+import edu.ssw590.summitwealthbank.dto.TransferRequest;
+import edu.ssw590.summitwealthbank.model.Account;
+import edu.ssw590.summitwealthbank.model.QueuedTransfer;
+import edu.ssw590.summitwealthbank.model.User;
+import edu.ssw590.summitwealthbank.repository.AccountRepository;
+import edu.ssw590.summitwealthbank.repository.QueuedTransferRepository;
+import edu.ssw590.summitwealthbank.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the asynchronous transfer pipeline against H2 with a long linger window, so transfers
+ * submitted back to back end up in the same batch.
+ */
+@SpringBootTest(properties = {
+        "app.transfer.pipeline.enabled=true",
+        "app.transfer.pipeline.linger-ms=200"
+})
+@ActiveProfiles("h2")
+@DisplayName("TransferPipeline Integration Tests")
+class TransferPipelineIntegrationTest {
+
+    private static final String EMAIL = "pipeline@example.com";
+
+    @Autowired
+    private TransferPipeline transferPipeline;
+
+    @Autowired
+    private QueuedTransferRepository queuedTransferRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Account from;
+    private Account to;
+
+    @BeforeEach
+    void setUp() {
+        queuedTransferRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = userRepository.save(User.builder()
+                .email(EMAIL)
+                .password("secret")
+                .firstName("Pipe")
+                .lastName("Line")
+                .role("USER")
+                .build());
+        from = accountRepository.save(Account.builder()
+                .user(user)
+                .type(Account.AccountType.CHECKING)
+                .balance(new BigDecimal("500.00"))
+                .build());
+        to = accountRepository.save(Account.builder()
+                .user(user)
+                .type(Account.AccountType.SAVINGS)
+                .balance(BigDecimal.ZERO)
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should settle transfers submitted together in fewer batches than transfers")
+    void testBatching() throws Exception {
+        // Arrange
+        long batchesBefore = meterRegistry.summary("bank.transfer.pipeline.batch.size").count();
+
+        // Act
+        List<TransferPipeline.Submission> submissions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            submissions.add(transferPipeline.submit(request("10.00"), EMAIL));
+        }
+        for (TransferPipeline.Submission submission : submissions) {
+            assertEquals("SUCCEEDED", submission.result().get(10, TimeUnit.SECONDS).getStatus());
+        }
+
+        // Assert
+        long batches = meterRegistry.summary("bank.transfer.pipeline.batch.size").count() - batchesBefore;
+        assertTrue(batches < 20, "expected fewer batches than transfers but got " + batches);
+        assertAmount("300.00", accountRepository.findById(from.getId()).orElseThrow().getBalance());
+        assertAmount("200.00", accountRepository.findById(to.getId()).orElseThrow().getBalance());
+        assertEquals(20, queuedTransferRepository.findAll().stream()
+                .filter(row -> row.getStatus() == QueuedTransfer.Status.SUCCEEDED)
+                .count());
+    }
+
+    @Test
+    @DisplayName("Should record the transfer before accepting it and report its status to the owner only")
+    void testStatus() throws Exception {
+        // Act
+        TransferPipeline.Submission submission = transferPipeline.submit(request("50.00"), EMAIL);
+        String reference = submission.transactionReference();
+
+        // Assert: persisted as soon as it is accepted
+        assertTrue(queuedTransferRepository.findByTransactionReference(reference).isPresent());
+
+        submission.result().get(10, TimeUnit.SECONDS);
+        BatchTransferItemResult result = transferPipeline.getStatus(reference, EMAIL);
+        assertEquals("SUCCEEDED", result.getStatus());
+        assertEquals(reference, result.getTransactionReference());
+        assertThrows(IllegalArgumentException.class, () -> transferPipeline.getStatus(reference, "other@example.com"));
+        assertThrows(IllegalArgumentException.class, () -> transferPipeline.getStatus("TXN-unknown", EMAIL));
+    }
+
+    @Test
+    @DisplayName("Should settle everything queued before shutdown returns")
+    void testShutdownDrain() throws Exception {
+        // Arrange
+        List<TransferPipeline.Submission> submissions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            submissions.add(transferPipeline.submit(request("20.00"), EMAIL));
+        }
+
+        // Act
+        try {
+            transferPipeline.stop();
+
+            // Assert
+            for (TransferPipeline.Submission submission : submissions) {
+                assertTrue(submission.result().isDone());
+                assertEquals("SUCCEEDED", submission.result().join().getStatus());
+            }
+            assertTrue(queuedTransferRepository.findAll().stream()
+                    .noneMatch(row -> row.getStatus() == QueuedTransfer.Status.PENDING));
+            assertAmount("400.00", accountRepository.findById(from.getId()).orElseThrow().getBalance());
+        } finally {
+            transferPipeline.start();
+        }
+    }
+
+    @Test
+    @DisplayName("Should settle transfers left pending by a crash on the next startup")
+    void testRecoveryAfterRestart() throws Exception {
+        // Arrange: rows accepted by a run that died before settling them
+        transferPipeline.stop();
+        List<String> references = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            QueuedTransfer row = queuedTransferRepository.save(QueuedTransfer.builder()
+                    .transactionReference("TXN-CRASHED-" + i + "-" + System.nanoTime())
+                    .userEmail(EMAIL)
+                    .fromAccountId(from.getId())
+                    .toAccountId(to.getId())
+                    .amount(new BigDecimal("25.00"))
+                    .description("Accepted before a crash")
+                    .status(QueuedTransfer.Status.PENDING)
+                    .build());
+            references.add(row.getTransactionReference());
+        }
+
+        // Act
+        transferPipeline.start();
+
+        // Assert
+        for (String reference : references) {
+            assertEquals("SUCCEEDED", awaitStatus(reference));
+        }
+        assertAmount("425.00", accountRepository.findById(from.getId()).orElseThrow().getBalance());
+        assertAmount("75.00", accountRepository.findById(to.getId()).orElseThrow().getBalance());
+    }
+
+    private String awaitStatus(String reference) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        String status = transferPipeline.getStatus(reference, EMAIL).getStatus();
+        while ("PENDING".equals(status) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            status = transferPipeline.getStatus(reference, EMAIL).getStatus();
+        }
+        return status;
+    }
+
+    private TransferRequest request(String amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromAccountId(from.getId());
+        request.setToAccountId(to.getId());
+        request.setAmount(new BigDecimal(amount));
+        request.setDescription("Pipeline test");
+        return request;
+    }
+
+    private void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "expected " + expected + " but was " + actual);
+    }
+}
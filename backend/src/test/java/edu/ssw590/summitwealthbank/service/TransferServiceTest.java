@@ -1,28 +1,38 @@
 package edu.ssw590.summitwealthbank.service;
 
+import edu.ssw590.summitwealthbank.dto.BatchTransferResponse;
+import edu.ssw590.summitwealthbank.dto.CursorPage;
 import edu.ssw590.summitwealthbank.dto.TransactionResponse;
 import edu.ssw590.summitwealthbank.dto.TransferRequest;
 import edu.ssw590.summitwealthbank.model.Account;
 import edu.ssw590.summitwealthbank.model.Transaction;
 import edu.ssw590.summitwealthbank.model.User;
+import edu.ssw590.summitwealthbank.repository.TransactionBatchRepository;
 import edu.ssw590.summitwealthbank.repository.TransactionRepository;
+import edu.ssw590.summitwealthbank.util.ReferenceGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -36,6 +46,24 @@ class TransferServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private AccountLockService accountLockService;
+
+    @Mock
+    private TransactionBatchRepository transactionBatchRepository;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Spy
+    private ReferenceGenerator referenceGenerator = new ReferenceGenerator();
+
+    @Mock
+    private TransactionSearchIndex searchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private TransferService transferService;
 
@@ -76,15 +104,17 @@ class TransferServiceTest {
         transferRequest.setToAccountId(2L);
         transferRequest.setAmount(new BigDecimal("100.00"));
         transferRequest.setDescription("Test transfer");
+
+        ReflectionTestUtils.setField(transferService, "maxBatchSize", 100);
+        ReflectionTestUtils.setField(transferService, "maxPageSize", 50);
     }
 
     @Test
     @DisplayName("Should transfer money successfully between accounts")
     void testTransferSuccess() {
         // Arrange
-        when(accountService.getAccount(1L)).thenReturn(fromAccount);
-        when(accountService.getAccount(2L)).thenReturn(toAccount);
-        when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(fromAccount, toAccount));
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(fromAccount.getId(), toAccount.getId()));
+        when(accountLockService.lockAccounts(anyCollection())).thenReturn(Map.of(1L, fromAccount, 2L, toAccount));
 
         Transaction savedTransaction = Transaction.builder()
                 .id(1L)
@@ -108,6 +138,7 @@ class TransferServiceTest {
         verify(accountService, times(1)).saveAccount(fromAccount);
         verify(accountService, times(1)).saveAccount(toAccount);
         verify(transactionRepository, times(1)).save(any(Transaction.class));
+        verify(ledgerService, times(1)).recordTransfer(anyString(), eq(1L), eq(2L), eq(new BigDecimal("100.00")));
     }
 
     @Test
@@ -205,9 +236,7 @@ class TransferServiceTest {
     @DisplayName("Should throw exception when user doesn't own from account")
     void testTransferUnauthorized() {
         // Arrange
-        when(accountService.getAccount(1L)).thenReturn(fromAccount);
-        when(accountService.getAccount(2L)).thenReturn(toAccount);
-        when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(toAccount));
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(toAccount.getId()));
 
         // Act & Assert
         SecurityException exception = assertThrows(
@@ -216,6 +245,7 @@ class TransferServiceTest {
         );
 
         assertTrue(exception.getMessage().contains("do not have permission"));
+        verify(accountLockService, never()).lockAccounts(anyCollection());
         verify(accountService, never()).saveAccount(any());
     }
 
@@ -224,9 +254,8 @@ class TransferServiceTest {
     void testTransferFromFrozenAccount() {
         // Arrange
         fromAccount.setFrozen(true);
-        when(accountService.getAccount(1L)).thenReturn(fromAccount);
-        when(accountService.getAccount(2L)).thenReturn(toAccount);
-        when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(fromAccount, toAccount));
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(fromAccount.getId(), toAccount.getId()));
+        when(accountLockService.lockAccounts(anyCollection())).thenReturn(Map.of(1L, fromAccount, 2L, toAccount));
 
         // Act & Assert
         IllegalStateException exception = assertThrows(
@@ -242,9 +271,8 @@ class TransferServiceTest {
     void testTransferToFrozenAccount() {
         // Arrange
         toAccount.setFrozen(true);
-        when(accountService.getAccount(1L)).thenReturn(fromAccount);
-        when(accountService.getAccount(2L)).thenReturn(toAccount);
-        when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(fromAccount, toAccount));
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(fromAccount.getId(), toAccount.getId()));
+        when(accountLockService.lockAccounts(anyCollection())).thenReturn(Map.of(1L, fromAccount, 2L, toAccount));
 
         // Act & Assert
         IllegalStateException exception = assertThrows(
@@ -260,9 +288,8 @@ class TransferServiceTest {
     void testTransferInsufficientFunds() {
         // Arrange
         transferRequest.setAmount(new BigDecimal("2000.00")); // More than balance
-        when(accountService.getAccount(1L)).thenReturn(fromAccount);
-        when(accountService.getAccount(2L)).thenReturn(toAccount);
-        when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(fromAccount, toAccount));
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(fromAccount.getId(), toAccount.getId()));
+        when(accountLockService.lockAccounts(anyCollection())).thenReturn(Map.of(1L, fromAccount, 2L, toAccount));
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(
@@ -273,6 +300,69 @@ class TransferServiceTest {
         assertTrue(exception.getMessage().contains("Insufficient funds"));
     }
 
+    @Test
+    @DisplayName("Should apply batch transfers against running balances")
+    void testTransferBatchPartialSuccess() {
+        // Arrange
+        TransferRequest second = new TransferRequest();
+        second.setFromAccountId(1L);
+        second.setToAccountId(2L);
+        second.setAmount(new BigDecimal("950.00")); // Only 900 left after the first item
+        second.setDescription("Too much");
+
+        TransferRequest third = new TransferRequest();
+        third.setFromAccountId(2L);
+        third.setToAccountId(1L);
+        third.setAmount(new BigDecimal("50.00"));
+        third.setDescription("Refund");
+
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(fromAccount.getId(), toAccount.getId()));
+        when(accountLockService.lockExistingAccounts(anyCollection())).thenReturn(Map.of(1L, fromAccount, 2L, toAccount));
+
+        // Act
+        BatchTransferResponse result = transferService.transferBatch(
+                Arrays.asList(transferRequest, second, third), "test@example.com");
+
+        // Assert
+        assertEquals(3, result.getSubmitted());
+        assertEquals(2, result.getSucceeded());
+        assertEquals("FAILED", result.getResults().get(1).getStatus());
+        assertTrue(result.getResults().get(1).getMessage().contains("Insufficient funds"));
+        assertEquals(new BigDecimal("950.00"), fromAccount.getBalance());
+        assertEquals(new BigDecimal("550.00"), toAccount.getBalance());
+        verify(accountLockService, times(1)).lockExistingAccounts(anyCollection());
+        verify(transactionBatchRepository, times(1)).insertAll(argThat(list -> list.size() == 2));
+        verify(ledgerService, times(1)).recordTransfers(argThat(list -> list.size() == 2));
+    }
+
+    @Test
+    @DisplayName("Should reject batch items from accounts the user does not own")
+    void testTransferBatchUnauthorizedItem() {
+        // Arrange
+        when(accountService.getAccountIdsByEmail("test@example.com")).thenReturn(Set.of(toAccount.getId()));
+
+        // Act
+        BatchTransferResponse result = transferService.transferBatch(
+                Arrays.asList(transferRequest), "test@example.com");
+
+        // Assert
+        assertEquals(0, result.getSucceeded());
+        assertTrue(result.getResults().get(0).getMessage().contains("do not have permission"));
+        verify(accountLockService, never()).lockExistingAccounts(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when batch is empty")
+    void testTransferBatchEmpty() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class,
+            () -> transferService.transferBatch(List.of(), "test@example.com")
+        );
+
+        assertTrue(exception.getMessage().contains("At least one transfer"));
+    }
+
     @Test
     @DisplayName("Should get transactions for an account")
     void testGetTransactions() {
@@ -313,10 +403,9 @@ class TransferServiceTest {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-        when(transactionRepository.findRecentByAccountIds(anyList(), any(PageRequest.class)))
+        when(transactionRepository.findRecentByAccountIds(anyList(), anyInt()))
                 .thenReturn(Arrays.asList(transaction));
-        when(accountService.getAccount(1L)).thenReturn(fromAccount);
-        when(accountService.getAccount(2L)).thenReturn(toAccount);
+        when(accountService.getAccountNumbers(Set.of(1L, 2L))).thenReturn(Map.of(1L, "1111111111", 2L, "2222222222"));
 
         // Act
         List<TransactionResponse> result = transferService.getRecentTransactionsByEmail("test@example.com", 10);
@@ -325,6 +414,57 @@ class TransferServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("TXN-20251206-ABC123", result.get(0).getTransactionReference());
+        assertEquals("1111111111", result.get(0).getFromAccountNumber());
+        assertEquals("2222222222", result.get(0).getToAccountNumber());
+        verify(accountService, never()).getAccount(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should page transaction history with a keyset cursor")
+    void testGetTransactionHistoryByEmail() {
+        // Arrange
+        when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(fromAccount, toAccount));
+
+        LocalDateTime now = LocalDateTime.now();
+        Transaction newer = Transaction.builder()
+                .id(2L).transactionReference("TXN-2").fromAccountId(1L).toAccountId(2L)
+                .amount(new BigDecimal("10.00")).description("Newer").timestamp(now)
+                .build();
+        Transaction older = Transaction.builder()
+                .id(1L).transactionReference("TXN-1").fromAccountId(1L).toAccountId(2L)
+                .amount(new BigDecimal("20.00")).description("Older").timestamp(now.minusMinutes(1))
+                .build();
+
+        when(transactionRepository.findRecentByAccountIds(anyList(), eq(2)))
+                .thenReturn(Arrays.asList(newer, older));
+        when(transactionRepository.findRecentByAccountIdsBefore(anyList(), eq(now), eq(2L), eq(2)))
+                .thenReturn(Arrays.asList(older));
+        when(accountService.getAccountNumbers(Set.of(1L, 2L))).thenReturn(Map.of(1L, "1111111111", 2L, "2222222222"));
+
+        // Act
+        CursorPage<TransactionResponse> first = transferService.getTransactionHistoryByEmail("test@example.com", null, 1);
+        CursorPage<TransactionResponse> second = transferService.getTransactionHistoryByEmail("test@example.com", first.getNextCursor(), 1);
+
+        // Assert
+        assertEquals(1, first.getItems().size());
+        assertEquals("TXN-2", first.getItems().get(0).getTransactionReference());
+        assertTrue(first.isHasMore());
+        assertNotNull(first.getNextCursor());
+        assertEquals(1, second.getItems().size());
+        assertEquals("TXN-1", second.getItems().get(0).getTransactionReference());
+        assertFalse(second.isHasMore());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed history cursor")
+    void testGetTransactionHistoryInvalidCursor() {
+        // Arrange
+        when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(fromAccount, toAccount));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> transferService.getTransactionHistoryByEmail("test@example.com", "not-a-cursor", 10));
     }
 
     @Test
@@ -344,8 +484,7 @@ class TransferServiceTest {
         when(transactionRepository.findByTransactionReference("TXN-20251206-ABC123"))
                 .thenReturn(Optional.of(transaction));
         when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(fromAccount, toAccount));
-        when(accountService.getAccount(1L)).thenReturn(fromAccount);
-        when(accountService.getAccount(2L)).thenReturn(toAccount);
+        when(accountService.getAccountNumbers(Set.of(1L, 2L))).thenReturn(Map.of(1L, "1111111111", 2L, "2222222222"));
 
         // Act
         TransactionResponse result = transferService.searchByReference("TXN-20251206-ABC123", "test@example.com");
@@ -412,8 +551,7 @@ class TransferServiceTest {
 
         when(transactionRepository.findAllRecent(any(PageRequest.class)))
                 .thenReturn(Arrays.asList(transaction));
-        when(accountService.getAccount(1L)).thenReturn(fromAccount);
-        when(accountService.getAccount(2L)).thenReturn(toAccount);
+        when(accountService.getAccountNumbers(Set.of(1L, 2L))).thenReturn(Map.of(1L, "1111111111", 2L, "2222222222"));
 
         // Act
         List<TransactionResponse> result = transferService.getAllTransactions(10);
@@ -422,4 +560,50 @@ class TransferServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
     }
+
+    @Test
+    @DisplayName("Should return description matches newest first")
+    void testSearchByDescription() {
+        // Arrange
+        Transaction older = Transaction.builder()
+                .id(3L)
+                .transactionReference("TXN-20251206-ABC123")
+                .fromAccountId(1L)
+                .toAccountId(2L)
+                .amount(new BigDecimal("1200.00"))
+                .description("Rent October")
+                .timestamp(LocalDateTime.now().minusMonths(1))
+                .build();
+        Transaction newer = Transaction.builder()
+                .id(7L)
+                .transactionReference("TXN-20251206-DEF456")
+                .fromAccountId(1L)
+                .toAccountId(2L)
+                .amount(new BigDecimal("1200.00"))
+                .description("Rent November")
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        when(accountService.getAccountsByEmail("test@example.com")).thenReturn(Arrays.asList(fromAccount, toAccount));
+        when(searchIndex.search(List.of(1L, 2L), "ren", 10)).thenReturn(List.of(7L, 3L));
+        when(transactionRepository.findAllById(List.of(7L, 3L))).thenReturn(Arrays.asList(older, newer));
+        when(accountService.getAccountNumbers(Set.of(1L, 2L))).thenReturn(Map.of(1L, "1111111111", 2L, "2222222222"));
+
+        // Act
+        List<TransactionResponse> result = transferService.searchByDescription("ren", "test@example.com", 10);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals("Rent November", result.get(0).getDescription());
+        assertEquals("Rent October", result.get(1).getDescription());
+    }
+
+    @Test
+    @DisplayName("Should reject blank search text")
+    void testSearchByDescriptionBlank() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> transferService.searchByDescription("  ", "test@example.com", 10));
+        verifyNoInteractions(searchIndex);
+    }
 }
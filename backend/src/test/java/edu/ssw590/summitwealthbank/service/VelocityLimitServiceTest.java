@@ -0,0 +1,76 @@
+package edu.ssw590.summitwealthbank.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("VelocityLimitService Unit Tests")
+class VelocityLimitServiceTest {
+
+    private static final String EMAIL = "velocity@example.com";
+
+    @Mock
+    private StockQuoteCache stockQuoteCache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private VelocityLimitService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new VelocityLimitService(stockQuoteCache, meterRegistry);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "windowSeconds", 60L);
+        ReflectionTestUtils.setField(service, "transferMaxRequests", 30L);
+        ReflectionTestUtils.setField(service, "transferMaxVolume", new BigDecimal("1000"));
+        ReflectionTestUtils.setField(service, "tradeMaxRequests", 60L);
+        ReflectionTestUtils.setField(service, "tradeMaxVolume", new BigDecimal("5000"));
+        service.init();
+    }
+
+    @Test
+    @DisplayName("Should admit transfers up to the volume limit and reject the next one")
+    void testTransferVolume() {
+        // Act
+        long first = service.checkTransfer(EMAIL, new BigDecimal("600.00"));
+        long second = service.checkTransfer(EMAIL, new BigDecimal("400.00"));
+        long third = service.checkTransfer(EMAIL, new BigDecimal("0.01"));
+
+        // Assert
+        assertEquals(0, first);
+        assertEquals(0, second);
+        assertTrue(third > 0);
+        assertEquals(1.0, meterRegistry.counter("bank.velocity.rejected", "operation", "transfer").count());
+    }
+
+    @Test
+    @DisplayName("Should reject amounts too large to count in cents instead of failing")
+    void testHugeAmount() {
+        // Arrange
+        BigDecimal huge = new BigDecimal("1e30");
+        when(stockQuoteCache.find("AAPL")).thenReturn(Optional.of(quote("150.00")));
+
+        // Act & Assert
+        assertTrue(service.checkTransfer(EMAIL, huge) > 0);
+        assertTrue(service.checkTrade(EMAIL, "AAPL", Long.MAX_VALUE) > 0);
+        assertTrue(service.checkBasket(EMAIL, Map.of("AAPL", Long.MAX_VALUE)) > 0);
+        assertEquals(0, service.checkTransfer(EMAIL, new BigDecimal("10.00")));
+    }
+
+    private StockQuoteCache.Quote quote(String price) {
+        return new StockQuoteCache.Quote("AAPL", "Apple Inc.", new BigDecimal(price), 1_000_000, "Technology", 1);
+    }
+}
@@ -0,0 +1,87 @@
+package edu.ssw590.summitwealthbank.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CandleAggregator Unit Tests")
+class CandleAggregatorTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    @DisplayName("Should build one-minute candles and close them when the next minute starts")
+    void testMinuteCandles() {
+        // Arrange
+        CandleAggregator aggregator = new CandleAggregator(10);
+        List<Candle> closed = new ArrayList<>();
+
+        // Act
+        aggregator.record(1_000, 10_000, closed);
+        aggregator.record(30_000, 10_500, closed);
+        aggregator.record(20_000, 9_800, closed);    // earlier tick arriving late
+        aggregator.record(50_000, 10_200, closed);
+        aggregator.record(MINUTE + 5_000, 10_300, closed);
+
+        // Assert
+        assertEquals(1, closed.size());
+        Candle first = closed.get(0);
+        assertEquals(CandleInterval.ONE_MINUTE, first.interval());
+        assertEquals(0, first.start());
+        assertEquals(10_000, first.open());
+        assertEquals(10_500, first.high());
+        assertEquals(9_800, first.low());
+        assertEquals(10_200, first.close());
+        assertFalse(aggregator.record(59_000, 10_000, closed));
+    }
+
+    @Test
+    @DisplayName("Should roll closed candles up into the coarser intervals")
+    void testRollUp() {
+        // Arrange
+        CandleAggregator aggregator = new CandleAggregator(10);
+        List<Candle> closed = new ArrayList<>();
+
+        // Act: one price a minute for five minutes, then close everything
+        for (int minute = 0; minute < 5; minute++) {
+            aggregator.record(minute * MINUTE, 10_000 + minute * 100, closed);
+        }
+        aggregator.closeUpTo(5 * MINUTE, closed);
+
+        // Assert
+        assertEquals(6, closed.size());
+        Candle fiveMinutes = closed.get(5);
+        assertEquals(CandleInterval.FIVE_MINUTES, fiveMinutes.interval());
+        assertEquals(10_000, fiveMinutes.open());
+        assertEquals(10_400, fiveMinutes.high());
+        assertEquals(10_000, fiveMinutes.low());
+        assertEquals(10_400, fiveMinutes.close());
+    }
+
+    @Test
+    @DisplayName("Should include the open finer candles when reading a coarse interval")
+    void testOpenView() {
+        // Arrange
+        CandleAggregator aggregator = new CandleAggregator(10);
+        List<Candle> closed = new ArrayList<>();
+        aggregator.record(0, 10_000, closed);
+        aggregator.record(MINUTE, 9_000, closed);
+        aggregator.record(2 * MINUTE + 1, 9_500, closed);
+
+        // Act
+        List<Candle> hour = aggregator.candles(CandleInterval.ONE_HOUR, 0, Long.MAX_VALUE);
+        List<Candle> minutes = aggregator.candles(CandleInterval.ONE_MINUTE, MINUTE, Long.MAX_VALUE);
+
+        // Assert
+        assertEquals(1, hour.size());
+        assertEquals(10_000, hour.get(0).open());
+        assertEquals(9_000, hour.get(0).low());
+        assertEquals(9_500, hour.get(0).close());
+        assertEquals(2, minutes.size());
+        assertEquals(0, aggregator.heldFrom(CandleInterval.ONE_DAY));
+    }
+}
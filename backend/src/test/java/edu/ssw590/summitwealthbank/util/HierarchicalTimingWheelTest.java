@@ -0,0 +1,80 @@
+package edu.ssw590.summitwealthbank.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HierarchicalTimingWheel Unit Tests")
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    @DisplayName("Should fire a timer on its tick and not before")
+    void testFiresOnDueTick() {
+        // Arrange
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 60, 3, START);
+        wheel.add("rent", START + 5_000);
+
+        // Act & Assert
+        assertTrue(wheel.advance(START + 4_999).isEmpty());
+        assertEquals(List.of("rent"), wheel.advance(START + 5_000));
+        assertTrue(wheel.advance(START + 10_000).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should cascade timers from outer levels down to the exact tick")
+    void testCascadesAcrossLevels() {
+        // Arrange
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1000, 60, 3, START);
+        long[] offsets = {59, 60, 61, 3_599, 3_600, 3_601, 7_261, 150_000};
+        for (long offset : offsets) {
+            assertTrue(wheel.add(offset, START + offset * 1000));
+        }
+
+        // Act
+        List<Long> fired = new ArrayList<>();
+        List<Long> firedAt = new ArrayList<>();
+        for (long second = 1; second <= 150_000; second++) {
+            for (Long item : wheel.advance(START + second * 1000)) {
+                fired.add(item);
+                firedAt.add(second);
+            }
+        }
+
+        // Assert
+        assertEquals(offsets.length, fired.size());
+        for (int i = 0; i < fired.size(); i++) {
+            assertEquals(fired.get(i), firedAt.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should fire overdue timers on the next advance")
+    void testOverdueTimers() {
+        // Arrange
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 60, 3, START);
+
+        // Act
+        wheel.add("missed", START - 86_400_000L);
+
+        // Assert
+        assertEquals(List.of("missed"), wheel.advance(START));
+    }
+
+    @Test
+    @DisplayName("Should reject timers beyond the horizon")
+    void testRejectsBeyondHorizon() {
+        // Arrange
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 60, 3, START);
+
+        // Act & Assert
+        assertEquals(216_000_000L, wheel.horizonMillis());
+        assertFalse(wheel.add("far", START + wheel.horizonMillis()));
+        assertTrue(wheel.add("near", START + wheel.horizonMillis() - 1000));
+    }
+}
@@ -0,0 +1,51 @@
+package edu.ssw590.summitwealthbank.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LatestPriceTable Unit Tests")
+class LatestPriceTableTest {
+
+    @Test
+    @DisplayName("Should return only the latest price of each symbol changed since a sequence")
+    void testLatestWins() {
+        // Arrange
+        LatestPriceTable table = new LatestPriceTable();
+        table.update("AAPL", new BigDecimal("170.00"));
+        long seen = table.update("MSFT", new BigDecimal("400.00"));
+        table.update("AAPL", new BigDecimal("171.00"));
+        table.update("AAPL", new BigDecimal("172.00"));
+        table.update("TSLA", new BigDecimal("250.00"));
+
+        // Act
+        Map<String, BigDecimal> changed = table.since(seen, table.head());
+
+        // Assert
+        assertEquals(Map.of("AAPL", new BigDecimal("172.00"), "TSLA", new BigDecimal("250.00")), changed);
+        assertEquals(3, table.since(0, table.head()).size());
+        assertTrue(table.since(table.head(), table.head()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should leave out symbols updated after head until the next call")
+    void testUpdatesAfterHead() {
+        // Arrange
+        LatestPriceTable table = new LatestPriceTable();
+        table.update("AAPL", new BigDecimal("170.00"));
+        long head = table.head();
+        table.update("AAPL", new BigDecimal("175.00"));
+
+        // Act
+        Map<String, BigDecimal> first = table.since(0, head);
+        Map<String, BigDecimal> next = table.since(head, table.head());
+
+        // Assert
+        assertTrue(first.isEmpty());
+        assertEquals(Map.of("AAPL", new BigDecimal("175.00")), next);
+    }
+}
@@ -0,0 +1,210 @@
+package edu.ssw590.summitwealthbank.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OrderBook Unit Tests")
+class OrderBookTest {
+
+    private record Fill(long taker, long maker, long price, long quantity) {
+    }
+
+    private record SelfTrade(long taker, long maker, long quantity) {
+    }
+
+    private final List<Fill> fills = new ArrayList<>();
+    private final List<SelfTrade> selfTrades = new ArrayList<>();
+    private final OrderBook.FillListener recorder = new OrderBook.FillListener() {
+        @Override
+        public void onFill(long taker, long maker, long price, long quantity) {
+            fills.add(new Fill(taker, maker, price, quantity));
+        }
+
+        @Override
+        public void onSelfTradeCancel(long taker, long maker, long quantity) {
+            selfTrades.add(new SelfTrade(taker, maker, quantity));
+        }
+    };
+
+    @Test
+    @DisplayName("Should match at the resting price in price then time order")
+    void testPriceTimePriority() {
+        // Arrange
+        OrderBook book = new OrderBook(16);
+        book.submit(1, 1, false, 10_100, 50, true, recorder);
+        book.submit(2, 2, false, 10_000, 30, true, recorder);
+        book.submit(3, 3, false, 10_000, 40, true, recorder);
+
+        // Act
+        long left = book.submit(4, 4, true, 10_100, 100, true, recorder);
+
+        // Assert
+        assertEquals(0, left);
+        assertEquals(List.of(
+                new Fill(4, 2, 10_000, 30),
+                new Fill(4, 3, 10_000, 40),
+                new Fill(4, 1, 10_100, 30)), fills);
+        assertEquals(10_100, book.bestAsk());
+        assertEquals(OrderBook.NO_PRICE, book.bestBid());
+        assertEquals(1, book.size());
+    }
+
+    @Test
+    @DisplayName("Should rest the unfilled part of a limit order and drop it for a market order")
+    void testRestAndMarketRemainder() {
+        // Arrange
+        OrderBook book = new OrderBook(16);
+        book.submit(1, 1, true, 9_900, 20, true, recorder);
+
+        // Act
+        long limitLeft = book.submit(2, 2, false, 9_800, 50, true, recorder);
+        long marketLeft = book.submit(3, 3, true, Long.MAX_VALUE, 100, false, recorder);
+
+        // Assert
+        assertEquals(30, limitLeft);
+        assertEquals(70, marketLeft);
+        assertEquals(List.of(new Fill(2, 1, 9_900, 20), new Fill(3, 2, 9_800, 30)), fills);
+        assertEquals(0, book.size());
+        assertEquals(OrderBook.NO_PRICE, book.bestAsk());
+    }
+
+    @Test
+    @DisplayName("Should cancel resting orders and report the cancelled quantity")
+    void testCancel() {
+        // Arrange
+        OrderBook book = new OrderBook(16);
+        book.submit(1, 1, true, 10_000, 10, true, recorder);
+        book.submit(2, 2, true, 10_000, 20, true, recorder);
+        book.submit(3, 3, true, 9_900, 30, true, recorder);
+
+        // Act & Assert
+        assertEquals(10, book.cancel(1));
+        assertEquals(0, book.cancel(1));
+        assertEquals(30, book.cancel(3));
+
+        long[] prices = new long[5];
+        long[] quantities = new long[5];
+        assertEquals(1, book.depth(true, prices, quantities));
+        assertEquals(10_000, prices[0]);
+        assertEquals(20, quantities[0]);
+
+        book.submit(4, 4, false, 9_000, 25, true, recorder);
+        assertEquals(List.of(new Fill(4, 2, 10_000, 20)), fills);
+        assertEquals(9_000, book.bestAsk());
+    }
+
+    @Test
+    @DisplayName("Should cancel a resting order of the taker's owner and match behind it")
+    void testSelfTradePrevention() {
+        // Arrange: owner 7 rests the best ask, owner 8 the one behind it
+        OrderBook book = new OrderBook(16);
+        book.submit(1, 7, false, 10_000, 30, true, recorder);
+        book.submit(2, 8, false, 10_000, 40, true, recorder);
+        book.submit(3, 7, false, 10_100, 50, true, recorder);
+
+        // Act
+        long left = book.submit(4, 7, true, 10_100, 100, true, recorder);
+
+        // Assert
+        assertEquals(60, left);
+        assertEquals(List.of(new Fill(4, 2, 10_000, 40)), fills);
+        assertEquals(List.of(new SelfTrade(4, 1, 30), new SelfTrade(4, 3, 50)), selfTrades);
+        assertEquals(10_100, book.bestBid());
+        assertEquals(OrderBook.NO_PRICE, book.bestAsk());
+        assertEquals(1, book.size());
+        assertEquals(0, book.cancel(1));
+    }
+
+    @Test
+    @DisplayName("Should stay consistent with a naive model under random order flow")
+    void testRandomFlowMatchesVolume() {
+        // Arrange
+        OrderBook book = new OrderBook(16);
+        Random random = new Random(42);
+        long submitted = 0;
+        long cancelled = 0;
+        long unfilledMarket = 0;
+
+        // Act
+        for (long id = 1; id <= 50_000; id++) {
+            long quantity = 1 + random.nextInt(100);
+            boolean buy = random.nextBoolean();
+            submitted += quantity;
+            if (random.nextInt(10) == 0) {
+                unfilledMarket += book.submit(id, id, buy, buy ? Long.MAX_VALUE : 0, quantity, false, recorder);
+            } else {
+                book.submit(id, id, buy, 10_000 + random.nextInt(200) - 100, quantity, true, recorder);
+            }
+            if (random.nextInt(4) == 0) {
+                cancelled += book.cancel(id - random.nextInt((int) Math.min(id, 500)));
+            }
+        }
+
+        // Assert: every share is either traded (on both sides), cancelled, dropped or still resting
+        long traded = fills.stream().mapToLong(Fill::quantity).sum();
+        long resting = restingVolume(book, true) + restingVolume(book, false);
+        assertTrue(selfTrades.isEmpty());
+        assertEquals(submitted, 2 * traded + cancelled + unfilledMarket + resting);
+        assertTrue(book.bestBid() == OrderBook.NO_PRICE || book.bestAsk() == OrderBook.NO_PRICE
+                || book.bestBid() < book.bestAsk(), "book must not be crossed");
+    }
+
+    // Timing depends on the machine, so this only runs when the benchmark group is selected
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Should sustain well over 100k order events per second in the book alone, without persistence")
+    void testThroughput() {
+        // Arrange
+        OrderBook book = new OrderBook(1 << 16);
+        Random random = new Random(7);
+        int events = 2_000_000;
+        long[] sides = new long[events];
+        long[] limits = new long[events];
+        for (int i = 0; i < events; i++) {
+            sides[i] = random.nextInt(2);
+            limits[i] = 10_000 + random.nextInt(100) - 50;
+        }
+        long[] traded = new long[1];
+        OrderBook.FillListener counter = (taker, maker, price, quantity) -> traded[0] += quantity;
+
+        // Act: a warm-up pass, then the measured pass
+        runFlow(book, sides, limits, counter, 0, events / 4);
+        long start = System.nanoTime();
+        runFlow(book, sides, limits, counter, events / 4, events);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double perSecond = (events - events / 4) / seconds;
+
+        // Assert
+        assertTrue(traded[0] > 0);
+        assertTrue(perSecond > 100_000, "order events per second: " + (long) perSecond);
+    }
+
+    private void runFlow(OrderBook book, long[] sides, long[] limits, OrderBook.FillListener listener, int from, int to) {
+        for (int i = from; i < to; i++) {
+            // Every fourth event cancels an order from a little earlier
+            if (i % 4 == 3) {
+                book.cancel(i - 20);
+            } else {
+                book.submit(i, i, sides[i] == 1, limits[i], 10, true, listener);
+            }
+        }
+    }
+
+    private long restingVolume(OrderBook book, boolean buy) {
+        long[] prices = new long[1_000];
+        long[] quantities = new long[1_000];
+        int levels = book.depth(buy, prices, quantities);
+        long total = 0;
+        for (int i = 0; i < levels; i++) {
+            total += quantities[i];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,52 @@
+package edu.ssw590.summitwealthbank.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PriceTickBuffer Unit Tests")
+class PriceTickBufferTest {
+
+    @Test
+    @DisplayName("Should keep ticks pending in order until they are discarded")
+    void testPendingAndDiscard() {
+        // Arrange
+        PriceTickBuffer buffer = new PriceTickBuffer(4);
+        buffer.add(1_000, 17_550);
+        buffer.add(2_000, 17_560);
+        buffer.add(3_000, 17_540);
+
+        // Act
+        buffer.discard(2);
+        buffer.add(4_000, 17_600);
+
+        // Assert
+        assertEquals(2, buffer.pending());
+        assertEquals(3_000, buffer.timeAt(0));
+        assertEquals(17_540, buffer.centsAt(0));
+        assertEquals(17_600, buffer.centsAt(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.centsAt(2));
+    }
+
+    @Test
+    @DisplayName("Should overwrite the oldest pending tick when full")
+    void testOverwriteWhenFull() {
+        // Arrange
+        PriceTickBuffer buffer = new PriceTickBuffer(3);
+        buffer.add(1_000, 100);
+        buffer.add(2_000, 101);
+        buffer.add(3_000, 102);
+
+        // Act
+        boolean kept = buffer.add(4_000, 103);
+
+        // Assert
+        assertFalse(kept);
+        assertEquals(3, buffer.pending());
+        assertEquals(101, buffer.centsAt(0));
+        assertEquals(103, buffer.centsAt(2));
+        buffer.discard(10);
+        assertEquals(0, buffer.pending());
+    }
+}
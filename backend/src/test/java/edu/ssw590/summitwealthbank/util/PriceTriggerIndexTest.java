@@ -0,0 +1,66 @@
+package edu.ssw590.summitwealthbank.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PriceTriggerIndex Unit Tests")
+class PriceTriggerIndexTest {
+
+    @Test
+    @DisplayName("Should fire only the thresholds the new price crossed, nearest first")
+    void testFireCrossedOnly() {
+        // Arrange
+        PriceTriggerIndex index = new PriceTriggerIndex();
+        index.add(1, "AAPL", true, 17_000);   // buy if it drops to 170
+        index.add(2, "AAPL", true, 16_500);   // buy if it drops to 165
+        index.add(3, "AAPL", true, 17_000);   // same price, added later
+        index.add(4, "AAPL", false, 18_000);  // sell if it rises to 180
+        index.add(5, "MSFT", true, 40_000);
+
+        // Act & Assert
+        assertEquals(List.of(), index.fire("AAPL", 17_500));
+        assertEquals(List.of(1L, 3L), index.fire("AAPL", 16_800));
+        assertEquals(List.of(4L), index.fire("AAPL", 18_000));
+        assertEquals(List.of(2L), index.fire("AAPL", 10_000));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Should fire each entry once and not after it is removed")
+    void testFireOnceAndRemove() {
+        // Arrange
+        PriceTriggerIndex index = new PriceTriggerIndex();
+        index.add(1, "AAPL", false, 18_000);
+        index.add(2, "AAPL", false, 18_500);
+
+        // Act
+        boolean removed = index.remove(2);
+        List<Long> fired = index.fire("AAPL", 19_000);
+
+        // Assert
+        assertTrue(removed);
+        assertFalse(index.remove(2));
+        assertEquals(List.of(1L), fired);
+        assertEquals(List.of(), index.fire("AAPL", 19_000));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    @DisplayName("Should move an entry when it is added again with a new threshold")
+    void testReAdd() {
+        // Arrange
+        PriceTriggerIndex index = new PriceTriggerIndex();
+        index.add(1, "AAPL", true, 17_000);
+
+        // Act
+        index.add(1, "AAPL", true, 15_000);
+
+        // Assert
+        assertEquals(List.of(), index.fire("AAPL", 16_000));
+        assertEquals(List.of(1L), index.fire("AAPL", 15_000));
+    }
+}
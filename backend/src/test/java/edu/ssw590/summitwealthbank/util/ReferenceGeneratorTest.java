@@ -0,0 +1,107 @@
+package edu.ssw590.summitwealthbank.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ReferenceGenerator Unit Tests")
+class ReferenceGeneratorTest {
+
+    @Test
+    @DisplayName("Should keep the prefix and date format")
+    void testReferenceFormat() {
+        // Arrange
+        ReferenceGenerator generator = new ReferenceGenerator();
+
+        // Act
+        String reference = generator.next("TXN");
+
+        // Assert
+        assertTrue(reference.matches("TXN-\\d{8}-[0-9A-Z]{13}"), reference);
+    }
+
+    @Test
+    @DisplayName("Should generate strictly increasing ids")
+    void testMonotonicIds() {
+        // Arrange
+        ReferenceGenerator generator = new ReferenceGenerator();
+        long previous = generator.nextId();
+
+        // Act & Assert
+        for (int i = 0; i < 100_000; i++) {
+            long next = generator.nextId();
+            assertTrue(next > previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    @DisplayName("Should not repeat references across threads")
+    void testUniqueAcrossThreads() throws Exception {
+        // Arrange
+        ReferenceGenerator generator = new ReferenceGenerator();
+        Set<String> references = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    references.add(generator.next("STK"));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(160_000, references.size());
+    }
+
+    @Test
+    @DisplayName("Should not collide between nodes")
+    void testUniqueAcrossNodes() {
+        // Arrange
+        ReferenceGenerator node1 = new ReferenceGenerator();
+        ReferenceGenerator node2 = new ReferenceGenerator();
+        ReflectionTestUtils.setField(node1, "nodeId", 1L);
+        ReflectionTestUtils.setField(node2, "nodeId", 2L);
+        Set<Long> ids = new HashSet<>();
+
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(node1.nextId());
+            ids.add(node2.nextId());
+        }
+
+        // Assert
+        assertEquals(20_000, ids.size());
+    }
+
+    @Test
+    @DisplayName("Should reject node ids that do not fit in 10 bits")
+    void testInvalidNodeId() {
+        // Arrange
+        ReferenceGenerator generator = new ReferenceGenerator();
+        ReflectionTestUtils.setField(generator, "nodeId", 1024L);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, generator::validateNodeId);
+    }
+}
@@ -0,0 +1,100 @@
+package edu.ssw590.summitwealthbank.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SlidingWindowLimiter Unit Tests")
+class SlidingWindowLimiterTest {
+
+    private static final long WINDOW = 60_000;
+    private static final long START = 1_700_000_040_000L - Math.floorMod(1_700_000_040_000L, WINDOW);
+
+    @Test
+    @DisplayName("Should reject requests over the count limit with a retry delay")
+    void testCountLimit() {
+        // Arrange
+        SlidingWindowLimiter limiter = new SlidingWindowLimiter(WINDOW, 3, Long.MAX_VALUE);
+
+        // Act & Assert
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("user@example.com", 0, START + 1_000));
+        }
+        long retryAfter = limiter.tryAcquire("user@example.com", 0, START + 1_000);
+        assertTrue(retryAfter > 0 && retryAfter <= 2 * WINDOW, "retry after " + retryAfter);
+        assertEquals(0, limiter.tryAcquire("other@example.com", 0, START + 1_000));
+    }
+
+    @Test
+    @DisplayName("Should weight the previous window by its remaining overlap")
+    void testSlidingWeight() {
+        // Arrange
+        SlidingWindowLimiter limiter = new SlidingWindowLimiter(WINDOW, 4, Long.MAX_VALUE);
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire("user@example.com", 0, START + 59_000);
+        }
+
+        // Act & Assert: a quarter into the next window the previous 4 still count as 3
+        assertEquals(0, limiter.tryAcquire("user@example.com", 0, START + WINDOW + 15_000));
+        assertTrue(limiter.tryAcquire("user@example.com", 0, START + WINDOW + 15_000) > 0);
+        // Halfway the previous window counts as 2, plus 1 in the current one
+        assertEquals(0, limiter.tryAcquire("user@example.com", 0, START + WINDOW + 30_000));
+    }
+
+    @Test
+    @DisplayName("Should limit summed volume independently of count")
+    void testVolumeLimit() {
+        // Arrange
+        SlidingWindowLimiter limiter = new SlidingWindowLimiter(WINDOW, 100, 10_000);
+
+        // Act & Assert
+        assertEquals(0, limiter.tryAcquire("user@example.com", 6_000, START));
+        assertTrue(limiter.tryAcquire("user@example.com", 6_000, START) > 0);
+        assertEquals(0, limiter.tryAcquire("user@example.com", 4_000, START));
+    }
+
+    @Test
+    @DisplayName("Should admit exactly the limit under concurrent requests")
+    void testConcurrentAcquire() throws Exception {
+        // Arrange
+        SlidingWindowLimiter limiter = new SlidingWindowLimiter(WINDOW, 500, Long.MAX_VALUE);
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int i = 0; i < 2_000; i++) {
+            executor.submit(() -> {
+                if (limiter.tryAcquire("user@example.com", 0, START + 1_000) == 0) {
+                    admitted.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(500, admitted.get());
+    }
+
+    @Test
+    @DisplayName("Should evict keys idle for two windows")
+    void testEvictIdle() {
+        // Arrange
+        SlidingWindowLimiter limiter = new SlidingWindowLimiter(WINDOW, 10, Long.MAX_VALUE);
+        limiter.tryAcquire("idle@example.com", 0, START);
+        limiter.tryAcquire("active@example.com", 0, START + WINDOW);
+
+        // Act
+        int evicted = limiter.evictIdle(START + 2 * WINDOW + 1);
+
+        // Assert
+        assertEquals(1, evicted);
+        assertEquals(1, limiter.size());
+    }
+}
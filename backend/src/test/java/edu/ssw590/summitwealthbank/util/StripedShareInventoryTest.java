@@ -0,0 +1,90 @@
+package edu.ssw590.summitwealthbank.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StripedShareInventory Unit Tests")
+class StripedShareInventoryTest {
+
+    @Test
+    @DisplayName("Should take shares only while enough are held")
+    void testTakeWithinHeld() {
+        // Arrange
+        StripedShareInventory inventory = new StripedShareInventory(4);
+        inventory.add(10);
+
+        // Act & Assert
+        assertTrue(inventory.tryTake(7));
+        assertFalse(inventory.tryTake(4));
+        assertEquals(3, inventory.held());
+        assertTrue(inventory.tryTake(3));
+        assertEquals(0, inventory.held());
+    }
+
+    @Test
+    @DisplayName("Should gather shares spread across stripes and drain them all")
+    void testGatherAndDrain() throws Exception {
+        // Arrange: each thread adds to its own stripe
+        StripedShareInventory inventory = new StripedShareInventory(8);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(() -> inventory.add(5)));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+            thread.join();
+        }
+
+        // Act
+        boolean tookTooMany = inventory.tryTake(41);
+        boolean tookAll = inventory.tryTake(30);
+
+        // Assert
+        assertFalse(tookTooMany);
+        assertTrue(tookAll);
+        assertEquals(10, inventory.drain());
+        assertEquals(0, inventory.held());
+    }
+
+    @Test
+    @DisplayName("Should never hand out more shares than were added under contention")
+    void testConcurrentTakes() throws Exception {
+        // Arrange
+        StripedShareInventory inventory = new StripedShareInventory(8);
+        inventory.add(100_000);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // Act: 8 threads try to take 160,000 single shares in total
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            results.add(pool.submit(() -> {
+                int taken = 0;
+                for (int i = 0; i < 20_000; i++) {
+                    if (inventory.tryTake(1)) {
+                        taken++;
+                    }
+                }
+                return taken;
+            }));
+        }
+        int total = 0;
+        for (Future<Integer> result : results) {
+            total += result.get();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(100_000, total);
+        assertEquals(0, inventory.held());
+    }
+}
@@ -0,0 +1,87 @@
+package edu.ssw590.summitwealthbank.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TtlCache Unit Tests")
+class TtlCacheTest {
+
+    @Test
+    @DisplayName("Should return stored values and null for missing keys")
+    void testPutAndGet() {
+        // Arrange
+        TtlCache<String, String> cache = new TtlCache<>(10, 60_000);
+
+        // Act
+        cache.put("a", "1");
+
+        // Assert
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used entry beyond the size limit")
+    void testLruEviction() {
+        // Arrange
+        TtlCache<String, String> cache = new TtlCache<>(2, 60_000);
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        // Act: reading a makes b the eldest
+        cache.get("a");
+        cache.put("c", "3");
+
+        // Assert
+        assertEquals(2, cache.size());
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+    }
+
+    @Test
+    @DisplayName("Should drop entries once their time-to-live has passed")
+    void testExpiry() throws InterruptedException {
+        // Arrange
+        TtlCache<String, String> cache = new TtlCache<>(10, 20);
+        cache.put("a", "1");
+
+        // Act
+        Thread.sleep(50);
+
+        // Assert
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should replace the value when a key is put again")
+    void testPutReplaces() {
+        // Arrange
+        TtlCache<String, String> cache = new TtlCache<>(10, 60_000);
+        cache.put("a", "1");
+
+        // Act
+        cache.put("a", "2");
+
+        // Assert
+        assertEquals("2", cache.get("a"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should remove entries on request")
+    void testRemove() {
+        // Arrange
+        TtlCache<String, String> cache = new TtlCache<>(10, 60_000);
+        cache.put("a", "1");
+
+        // Act
+        cache.remove("a");
+
+        // Assert
+        assertNull(cache.get("a"));
+    }
+}